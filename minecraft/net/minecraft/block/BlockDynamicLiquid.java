@@ -12,8 +12,6 @@ import net.minecraft.world.World;
 
 public class BlockDynamicLiquid extends BlockLiquid
 {
-    int adjacentSourceBlocks;
-
     protected BlockDynamicLiquid(Material materialIn)
     {
         super(materialIn);
@@ -39,11 +37,18 @@ public class BlockDynamicLiquid extends BlockLiquid
         if (i > 0)
         {
             int l = -100;
-            this.adjacentSourceBlocks = 0;
+            int l1 = 0;
 
             for (EnumFacing enumfacing : EnumFacing.Plane.HORIZONTAL)
             {
-                l = this.checkAdjacentBlock(worldIn, pos.offset(enumfacing), l);
+                BlockPos blockpos = pos.offset(enumfacing);
+
+                if (this.getLevel(worldIn, blockpos) == 0)
+                {
+                    ++l1;
+                }
+
+                l = this.checkAdjacentBlock(worldIn, blockpos, l);
             }
 
             int i1 = l + j;
@@ -67,7 +72,7 @@ public class BlockDynamicLiquid extends BlockLiquid
                 }
             }
 
-            if (this.adjacentSourceBlocks >= 2 && this.blockMaterial == Material.water)
+            if (l1 >= 2 && this.blockMaterial == Material.water)
             {
                 IBlockState iblockstate1 = worldIn.getBlockState(pos.down());
 
@@ -263,11 +268,6 @@ public class BlockDynamicLiquid extends BlockLiquid
         }
         else
         {
-            if (i == 0)
-            {
-                ++this.adjacentSourceBlocks;
-            }
-
             if (i >= 8)
             {
                 i = 0;
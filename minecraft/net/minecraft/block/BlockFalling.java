@@ -11,7 +11,8 @@ import net.minecraft.world.World;
 
 public class BlockFalling extends Block
 {
-    public static boolean fallInstantly;
+    /** Set by chunk providers while populating, per thread since worlds may populate concurrently */
+    public static final ThreadLocal<Boolean> fallInstantly = ThreadLocal.<Boolean>withInitial(() -> Boolean.FALSE);
 
     public BlockFalling()
     {
@@ -51,7 +52,7 @@ public class BlockFalling extends Block
         {
             int i = 32;
 
-            if (!fallInstantly && worldIn.isAreaLoaded(pos.add(-i, -i, -i), pos.add(i, i, i)))
+            if (!((Boolean)fallInstantly.get()).booleanValue() && worldIn.isAreaLoaded(pos.add(-i, -i, -i), pos.add(i, i, i)))
             {
                 if (!worldIn.isRemote)
                 {
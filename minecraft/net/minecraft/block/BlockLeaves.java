@@ -20,7 +20,9 @@ public abstract class BlockLeaves extends BlockLeavesBase
 {
     public static final PropertyBool DECAYABLE = PropertyBool.create("decayable");
     public static final PropertyBool CHECK_DECAY = PropertyBool.create("check_decay");
-    int[] surroundings;
+
+    /** Scratch space of the decay check, one per thread since the worlds may tick on several */
+    private final ThreadLocal<int[]> surroundings = ThreadLocal.<int[]>withInitial(() -> new int[32768]);
     protected int iconIndex;
     protected boolean isTransparent;
 
@@ -93,10 +95,7 @@ public abstract class BlockLeaves extends BlockLeavesBase
                 int k1 = j1 * j1;
                 int l1 = j1 / 2;
 
-                if (this.surroundings == null)
-                {
-                    this.surroundings = new int[j1 * j1 * j1];
-                }
+                int[] aint = (int[])this.surroundings.get();
 
                 if (worldIn.isAreaLoaded(new BlockPos(k - j, l - j, i1 - j), new BlockPos(k + j, l + j, i1 + j)))
                 {
@@ -114,16 +113,16 @@ public abstract class BlockLeaves extends BlockLeavesBase
                                 {
                                     if (block.getMaterial() == Material.leaves)
                                     {
-                                        this.surroundings[(i2 + l1) * k1 + (j2 + l1) * j1 + k2 + l1] = -2;
+                                        aint[(i2 + l1) * k1 + (j2 + l1) * j1 + k2 + l1] = -2;
                                     }
                                     else
                                     {
-                                        this.surroundings[(i2 + l1) * k1 + (j2 + l1) * j1 + k2 + l1] = -1;
+                                        aint[(i2 + l1) * k1 + (j2 + l1) * j1 + k2 + l1] = -1;
                                     }
                                 }
                                 else
                                 {
-                                    this.surroundings[(i2 + l1) * k1 + (j2 + l1) * j1 + k2 + l1] = 0;
+                                    aint[(i2 + l1) * k1 + (j2 + l1) * j1 + k2 + l1] = 0;
                                 }
                             }
                         }
@@ -137,36 +136,36 @@ public abstract class BlockLeaves extends BlockLeavesBase
                             {
                                 for (int l3 = -i; l3 <= i; ++l3)
                                 {
-                                    if (this.surroundings[(j3 + l1) * k1 + (k3 + l1) * j1 + l3 + l1] == i3 - 1)
+                                    if (aint[(j3 + l1) * k1 + (k3 + l1) * j1 + l3 + l1] == i3 - 1)
                                     {
-                                        if (this.surroundings[(j3 + l1 - 1) * k1 + (k3 + l1) * j1 + l3 + l1] == -2)
+                                        if (aint[(j3 + l1 - 1) * k1 + (k3 + l1) * j1 + l3 + l1] == -2)
                                         {
-                                            this.surroundings[(j3 + l1 - 1) * k1 + (k3 + l1) * j1 + l3 + l1] = i3;
+                                            aint[(j3 + l1 - 1) * k1 + (k3 + l1) * j1 + l3 + l1] = i3;
                                         }
 
-                                        if (this.surroundings[(j3 + l1 + 1) * k1 + (k3 + l1) * j1 + l3 + l1] == -2)
+                                        if (aint[(j3 + l1 + 1) * k1 + (k3 + l1) * j1 + l3 + l1] == -2)
                                         {
-                                            this.surroundings[(j3 + l1 + 1) * k1 + (k3 + l1) * j1 + l3 + l1] = i3;
+                                            aint[(j3 + l1 + 1) * k1 + (k3 + l1) * j1 + l3 + l1] = i3;
                                         }
 
-                                        if (this.surroundings[(j3 + l1) * k1 + (k3 + l1 - 1) * j1 + l3 + l1] == -2)
+                                        if (aint[(j3 + l1) * k1 + (k3 + l1 - 1) * j1 + l3 + l1] == -2)
                                         {
-                                            this.surroundings[(j3 + l1) * k1 + (k3 + l1 - 1) * j1 + l3 + l1] = i3;
+                                            aint[(j3 + l1) * k1 + (k3 + l1 - 1) * j1 + l3 + l1] = i3;
                                         }
 
-                                        if (this.surroundings[(j3 + l1) * k1 + (k3 + l1 + 1) * j1 + l3 + l1] == -2)
+                                        if (aint[(j3 + l1) * k1 + (k3 + l1 + 1) * j1 + l3 + l1] == -2)
                                         {
-                                            this.surroundings[(j3 + l1) * k1 + (k3 + l1 + 1) * j1 + l3 + l1] = i3;
+                                            aint[(j3 + l1) * k1 + (k3 + l1 + 1) * j1 + l3 + l1] = i3;
                                         }
 
-                                        if (this.surroundings[(j3 + l1) * k1 + (k3 + l1) * j1 + (l3 + l1 - 1)] == -2)
+                                        if (aint[(j3 + l1) * k1 + (k3 + l1) * j1 + (l3 + l1 - 1)] == -2)
                                         {
-                                            this.surroundings[(j3 + l1) * k1 + (k3 + l1) * j1 + (l3 + l1 - 1)] = i3;
+                                            aint[(j3 + l1) * k1 + (k3 + l1) * j1 + (l3 + l1 - 1)] = i3;
                                         }
 
-                                        if (this.surroundings[(j3 + l1) * k1 + (k3 + l1) * j1 + l3 + l1 + 1] == -2)
+                                        if (aint[(j3 + l1) * k1 + (k3 + l1) * j1 + l3 + l1 + 1] == -2)
                                         {
-                                            this.surroundings[(j3 + l1) * k1 + (k3 + l1) * j1 + l3 + l1 + 1] = i3;
+                                            aint[(j3 + l1) * k1 + (k3 + l1) * j1 + l3 + l1 + 1] = i3;
                                         }
                                     }
                                 }
@@ -175,7 +174,7 @@ public abstract class BlockLeaves extends BlockLeavesBase
                     }
                 }
 
-                int l2 = this.surroundings[l1 * k1 + l1 * j1 + l1];
+                int l2 = aint[l1 * k1 + l1 * j1 + l1];
 
                 if (l2 >= 0)
                 {
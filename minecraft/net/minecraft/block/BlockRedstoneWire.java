@@ -32,8 +32,13 @@ public class BlockRedstoneWire extends Block
     public static final PropertyEnum<BlockRedstoneWire.EnumAttachPosition> SOUTH = PropertyEnum.<BlockRedstoneWire.EnumAttachPosition>create("south", BlockRedstoneWire.EnumAttachPosition.class);
     public static final PropertyEnum<BlockRedstoneWire.EnumAttachPosition> WEST = PropertyEnum.<BlockRedstoneWire.EnumAttachPosition>create("west", BlockRedstoneWire.EnumAttachPosition.class);
     public static final PropertyInteger POWER = PropertyInteger.create("power", 0, 15);
-    private boolean canProvidePower = true;
-    private final Set<BlockPos> blocksNeedingUpdate = Sets.<BlockPos>newHashSet();
+
+    /**
+     * Whether wire gives power right now, off while a wire reads the power around it. Kept per thread, like
+     * blocksNeedingUpdate, since the worlds may tick on several.
+     */
+    private final ThreadLocal<Boolean> canProvidePower = ThreadLocal.<Boolean>withInitial(() -> Boolean.TRUE);
+    private final ThreadLocal<Set<BlockPos>> blocksNeedingUpdate = ThreadLocal.<Set<BlockPos>>withInitial(Sets::newHashSet);
 
     public BlockRedstoneWire()
     {
@@ -103,8 +108,9 @@ public class BlockRedstoneWire extends Block
     private IBlockState updateSurroundingRedstone(World worldIn, BlockPos pos, IBlockState state)
     {
         state = this.calculateCurrentChanges(worldIn, pos, pos, state);
-        List<BlockPos> list = Lists.newArrayList(this.blocksNeedingUpdate);
-        this.blocksNeedingUpdate.clear();
+        Set<BlockPos> set = (Set)this.blocksNeedingUpdate.get();
+        List<BlockPos> list = Lists.newArrayList(set);
+        set.clear();
 
         for (BlockPos blockpos : list)
         {
@@ -120,9 +126,9 @@ public class BlockRedstoneWire extends Block
         int i = ((Integer)state.getValue(POWER)).intValue();
         int j = 0;
         j = this.getMaxCurrentStrength(worldIn, pos2, j);
-        this.canProvidePower = false;
+        this.canProvidePower.set(Boolean.FALSE);
         int k = worldIn.isBlockIndirectlyGettingPowered(pos1);
-        this.canProvidePower = true;
+        this.canProvidePower.set(Boolean.TRUE);
 
         if (k > 0 && k > j - 1)
         {
@@ -181,11 +187,12 @@ public class BlockRedstoneWire extends Block
                 worldIn.setBlockState(pos1, state, 2);
             }
 
-            this.blocksNeedingUpdate.add(pos1);
+            Set<BlockPos> set = (Set)this.blocksNeedingUpdate.get();
+            set.add(pos1);
 
             for (EnumFacing enumfacing1 : EnumFacing.values())
             {
-                this.blocksNeedingUpdate.add(pos1.offset(enumfacing1));
+                set.add(pos1.offset(enumfacing1));
             }
         }
 
@@ -317,12 +324,12 @@ public class BlockRedstoneWire extends Block
 
     public int getStrongPower(IBlockAccess worldIn, BlockPos pos, IBlockState state, EnumFacing side)
     {
-        return !this.canProvidePower ? 0 : this.getWeakPower(worldIn, pos, state, side);
+        return !this.canProvidePower() ? 0 : this.getWeakPower(worldIn, pos, state, side);
     }
 
     public int getWeakPower(IBlockAccess worldIn, BlockPos pos, IBlockState state, EnumFacing side)
     {
-        if (!this.canProvidePower)
+        if (!this.canProvidePower())
         {
             return 0;
         }
@@ -410,7 +417,7 @@ public class BlockRedstoneWire extends Block
      */
     public boolean canProvidePower()
     {
-        return this.canProvidePower;
+        return ((Boolean)this.canProvidePower.get()).booleanValue();
     }
 
     private int colorMultiplier(int powerLevel)
@@ -20,6 +20,7 @@ import net.minecraft.client.renderer.OpenGlHelper;
 import net.minecraft.client.renderer.texture.TextureMap;
 import net.minecraft.entity.Entity;
 import net.minecraft.entity.player.EntityPlayerMP;
+import net.minecraft.network.NetworkManager;
 import net.minecraft.src.Config;
 import net.minecraft.util.BlockPos;
 import net.minecraft.util.EnumChatFormatting;
@@ -31,8 +32,10 @@ import net.minecraft.world.DifficultyInstance;
 import net.minecraft.world.EnumSkyBlock;
 import net.minecraft.world.WorldType;
 import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.storage.RegionFileCache;
 import net.optifine.SmartAnimations;
 import net.optifine.TextureAnimations;
+import net.optifine.render.VboRegion;
 import net.optifine.reflect.Reflector;
 import net.optifine.util.MemoryMonitor;
 import net.optifine.util.NativeMemory;
@@ -222,6 +225,13 @@ public class GuiOverlayDebug extends Gui {
 				  new Object[] { Float.valueOf(difficultyinstance.getAdditionalDifficulty()),
 						Long.valueOf(this.mc.theWorld.getWorldTime() / 24000L) }));
 		 }
+		 if (this.mc.isIntegratedServerRunning()) {
+			list.add(RegionFileCache.getDebugInfo());
+			list.add(NetworkManager.getDebugInfo());
+		 }
+		 if (Config.isRenderRegions()) {
+			list.add(VboRegion.getDebugInfo());
+		 }
 		 if (this.mc.entityRenderer != null && this.mc.entityRenderer.isShaderActive()) {
 			list.add("Shader: " + this.mc.entityRenderer.getShaderGroup().getShaderGroupName());
 		 }
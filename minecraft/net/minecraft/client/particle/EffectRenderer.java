@@ -32,6 +32,7 @@ import net.minecraft.util.ReportedException;
 import net.minecraft.util.ResourceLocation;
 import net.minecraft.world.World;
 import net.optifine.reflect.Reflector;
+import pisi.unitedmeows.minecraft.Settings;
 
 public class EffectRenderer
 {
@@ -47,10 +48,17 @@ public class EffectRenderer
     private Random rand = new Random();
     private Map<Integer, IParticleFactory> particleTypes = Maps.<Integer, IParticleFactory>newHashMap();
 
+    /** Explosion, redstone and water drop particles, drawn with the opaque misc texture layer */
+    private ParticlePool particlePool;
+
+    /** Whether the last call to spawnEffectParticle sent its particle to the particle pool */
+    private boolean lastSpawnPooled;
+
     public EffectRenderer(World worldIn, TextureManager rendererIn)
     {
         this.worldObj = worldIn;
         this.renderer = rendererIn;
+        this.particlePool = new ParticlePool(worldIn);
 
         for (int i = 0; i < 4; ++i)
         {
@@ -130,10 +138,17 @@ public class EffectRenderer
      * @param ySpeed Y speed of the particle
      * @param zSpeed Z speed of the particle
      * @param parameters Parameters for the particle (color for redstone, ...)
+     * @return the particle, or null if none was spawned or it went to the particle pool
      */
     public EntityFX spawnEffectParticle(int particleId, double xCoord, double yCoord, double zCoord, double xSpeed, double ySpeed, double zSpeed, int... parameters)
     {
         IParticleFactory iparticlefactory = (IParticleFactory)this.particleTypes.get(Integer.valueOf(particleId));
+        this.lastSpawnPooled = Settings.POOLED_PARTICLES && iparticlefactory != null && this.spawnPooledParticle(iparticlefactory, xCoord, yCoord, zCoord, xSpeed, ySpeed, zSpeed);
+
+        if (this.lastSpawnPooled)
+        {
+            return null;
+        }
 
         if (iparticlefactory != null)
         {
@@ -149,6 +164,57 @@ public class EffectRenderer
         return null;
     }
 
+    /**
+     * Spawns the particle into the particle pool if the pool can stand in for the registered factory, which is only
+     * the case for unreplaced vanilla factories.
+     */
+    private boolean spawnPooledParticle(IParticleFactory particleFactory, double xCoord, double yCoord, double zCoord, double xSpeed, double ySpeed, double zSpeed)
+    {
+        Class<?> oclass = particleFactory.getClass();
+
+        if (oclass == EntityExplodeFX.Factory.class)
+        {
+            this.particlePool.spawnExplode(xCoord, yCoord, zCoord, xSpeed, ySpeed, zSpeed);
+        }
+        else if (oclass == EntityReddustFX.Factory.class)
+        {
+            this.particlePool.spawnReddust(xCoord, yCoord, zCoord, (float)xSpeed, (float)ySpeed, (float)zSpeed);
+        }
+        else if (oclass == EntityRainFX.Factory.class)
+        {
+            this.particlePool.spawnRain(xCoord, yCoord, zCoord, xSpeed, ySpeed, zSpeed, false);
+        }
+        else
+        {
+            if (oclass != EntitySplashFX.Factory.class)
+            {
+                return false;
+            }
+
+            this.particlePool.spawnRain(xCoord, yCoord, zCoord, xSpeed, ySpeed, zSpeed, true);
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns whether the last call to spawnEffectParticle returned null because its particle went to the particle
+     * pool.
+     */
+    public boolean isLastSpawnPooled()
+    {
+        return this.lastSpawnPooled;
+    }
+
+    /**
+     * Sets the colour of the particle last spawned into the particle pool, for recolouring that would otherwise go
+     * through the returned EntityFX.
+     */
+    public void setPooledParticleColor(float red, float green, float blue)
+    {
+        this.particlePool.setLastSpawnedColor(red, green, blue);
+    }
+
     public void addEffect(EntityFX effect)
     {
         if (effect != null)
@@ -175,6 +241,7 @@ public class EffectRenderer
             this.updateEffectLayer(i);
         }
 
+        this.particlePool.updateParticles();
         List<EntityParticleEmitter> list = Lists.<EntityParticleEmitter>newArrayList();
 
         for (EntityParticleEmitter entityparticleemitter : this.particleEmitters)
@@ -291,8 +358,9 @@ public class EffectRenderer
             for (int j = 0; j < 2; ++j)
             {
                 final int i_f = i;
+                boolean flag1 = i == 0 && j == 1 && !this.particlePool.isEmpty();
 
-                if (!this.fxLayers[i][j].isEmpty())
+                if (!this.fxLayers[i][j].isEmpty() || flag1)
                 {
                     switch (j)
                     {
@@ -353,6 +421,11 @@ public class EffectRenderer
                         }
                     }
 
+                    if (flag1)
+                    {
+                        this.particlePool.renderParticles(worldrenderer, partialTicks, f, f4, f1, f2, f3);
+                    }
+
                     tessellator.draw();
                 }
             }
@@ -403,6 +476,7 @@ public class EffectRenderer
         }
 
         this.particleEmitters.clear();
+        this.particlePool.clear(worldIn);
     }
 
     public void addBlockDestroyEffects(BlockPos pos, IBlockState state)
@@ -526,6 +600,8 @@ public class EffectRenderer
             }
         }
 
+        i += this.particlePool.size();
+
         return "" + i;
     }
 
@@ -0,0 +1,528 @@
+package net.minecraft.client.particle;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockLiquid;
+import net.minecraft.block.material.Material;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.client.renderer.WorldRenderer;
+import net.minecraft.util.AxisAlignedBB;
+import net.minecraft.util.BlockPos;
+import net.minecraft.util.MathHelper;
+import net.minecraft.world.World;
+
+/**
+ * Particles of the misc texture sheet that only differ in data, kept in parallel primitive arrays instead of one
+ * EntityFX each. Slots are reused: a dead particle is replaced by the last live one, so the live particles always fill
+ * the front of the arrays and are ticked and rendered in one pass without allocating. Behaviour matches the EntityFX
+ * classes they stand in for, except that particles only collide with blocks, not with entity collision boxes.
+ */
+public class ParticlePool
+{
+    public static final int KIND_EXPLODE = 0;
+    public static final int KIND_REDDUST = 1;
+    public static final int KIND_RAIN = 2;
+
+    /** Same limit as a vanilla particle layer, spawns beyond it are dropped */
+    private static final int MAX_PARTICLES = 4000;
+    private final Random rand = new Random();
+    private final BlockPos.MutableBlockPos mutablePos = new BlockPos.MutableBlockPos();
+    private World worldObj;
+    private int count;
+
+    /** Slot of the particle spawned last, -1 if that spawn was dropped */
+    private int lastSpawned = -1;
+    private byte[] kind = new byte[0];
+    private double[] posX = new double[0];
+    private double[] posY = new double[0];
+    private double[] posZ = new double[0];
+    private double[] prevPosX = new double[0];
+    private double[] prevPosY = new double[0];
+    private double[] prevPosZ = new double[0];
+    private double[] motionX = new double[0];
+    private double[] motionY = new double[0];
+    private double[] motionZ = new double[0];
+    private boolean[] onGround = new boolean[0];
+    private int[] age = new int[0];
+    private int[] maxAge = new int[0];
+    private int[] textureIndex = new int[0];
+    private float[] size = new float[0];
+    private float[] scale = new float[0];
+    private float[] gravity = new float[0];
+    private float[] red = new float[0];
+    private float[] green = new float[0];
+    private float[] blue = new float[0];
+
+    public ParticlePool(World worldIn)
+    {
+        this.worldObj = worldIn;
+    }
+
+    public int size()
+    {
+        return this.count;
+    }
+
+    public boolean isEmpty()
+    {
+        return this.count == 0;
+    }
+
+    public void clear(World worldIn)
+    {
+        this.worldObj = worldIn;
+        this.count = 0;
+        this.lastSpawned = -1;
+    }
+
+    /**
+     * Spawns a particle like EntityExplodeFX.
+     */
+    public void spawnExplode(double x, double y, double z, double xSpeed, double ySpeed, double zSpeed)
+    {
+        int i = this.allocate(KIND_EXPLODE, x, y, z, 0.2F, xSpeed, ySpeed, zSpeed);
+
+        if (i >= 0)
+        {
+            this.motionX[i] = xSpeed + (Math.random() * 2.0D - 1.0D) * 0.05000000074505806D;
+            this.motionY[i] = ySpeed + (Math.random() * 2.0D - 1.0D) * 0.05000000074505806D;
+            this.motionZ[i] = zSpeed + (Math.random() * 2.0D - 1.0D) * 0.05000000074505806D;
+            this.red[i] = this.green[i] = this.blue[i] = this.rand.nextFloat() * 0.3F + 0.7F;
+            this.scale[i] = this.rand.nextFloat() * this.rand.nextFloat() * 6.0F + 1.0F;
+            this.maxAge[i] = (int)(16.0D / ((double)this.rand.nextFloat() * 0.8D + 0.2D)) + 2;
+        }
+    }
+
+    /**
+     * Spawns a particle like EntityReddustFX, a red of 0 meaning full red.
+     */
+    public void spawnReddust(double x, double y, double z, float redIn, float greenIn, float blueIn)
+    {
+        int i = this.allocate(KIND_REDDUST, x, y, z, 0.2F, 0.0D, 0.0D, 0.0D);
+
+        if (i >= 0)
+        {
+            this.motionX[i] *= 0.10000000149011612D;
+            this.motionY[i] *= 0.10000000149011612D;
+            this.motionZ[i] *= 0.10000000149011612D;
+
+            if (redIn == 0.0F)
+            {
+                redIn = 1.0F;
+            }
+
+            float f = (float)Math.random() * 0.4F + 0.6F;
+            this.red[i] = ((float)(Math.random() * 0.20000000298023224D) + 0.8F) * redIn * f;
+            this.green[i] = ((float)(Math.random() * 0.20000000298023224D) + 0.8F) * greenIn * f;
+            this.blue[i] = ((float)(Math.random() * 0.20000000298023224D) + 0.8F) * blueIn * f;
+            this.scale[i] *= 0.75F;
+            this.maxAge[i] = (int)(8.0D / (Math.random() * 0.8D + 0.2D));
+        }
+    }
+
+    /**
+     * Spawns a particle like EntityRainFX, or like EntitySplashFX if splash is set.
+     */
+    public void spawnRain(double x, double y, double z, double xSpeed, double ySpeed, double zSpeed, boolean splash)
+    {
+        int i = this.allocate(KIND_RAIN, x, y, z, 0.01F, 0.0D, 0.0D, 0.0D);
+
+        if (i >= 0)
+        {
+            this.motionX[i] *= 0.30000001192092896D;
+            this.motionY[i] = Math.random() * 0.20000000298023224D + 0.10000000149011612D;
+            this.motionZ[i] *= 0.30000001192092896D;
+            this.textureIndex[i] = 19 + this.rand.nextInt(4);
+            this.gravity[i] = 0.06F;
+            this.maxAge[i] = (int)(8.0D / (Math.random() * 0.8D + 0.2D));
+
+            if (splash)
+            {
+                this.gravity[i] = 0.04F;
+                ++this.textureIndex[i];
+
+                if (ySpeed == 0.0D && (xSpeed != 0.0D || zSpeed != 0.0D))
+                {
+                    this.motionX[i] = xSpeed;
+                    this.motionY[i] = ySpeed + 0.1D;
+                    this.motionZ[i] = zSpeed;
+                }
+            }
+        }
+    }
+
+    /**
+     * Overrides the colour of the particle spawned last, if it was not dropped.
+     */
+    public void setLastSpawnedColor(float redIn, float greenIn, float blueIn)
+    {
+        if (this.lastSpawned >= 0)
+        {
+            this.red[this.lastSpawned] = redIn;
+            this.green[this.lastSpawned] = greenIn;
+            this.blue[this.lastSpawned] = blueIn;
+        }
+    }
+
+    /**
+     * Takes a slot and fills in what the EntityFX constructors share, including the random initial motion.
+     */
+    private int allocate(int kindIn, double x, double y, double z, float sizeIn, double xSpeed, double ySpeed, double zSpeed)
+    {
+        if (this.count >= MAX_PARTICLES)
+        {
+            this.lastSpawned = -1;
+            return -1;
+        }
+        else
+        {
+            if (this.count == this.kind.length)
+            {
+                this.grow(Math.min(MAX_PARTICLES, Math.max(256, this.count * 2)));
+            }
+
+            int i = this.count++;
+            this.kind[i] = (byte)kindIn;
+            this.posX[i] = this.prevPosX[i] = x;
+            this.posY[i] = this.prevPosY[i] = y;
+            this.posZ[i] = this.prevPosZ[i] = z;
+            this.onGround[i] = false;
+            this.age[i] = 0;
+            this.textureIndex[i] = 0;
+            this.size[i] = sizeIn;
+            this.scale[i] = (this.rand.nextFloat() * 0.5F + 0.5F) * 2.0F;
+            this.gravity[i] = 0.0F;
+            this.red[i] = this.green[i] = this.blue[i] = 1.0F;
+            this.maxAge[i] = (int)(4.0F / (this.rand.nextFloat() * 0.9F + 0.1F));
+            double d0 = xSpeed + (Math.random() * 2.0D - 1.0D) * 0.4000000059604645D;
+            double d1 = ySpeed + (Math.random() * 2.0D - 1.0D) * 0.4000000059604645D;
+            double d2 = zSpeed + (Math.random() * 2.0D - 1.0D) * 0.4000000059604645D;
+            float f = (float)(Math.random() + Math.random() + 1.0D) * 0.15F;
+            float f1 = MathHelper.sqrt_double(d0 * d0 + d1 * d1 + d2 * d2);
+            this.motionX[i] = d0 / (double)f1 * (double)f * 0.4000000059604645D;
+            this.motionY[i] = d1 / (double)f1 * (double)f * 0.4000000059604645D + 0.10000000149011612D;
+            this.motionZ[i] = d2 / (double)f1 * (double)f * 0.4000000059604645D;
+            this.lastSpawned = i;
+            return i;
+        }
+    }
+
+    private void grow(int capacity)
+    {
+        this.kind = Arrays.copyOf(this.kind, capacity);
+        this.posX = Arrays.copyOf(this.posX, capacity);
+        this.posY = Arrays.copyOf(this.posY, capacity);
+        this.posZ = Arrays.copyOf(this.posZ, capacity);
+        this.prevPosX = Arrays.copyOf(this.prevPosX, capacity);
+        this.prevPosY = Arrays.copyOf(this.prevPosY, capacity);
+        this.prevPosZ = Arrays.copyOf(this.prevPosZ, capacity);
+        this.motionX = Arrays.copyOf(this.motionX, capacity);
+        this.motionY = Arrays.copyOf(this.motionY, capacity);
+        this.motionZ = Arrays.copyOf(this.motionZ, capacity);
+        this.onGround = Arrays.copyOf(this.onGround, capacity);
+        this.age = Arrays.copyOf(this.age, capacity);
+        this.maxAge = Arrays.copyOf(this.maxAge, capacity);
+        this.textureIndex = Arrays.copyOf(this.textureIndex, capacity);
+        this.size = Arrays.copyOf(this.size, capacity);
+        this.scale = Arrays.copyOf(this.scale, capacity);
+        this.gravity = Arrays.copyOf(this.gravity, capacity);
+        this.red = Arrays.copyOf(this.red, capacity);
+        this.green = Arrays.copyOf(this.green, capacity);
+        this.blue = Arrays.copyOf(this.blue, capacity);
+    }
+
+    /**
+     * Ticks every particle. Particles are visited from the back so a dead one can be replaced by the last particle,
+     * which has already been ticked.
+     */
+    public void updateParticles()
+    {
+        this.lastSpawned = -1;
+
+        for (int i = this.count - 1; i >= 0; --i)
+        {
+            boolean flag;
+
+            switch (this.kind[i])
+            {
+                case KIND_REDDUST:
+                    flag = this.updateReddust(i);
+                    break;
+
+                case KIND_RAIN:
+                    flag = this.updateRain(i);
+                    break;
+
+                default:
+                    flag = this.updateExplode(i);
+            }
+
+            if (!flag)
+            {
+                this.moveSlot(--this.count, i);
+            }
+        }
+    }
+
+    private boolean updateExplode(int i)
+    {
+        this.prevPosX[i] = this.posX[i];
+        this.prevPosY[i] = this.posY[i];
+        this.prevPosZ[i] = this.posZ[i];
+        boolean flag = this.age[i]++ < this.maxAge[i];
+        this.textureIndex[i] = 7 - this.age[i] * 8 / this.maxAge[i];
+        this.motionY[i] += 0.004D;
+        this.move(i);
+        this.motionX[i] *= 0.8999999761581421D;
+        this.motionY[i] *= 0.8999999761581421D;
+        this.motionZ[i] *= 0.8999999761581421D;
+
+        if (this.onGround[i])
+        {
+            this.motionX[i] *= 0.699999988079071D;
+            this.motionZ[i] *= 0.699999988079071D;
+        }
+
+        return flag;
+    }
+
+    private boolean updateReddust(int i)
+    {
+        this.prevPosX[i] = this.posX[i];
+        this.prevPosY[i] = this.posY[i];
+        this.prevPosZ[i] = this.posZ[i];
+        boolean flag = this.age[i]++ < this.maxAge[i];
+        this.textureIndex[i] = 7 - this.age[i] * 8 / this.maxAge[i];
+        this.move(i);
+
+        if (this.posY[i] == this.prevPosY[i])
+        {
+            this.motionX[i] *= 1.1D;
+            this.motionZ[i] *= 1.1D;
+        }
+
+        this.motionX[i] *= 0.9599999785423279D;
+        this.motionY[i] *= 0.9599999785423279D;
+        this.motionZ[i] *= 0.9599999785423279D;
+
+        if (this.onGround[i])
+        {
+            this.motionX[i] *= 0.699999988079071D;
+            this.motionZ[i] *= 0.699999988079071D;
+        }
+
+        return flag;
+    }
+
+    private boolean updateRain(int i)
+    {
+        this.prevPosX[i] = this.posX[i];
+        this.prevPosY[i] = this.posY[i];
+        this.prevPosZ[i] = this.posZ[i];
+        this.motionY[i] -= (double)this.gravity[i];
+        this.move(i);
+        this.motionX[i] *= 0.9800000190734863D;
+        this.motionY[i] *= 0.9800000190734863D;
+        this.motionZ[i] *= 0.9800000190734863D;
+        boolean flag = this.maxAge[i]-- > 0;
+
+        if (this.onGround[i])
+        {
+            if (Math.random() < 0.5D)
+            {
+                flag = false;
+            }
+
+            this.motionX[i] *= 0.699999988079071D;
+            this.motionZ[i] *= 0.699999988079071D;
+        }
+
+        BlockPos blockpos = this.mutablePos.set(MathHelper.floor_double(this.posX[i]), MathHelper.floor_double(this.posY[i]), MathHelper.floor_double(this.posZ[i]));
+        IBlockState iblockstate = this.worldObj.getBlockState(blockpos);
+        Block block = iblockstate.getBlock();
+        block.setBlockBoundsBasedOnState(this.worldObj, blockpos);
+        Material material = block.getMaterial();
+
+        if (material.isLiquid() || material.isSolid())
+        {
+            double d0;
+
+            if (block instanceof BlockLiquid)
+            {
+                d0 = (double)(1.0F - BlockLiquid.getLiquidHeightPercent(((Integer)iblockstate.getValue(BlockLiquid.LEVEL)).intValue()));
+            }
+            else
+            {
+                d0 = block.getBlockBoundsMaxY();
+            }
+
+            if (this.posY[i] < (double)blockpos.getY() + d0)
+            {
+                flag = false;
+            }
+        }
+
+        return flag;
+    }
+
+    /**
+     * Moves a particle by its motion, colliding with blocks like Entity.moveEntity. Particles in open air skip the
+     * collision box lookup entirely.
+     */
+    private void move(int i)
+    {
+        double d0 = this.motionX[i];
+        double d1 = this.motionY[i];
+        double d2 = this.motionZ[i];
+        double d3 = (double)this.size[i] / 2.0D;
+        AxisAlignedBB axisalignedbb = null;
+
+        if (this.isAirAround(this.posX[i] - d3 + Math.min(d0, 0.0D), this.posY[i] + Math.min(d1, 0.0D), this.posZ[i] - d3 + Math.min(d2, 0.0D), this.posX[i] + d3 + Math.max(d0, 0.0D), this.posY[i] + (double)this.size[i] + Math.max(d1, 0.0D), this.posZ[i] + d3 + Math.max(d2, 0.0D)))
+        {
+            this.posX[i] += d0;
+            this.posY[i] += d1;
+            this.posZ[i] += d2;
+            this.onGround[i] = false;
+        }
+        else
+        {
+            axisalignedbb = new AxisAlignedBB(this.posX[i] - d3, this.posY[i], this.posZ[i] - d3, this.posX[i] + d3, this.posY[i] + (double)this.size[i], this.posZ[i] + d3);
+            List<AxisAlignedBB> list = this.worldObj.getCollisionBoxes(axisalignedbb.addCoord(d0, d1, d2));
+
+            for (int j = 0; j < list.size(); ++j)
+            {
+                d1 = ((AxisAlignedBB)list.get(j)).calculateYOffset(axisalignedbb, d1);
+            }
+
+            axisalignedbb = axisalignedbb.offset(0.0D, d1, 0.0D);
+
+            for (int k = 0; k < list.size(); ++k)
+            {
+                d0 = ((AxisAlignedBB)list.get(k)).calculateXOffset(axisalignedbb, d0);
+            }
+
+            axisalignedbb = axisalignedbb.offset(d0, 0.0D, 0.0D);
+
+            for (int l = 0; l < list.size(); ++l)
+            {
+                d2 = ((AxisAlignedBB)list.get(l)).calculateZOffset(axisalignedbb, d2);
+            }
+
+            axisalignedbb = axisalignedbb.offset(0.0D, 0.0D, d2);
+            this.posX[i] = (axisalignedbb.minX + axisalignedbb.maxX) / 2.0D;
+            this.posY[i] = axisalignedbb.minY;
+            this.posZ[i] = (axisalignedbb.minZ + axisalignedbb.maxZ) / 2.0D;
+            this.onGround[i] = d1 != this.motionY[i] && this.motionY[i] < 0.0D;
+
+            if (d0 != this.motionX[i])
+            {
+                this.motionX[i] = 0.0D;
+            }
+
+            if (d1 != this.motionY[i])
+            {
+                this.motionY[i] = 0.0D;
+            }
+
+            if (d2 != this.motionZ[i])
+            {
+                this.motionZ[i] = 0.0D;
+            }
+        }
+    }
+
+    /**
+     * Whether every block World.getCollisionBoxes would look at for this box is air, including the layer below for
+     * fences and walls reaching up into it.
+     */
+    private boolean isAirAround(double minX, double minY, double minZ, double maxX, double maxY, double maxZ)
+    {
+        int i = MathHelper.floor_double(minX);
+        int j = MathHelper.floor_double(maxX + 1.0D);
+        int k = MathHelper.floor_double(minY) - 1;
+        int l = MathHelper.floor_double(maxY + 1.0D);
+        int i1 = MathHelper.floor_double(minZ);
+        int j1 = MathHelper.floor_double(maxZ + 1.0D);
+
+        for (int k1 = i; k1 < j; ++k1)
+        {
+            for (int l1 = i1; l1 < j1; ++l1)
+            {
+                for (int i2 = k; i2 < l; ++i2)
+                {
+                    if (this.worldObj.getBlockState(this.mutablePos.set(k1, i2, l1)).getBlock().getMaterial() != Material.air)
+                    {
+                        return false;
+                    }
+                }
+            }
+        }
+
+        return true;
+    }
+
+    private void moveSlot(int from, int to)
+    {
+        if (from != to)
+        {
+            this.kind[to] = this.kind[from];
+            this.posX[to] = this.posX[from];
+            this.posY[to] = this.posY[from];
+            this.posZ[to] = this.posZ[from];
+            this.prevPosX[to] = this.prevPosX[from];
+            this.prevPosY[to] = this.prevPosY[from];
+            this.prevPosZ[to] = this.prevPosZ[from];
+            this.motionX[to] = this.motionX[from];
+            this.motionY[to] = this.motionY[from];
+            this.motionZ[to] = this.motionZ[from];
+            this.onGround[to] = this.onGround[from];
+            this.age[to] = this.age[from];
+            this.maxAge[to] = this.maxAge[from];
+            this.textureIndex[to] = this.textureIndex[from];
+            this.size[to] = this.size[from];
+            this.scale[to] = this.scale[from];
+            this.gravity[to] = this.gravity[from];
+            this.red[to] = this.red[from];
+            this.green[to] = this.green[from];
+            this.blue[to] = this.blue[from];
+        }
+    }
+
+    /**
+     * Adds a camera facing quad per particle, the same vertices EntityFX.renderParticle emits. The renderer has to be
+     * drawing PARTICLE_POSITION_TEX_COLOR_LMAP quads with the particle sheet bound.
+     */
+    public void renderParticles(WorldRenderer worldRendererIn, float partialTicks, float rotationX, float rotationZ, float rotationYZ, float rotationXY, float rotationXZ)
+    {
+        for (int i = 0; i < this.count; ++i)
+        {
+            float f = (float)(this.textureIndex[i] % 16) / 16.0F;
+            float f1 = f + 0.0624375F;
+            float f2 = (float)(this.textureIndex[i] / 16) / 16.0F;
+            float f3 = f2 + 0.0624375F;
+            float f4 = 0.1F * this.scale[i];
+
+            if (this.kind[i] == KIND_REDDUST)
+            {
+                f4 *= MathHelper.clamp_float(((float)this.age[i] + partialTicks) / (float)this.maxAge[i] * 32.0F, 0.0F, 1.0F);
+            }
+
+            float f5 = (float)(this.prevPosX[i] + (this.posX[i] - this.prevPosX[i]) * (double)partialTicks - EntityFX.interpPosX);
+            float f6 = (float)(this.prevPosY[i] + (this.posY[i] - this.prevPosY[i]) * (double)partialTicks - EntityFX.interpPosY);
+            float f7 = (float)(this.prevPosZ[i] + (this.posZ[i] - this.prevPosZ[i]) * (double)partialTicks - EntityFX.interpPosZ);
+            BlockPos blockpos = this.mutablePos.set(MathHelper.floor_double(this.posX[i]), MathHelper.floor_double(this.posY[i] + (double)(this.size[i] * 0.85F)), MathHelper.floor_double(this.posZ[i]));
+            int j = this.worldObj.isBlockLoaded(blockpos) ? this.worldObj.getCombinedLight(blockpos, 0) : 0;
+            int k = j >> 16 & 65535;
+            int l = j & 65535;
+            float f8 = this.red[i];
+            float f9 = this.green[i];
+            float f10 = this.blue[i];
+            worldRendererIn.pos((double)(f5 - rotationX * f4 - rotationXY * f4), (double)(f6 - rotationZ * f4), (double)(f7 - rotationYZ * f4 - rotationXZ * f4)).tex((double)f1, (double)f3).color(f8, f9, f10, 1.0F).lightmap(k, l).endVertex();
+            worldRendererIn.pos((double)(f5 - rotationX * f4 + rotationXY * f4), (double)(f6 + rotationZ * f4), (double)(f7 - rotationYZ * f4 + rotationXZ * f4)).tex((double)f1, (double)f2).color(f8, f9, f10, 1.0F).lightmap(k, l).endVertex();
+            worldRendererIn.pos((double)(f5 + rotationX * f4 + rotationXY * f4), (double)(f6 + rotationZ * f4), (double)(f7 + rotationYZ * f4 + rotationXZ * f4)).tex((double)f, (double)f2).color(f8, f9, f10, 1.0F).lightmap(k, l).endVertex();
+            worldRendererIn.pos((double)(f5 + rotationX * f4 - rotationXY * f4), (double)(f6 - rotationZ * f4), (double)(f7 + rotationYZ * f4 - rotationXZ * f4)).tex((double)f, (double)f3).color(f8, f9, f10, 1.0F).lightmap(k, l).endVertex();
+        }
+    }
+}
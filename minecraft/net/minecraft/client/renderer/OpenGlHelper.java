@@ -94,10 +94,17 @@ public class OpenGlHelper
     private static boolean arbVbo;
     public static int GL_ARRAY_BUFFER;
     public static int GL_STATIC_DRAW;
+    public static boolean pboSupported;
+    public static int GL_PIXEL_UNPACK_BUFFER;
+    public static int GL_STREAM_DRAW;
+    public static int GL_WRITE_ONLY;
     public static float lastBrightnessX = 0.0F;
     public static float lastBrightnessY = 0.0F;
     public static boolean openGL31;
     public static boolean vboRegions;
+
+    /** Persistently mapped buffers, fences and buffer copies are all available */
+    public static boolean bufferStorageSupported;
     public static int GL_COPY_READ_BUFFER;
     public static int GL_COPY_WRITE_BUFFER;
     public static final int GL_QUADS = 7;
@@ -128,6 +135,7 @@ public class OpenGlHelper
         boolean flag = openGL31 || contextcapabilities.GL_ARB_copy_buffer;
         boolean flag1 = contextcapabilities.OpenGL14;
         vboRegions = flag && flag1;
+        bufferStorageSupported = flag && contextcapabilities.OpenGL32 && (contextcapabilities.OpenGL44 || contextcapabilities.GL_ARB_buffer_storage);
 
         if (!vboRegions)
         {
@@ -327,6 +335,21 @@ public class OpenGlHelper
             }
         }
 
+        pboSupported = vboSupported && (contextcapabilities.OpenGL21 || contextcapabilities.GL_ARB_pixel_buffer_object);
+        logText = logText + "PBOs are " + (pboSupported ? "" : "not ") + "available because ";
+
+        if (pboSupported)
+        {
+            logText = logText + (contextcapabilities.OpenGL21 ? "OpenGL 2.1" : "ARB_pixel_buffer_object") + " is supported.\n";
+            GL_PIXEL_UNPACK_BUFFER = 35052;
+            GL_STREAM_DRAW = 35040;
+            GL_WRITE_ONLY = 35001;
+        }
+        else
+        {
+            logText = logText + "neither OpenGL 2.1 nor ARB_pixel_buffer_object is supported.\n";
+        }
+
         ati = s1.contains("ati");
 
         if (ati)
@@ -662,6 +685,23 @@ public class OpenGlHelper
         }
     }
 
+    /**
+     * Maps the buffer bound to target, reusing oldBuffer if it still points at the same memory. Returns null if the
+     * mapping failed.
+     */
+    public static ByteBuffer glMapBuffer(int target, int access, long length, ByteBuffer oldBuffer)
+    {
+        return arbVbo ? ARBVertexBufferObject.glMapBufferARB(target, access, length, oldBuffer) : GL15.glMapBuffer(target, access, length, oldBuffer);
+    }
+
+    /**
+     * Unmaps the buffer bound to target. Returns false if its contents got lost while mapped.
+     */
+    public static boolean glUnmapBuffer(int target)
+    {
+        return arbVbo ? ARBVertexBufferObject.glUnmapBufferARB(target) : GL15.glUnmapBuffer(target);
+    }
+
     public static void glDeleteBuffers(int buffer)
     {
         if (arbVbo)
@@ -41,6 +41,7 @@ import net.minecraft.client.gui.GuiScreen;
 import net.minecraft.client.multiplayer.WorldClient;
 import net.minecraft.client.particle.EntityFX;
 import net.minecraft.client.renderer.chunk.ChunkRenderDispatcher;
+import net.minecraft.client.renderer.chunk.ChunkUpdateQueue;
 import net.minecraft.client.renderer.chunk.CompiledChunk;
 import net.minecraft.client.renderer.chunk.IRenderChunkFactory;
 import net.minecraft.client.renderer.chunk.ListChunkFactory;
@@ -51,6 +52,7 @@ import net.minecraft.client.renderer.culling.ClippingHelper;
 import net.minecraft.client.renderer.culling.ClippingHelperImpl;
 import net.minecraft.client.renderer.culling.Frustum;
 import net.minecraft.client.renderer.culling.ICamera;
+import net.minecraft.client.renderer.culling.OcclusionBuffer;
 import net.minecraft.client.renderer.entity.RenderManager;
 import net.minecraft.client.renderer.texture.TextureAtlasSprite;
 import net.minecraft.client.renderer.texture.TextureManager;
@@ -131,7 +133,7 @@ public class RenderGlobal implements IWorldAccess, IResourceManagerReloadListene
 	private final TextureManager renderEngine;
 	private final RenderManager renderManager;
 	private WorldClient theWorld;
-	private Set<RenderChunk> chunksToUpdate = Sets.<RenderChunk>newLinkedHashSet();
+	private ChunkUpdateQueue chunksToUpdate = new ChunkUpdateQueue();
 	private List<RenderGlobal.ContainerLocalRenderInformation> renderInfos = Lists.<RenderGlobal.ContainerLocalRenderInformation>newArrayListWithCapacity(69696);
 	private final Set<TileEntity> setTileEntities = Sets.<TileEntity>newHashSet();
 	private ViewFrustum viewFrustum;
@@ -192,6 +194,7 @@ public class RenderGlobal implements IWorldAccess, IResourceManagerReloadListene
 	public Set chunksToResortTransparency = new LinkedHashSet();
 	public Set chunksToUpdateForced = new LinkedHashSet();
 	private final Deque visibilityDeque = new ArrayDeque();
+	private final OcclusionBuffer occlusionBuffer = new OcclusionBuffer();
 	private List<RenderGlobal.ContainerLocalRenderInformation> renderInfosEntities = new ArrayList(1024);
 	private List renderInfosTileEntities = new ArrayList(1024);
 	private final List renderInfosNormal = new ArrayList(1024);
@@ -816,12 +819,15 @@ public class RenderGlobal implements IWorldAccess, IResourceManagerReloadListene
 			}
 			this.mc.mcProfiler.startSection("iteration");
 			final boolean flag3 = Config.isFogOn();
+			final boolean flag4 = flag1 && this.occlusionBuffer.begin(camera);
 			while (!deque.isEmpty()) {
 				final RenderGlobal.ContainerLocalRenderInformation renderglobal$containerlocalrenderinformation5 = (RenderGlobal.ContainerLocalRenderInformation) deque.poll();
 				final RenderChunk renderchunk6 = renderglobal$containerlocalrenderinformation5.renderChunk;
 				final EnumFacing enumfacing1 = renderglobal$containerlocalrenderinformation5.facing;
 				final CompiledChunk compiledchunk = renderchunk6.compiledChunk;
-				if (!compiledchunk.isEmpty() || renderchunk6.isNeedsUpdate()) this.renderInfos.add(renderglobal$containerlocalrenderinformation5);
+				final boolean flag5 = flag4 && this.occlusionBuffer.isOccluded(renderchunk6.boundingBox);
+				if (!flag5 && (!compiledchunk.isEmpty() || renderchunk6.isNeedsUpdate())) this.renderInfos.add(renderglobal$containerlocalrenderinformation5);
+				if (flag4 && !flag5 && !renderchunk6.isNeedsUpdate()) this.occlusionBuffer.addOccluders(renderchunk6.getPosition(), compiledchunk.getOccluders());
 				if (ChunkUtils.hasEntities(renderchunk6.getChunk())) this.renderInfosEntities.add(renderglobal$containerlocalrenderinformation5);
 				if (compiledchunk.getTileEntities().size() > 0) this.renderInfosTileEntities.add(renderglobal$containerlocalrenderinformation5);
 				for (final EnumFacing enumfacing : flag1 ? ChunkVisibility.getFacingsNotOpposite(renderglobal$containerlocalrenderinformation5.setFacing) : EnumFacing.VALUES)
@@ -847,17 +853,18 @@ public class RenderGlobal implements IWorldAccess, IResourceManagerReloadListene
 		else {
 			this.mc.mcProfiler.endStartSection("rebuildNear");
 			this.renderDispatcher.clearChunkUpdates();
-			final Set<RenderChunk> set = this.chunksToUpdate;
-			this.chunksToUpdate = Sets.<RenderChunk>newLinkedHashSet();
+			this.chunksToUpdate.beginFrame(d3, d4 + viewEntity.getEyeHeight(), d5);
 			Lagometer.timerChunkUpdate.start();
 			for (final RenderGlobal.ContainerLocalRenderInformation renderglobal$containerlocalrenderinformation3 : this.renderInfos) {
 				final RenderChunk renderchunk5 = renderglobal$containerlocalrenderinformation3.renderChunk;
-				if (renderchunk5.isNeedsUpdate() || set.contains(renderchunk5)) {
+				if (renderchunk5.isNeedsUpdate() || this.chunksToUpdate.contains(renderchunk5)) {
 					this.displayListEntitiesDirty = true;
 					final BlockPos blockpos1 = renderchunk5.getPosition();
 					final boolean flag4 = blockpos.distanceSq(blockpos1.getX() + 8, blockpos1.getY() + 8, blockpos1.getZ() + 8) < 768.0D;
-					if (!flag4) this.chunksToUpdate.add(renderchunk5);
-					else if (!renderchunk5.isPlayerUpdate()) this.chunksToUpdateForced.add(renderchunk5);
+					if (!flag4) {
+						this.chunksToUpdate.add(renderchunk5);
+						this.chunksToUpdate.markVisible(renderchunk5);
+					} else if (!renderchunk5.isPlayerUpdate()) this.chunksToUpdateForced.add(renderchunk5);
 					else {
 						this.mc.mcProfiler.startSection("build near");
 						this.renderDispatcher.updateChunkNow(renderchunk5);
@@ -867,7 +874,6 @@ public class RenderGlobal implements IWorldAccess, IResourceManagerReloadListene
 				}
 			}
 			Lagometer.timerChunkUpdate.end();
-			this.chunksToUpdate.addAll(set);
 			this.mc.mcProfiler.endSection();
 		}
 	}
@@ -1483,6 +1489,7 @@ public class RenderGlobal implements IWorldAccess, IResourceManagerReloadListene
 
 	public void updateChunks(long finishTimeNano) {
 		finishTimeNano = (long) (finishTimeNano + 1.0E8D);
+		this.renderDispatcher.updateWorkerCount();
 		this.displayListEntitiesDirty |= this.renderDispatcher.runChunkUploads(finishTimeNano);
 		if (this.chunksToUpdateForced.size() > 0) {
 			final Iterator iterator = this.chunksToUpdateForced.iterator();
@@ -1893,6 +1900,10 @@ public class RenderGlobal implements IWorldAccess, IResourceManagerReloadListene
 					if (i > 1) return null;
 				}
 				final EntityFX entityfx = this.mc.effectRenderer.spawnEffectParticle(particleID, xCoord, yCoord, zCoord, xOffset, yOffset, zOffset, parameters);
+				if (entityfx == null) {
+					if (this.mc.effectRenderer.isLastSpawnPooled()) this.updatePooledParticleColor(particleID, xCoord, yCoord, zCoord);
+					return null;
+				}
 				if (particleID == EnumParticleTypes.WATER_BUBBLE.getParticleID()) CustomColors.updateWaterFX(entityfx, this.theWorld, xCoord, yCoord, zCoord, this.renderEnv);
 				if (particleID == EnumParticleTypes.WATER_SPLASH.getParticleID()) CustomColors.updateWaterFX(entityfx, this.theWorld, xCoord, yCoord, zCoord, this.renderEnv);
 				if (particleID == EnumParticleTypes.WATER_DROP.getParticleID()) CustomColors.updateWaterFX(entityfx, this.theWorld, xCoord, yCoord, zCoord, this.renderEnv);
@@ -1904,6 +1915,17 @@ public class RenderGlobal implements IWorldAccess, IResourceManagerReloadListene
 		} else return null;
 	}
 
+	/**
+	 * Applies custom colours to a particle that went to the effect renderer's particle pool, which has no EntityFX to
+	 * recolour.
+	 */
+	private void updatePooledParticleColor(final int particleID, final double xCoord, final double yCoord, final double zCoord) {
+		float[] afloat = null;
+		if (particleID == EnumParticleTypes.WATER_SPLASH.getParticleID() || particleID == EnumParticleTypes.WATER_DROP.getParticleID()) afloat = CustomColors.getWaterFXColor(this.theWorld, xCoord, yCoord, zCoord, this.renderEnv);
+		else if (particleID == EnumParticleTypes.REDSTONE.getParticleID()) afloat = CustomColors.getReddustColor(this.theWorld, xCoord, yCoord, zCoord);
+		if (afloat != null) this.mc.effectRenderer.setPooledParticleColor(afloat[0], afloat[1], afloat[2]);
+	}
+
 	/**
 	 * Called on all IWorldAccesses when an entity is created or loaded. On client worlds, starts
 	 * downloading any necessary textures. On server worlds, adds the entity to the entity tracker.
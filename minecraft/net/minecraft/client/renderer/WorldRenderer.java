@@ -11,8 +11,6 @@ import java.util.BitSet;
 import org.apache.logging.log4j.LogManager;
 import org.lwjgl.opengl.GL11;
 
-import com.google.common.primitives.Floats;
-
 import net.minecraft.block.state.IBlockState;
 import net.minecraft.client.renderer.texture.TextureAtlasSprite;
 import net.minecraft.client.renderer.vertex.VertexFormat;
@@ -53,6 +51,8 @@ public class WorldRenderer {
 	public BitSet animatedSpritesCached = new BitSet();
 	private boolean modeTriangles = false;
 	private ByteBuffer byteBufferTriangles;
+	/** Scratch arrays of sortVertexData, one set per chunk batcher thread */
+	private static final ThreadLocal<WorldRenderer.SortBuffers> sortBuffers = ThreadLocal.withInitial(WorldRenderer.SortBuffers::new);
 
 	public WorldRenderer(final int bufferSizeIn)
 	{
@@ -92,45 +92,31 @@ public class WorldRenderer {
 
 	public void sortVertexData(final float p_181674_1_, final float p_181674_2_, final float p_181674_3_) {
 		final int i = this.vertexCount / 4;
-		final float[] afloat = new float[i];
-		for (int j = 0; j < i; ++j)
-			afloat[j] = getDistanceSq(this.rawFloatBuffer, (float) (p_181674_1_ + this.xOffset), (float) (p_181674_2_ + this.yOffset), (float) (p_181674_3_ + this.zOffset), this.vertexFormat.getIntegerSize(), j * this.vertexFormat.getNextOffset());
-		final Integer[] ainteger = new Integer[i];
-		for (int k = 0; k < ainteger.length; ++k) ainteger[k] = k;
-		Arrays.sort(ainteger, (p_compare_1_, p_compare_2_) -> Floats.compare(afloat[p_compare_2_], afloat[p_compare_1_]));
-		final BitSet bitset = new BitSet();
 		final int l = this.vertexFormat.getNextOffset();
-		final int[] aint = new int[l];
-		for (int l1 = 0; (l1 = bitset.nextClearBit(l1)) < ainteger.length; ++l1) {
-			final int i1 = ainteger[l1];
-			if (i1 != l1) {
-				this.rawIntBuffer.limit(i1 * l + l);
-				this.rawIntBuffer.position(i1 * l);
-				this.rawIntBuffer.get(aint);
-				int j1 = i1;
-				for (int k1 = ainteger[i1]; j1 != l1; k1 = ainteger[k1]) {
-					this.rawIntBuffer.limit(k1 * l + l);
-					this.rawIntBuffer.position(k1 * l);
-					final IntBuffer intbuffer = this.rawIntBuffer.slice();
-					this.rawIntBuffer.limit(j1 * l + l);
-					this.rawIntBuffer.position(j1 * l);
-					this.rawIntBuffer.put(intbuffer);
-					bitset.set(j1);
-					j1 = k1;
-				}
-				this.rawIntBuffer.limit(l1 * l + l);
-				this.rawIntBuffer.position(l1 * l);
-				this.rawIntBuffer.put(aint);
-			}
-			bitset.set(l1);
+		final WorldRenderer.SortBuffers worldrenderer$sortbuffers = sortBuffers.get();
+		worldrenderer$sortbuffers.ensureCapacity(i, i * l);
+		final int[] aint = worldrenderer$sortbuffers.keys;
+		final int[] aint1 = worldrenderer$sortbuffers.order;
+		for (int j = 0; j < i; ++j) {
+			aint[j] = Integer.MAX_VALUE - Float.floatToRawIntBits(getDistanceSq(this.rawFloatBuffer, (float) (p_181674_1_ + this.xOffset), (float) (p_181674_2_ + this.yOffset), (float) (p_181674_3_ + this.zOffset), this.vertexFormat.getIntegerSize(), j * l));
+			aint1[j] = j;
 		}
+		final int[] aint2 = worldrenderer$sortbuffers.sort(i);
+		boolean flag = true;
+		for (int k = 0; k < i && flag; ++k) flag = aint2[k] == k;
+		if (flag) return;
+		final int[] aint3 = worldrenderer$sortbuffers.data;
 		this.rawIntBuffer.limit(this.rawIntBuffer.capacity());
+		this.rawIntBuffer.position(0);
+		this.rawIntBuffer.get(aint3, 0, i * l);
+		this.rawIntBuffer.position(0);
+		for (int i1 = 0; i1 < i; ++i1) this.rawIntBuffer.put(aint3, aint2[i1] * l, l);
 		this.rawIntBuffer.position(this.getBufferSize());
 		if (this.quadSprites != null) {
-			final TextureAtlasSprite[] atextureatlassprite = new TextureAtlasSprite[this.vertexCount / 4];
-			final int i2 = this.vertexFormat.getNextOffset() / 4 * 4;
-			for (int j2 = 0; j2 < ainteger.length; ++j2) { final int k2 = ainteger[j2]; atextureatlassprite[j2] = this.quadSprites[k2]; }
-			System.arraycopy(atextureatlassprite, 0, this.quadSprites, 0, atextureatlassprite.length);
+			final TextureAtlasSprite[] atextureatlassprite = worldrenderer$sortbuffers.sprites;
+			System.arraycopy(this.quadSprites, 0, atextureatlassprite, 0, i);
+			for (int j1 = 0; j1 < i; ++j1) this.quadSprites[j1] = atextureatlassprite[aint2[j1]];
+			Arrays.fill(atextureatlassprite, 0, i, (Object) null);
 		}
 	}
 
@@ -710,4 +696,68 @@ public class WorldRenderer {
 
 		public VertexFormat getVertexFormat() { return this.stateVertexFormat; }
 	}
+
+	/**
+	 * Quads are sorted by an LSD radix sort over their distance bits, which is stable like the comparator sort it
+	 * replaces, so equally distant quads keep their order. Arrays only ever grow.
+	 */
+	static class SortBuffers {
+		private final int[] counts = new int[256];
+		private int[] keys = new int[0];
+		private int[] order = new int[0];
+		private int[] keysSwap = new int[0];
+		private int[] orderSwap = new int[0];
+		private int[] data = new int[0];
+		private TextureAtlasSprite[] sprites = new TextureAtlasSprite[0];
+
+		void ensureCapacity(final int quads, final int ints) {
+			if (this.keys.length < quads) {
+				final int i = Math.max(quads, this.keys.length * 3 / 2);
+				this.keys = new int[i];
+				this.order = new int[i];
+				this.keysSwap = new int[i];
+				this.orderSwap = new int[i];
+				this.sprites = new TextureAtlasSprite[i];
+			}
+			if (this.data.length < ints) this.data = new int[Math.max(ints, this.data.length * 3 / 2)];
+		}
+
+		/**
+		 * Sorts the first count keys ascending, carrying the order array along, and returns the sorted order. Passes on
+		 * bytes all keys share are skipped.
+		 */
+		int[] sort(final int count) {
+			int[] aint = this.keys;
+			int[] aint1 = this.order;
+			int[] aint2 = this.keysSwap;
+			int[] aint3 = this.orderSwap;
+			for (int i = 0; i < 32 && count > 1; i += 8) {
+				Arrays.fill(this.counts, 0);
+				for (int j = 0; j < count; ++j) ++this.counts[aint[j] >>> i & 255];
+				if (this.counts[aint[0] >>> i & 255] == count) continue;
+				int k = 0;
+				for (int l = 0; l < 256; ++l) {
+					final int i1 = this.counts[l];
+					this.counts[l] = k;
+					k += i1;
+				}
+				for (int j1 = 0; j1 < count; ++j1) {
+					final int k1 = this.counts[aint[j1] >>> i & 255]++;
+					aint2[k1] = aint[j1];
+					aint3[k1] = aint1[j1];
+				}
+				final int[] aint4 = aint;
+				aint = aint2;
+				aint2 = aint4;
+				final int[] aint5 = aint1;
+				aint1 = aint3;
+				aint3 = aint5;
+			}
+			this.keys = aint;
+			this.order = aint1;
+			this.keysSwap = aint2;
+			this.orderSwap = aint3;
+			return aint1;
+		}
+	}
 }
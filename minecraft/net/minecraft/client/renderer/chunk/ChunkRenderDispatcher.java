@@ -10,8 +10,11 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Queue;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.renderer.GlStateManager;
 import net.minecraft.client.renderer.OpenGlHelper;
@@ -25,13 +28,42 @@ import net.minecraft.util.MathHelper;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.lwjgl.opengl.GL11;
+import pisi.unitedmeows.minecraft.Settings;
 
 public class ChunkRenderDispatcher
 {
     private static final Logger logger = LogManager.getLogger();
     private static final ThreadFactory threadFactory = (new ThreadFactoryBuilder()).setNameFormat("Chunk Batcher %d").setDaemon(true).build();
+    private static final long WORKER_ADJUST_INTERVAL_NANOS = 500000000L;
+
+    /** Frame time above which batcher threads are assumed to be starving the render thread */
+    private static final long SLOW_FRAME_NANOS = 33333333L;
+
+    /** Adjustment intervals without any backlog before idle workers beyond the initial count are stopped */
+    private static final int IDLE_INTERVALS_BEFORE_SHRINK = 10;
     private final List<ChunkRenderWorker> listThreadedWorkers;
     private final BlockingQueue<ChunkCompileTaskGenerator> queueChunkUpdates;
+
+    /**
+     * Whether workers keep their own task deque and builder pool and steal from each other instead of sharing
+     * queueChunkUpdates and queueFreeRenderBuilders. In that mode queueFreeRenderBuilders only holds builders no worker
+     * has claimed yet, and the number of workers follows the backlog.
+     */
+    private final boolean workStealing;
+    private final int maxQueuedChunkUpdates;
+    private final AtomicInteger queuedChunkUpdates = new AtomicInteger();
+
+    /** One permit per task pushed to a worker deque; a permit without a task only causes a spurious wake up */
+    private final Semaphore chunkUpdatePermits = new Semaphore(0);
+    private final AtomicInteger nextWorker = new AtomicInteger();
+    private final int initialWorkerCount;
+    private final int maxWorkerCount;
+    private long lastFrameNanos;
+    private long frameNanosTotal;
+    private long queuedTotal;
+    private int frameCount;
+    private long lastWorkerAdjustNanos;
+    private int idleIntervals;
     private final BlockingQueue<RegionRenderCacheBuilder> queueFreeRenderBuilders;
     private final WorldVertexBufferUploader worldVertexUploader;
     private final VertexBufferUploader vertexUploader;
@@ -47,18 +79,22 @@ public class ChunkRenderDispatcher
 
     public ChunkRenderDispatcher(int p_i4_1_)
     {
-        this.listThreadedWorkers = Lists.<ChunkRenderWorker>newArrayList();
+        this.listThreadedWorkers = new CopyOnWriteArrayList();
         this.queueChunkUpdates = Queues.<ChunkCompileTaskGenerator>newArrayBlockingQueue(100);
         this.worldVertexUploader = new WorldVertexBufferUploader();
         this.vertexUploader = new VertexBufferUploader();
         this.queueChunkUploads = Queues. < ListenableFutureTask<? >> newArrayDeque();
         this.listPausedBuilders = new ArrayList();
+        this.workStealing = Settings.WORK_STEALING_CHUNK_BATCHER;
         int i = Math.max(1, (int)((double)Runtime.getRuntime().maxMemory() * 0.3D) / 10485760);
         int j = Math.max(1, MathHelper.clamp_int(Runtime.getRuntime().availableProcessors() - 2, 1, i / 5));
+        this.initialWorkerCount = j;
+        this.maxWorkerCount = this.workStealing ? Math.max(j, MathHelper.clamp_int(Runtime.getRuntime().availableProcessors() - 1, 1, i / 5)) : j;
+        this.maxQueuedChunkUpdates = Math.max(100, this.maxWorkerCount * 16);
 
         if (p_i4_1_ < 0)
         {
-            this.countRenderBuilders = MathHelper.clamp_int(j * 8, 1, i);
+            this.countRenderBuilders = MathHelper.clamp_int(this.maxWorkerCount * 8, 1, i);
         }
         else
         {
@@ -67,10 +103,7 @@ public class ChunkRenderDispatcher
 
         for (int k = 0; k < j; ++k)
         {
-            ChunkRenderWorker chunkrenderworker = new ChunkRenderWorker(this);
-            Thread thread = threadFactory.newThread(chunkrenderworker);
-            thread.start();
-            this.listThreadedWorkers.add(chunkrenderworker);
+            this.startWorker();
         }
 
         this.queueFreeRenderBuilders = Queues.<RegionRenderCacheBuilder>newArrayBlockingQueue(this.countRenderBuilders);
@@ -85,7 +118,220 @@ public class ChunkRenderDispatcher
 
     public String getDebugInfo()
     {
-        return String.format("pC: %03d, pU: %1d, aB: %1d", new Object[] {Integer.valueOf(this.queueChunkUpdates.size()), Integer.valueOf(this.queueChunkUploads.size()), Integer.valueOf(this.queueFreeRenderBuilders.size())});
+        if (this.workStealing)
+        {
+            int i = this.queueFreeRenderBuilders.size();
+
+            for (ChunkRenderWorker chunkrenderworker : this.listThreadedWorkers)
+            {
+                i += chunkrenderworker.getFreeRenderBuilders().size();
+            }
+
+            return String.format("pC: %03d, pU: %1d, aB: %1d, W: %d", new Object[] {Integer.valueOf(this.queuedChunkUpdates.get()), Integer.valueOf(this.queueChunkUploads.size()), Integer.valueOf(i), Integer.valueOf(this.listThreadedWorkers.size())});
+        }
+        else
+        {
+            return String.format("pC: %03d, pU: %1d, aB: %1d", new Object[] {Integer.valueOf(this.queueChunkUpdates.size()), Integer.valueOf(this.queueChunkUploads.size()), Integer.valueOf(this.queueFreeRenderBuilders.size())});
+        }
+    }
+
+    private void startWorker()
+    {
+        ChunkRenderWorker chunkrenderworker = new ChunkRenderWorker(this);
+        Thread thread = threadFactory.newThread(chunkrenderworker);
+        thread.start();
+        this.listThreadedWorkers.add(chunkrenderworker);
+    }
+
+    /**
+     * Called once per frame. Grows the worker count while tasks pile up and frames are fast, shrinks it again when
+     * frames get slow or the backlog stays empty. Only used in work stealing mode.
+     */
+    public void updateWorkerCount()
+    {
+        if (this.workStealing)
+        {
+            long i = System.nanoTime();
+
+            if (this.lastFrameNanos != 0L)
+            {
+                this.frameNanosTotal += i - this.lastFrameNanos;
+                this.queuedTotal += (long)this.queuedChunkUpdates.get();
+                ++this.frameCount;
+            }
+
+            this.lastFrameNanos = i;
+
+            if (i - this.lastWorkerAdjustNanos >= WORKER_ADJUST_INTERVAL_NANOS && this.frameCount > 0)
+            {
+                long j = this.frameNanosTotal / (long)this.frameCount;
+                int k = (int)(this.queuedTotal / (long)this.frameCount);
+                int l = this.listThreadedWorkers.size();
+                this.idleIntervals = k == 0 ? this.idleIntervals + 1 : 0;
+
+                if (j > SLOW_FRAME_NANOS && k > 0 && l > 1)
+                {
+                    this.stopWorker();
+                }
+                else if (j <= SLOW_FRAME_NANOS && k > l && l < this.maxWorkerCount)
+                {
+                    int i1 = Math.min(this.maxWorkerCount - l, Math.max(1, k / 8));
+
+                    for (int j1 = 0; j1 < i1; ++j1)
+                    {
+                        this.startWorker();
+                    }
+                }
+                else if (this.idleIntervals >= IDLE_INTERVALS_BEFORE_SHRINK && l > this.initialWorkerCount)
+                {
+                    this.stopWorker();
+                    this.idleIntervals = 0;
+                }
+
+                this.lastWorkerAdjustNanos = i;
+                this.frameNanosTotal = 0L;
+                this.queuedTotal = 0L;
+                this.frameCount = 0;
+            }
+        }
+    }
+
+    private void stopWorker()
+    {
+        ChunkRenderWorker chunkrenderworker = (ChunkRenderWorker)this.listThreadedWorkers.remove(this.listThreadedWorkers.size() - 1);
+        chunkrenderworker.setRetired();
+        this.releaseWorkerQueues(chunkrenderworker);
+    }
+
+    /**
+     * Hands the queued tasks and pooled builders of a stopped worker to the others. Called when it is stopped and
+     * again by its thread on exit, in case it queued or freed something in between.
+     */
+    void releaseWorkerQueues(ChunkRenderWorker worker)
+    {
+        ChunkCompileTaskGenerator chunkcompiletaskgenerator;
+
+        while ((chunkcompiletaskgenerator = (ChunkCompileTaskGenerator)worker.getTaskQueue().pollFirst()) != null)
+        {
+            this.queuedChunkUpdates.decrementAndGet();
+
+            if (!this.offerChunkUpdate(chunkcompiletaskgenerator))
+            {
+                chunkcompiletaskgenerator.finish();
+            }
+        }
+
+        RegionRenderCacheBuilder regionrendercachebuilder;
+
+        while ((regionrendercachebuilder = (RegionRenderCacheBuilder)worker.getFreeRenderBuilders().poll()) != null)
+        {
+            this.queueFreeRenderBuilders.add(regionrendercachebuilder);
+        }
+    }
+
+    /**
+     * Queues the task on the next worker in turn. Workers may retire meanwhile, so the task is taken back and offered
+     * again if its worker retired before it could be sure the worker's last release would see it.
+     */
+    private boolean offerChunkUpdate(ChunkCompileTaskGenerator generator)
+    {
+        if (!this.workStealing)
+        {
+            return this.queueChunkUpdates.offer(generator);
+        }
+        else if (this.queuedChunkUpdates.incrementAndGet() > this.maxQueuedChunkUpdates)
+        {
+            this.queuedChunkUpdates.decrementAndGet();
+            return false;
+        }
+        else
+        {
+            while (true)
+            {
+                ChunkRenderWorker[] achunkrenderworker = (ChunkRenderWorker[])this.listThreadedWorkers.toArray(new ChunkRenderWorker[0]);
+                ChunkRenderWorker chunkrenderworker = null;
+                int i = this.nextWorker.getAndIncrement() & Integer.MAX_VALUE;
+
+                for (int j = 0; j < achunkrenderworker.length && chunkrenderworker == null; ++j)
+                {
+                    ChunkRenderWorker chunkrenderworker1 = achunkrenderworker[(i + j) % achunkrenderworker.length];
+
+                    if (!chunkrenderworker1.isRetired())
+                    {
+                        chunkrenderworker = chunkrenderworker1;
+                    }
+                }
+
+                if (chunkrenderworker == null)
+                {
+                    this.queuedChunkUpdates.decrementAndGet();
+                    return false;
+                }
+
+                chunkrenderworker.getTaskQueue().addLast(generator);
+
+                if (!chunkrenderworker.isRetired())
+                {
+                    this.chunkUpdatePermits.release();
+                    return true;
+                }
+
+                if (!chunkrenderworker.getTaskQueue().remove(generator))
+                {
+                    return true;
+                }
+            }
+        }
+    }
+
+    private void removeChunkUpdate(ChunkCompileTaskGenerator generator)
+    {
+        if (!this.workStealing)
+        {
+            this.queueChunkUpdates.remove(generator);
+        }
+        else
+        {
+            for (ChunkRenderWorker chunkrenderworker : this.listThreadedWorkers)
+            {
+                if (chunkrenderworker.getTaskQueue().remove(generator))
+                {
+                    this.queuedChunkUpdates.decrementAndGet();
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Takes the oldest task of the worker's own deque, or steals the newest one of another worker.
+     */
+    private ChunkCompileTaskGenerator pollChunkUpdate(ChunkRenderWorker worker)
+    {
+        ChunkCompileTaskGenerator chunkcompiletaskgenerator = worker == null ? null : (ChunkCompileTaskGenerator)worker.getTaskQueue().pollFirst();
+
+        if (chunkcompiletaskgenerator == null)
+        {
+            for (ChunkRenderWorker chunkrenderworker : this.listThreadedWorkers)
+            {
+                if (chunkrenderworker != worker)
+                {
+                    chunkcompiletaskgenerator = (ChunkCompileTaskGenerator)chunkrenderworker.getTaskQueue().pollLast();
+
+                    if (chunkcompiletaskgenerator != null)
+                    {
+                        break;
+                    }
+                }
+            }
+        }
+
+        if (chunkcompiletaskgenerator != null)
+        {
+            this.queuedChunkUpdates.decrementAndGet();
+        }
+
+        return chunkcompiletaskgenerator;
     }
 
     public boolean runChunkUploads(long p_178516_1_)
@@ -137,10 +383,10 @@ public class ChunkRenderDispatcher
             {
                 public void run()
                 {
-                    ChunkRenderDispatcher.this.queueChunkUpdates.remove(chunkcompiletaskgenerator);
+                    ChunkRenderDispatcher.this.removeChunkUpdate(chunkcompiletaskgenerator);
                 }
             });
-            boolean flag1 = this.queueChunkUpdates.offer(chunkcompiletaskgenerator);
+            boolean flag1 = this.offerChunkUpdate(chunkcompiletaskgenerator);
 
             if (!flag1)
             {
@@ -200,7 +446,19 @@ public class ChunkRenderDispatcher
         {
             try
             {
-                list.add(this.allocateRenderBuilder());
+                if (this.workStealing)
+                {
+                    RegionRenderCacheBuilder regionrendercachebuilder = this.pollFreeRenderBuilder(100L);
+
+                    if (regionrendercachebuilder != null)
+                    {
+                        list.add(regionrendercachebuilder);
+                    }
+                }
+                else
+                {
+                    list.add(this.allocateRenderBuilder());
+                }
             }
             catch (InterruptedException var3)
             {
@@ -216,16 +474,119 @@ public class ChunkRenderDispatcher
         this.queueFreeRenderBuilders.add(p_178512_1_);
     }
 
+    /**
+     * Returns a builder to the pool of the worker that used it, or to the shared pool if that worker has stopped.
+     */
+    void freeRenderBuilder(RegionRenderCacheBuilder builder, ChunkRenderWorker worker)
+    {
+        if (this.workStealing && !worker.isRetired())
+        {
+            worker.getFreeRenderBuilders().add(builder);
+        }
+        else
+        {
+            this.queueFreeRenderBuilders.add(builder);
+        }
+    }
+
     public RegionRenderCacheBuilder allocateRenderBuilder() throws InterruptedException
     {
         return (RegionRenderCacheBuilder)this.queueFreeRenderBuilders.take();
     }
 
+    /**
+     * Takes a builder from the worker's own pool, then from the unclaimed ones, then from another worker, and waits for
+     * one of its own builders to come back from upload if all are in use.
+     */
+    RegionRenderCacheBuilder allocateRenderBuilder(ChunkRenderWorker worker) throws InterruptedException
+    {
+        if (!this.workStealing)
+        {
+            return this.allocateRenderBuilder();
+        }
+        else
+        {
+            while (true)
+            {
+                RegionRenderCacheBuilder regionrendercachebuilder = (RegionRenderCacheBuilder)worker.getFreeRenderBuilders().poll();
+
+                if (regionrendercachebuilder == null)
+                {
+                    regionrendercachebuilder = this.pollFreeRenderBuilder(0L);
+                }
+
+                if (regionrendercachebuilder == null)
+                {
+                    regionrendercachebuilder = (RegionRenderCacheBuilder)worker.getFreeRenderBuilders().poll(10L, TimeUnit.MILLISECONDS);
+                }
+
+                if (regionrendercachebuilder != null)
+                {
+                    return regionrendercachebuilder;
+                }
+            }
+        }
+    }
+
+    /**
+     * Takes a builder from the shared pool or from any worker, waiting up to the given time on the shared pool.
+     */
+    private RegionRenderCacheBuilder pollFreeRenderBuilder(long timeoutMillis) throws InterruptedException
+    {
+        RegionRenderCacheBuilder regionrendercachebuilder = (RegionRenderCacheBuilder)this.queueFreeRenderBuilders.poll();
+
+        if (regionrendercachebuilder == null && this.workStealing)
+        {
+            for (ChunkRenderWorker chunkrenderworker : this.listThreadedWorkers)
+            {
+                regionrendercachebuilder = (RegionRenderCacheBuilder)chunkrenderworker.getFreeRenderBuilders().poll();
+
+                if (regionrendercachebuilder != null)
+                {
+                    return regionrendercachebuilder;
+                }
+            }
+        }
+
+        if (regionrendercachebuilder == null && timeoutMillis > 0L)
+        {
+            regionrendercachebuilder = (RegionRenderCacheBuilder)this.queueFreeRenderBuilders.poll(timeoutMillis, TimeUnit.MILLISECONDS);
+        }
+
+        return regionrendercachebuilder;
+    }
+
     public ChunkCompileTaskGenerator getNextChunkUpdate() throws InterruptedException
     {
         return (ChunkCompileTaskGenerator)this.queueChunkUpdates.take();
     }
 
+    /**
+     * Waits for the next task of the given worker. Returns null once the worker has been stopped.
+     */
+    ChunkCompileTaskGenerator getNextChunkUpdate(ChunkRenderWorker worker) throws InterruptedException
+    {
+        if (!this.workStealing)
+        {
+            return this.getNextChunkUpdate();
+        }
+        else
+        {
+            while (!worker.isRetired())
+            {
+                this.chunkUpdatePermits.tryAcquire(100L, TimeUnit.MILLISECONDS);
+                ChunkCompileTaskGenerator chunkcompiletaskgenerator = this.pollChunkUpdate(worker);
+
+                if (chunkcompiletaskgenerator != null)
+                {
+                    return chunkcompiletaskgenerator;
+                }
+            }
+
+            return null;
+        }
+    }
+
     public boolean updateTransparencyLater(RenderChunk chunkRenderer)
     {
         chunkRenderer.getLockCompileTask().lock();
@@ -241,10 +602,10 @@ public class ChunkRenderDispatcher
                 {
                     public void run()
                     {
-                        ChunkRenderDispatcher.this.queueChunkUpdates.remove(chunkcompiletaskgenerator);
+                        ChunkRenderDispatcher.this.removeChunkUpdate(chunkcompiletaskgenerator);
                     }
                 });
-                boolean flag2 = this.queueChunkUpdates.offer(chunkcompiletaskgenerator);
+                boolean flag2 = this.offerChunkUpdate(chunkcompiletaskgenerator);
                 return flag2;
             }
 
@@ -311,6 +672,16 @@ public class ChunkRenderDispatcher
 
     public void clearChunkUpdates()
     {
+        if (this.workStealing)
+        {
+            ChunkCompileTaskGenerator chunkcompiletaskgenerator1;
+
+            while ((chunkcompiletaskgenerator1 = this.pollChunkUpdate((ChunkRenderWorker)null)) != null)
+            {
+                chunkcompiletaskgenerator1.finish();
+            }
+        }
+
         while (!this.queueChunkUpdates.isEmpty())
         {
             ChunkCompileTaskGenerator chunkcompiletaskgenerator = (ChunkCompileTaskGenerator)this.queueChunkUpdates.poll();
@@ -324,7 +695,7 @@ public class ChunkRenderDispatcher
 
     public boolean hasChunkUpdates()
     {
-        return this.queueChunkUpdates.isEmpty() && this.queueChunkUploads.isEmpty();
+        return this.queueChunkUpdates.isEmpty() && this.queuedChunkUpdates.get() == 0 && this.queueChunkUploads.isEmpty();
     }
 
     public void pauseChunkUpdates()
@@ -334,7 +705,7 @@ public class ChunkRenderDispatcher
             try
             {
                 this.runChunkUploads(Long.MAX_VALUE);
-                RegionRenderCacheBuilder regionrendercachebuilder = (RegionRenderCacheBuilder)this.queueFreeRenderBuilders.poll(100L, TimeUnit.MILLISECONDS);
+                RegionRenderCacheBuilder regionrendercachebuilder = this.pollFreeRenderBuilder(100L);
 
                 if (regionrendercachebuilder != null)
                 {
@@ -6,7 +6,10 @@ import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.LinkedBlockingQueue;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.renderer.RegionRenderCacheBuilder;
 import net.minecraft.crash.CrashReport;
@@ -21,6 +24,13 @@ public class ChunkRenderWorker implements Runnable
     private final ChunkRenderDispatcher chunkRenderDispatcher;
     private final RegionRenderCacheBuilder regionRenderCacheBuilder;
 
+    /** Tasks queued on this worker, only used when the dispatcher is in work stealing mode */
+    private final ConcurrentLinkedDeque<ChunkCompileTaskGenerator> taskQueue = new ConcurrentLinkedDeque();
+
+    /** Builders this worker claimed and got back from upload, only used in work stealing mode */
+    private final BlockingQueue<RegionRenderCacheBuilder> freeRenderBuilders = new LinkedBlockingQueue();
+    private volatile boolean retired;
+
     public ChunkRenderWorker(ChunkRenderDispatcher p_i46201_1_)
     {
         this(p_i46201_1_, (RegionRenderCacheBuilder)null);
@@ -38,7 +48,16 @@ public class ChunkRenderWorker implements Runnable
         {
             try
             {
-                this.processTask(this.chunkRenderDispatcher.getNextChunkUpdate());
+                ChunkCompileTaskGenerator chunkcompiletaskgenerator = this.chunkRenderDispatcher.getNextChunkUpdate(this);
+
+                if (chunkcompiletaskgenerator == null)
+                {
+                    LOGGER.debug("Stopping, no longer needed");
+                    this.chunkRenderDispatcher.releaseWorkerQueues(this);
+                    return;
+                }
+
+                this.processTask(chunkcompiletaskgenerator);
             }
             catch (InterruptedException var3)
             {
@@ -193,14 +212,34 @@ public class ChunkRenderWorker implements Runnable
 
     private RegionRenderCacheBuilder getRegionRenderCacheBuilder() throws InterruptedException
     {
-        return this.regionRenderCacheBuilder != null ? this.regionRenderCacheBuilder : this.chunkRenderDispatcher.allocateRenderBuilder();
+        return this.regionRenderCacheBuilder != null ? this.regionRenderCacheBuilder : this.chunkRenderDispatcher.allocateRenderBuilder(this);
     }
 
     private void freeRenderBuilder(ChunkCompileTaskGenerator taskGenerator)
     {
         if (this.regionRenderCacheBuilder == null)
         {
-            this.chunkRenderDispatcher.freeRenderBuilder(taskGenerator.getRegionRenderCacheBuilder());
+            this.chunkRenderDispatcher.freeRenderBuilder(taskGenerator.getRegionRenderCacheBuilder(), this);
         }
     }
+
+    ConcurrentLinkedDeque<ChunkCompileTaskGenerator> getTaskQueue()
+    {
+        return this.taskQueue;
+    }
+
+    BlockingQueue<RegionRenderCacheBuilder> getFreeRenderBuilders()
+    {
+        return this.freeRenderBuilders;
+    }
+
+    boolean isRetired()
+    {
+        return this.retired;
+    }
+
+    void setRetired()
+    {
+        this.retired = true;
+    }
 }
@@ -0,0 +1,272 @@
+package net.minecraft.client.renderer.chunk;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import net.minecraft.util.BlockPos;
+import pisi.unitedmeows.minecraft.Settings;
+
+/**
+ * Render chunks waiting for a rebuild, iterated closest first. Chunks outside the frustum count as further away and
+ * every chunk gets closer the longer it waits, so nothing starves. The order is only recomputed when the set of
+ * chunks or their visibility changed, the camera moved a few blocks or the ages drifted, not every frame.
+ */
+public class ChunkUpdateQueue implements Iterable<RenderChunk>
+{
+    /** Chunks outside the frustum are treated as this many times further away */
+    private static final double OFFSCREEN_PENALTY = 4.0D;
+
+    /** Waiting this long halves the effective distance of a chunk */
+    private static final double AGE_HALVING_NANOS = 1.0E9D;
+    private static final long REORDER_INTERVAL_NANOS = 250000000L;
+    private static final double REORDER_DISTANCE_SQ = 64.0D;
+    private static final Comparator<ChunkUpdateQueue.Entry> PRIORITY_ORDER = new Comparator<ChunkUpdateQueue.Entry>()
+    {
+        public int compare(ChunkUpdateQueue.Entry p_compare_1_, ChunkUpdateQueue.Entry p_compare_2_)
+        {
+            return Double.compare(p_compare_1_.priority, p_compare_2_.priority);
+        }
+    };
+    private final Map<RenderChunk, ChunkUpdateQueue.Entry> entries = Maps.<RenderChunk, ChunkUpdateQueue.Entry>newLinkedHashMap();
+    private final List<ChunkUpdateQueue.Entry> orderedEntries = Lists.<ChunkUpdateQueue.Entry>newArrayList();
+    private boolean orderDirty;
+    private double viewX;
+    private double viewY;
+    private double viewZ;
+    private double orderedViewX;
+    private double orderedViewY;
+    private double orderedViewZ;
+    private long lastOrderNanos;
+    private int frame;
+
+    /** Queued chunks marked visible in the current frame */
+    private int visibleCount;
+
+    /** Queued chunks that were visible when the order was last computed */
+    private int orderedVisibleCount;
+
+    public boolean add(RenderChunk renderChunk)
+    {
+        if (this.entries.containsKey(renderChunk))
+        {
+            return false;
+        }
+        else
+        {
+            this.entries.put(renderChunk, new ChunkUpdateQueue.Entry(renderChunk, System.nanoTime()));
+            this.orderDirty = true;
+            return true;
+        }
+    }
+
+    public boolean remove(RenderChunk renderChunk)
+    {
+        ChunkUpdateQueue.Entry chunkupdatequeue$entry = (ChunkUpdateQueue.Entry)this.entries.remove(renderChunk);
+
+        if (chunkupdatequeue$entry == null)
+        {
+            return false;
+        }
+        else
+        {
+            chunkupdatequeue$entry.removed = true;
+
+            if (chunkupdatequeue$entry.orderedVisible)
+            {
+                --this.orderedVisibleCount;
+            }
+
+            if (chunkupdatequeue$entry.visibleFrame == this.frame)
+            {
+                --this.visibleCount;
+            }
+
+            return true;
+        }
+    }
+
+    public boolean contains(RenderChunk renderChunk)
+    {
+        return this.entries.containsKey(renderChunk);
+    }
+
+    public boolean isEmpty()
+    {
+        return this.entries.isEmpty();
+    }
+
+    public int size()
+    {
+        return this.entries.size();
+    }
+
+    public void clear()
+    {
+        for (ChunkUpdateQueue.Entry chunkupdatequeue$entry : this.entries.values())
+        {
+            chunkupdatequeue$entry.removed = true;
+        }
+
+        this.entries.clear();
+        this.orderedEntries.clear();
+        this.visibleCount = 0;
+        this.orderedVisibleCount = 0;
+    }
+
+    /**
+     * Starts a new frame seen from the given position. Chunks in the frustum are then reported with markVisible.
+     */
+    public void beginFrame(double x, double y, double z)
+    {
+        this.viewX = x;
+        this.viewY = y;
+        this.viewZ = z;
+        ++this.frame;
+        this.visibleCount = 0;
+    }
+
+    public void markVisible(RenderChunk renderChunk)
+    {
+        ChunkUpdateQueue.Entry chunkupdatequeue$entry = (ChunkUpdateQueue.Entry)this.entries.get(renderChunk);
+
+        if (chunkupdatequeue$entry != null && chunkupdatequeue$entry.visibleFrame != this.frame)
+        {
+            chunkupdatequeue$entry.visibleFrame = this.frame;
+            ++this.visibleCount;
+
+            if (!chunkupdatequeue$entry.orderedVisible)
+            {
+                this.orderDirty = true;
+            }
+        }
+    }
+
+    /**
+     * Iterates the queued chunks by priority. Removing through the iterator removes from the queue; chunks added while
+     * iterating are only visited by the next iterator.
+     */
+    public Iterator<RenderChunk> iterator()
+    {
+        if (!Settings.PRIORITIZED_CHUNK_UPDATES)
+        {
+            return this.entries.keySet().iterator();
+        }
+        else
+        {
+            this.updateOrder();
+            return new ChunkUpdateQueue.PriorityIterator();
+        }
+    }
+
+    private void updateOrder()
+    {
+        long i = System.nanoTime();
+
+        if (!this.orderDirty && this.visibleCount == this.orderedVisibleCount && i - this.lastOrderNanos < REORDER_INTERVAL_NANOS)
+        {
+            double d0 = this.viewX - this.orderedViewX;
+            double d1 = this.viewY - this.orderedViewY;
+            double d2 = this.viewZ - this.orderedViewZ;
+
+            if (d0 * d0 + d1 * d1 + d2 * d2 < REORDER_DISTANCE_SQ)
+            {
+                return;
+            }
+        }
+
+        this.orderedEntries.clear();
+        this.orderedVisibleCount = 0;
+
+        for (ChunkUpdateQueue.Entry chunkupdatequeue$entry : this.entries.values())
+        {
+            BlockPos blockpos = chunkupdatequeue$entry.renderChunk.getPosition();
+            double d3 = (double)blockpos.getX() + 8.0D - this.viewX;
+            double d4 = (double)blockpos.getY() + 8.0D - this.viewY;
+            double d5 = (double)blockpos.getZ() + 8.0D - this.viewZ;
+            double d6 = Math.sqrt(d3 * d3 + d4 * d4 + d5 * d5);
+            chunkupdatequeue$entry.orderedVisible = chunkupdatequeue$entry.visibleFrame == this.frame;
+
+            if (chunkupdatequeue$entry.orderedVisible)
+            {
+                ++this.orderedVisibleCount;
+            }
+            else
+            {
+                d6 *= OFFSCREEN_PENALTY;
+            }
+
+            chunkupdatequeue$entry.priority = d6 / (1.0D + (double)(i - chunkupdatequeue$entry.queuedNanos) / AGE_HALVING_NANOS);
+            this.orderedEntries.add(chunkupdatequeue$entry);
+        }
+
+        Collections.sort(this.orderedEntries, PRIORITY_ORDER);
+        this.orderedViewX = this.viewX;
+        this.orderedViewY = this.viewY;
+        this.orderedViewZ = this.viewZ;
+        this.lastOrderNanos = i;
+        this.orderDirty = false;
+    }
+
+    static class Entry
+    {
+        final RenderChunk renderChunk;
+        final long queuedNanos;
+        int visibleFrame = -1;
+        boolean orderedVisible;
+        boolean removed;
+        double priority;
+
+        Entry(RenderChunk renderChunkIn, long queuedNanosIn)
+        {
+            this.renderChunk = renderChunkIn;
+            this.queuedNanos = queuedNanosIn;
+        }
+    }
+
+    class PriorityIterator implements Iterator<RenderChunk>
+    {
+        private int nextIndex;
+        private ChunkUpdateQueue.Entry current;
+
+        public boolean hasNext()
+        {
+            while (this.nextIndex < ChunkUpdateQueue.this.orderedEntries.size() && ((ChunkUpdateQueue.Entry)ChunkUpdateQueue.this.orderedEntries.get(this.nextIndex)).removed)
+            {
+                ++this.nextIndex;
+            }
+
+            return this.nextIndex < ChunkUpdateQueue.this.orderedEntries.size();
+        }
+
+        public RenderChunk next()
+        {
+            if (!this.hasNext())
+            {
+                throw new NoSuchElementException();
+            }
+            else
+            {
+                this.current = (ChunkUpdateQueue.Entry)ChunkUpdateQueue.this.orderedEntries.get(this.nextIndex++);
+                return this.current.renderChunk;
+            }
+        }
+
+        public void remove()
+        {
+            if (this.current == null)
+            {
+                throw new IllegalStateException();
+            }
+            else
+            {
+                ChunkUpdateQueue.this.remove(this.current.renderChunk);
+                this.current = null;
+            }
+        }
+    }
+}
@@ -34,6 +34,7 @@ public class CompiledChunk
     private boolean empty = true;
     private final List<TileEntity> tileEntities = Lists.<TileEntity>newArrayList();
     private SetVisibility setVisibility = new SetVisibility();
+    private int[] occluders = new int[0];
     private WorldRenderer.State state;
     private BitSet[] animatedSprites = new BitSet[RenderChunk.ENUM_WORLD_BLOCK_LAYERS.length];
 
@@ -83,6 +84,19 @@ public class CompiledChunk
         this.setVisibility = visibility;
     }
 
+    /**
+     * Solid boxes of opaque blocks in the chunk, packed as described in VisGraph.computeOccluders.
+     */
+    public int[] getOccluders()
+    {
+        return this.occluders;
+    }
+
+    public void setOccluders(int[] occludersIn)
+    {
+        this.occluders = occludersIn;
+    }
+
     public WorldRenderer.State getState()
     {
         return this.state;
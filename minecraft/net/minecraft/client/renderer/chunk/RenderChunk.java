@@ -320,6 +320,7 @@ public class RenderChunk
             chunkcacheof.renderFinish();
         }
 
+        compiledchunk.setOccluders(lvt_10_1_.computeOccluders());
         compiledchunk.setVisibility(lvt_10_1_.computeVisibility());
         this.lockCompileTask.lock();
 
@@ -1,6 +1,7 @@
 package net.minecraft.client.renderer.chunk;
 
 import java.util.ArrayDeque;
+import java.util.Arrays;
 import java.util.BitSet;
 import java.util.EnumSet;
 import java.util.Queue;
@@ -16,6 +17,11 @@ public class VisGraph
     private static final int field_178615_c = (int)Math.pow(16.0D, 2.0D);
     private final BitSet field_178612_d = new BitSet(4096);
     private static final int[] field_178613_e = new int[1352];
+    private static final int MAX_OCCLUDERS = 8;
+    private static final int[] NO_OCCLUDERS = new int[0];
+
+    /** Solid boxes smaller than this many blocks hide too little to be worth rasterizing as occluders */
+    private static final int MIN_OCCLUDER_VOLUME = 32;
     private int field_178611_f = 4096;
 
     public void func_178606_a(BlockPos pos)
@@ -60,6 +66,134 @@ public class VisGraph
         return setvisibility;
     }
 
+    /**
+     * Splits the opaque blocks of the section into solid boxes and returns the largest few, for use as occluders. Each
+     * box is packed into an int as min x, y, z and size x, y, z minus one, four bits each from the lowest bits up. Has
+     * to be called before computeVisibility, which fills in the blocks it flooded.
+     */
+    public int[] computeOccluders()
+    {
+        int i = 4096 - this.field_178611_f;
+
+        if (i == 4096)
+        {
+            return new int[] {packOccluder(0, 0, 0, 16, 16, 16)};
+        }
+        else if (i < MIN_OCCLUDER_VOLUME)
+        {
+            return NO_OCCLUDERS;
+        }
+        else
+        {
+            BitSet bitset = new BitSet(4096);
+            int[] aint = new int[MAX_OCCLUDERS];
+            int[] aint1 = new int[MAX_OCCLUDERS];
+            int j = 0;
+
+            for (int k = 0; k < 16; ++k)
+            {
+                for (int l = 0; l < 16; ++l)
+                {
+                    for (int i1 = 0; i1 < 16; ++i1)
+                    {
+                        if (this.isSolidBox(i1, k, l, i1 + 1, k + 1, l + 1, bitset))
+                        {
+                            int j1 = i1 + 1;
+                            int k1 = l + 1;
+                            int l1 = k + 1;
+
+                            while (j1 < 16 && this.isSolidBox(j1, k, l, j1 + 1, k + 1, l + 1, bitset))
+                            {
+                                ++j1;
+                            }
+
+                            while (k1 < 16 && this.isSolidBox(i1, k, k1, j1, k + 1, k1 + 1, bitset))
+                            {
+                                ++k1;
+                            }
+
+                            while (l1 < 16 && this.isSolidBox(i1, l1, l, j1, l1 + 1, k1, bitset))
+                            {
+                                ++l1;
+                            }
+
+                            for (int i2 = k; i2 < l1; ++i2)
+                            {
+                                for (int j2 = l; j2 < k1; ++j2)
+                                {
+                                    bitset.set(getIndex(i1, i2, j2), getIndex(j1 - 1, i2, j2) + 1);
+                                }
+                            }
+
+                            int k2 = (j1 - i1) * (l1 - k) * (k1 - l);
+
+                            if (k2 >= MIN_OCCLUDER_VOLUME)
+                            {
+                                int l2 = j;
+
+                                if (j < MAX_OCCLUDERS)
+                                {
+                                    ++j;
+                                }
+                                else
+                                {
+                                    l2 = 0;
+
+                                    for (int i3 = 1; i3 < MAX_OCCLUDERS; ++i3)
+                                    {
+                                        if (aint1[i3] < aint1[l2])
+                                        {
+                                            l2 = i3;
+                                        }
+                                    }
+
+                                    if (aint1[l2] >= k2)
+                                    {
+                                        continue;
+                                    }
+                                }
+
+                                aint[l2] = packOccluder(i1, k, l, j1, l1, k1);
+                                aint1[l2] = k2;
+                            }
+                        }
+                    }
+                }
+            }
+
+            return Arrays.copyOf(aint, j);
+        }
+    }
+
+    /**
+     * Whether every block of the box is opaque and not yet part of an occluder.
+     */
+    private boolean isSolidBox(int minX, int minY, int minZ, int maxX, int maxY, int maxZ, BitSet taken)
+    {
+        for (int i = minY; i < maxY; ++i)
+        {
+            for (int j = minZ; j < maxZ; ++j)
+            {
+                for (int k = minX; k < maxX; ++k)
+                {
+                    int l = getIndex(k, i, j);
+
+                    if (!this.field_178612_d.get(l) || taken.get(l))
+                    {
+                        return false;
+                    }
+                }
+            }
+        }
+
+        return true;
+    }
+
+    private static int packOccluder(int minX, int minY, int minZ, int maxX, int maxY, int maxZ)
+    {
+        return minX | minY << 4 | minZ << 8 | maxX - minX - 1 << 12 | maxY - minY - 1 << 16 | maxZ - minZ - 1 << 20;
+    }
+
     public Set<EnumFacing> func_178609_b(BlockPos pos)
     {
         return this.func_178604_a(getIndex(pos));
@@ -21,6 +21,14 @@ public class Frustum implements ICamera {
 		this.zPosition = p_78547_5_;
 	}
 
+	public ClippingHelper getClippingHelper() { return this.clippingHelper; }
+
+	public double getPositionX() { return this.xPosition; }
+
+	public double getPositionY() { return this.yPosition; }
+
+	public double getPositionZ() { return this.zPosition; }
+
 	/**
 	 * Calls the clipping helper. Returns true if the box is inside all 6 clipping planes, otherwise
 	 * returns false.
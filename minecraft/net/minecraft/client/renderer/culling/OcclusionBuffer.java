@@ -0,0 +1,306 @@
+package net.minecraft.client.renderer.culling;
+
+import java.util.Arrays;
+import net.minecraft.util.AxisAlignedBB;
+import net.minecraft.util.BlockPos;
+import pisi.unitedmeows.minecraft.Settings;
+
+/**
+ * Small depth buffer drawn on the CPU from the solid boxes of nearby chunks, to skip chunks that pass the frustum and
+ * cave culling but lie completely behind those boxes. Occluders only write pixels they cover completely, with the
+ * depth of their farthest corner, and a box only counts as hidden if every pixel it may touch holds something nearer
+ * than its nearest corner, so nothing visible is ever skipped.
+ */
+public class OcclusionBuffer
+{
+    private static final int WIDTH = 128;
+    private static final int HEIGHT = 64;
+
+    /** Boxes with a corner closer to the camera plane than this are never drawn or culled */
+    private static final float NEAR = 0.05F;
+
+    /** Only chunks closer than this many blocks are drawn as occluders */
+    private static final double OCCLUDER_DISTANCE = 96.0D;
+    private final float[] depth = new float[WIDTH * HEIGHT];
+    private final float[] matrix = new float[16];
+    private double originX;
+    private double originY;
+    private double originZ;
+    private final float[] cornersX = new float[8];
+    private final float[] cornersY = new float[8];
+    private float depthMin;
+    private float depthMax;
+    private final int[] cornerOrder = new int[8];
+    private final int[] hull = new int[16];
+
+    /**
+     * Clears the buffer for a new pass seen through the camera. Returns false if the camera can not be used for
+     * occlusion, in which case nothing should be tested.
+     */
+    public boolean begin(ICamera camera)
+    {
+        if (Settings.SOFTWARE_OCCLUSION_CULLING && camera instanceof Frustum)
+        {
+            Frustum frustum = (Frustum)camera;
+            ClippingHelper clippinghelper = frustum.getClippingHelper();
+
+            if (!clippinghelper.disabled)
+            {
+                System.arraycopy(clippinghelper.clippingMatrix, 0, this.matrix, 0, 16);
+                this.originX = frustum.getPositionX();
+                this.originY = frustum.getPositionY();
+                this.originZ = frustum.getPositionZ();
+                Arrays.fill(this.depth, Float.POSITIVE_INFINITY);
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Whether the box is completely hidden behind the occluders drawn so far.
+     */
+    public boolean isOccluded(AxisAlignedBB box)
+    {
+        if (!this.projectBox(box.minX, box.minY, box.minZ, box.maxX, box.maxY, box.maxZ))
+        {
+            return false;
+        }
+        else
+        {
+            float f = Float.POSITIVE_INFINITY;
+            float f1 = Float.POSITIVE_INFINITY;
+            float f2 = Float.NEGATIVE_INFINITY;
+            float f3 = Float.NEGATIVE_INFINITY;
+
+            for (int i = 0; i < 8; ++i)
+            {
+                f = Math.min(f, this.cornersX[i]);
+                f1 = Math.min(f1, this.cornersY[i]);
+                f2 = Math.max(f2, this.cornersX[i]);
+                f3 = Math.max(f3, this.cornersY[i]);
+            }
+
+            int j = Math.max(0, (int)Math.floor((double)f));
+            int k = Math.max(0, (int)Math.floor((double)f1));
+            int l = Math.min(WIDTH - 1, (int)Math.floor((double)f2));
+            int i1 = Math.min(HEIGHT - 1, (int)Math.floor((double)f3));
+
+            if (j > l || k > i1)
+            {
+                return false;
+            }
+            else
+            {
+                for (int j1 = k; j1 <= i1; ++j1)
+                {
+                    for (int k1 = j; k1 <= l; ++k1)
+                    {
+                        if (this.depth[j1 * WIDTH + k1] >= this.depthMin)
+                        {
+                            return false;
+                        }
+                    }
+                }
+
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Draws the occluder boxes of the chunk at pos, packed as in VisGraph.computeOccluders, if the chunk is close
+     * enough to hide a meaningful part of the view.
+     */
+    public void addOccluders(BlockPos pos, int[] occluders)
+    {
+        if (occluders.length > 0)
+        {
+            double d0 = (double)pos.getX() + 8.0D - this.originX;
+            double d1 = (double)pos.getY() + 8.0D - this.originY;
+            double d2 = (double)pos.getZ() + 8.0D - this.originZ;
+
+            if (d0 * d0 + d1 * d1 + d2 * d2 <= OCCLUDER_DISTANCE * OCCLUDER_DISTANCE)
+            {
+                for (int i : occluders)
+                {
+                    int j = pos.getX() + (i & 15);
+                    int k = pos.getY() + (i >> 4 & 15);
+                    int l = pos.getZ() + (i >> 8 & 15);
+                    int i1 = j + (i >> 12 & 15) + 1;
+                    int j1 = k + (i >> 16 & 15) + 1;
+                    int k1 = l + (i >> 20 & 15) + 1;
+                    this.drawOccluder((double)j, (double)k, (double)l, (double)i1, (double)j1, (double)k1);
+                }
+            }
+        }
+    }
+
+    private void drawOccluder(double minX, double minY, double minZ, double maxX, double maxY, double maxZ)
+    {
+        if (this.projectBox(minX, minY, minZ, maxX, maxY, maxZ))
+        {
+            int i = this.computeHull();
+
+            if (i >= 3)
+            {
+                float f = Float.POSITIVE_INFINITY;
+                float f1 = Float.POSITIVE_INFINITY;
+                float f2 = Float.NEGATIVE_INFINITY;
+                float f3 = Float.NEGATIVE_INFINITY;
+
+                for (int j = 0; j < i; ++j)
+                {
+                    int k = this.hull[j];
+                    f = Math.min(f, this.cornersX[k]);
+                    f1 = Math.min(f1, this.cornersY[k]);
+                    f2 = Math.max(f2, this.cornersX[k]);
+                    f3 = Math.max(f3, this.cornersY[k]);
+                }
+
+                int l = Math.max(0, (int)Math.ceil((double)f));
+                int i1 = Math.max(0, (int)Math.ceil((double)f1));
+                int j1 = Math.min(WIDTH, (int)Math.floor((double)f2));
+                int k1 = Math.min(HEIGHT, (int)Math.floor((double)f3));
+
+                for (int l1 = i1; l1 < k1; ++l1)
+                {
+                    for (int i2 = l; i2 < j1; ++i2)
+                    {
+                        int j2 = l1 * WIDTH + i2;
+
+                        if (this.depth[j2] > this.depthMax && this.isPixelInHull(i2, l1, i))
+                        {
+                            this.depth[j2] = this.depthMax;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Whether the whole square of the pixel lies inside the counter clockwise hull of the given number of corners.
+     */
+    private boolean isPixelInHull(int x, int y, int hullSize)
+    {
+        float f = (float)x + 0.5F;
+        float f1 = (float)y + 0.5F;
+
+        for (int i = 0; i < hullSize; ++i)
+        {
+            int j = this.hull[i];
+            int k = this.hull[(i + 1) % hullSize];
+            float f2 = this.cornersX[k] - this.cornersX[j];
+            float f3 = this.cornersY[k] - this.cornersY[j];
+            float f4 = f2 * (f1 - this.cornersY[j]) - f3 * (f - this.cornersX[j]);
+
+            if (f4 < (Math.abs(f2) + Math.abs(f3)) * 0.5F)
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Puts the corners on the convex hull of the projected box into hull in counter clockwise order and returns how
+     * many there are.
+     */
+    private int computeHull()
+    {
+        for (int i = 0; i < 8; ++i)
+        {
+            int j = i;
+
+            while (j > 0 && this.isBefore(i, this.cornerOrder[j - 1]))
+            {
+                this.cornerOrder[j] = this.cornerOrder[j - 1];
+                --j;
+            }
+
+            this.cornerOrder[j] = i;
+        }
+
+        int k = 0;
+
+        for (int l = 0; l < 8; ++l)
+        {
+            int i1 = this.cornerOrder[l];
+
+            while (k >= 2 && this.cross(this.hull[k - 2], this.hull[k - 1], i1) <= 0.0F)
+            {
+                --k;
+            }
+
+            this.hull[k++] = i1;
+        }
+
+        int j1 = k + 1;
+
+        for (int k1 = 6; k1 >= 0; --k1)
+        {
+            int l1 = this.cornerOrder[k1];
+
+            while (k >= j1 && this.cross(this.hull[k - 2], this.hull[k - 1], l1) <= 0.0F)
+            {
+                --k;
+            }
+
+            this.hull[k++] = l1;
+        }
+
+        return k - 1;
+    }
+
+    private boolean isBefore(int corner, int other)
+    {
+        return this.cornersX[corner] < this.cornersX[other] || this.cornersX[corner] == this.cornersX[other] && this.cornersY[corner] < this.cornersY[other];
+    }
+
+    private float cross(int origin, int a, int b)
+    {
+        return (this.cornersX[a] - this.cornersX[origin]) * (this.cornersY[b] - this.cornersY[origin]) - (this.cornersY[a] - this.cornersY[origin]) * (this.cornersX[b] - this.cornersX[origin]);
+    }
+
+    /**
+     * Projects the corners of the box into buffer pixels and records their nearest and farthest depth. Returns false
+     * if a corner is behind or too close to the camera.
+     */
+    private boolean projectBox(double minX, double minY, double minZ, double maxX, double maxY, double maxZ)
+    {
+        float[] afloat = this.matrix;
+        float f = (float)(minX - this.originX);
+        float f1 = (float)(minY - this.originY);
+        float f2 = (float)(minZ - this.originZ);
+        float f3 = (float)(maxX - this.originX);
+        float f4 = (float)(maxY - this.originY);
+        float f5 = (float)(maxZ - this.originZ);
+        this.depthMin = Float.POSITIVE_INFINITY;
+        this.depthMax = 0.0F;
+
+        for (int i = 0; i < 8; ++i)
+        {
+            float f6 = (i & 1) == 0 ? f : f3;
+            float f7 = (i & 2) == 0 ? f1 : f4;
+            float f8 = (i & 4) == 0 ? f2 : f5;
+            float f9 = afloat[3] * f6 + afloat[7] * f7 + afloat[11] * f8 + afloat[15];
+
+            if (f9 < NEAR)
+            {
+                return false;
+            }
+
+            float f10 = afloat[0] * f6 + afloat[4] * f7 + afloat[8] * f8 + afloat[12];
+            float f11 = afloat[1] * f6 + afloat[5] * f7 + afloat[9] * f8 + afloat[13];
+            this.cornersX[i] = (f10 / f9 * 0.5F + 0.5F) * (float)WIDTH;
+            this.cornersY[i] = (f11 / f9 * 0.5F + 0.5F) * (float)HEIGHT;
+            this.depthMin = Math.min(this.depthMin, f9);
+            this.depthMax = Math.max(this.depthMax, f9);
+        }
+
+        return true;
+    }
+}
@@ -4,6 +4,7 @@ import java.awt.Dimension;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -12,6 +13,9 @@ import java.util.Map.Entry;
 import java.util.Set;
 import java.util.TreeSet;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -41,11 +45,19 @@ import net.optifine.reflect.ReflectorForge;
 import net.optifine.shaders.ShadersTex;
 import net.optifine.util.CounterInt;
 import net.optifine.util.TextureUtils;
+import pisi.unitedmeows.minecraft.Settings;
 
 public class TextureMap extends AbstractTexture implements ITickableTextureObject
 {
     private static final boolean ENABLE_SKIP = Boolean.parseBoolean(System.getProperty("fml.skipFirstTextureLoad", "true"));
     private static final Logger logger = LogManager.getLogger();
+
+    /** Decodes sprite images and generates mipmaps during atlas reloads, the stitching and upload stay on the caller */
+    private static final ForkJoinPool spriteLoadingPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors(), (pool) -> {
+        ForkJoinWorkerThread forkjoinworkerthread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        forkjoinworkerthread.setName("Texture Loader #" + forkjoinworkerthread.getPoolIndex());
+        return forkjoinworkerthread;
+    }, (Thread.UncaughtExceptionHandler)null, false);
     public static final ResourceLocation LOCATION_MISSING_TEXTURE = new ResourceLocation("missingno");
     public static final ResourceLocation locationBlocksTexture = new ResourceLocation("textures/atlas/blocks.png");
     private final List<TextureAtlasSprite> listAnimatedSprites;
@@ -168,6 +180,7 @@ public class TextureMap extends AbstractTexture implements ITickableTextureObjec
         int l = 0;
         int i1 = 0;
         Iterator iterator = this.mapRegisteredSprites.entrySet().iterator();
+        List<TextureAtlasSprite> list2 = Lists.<TextureAtlasSprite>newArrayList();
 
         while (true)
         {
@@ -179,7 +192,6 @@ public class TextureMap extends AbstractTexture implements ITickableTextureObjec
                 {
                     TextureAtlasSprite textureatlassprite3 = (TextureAtlasSprite)entry.getValue();
                     ResourceLocation resourcelocation1 = new ResourceLocation(textureatlassprite3.getIconName());
-                    ResourceLocation resourcelocation2 = this.completeResourceLocation(resourcelocation1, 0);
                     textureatlassprite3.updateIndexInMap(this.counterIndexInMap);
 
                     if (textureatlassprite3.hasCustomLoader(resourceManager, resourcelocation1))
@@ -197,106 +209,28 @@ public class TextureMap extends AbstractTexture implements ITickableTextureObjec
                         continue;
                     }
 
-                    try
-                    {
-                        IResource iresource = resourceManager.getResource(resourcelocation2);
-                        BufferedImage[] abufferedimage = new BufferedImage[1 + this.mipmapLevels];
-                        abufferedimage[0] = TextureUtil.readBufferedImage(iresource.getInputStream());
-                        int k3 = abufferedimage[0].getWidth();
-                        int l3 = abufferedimage[0].getHeight();
-
-                        if (k3 < 1 || l3 < 1)
-                        {
-                            Config.warn("Invalid sprite size: " + textureatlassprite3);
-                            continue;
-                        }
-
-                        if (k3 < j || this.mipmapLevels > 0)
-                        {
-                            int i4 = this.mipmapLevels > 0 ? TextureUtils.scaleToGrid(k3, j) : TextureUtils.scaleToMin(k3, j);
-
-                            if (i4 != k3)
-                            {
-                                if (!TextureUtils.isPowerOfTwo(k3))
-                                {
-                                    Config.log("Scaled non power of 2: " + textureatlassprite3.getIconName() + ", " + k3 + " -> " + i4);
-                                }
-                                else
-                                {
-                                    Config.log("Scaled too small texture: " + textureatlassprite3.getIconName() + ", " + k3 + " -> " + i4);
-                                }
-
-                                int j1 = l3 * i4 / k3;
-                                abufferedimage[0] = TextureUtils.scaleImage(abufferedimage[0], i4);
-                            }
-                        }
-
-                        TextureMetadataSection texturemetadatasection = (TextureMetadataSection)iresource.getMetadata("texture");
-
-                        if (texturemetadatasection != null)
-                        {
-                            List<Integer> list1 = texturemetadatasection.getListMipmaps();
-
-                            if (!list1.isEmpty())
-                            {
-                                int k1 = abufferedimage[0].getWidth();
-                                int l1 = abufferedimage[0].getHeight();
-
-                                if (MathHelper.roundUpToPowerOfTwo(k1) != k1 || MathHelper.roundUpToPowerOfTwo(l1) != l1)
-                                {
-                                    throw new RuntimeException("Unable to load extra miplevels, source-texture is not power of two");
-                                }
-                            }
-
-                            Iterator iterator1 = list1.iterator();
+                    list2.add(textureatlassprite3);
+                    continue;
+                }
+            }
 
-                            while (iterator1.hasNext())
-                            {
-                                int j4 = ((Integer)iterator1.next()).intValue();
-
-                                if (j4 > 0 && j4 < abufferedimage.length - 1 && abufferedimage[j4] == null)
-                                {
-                                    ResourceLocation resourcelocation = this.completeResourceLocation(resourcelocation1, j4);
-
-                                    try
-                                    {
-                                        abufferedimage[j4] = TextureUtil.readBufferedImage(resourceManager.getResource(resourcelocation).getInputStream());
-                                    }
-                                    catch (IOException ioexception)
-                                    {
-                                        logger.error("Unable to load miplevel {} from: {}", new Object[] {Integer.valueOf(j4), resourcelocation, ioexception});
-                                    }
-                                }
-                            }
-                        }
-
-                        AnimationMetadataSection animationmetadatasection = (AnimationMetadataSection)iresource.getMetadata("animation");
-                        textureatlassprite3.loadSprite(abufferedimage, animationmetadatasection);
-                    }
-                    catch (RuntimeException runtimeexception)
-                    {
-                        logger.error((String)("Unable to parse metadata from " + resourcelocation2), (Throwable)runtimeexception);
-                        ReflectorForge.FMLClientHandler_trackBrokenTexture(resourcelocation2, runtimeexception.getMessage());
-                        continue;
-                    }
-                    catch (IOException ioexception1)
-                    {
-                        logger.error("Using missing texture, unable to load " + resourcelocation2 + ", " + ioexception1.getClass().getName());
-                        ReflectorForge.FMLClientHandler_trackMissingTexture(resourcelocation2);
-                        continue;
-                    }
+            boolean[] aboolean = this.loadSpriteImages(resourceManager, list2, j);
 
+            for (int k4 = 0; k4 < list2.size(); ++k4)
+            {
+                if (aboolean[k4])
+                {
+                    TextureAtlasSprite textureatlassprite3 = (TextureAtlasSprite)list2.get(k4);
                     i = Math.min(i, Math.min(textureatlassprite3.getIconWidth(), textureatlassprite3.getIconHeight()));
                     int j3 = Math.min(Integer.lowestOneBit(textureatlassprite3.getIconWidth()), Integer.lowestOneBit(textureatlassprite3.getIconHeight()));
 
                     if (j3 < k)
                     {
-                        logger.warn("Texture {} with size {}x{} limits mip level from {} to {}", new Object[] {resourcelocation2, Integer.valueOf(textureatlassprite3.getIconWidth()), Integer.valueOf(textureatlassprite3.getIconHeight()), Integer.valueOf(MathHelper.calculateLogBaseTwo(k)), Integer.valueOf(MathHelper.calculateLogBaseTwo(j3))});
+                        logger.warn("Texture {} with size {}x{} limits mip level from {} to {}", new Object[] {this.completeResourceLocation(new ResourceLocation(textureatlassprite3.getIconName()), 0), Integer.valueOf(textureatlassprite3.getIconWidth()), Integer.valueOf(textureatlassprite3.getIconHeight()), Integer.valueOf(MathHelper.calculateLogBaseTwo(k)), Integer.valueOf(MathHelper.calculateLogBaseTwo(j3))});
                         k = j3;
                     }
 
                     stitcher.addSprite(textureatlassprite3);
-                    continue;
                 }
             }
 
@@ -324,45 +258,9 @@ public class TextureMap extends AbstractTexture implements ITickableTextureObjec
                 this.mipmapLevels = k2;
             }
 
-            for (final TextureAtlasSprite textureatlassprite1 : this.mapRegisteredSprites.values())
+            if (!this.skipFirst)
             {
-                if (this.skipFirst)
-                {
-                    break;
-                }
-
-                try
-                {
-                    textureatlassprite1.generateMipmaps(this.mipmapLevels);
-                }
-                catch (Throwable throwable1)
-                {
-                    CrashReport crashreport = CrashReport.makeCrashReport(throwable1, "Applying mipmap");
-                    CrashReportCategory crashreportcategory = crashreport.makeCategory("Sprite being mipmapped");
-                    crashreportcategory.addCrashSectionCallable("Sprite name", new Callable<String>()
-                    {
-                        public String call() throws Exception
-                        {
-                            return textureatlassprite1.getIconName();
-                        }
-                    });
-                    crashreportcategory.addCrashSectionCallable("Sprite size", new Callable<String>()
-                    {
-                        public String call() throws Exception
-                        {
-                            return textureatlassprite1.getIconWidth() + " x " + textureatlassprite1.getIconHeight();
-                        }
-                    });
-                    crashreportcategory.addCrashSectionCallable("Sprite frames", new Callable<String>()
-                    {
-                        public String call() throws Exception
-                        {
-                            return textureatlassprite1.getFrameCount() + " frames";
-                        }
-                    });
-                    crashreportcategory.addCrashSection("Mipmap levels", Integer.valueOf(this.mipmapLevels));
-                    throw new ReportedException(crashreport);
-                }
+                this.generateMipmaps(this.mapRegisteredSprites.values());
             }
 
             this.missingImage.generateMipmaps(this.mipmapLevels);
@@ -492,6 +390,204 @@ public class TextureMap extends AbstractTexture implements ITickableTextureObjec
         }
     }
 
+    /**
+     * Generates the mipmaps of all sprites, spread over the loading pool if enabled.
+     */
+    private void generateMipmaps(Collection<TextureAtlasSprite> sprites)
+    {
+        if (Settings.PARALLEL_TEXTURE_LOADING && sprites.size() > 1)
+        {
+            List < ForkJoinTask<? >> list = Lists. < ForkJoinTask<? >> newArrayList();
+
+            for (final TextureAtlasSprite textureatlassprite : sprites)
+            {
+                list.add(spriteLoadingPool.submit(() -> {
+                    this.generateMipmaps(textureatlassprite);
+                }));
+            }
+
+            for (ForkJoinTask<?> forkjointask : list)
+            {
+                forkjointask.join();
+            }
+        }
+        else
+        {
+            for (TextureAtlasSprite textureatlassprite1 : sprites)
+            {
+                this.generateMipmaps(textureatlassprite1);
+            }
+        }
+    }
+
+    private void generateMipmaps(final TextureAtlasSprite textureatlassprite1)
+    {
+        try
+        {
+            textureatlassprite1.generateMipmaps(this.mipmapLevels);
+        }
+        catch (Throwable throwable1)
+        {
+            CrashReport crashreport = CrashReport.makeCrashReport(throwable1, "Applying mipmap");
+            CrashReportCategory crashreportcategory = crashreport.makeCategory("Sprite being mipmapped");
+            crashreportcategory.addCrashSectionCallable("Sprite name", new Callable<String>()
+            {
+                public String call() throws Exception
+                {
+                    return textureatlassprite1.getIconName();
+                }
+            });
+            crashreportcategory.addCrashSectionCallable("Sprite size", new Callable<String>()
+            {
+                public String call() throws Exception
+                {
+                    return textureatlassprite1.getIconWidth() + " x " + textureatlassprite1.getIconHeight();
+                }
+            });
+            crashreportcategory.addCrashSectionCallable("Sprite frames", new Callable<String>()
+            {
+                public String call() throws Exception
+                {
+                    return textureatlassprite1.getFrameCount() + " frames";
+                }
+            });
+            crashreportcategory.addCrashSection("Mipmap levels", Integer.valueOf(this.mipmapLevels));
+            throw new ReportedException(crashreport);
+        }
+    }
+
+    /**
+     * Reads and decodes the images of the given sprites, on the loading pool if enabled. Returns for each sprite whether
+     * it loaded, sprites that failed are left to be replaced by the missing texture.
+     */
+    private boolean[] loadSpriteImages(final IResourceManager resourceManager, final List<TextureAtlasSprite> sprites, final int minSpriteSize)
+    {
+        final boolean[] aboolean = new boolean[sprites.size()];
+
+        if (Settings.PARALLEL_TEXTURE_LOADING && sprites.size() > 1)
+        {
+            List < ForkJoinTask<? >> list = Lists. < ForkJoinTask<? >> newArrayList();
+
+            for (int i = 0; i < sprites.size(); ++i)
+            {
+                final int j = i;
+                list.add(spriteLoadingPool.submit(() -> {
+                    aboolean[j] = this.loadSpriteImage(resourceManager, (TextureAtlasSprite)sprites.get(j), minSpriteSize);
+                }));
+            }
+
+            for (ForkJoinTask<?> forkjointask : list)
+            {
+                forkjointask.join();
+            }
+        }
+        else
+        {
+            for (int k = 0; k < sprites.size(); ++k)
+            {
+                aboolean[k] = this.loadSpriteImage(resourceManager, (TextureAtlasSprite)sprites.get(k), minSpriteSize);
+            }
+        }
+
+        return aboolean;
+    }
+
+    private boolean loadSpriteImage(IResourceManager resourceManager, TextureAtlasSprite textureatlassprite3, int j)
+    {
+        ResourceLocation resourcelocation1 = new ResourceLocation(textureatlassprite3.getIconName());
+        ResourceLocation resourcelocation2 = this.completeResourceLocation(resourcelocation1, 0);
+
+        try
+        {
+            IResource iresource = resourceManager.getResource(resourcelocation2);
+            BufferedImage[] abufferedimage = new BufferedImage[1 + this.mipmapLevels];
+            abufferedimage[0] = TextureUtil.readBufferedImage(iresource.getInputStream());
+            int k3 = abufferedimage[0].getWidth();
+            int l3 = abufferedimage[0].getHeight();
+
+            if (k3 < 1 || l3 < 1)
+            {
+                Config.warn("Invalid sprite size: " + textureatlassprite3);
+                return false;
+            }
+
+            if (k3 < j || this.mipmapLevels > 0)
+            {
+                int i4 = this.mipmapLevels > 0 ? TextureUtils.scaleToGrid(k3, j) : TextureUtils.scaleToMin(k3, j);
+
+                if (i4 != k3)
+                {
+                    if (!TextureUtils.isPowerOfTwo(k3))
+                    {
+                        Config.log("Scaled non power of 2: " + textureatlassprite3.getIconName() + ", " + k3 + " -> " + i4);
+                    }
+                    else
+                    {
+                        Config.log("Scaled too small texture: " + textureatlassprite3.getIconName() + ", " + k3 + " -> " + i4);
+                    }
+
+                    abufferedimage[0] = TextureUtils.scaleImage(abufferedimage[0], i4);
+                }
+            }
+
+            TextureMetadataSection texturemetadatasection = (TextureMetadataSection)iresource.getMetadata("texture");
+
+            if (texturemetadatasection != null)
+            {
+                List<Integer> list1 = texturemetadatasection.getListMipmaps();
+
+                if (!list1.isEmpty())
+                {
+                    int k1 = abufferedimage[0].getWidth();
+                    int l1 = abufferedimage[0].getHeight();
+
+                    if (MathHelper.roundUpToPowerOfTwo(k1) != k1 || MathHelper.roundUpToPowerOfTwo(l1) != l1)
+                    {
+                        throw new RuntimeException("Unable to load extra miplevels, source-texture is not power of two");
+                    }
+                }
+
+                Iterator iterator1 = list1.iterator();
+
+                while (iterator1.hasNext())
+                {
+                    int j4 = ((Integer)iterator1.next()).intValue();
+
+                    if (j4 > 0 && j4 < abufferedimage.length - 1 && abufferedimage[j4] == null)
+                    {
+                        ResourceLocation resourcelocation = this.completeResourceLocation(resourcelocation1, j4);
+
+                        try
+                        {
+                            abufferedimage[j4] = TextureUtil.readBufferedImage(resourceManager.getResource(resourcelocation).getInputStream());
+                        }
+                        catch (IOException ioexception)
+                        {
+                            logger.error("Unable to load miplevel {} from: {}", new Object[] {Integer.valueOf(j4), resourcelocation, ioexception});
+                        }
+                    }
+                }
+            }
+
+            AnimationMetadataSection animationmetadatasection = (AnimationMetadataSection)iresource.getMetadata("animation");
+            textureatlassprite3.loadSprite(abufferedimage, animationmetadatasection);
+        }
+        catch (RuntimeException runtimeexception)
+        {
+            logger.error((String)("Unable to parse metadata from " + resourcelocation2), (Throwable)runtimeexception);
+            ReflectorForge.FMLClientHandler_trackBrokenTexture(resourcelocation2, runtimeexception.getMessage());
+            return false;
+        }
+        catch (IOException ioexception1)
+        {
+            logger.error("Using missing texture, unable to load " + resourcelocation2 + ", " + ioexception1.getClass().getName());
+            ReflectorForge.FMLClientHandler_trackMissingTexture(resourcelocation2);
+            return false;
+        }
+
+        return true;
+    }
+
     public ResourceLocation completeResourceLocation(ResourceLocation p_completeResourceLocation_1_)
     {
         return this.completeResourceLocation(p_completeResourceLocation_1_, 0);
@@ -519,6 +615,7 @@ public class TextureMap extends AbstractTexture implements ITickableTextureObjec
         boolean flag = false;
         boolean flag1 = false;
         TextureUtil.bindTexture(this.getGlTextureId());
+        TextureUtil.beginUploadBatch();
         int i = 0;
 
         for (TextureAtlasSprite textureatlassprite : this.listAnimatedSprites)
@@ -627,6 +724,7 @@ public class TextureMap extends AbstractTexture implements ITickableTextureObjec
             }
         }
 
+        TextureUtil.endUploadBatch();
         int j = Config.getMinecraft().entityRenderer.frameCount;
 
         if (j != this.frameCountAnimations)
@@ -1,13 +1,18 @@
 package net.minecraft.client.renderer.texture;
 
+import com.google.common.collect.Lists;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.IntBuffer;
+import java.util.List;
 import javax.imageio.ImageIO;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.renderer.GLAllocation;
 import net.minecraft.client.renderer.GlStateManager;
+import net.minecraft.client.renderer.OpenGlHelper;
 import net.minecraft.client.resources.IResourceManager;
 import net.minecraft.src.Config;
 import net.minecraft.util.ResourceLocation;
@@ -19,6 +24,7 @@ import org.apache.logging.log4j.Logger;
 import org.lwjgl.opengl.GL11;
 import org.lwjgl.opengl.GL14;
 import org.lwjgl.opengl.GL12;
+import pisi.unitedmeows.minecraft.Settings;
 
 public class TextureUtil
 {
@@ -29,6 +35,18 @@ public class TextureUtil
     private static final int[] mipmapBuffer;
     private static int[] dataArray = new int[4194304];
 
+    /** Size of the pixel unpack buffer batched uploads are staged in, in ints */
+    private static final int UPLOAD_BATCH_CAPACITY = 1048576;
+
+    /** Pixel unpack buffer of batched uploads, -1 until first used and 0 once mapping it failed */
+    private static int uploadBatchBuffer = -1;
+    private static ByteBuffer uploadBatchBytes;
+
+    /** Write view of the mapped unpack buffer, null while it is not mapped */
+    private static IntBuffer uploadBatchData;
+    private static boolean uploadBatchActive;
+    private static final List<TextureUtil.PendingUpload> pendingUploads = Lists.<TextureUtil.PendingUpload>newArrayList();
+
     public static int glGenTextures()
     {
         return GlStateManager.generateTexture();
@@ -123,20 +141,151 @@ public class TextureUtil
         }
     }
 
+    /**
+     * Starts collecting the sub image uploads of uploadTextureMipmap in a pixel unpack buffer instead of uploading each
+     * from client memory, until endUploadBatch issues them. Uploads stay direct when PBOs are not available.
+     */
+    public static void beginUploadBatch()
+    {
+        uploadBatchActive = Settings.PBO_ANIMATION_UPLOADS && OpenGlHelper.pboSupported && uploadBatchBuffer != 0;
+    }
+
+    public static void endUploadBatch()
+    {
+        flushUploadBatch();
+        uploadBatchActive = false;
+    }
+
     private static void uploadTextureSub(int p_147947_0_, int[] p_147947_1_, int p_147947_2_, int p_147947_3_, int p_147947_4_, int p_147947_5_, boolean p_147947_6_, boolean p_147947_7_, boolean p_147947_8_)
     {
-        int i = 4194304 / p_147947_2_;
+        if (uploadBatchActive && addToUploadBatch(p_147947_0_, p_147947_1_, p_147947_2_, p_147947_3_, p_147947_4_, p_147947_5_, p_147947_6_, p_147947_7_, p_147947_8_))
+        {
+            return;
+        }
+
         setTextureBlurMipmap(p_147947_6_, p_147947_8_);
         setTextureClamped(p_147947_7_);
+        uploadTextureSubDirect(p_147947_0_, p_147947_1_, p_147947_2_, p_147947_3_, p_147947_4_, p_147947_5_);
+    }
+
+    /**
+     * Uploads the pixels from client memory into the bound texture, in slices that fit the data buffer.
+     */
+    private static void uploadTextureSubDirect(int level, int[] data, int width, int height, int x, int y)
+    {
+        int i = 4194304 / width;
         int j;
 
-        for (int k = 0; k < p_147947_2_ * p_147947_3_; k += p_147947_2_ * j)
+        for (int k = 0; k < width * height; k += width * j)
+        {
+            int l = k / width;
+            j = Math.min(i, height - l);
+            int i1 = width * j;
+            copyToBufferPos(data, k, i1);
+            GL11.glTexSubImage2D(GL11.GL_TEXTURE_2D, level, x, y + l, width, j, GL12.GL_BGRA, GL12.GL_UNSIGNED_INT_8_8_8_8_REV, (IntBuffer)dataBuffer);
+        }
+    }
+
+    /**
+     * Stages an upload in the mapped unpack buffer, remembering the texture bound now. Returns false if the upload has
+     * to be done directly, after issuing everything staged before it so the order of uploads is kept.
+     */
+    private static boolean addToUploadBatch(int level, int[] data, int width, int height, int x, int y, boolean blur, boolean clamp, boolean mipmap)
+    {
+        int i = width * height;
+
+        if (i > UPLOAD_BATCH_CAPACITY)
         {
-            int l = k / p_147947_2_;
-            j = Math.min(i, p_147947_3_ - l);
-            int i1 = p_147947_2_ * j;
-            copyToBufferPos(p_147947_1_, k, i1);
-            GL11.glTexSubImage2D(GL11.GL_TEXTURE_2D, p_147947_0_, p_147947_4_, p_147947_5_ + l, p_147947_2_, j, GL12.GL_BGRA, GL12.GL_UNSIGNED_INT_8_8_8_8_REV, (IntBuffer)dataBuffer);
+            flushUploadBatch();
+            return false;
+        }
+        else
+        {
+            if (uploadBatchData != null && uploadBatchData.remaining() < i)
+            {
+                flushUploadBatch();
+            }
+
+            if (uploadBatchData == null && !mapUploadBatch())
+            {
+                return false;
+            }
+            else
+            {
+                int j = uploadBatchData.position();
+                uploadBatchData.put(Minecraft.getMinecraft().gameSettings.anaglyph ? updateAnaglyph(data) : data, 0, i);
+                pendingUploads.add(new TextureUtil.PendingUpload(GlStateManager.getBoundTexture(), level, data, x, y, width, height, blur, clamp, mipmap, (long)j * 4L));
+                return true;
+            }
+        }
+    }
+
+    private static boolean mapUploadBatch()
+    {
+        if (uploadBatchBuffer < 0)
+        {
+            uploadBatchBuffer = OpenGlHelper.glGenBuffers();
+        }
+
+        OpenGlHelper.glBindBuffer(OpenGlHelper.GL_PIXEL_UNPACK_BUFFER, uploadBatchBuffer);
+        OpenGlHelper.glBufferData(OpenGlHelper.GL_PIXEL_UNPACK_BUFFER, (long)UPLOAD_BATCH_CAPACITY * 4L, OpenGlHelper.GL_STREAM_DRAW);
+        ByteBuffer bytebuffer = OpenGlHelper.glMapBuffer(OpenGlHelper.GL_PIXEL_UNPACK_BUFFER, OpenGlHelper.GL_WRITE_ONLY, (long)UPLOAD_BATCH_CAPACITY * 4L, uploadBatchBytes);
+        OpenGlHelper.glBindBuffer(OpenGlHelper.GL_PIXEL_UNPACK_BUFFER, 0);
+
+        if (bytebuffer == null)
+        {
+            logger.warn("Could not map pixel unpack buffer, uploading animated textures directly");
+            OpenGlHelper.glDeleteBuffers(uploadBatchBuffer);
+            uploadBatchBuffer = 0;
+            uploadBatchActive = false;
+            return false;
+        }
+        else
+        {
+            uploadBatchBytes = bytebuffer;
+            uploadBatchData = bytebuffer.order(ByteOrder.nativeOrder()).asIntBuffer();
+            return true;
+        }
+    }
+
+    /**
+     * Issues the staged uploads. If the unpack buffer lost its contents while mapped they are uploaded directly from
+     * the pixels they were staged from instead.
+     */
+    private static void flushUploadBatch()
+    {
+        if (uploadBatchData != null)
+        {
+            uploadBatchData = null;
+            OpenGlHelper.glBindBuffer(OpenGlHelper.GL_PIXEL_UNPACK_BUFFER, uploadBatchBuffer);
+            boolean flag = OpenGlHelper.glUnmapBuffer(OpenGlHelper.GL_PIXEL_UNPACK_BUFFER);
+
+            if (!flag)
+            {
+                OpenGlHelper.glBindBuffer(OpenGlHelper.GL_PIXEL_UNPACK_BUFFER, 0);
+            }
+
+            int i = GlStateManager.getBoundTexture();
+
+            for (TextureUtil.PendingUpload textureutil$pendingupload : pendingUploads)
+            {
+                GlStateManager.bindTexture(textureutil$pendingupload.texture);
+                setTextureBlurMipmap(textureutil$pendingupload.blur, textureutil$pendingupload.mipmap);
+                setTextureClamped(textureutil$pendingupload.clamp);
+
+                if (flag)
+                {
+                    GL11.glTexSubImage2D(GL11.GL_TEXTURE_2D, textureutil$pendingupload.level, textureutil$pendingupload.x, textureutil$pendingupload.y, textureutil$pendingupload.width, textureutil$pendingupload.height, GL12.GL_BGRA, GL12.GL_UNSIGNED_INT_8_8_8_8_REV, textureutil$pendingupload.offset);
+                }
+                else
+                {
+                    uploadTextureSubDirect(textureutil$pendingupload.level, textureutil$pendingupload.data, textureutil$pendingupload.width, textureutil$pendingupload.height, textureutil$pendingupload.x, textureutil$pendingupload.y);
+                }
+            }
+
+            pendingUploads.clear();
+            GlStateManager.bindTexture(i);
+            OpenGlHelper.glBindBuffer(OpenGlHelper.GL_PIXEL_UNPACK_BUFFER, 0);
         }
     }
 
@@ -360,4 +509,38 @@ public class TextureUtil
         missingTexture.updateDynamicTexture();
         mipmapBuffer = new int[4];
     }
+
+    static class PendingUpload
+    {
+        final int texture;
+        final int level;
+
+        /** Pixels the upload was staged from, uploaded directly if the unpack buffer loses them */
+        final int[] data;
+        final int x;
+        final int y;
+        final int width;
+        final int height;
+        final boolean blur;
+        final boolean clamp;
+        final boolean mipmap;
+
+        /** Byte offset of the pixels in the unpack buffer */
+        final long offset;
+
+        PendingUpload(int textureIn, int levelIn, int[] dataIn, int xIn, int yIn, int widthIn, int heightIn, boolean blurIn, boolean clampIn, boolean mipmapIn, long offsetIn)
+        {
+            this.texture = textureIn;
+            this.level = levelIn;
+            this.data = dataIn;
+            this.x = xIn;
+            this.y = yIn;
+            this.width = widthIn;
+            this.height = heightIn;
+            this.blur = blurIn;
+            this.clamp = clampIn;
+            this.mipmap = mipmapIn;
+            this.offset = offsetIn;
+        }
+    }
 }
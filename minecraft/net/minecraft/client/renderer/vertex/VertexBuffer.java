@@ -27,8 +27,16 @@ public class VertexBuffer {
 	public void bufferData(final ByteBuffer p_181722_1_) {
 		if (this.vboRegion != null) this.vboRegion.bufferData(p_181722_1_, this.vboRange);
 		else {
+			final VertexStagingRing vertexstagingring = VertexStagingRing.getInstance();
 			this.bindBuffer();
-			OpenGlHelper.glBufferData(OpenGlHelper.GL_ARRAY_BUFFER, p_181722_1_, 35044);
+			if (vertexstagingring != null && p_181722_1_.hasRemaining()) {
+				// allocate without data, the ring copies into it on the GPU
+				OpenGlHelper.glBufferData(OpenGlHelper.GL_ARRAY_BUFFER, (long) p_181722_1_.remaining(), 35044);
+				if (!vertexstagingring.upload(p_181722_1_, this.glBufferId, 0L)) {
+					this.bindBuffer();
+					OpenGlHelper.glBufferData(OpenGlHelper.GL_ARRAY_BUFFER, p_181722_1_, 35044);
+				}
+			} else OpenGlHelper.glBufferData(OpenGlHelper.GL_ARRAY_BUFFER, p_181722_1_, 35044);
 			this.unbindBuffer();
 			this.count = p_181722_1_.limit() / this.vertexFormat.getNextOffset();
 		}
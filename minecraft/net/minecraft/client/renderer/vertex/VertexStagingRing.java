@@ -0,0 +1,141 @@
+package net.minecraft.client.renderer.vertex;
+
+import java.nio.ByteBuffer;
+import net.minecraft.client.renderer.OpenGlHelper;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.lwjgl.opengl.ARBBufferStorage;
+import org.lwjgl.opengl.GL30;
+import org.lwjgl.opengl.GL32;
+import org.lwjgl.opengl.GLSync;
+import pisi.unitedmeows.minecraft.Settings;
+
+/**
+ * Persistently mapped ring that chunk geometry is staged in on its way into vertex buffers. An upload copies the data
+ * into the ring and lets the GPU copy it on with glCopyBufferSubData, so the driver neither waits for the previous
+ * contents of the target nor copies out of client memory on the render thread. The ring is split into segments that
+ * are fenced once the write position leaves them; writing into a segment again waits for its fence, which has
+ * normally passed long before.
+ */
+public class VertexStagingRing
+{
+    private static final Logger LOGGER = LogManager.getLogger();
+    private static final int SEGMENTS = 4;
+    private static final int SEGMENT_SIZE = 4194304;
+    private static final long FENCE_TIMEOUT_NANOS = 1000000000L;
+    private static VertexStagingRing instance;
+
+    /** Set once creating the ring failed, uploads then stay on glBufferData */
+    private static boolean unavailable;
+    private final int glBufferId;
+    private final ByteBuffer mappedBuffer;
+    private final GLSync[] segmentFences = new GLSync[SEGMENTS];
+    private int segment;
+    private int segmentOffset;
+
+    private VertexStagingRing(int glBufferIdIn, ByteBuffer mappedBufferIn)
+    {
+        this.glBufferId = glBufferIdIn;
+        this.mappedBuffer = mappedBufferIn;
+    }
+
+    /**
+     * Returns the ring, creating it on first use, or null if uploads should go straight to the buffers.
+     */
+    public static VertexStagingRing getInstance()
+    {
+        if (instance == null && !unavailable && Settings.RING_BUFFERED_CHUNK_UPLOADS)
+        {
+            if (!OpenGlHelper.bufferStorageSupported)
+            {
+                unavailable = true;
+            }
+            else
+            {
+                instance = create();
+                unavailable = instance == null;
+            }
+        }
+
+        return Settings.RING_BUFFERED_CHUNK_UPLOADS ? instance : null;
+    }
+
+    private static VertexStagingRing create()
+    {
+        long i = (long)SEGMENTS * (long)SEGMENT_SIZE;
+        int j = GL30.GL_MAP_WRITE_BIT | ARBBufferStorage.GL_MAP_PERSISTENT_BIT | ARBBufferStorage.GL_MAP_COHERENT_BIT;
+        int k = OpenGlHelper.glGenBuffers();
+        OpenGlHelper.glBindBuffer(OpenGlHelper.GL_COPY_READ_BUFFER, k);
+        ARBBufferStorage.glBufferStorage(OpenGlHelper.GL_COPY_READ_BUFFER, i, j);
+        ByteBuffer bytebuffer = GL30.glMapBufferRange(OpenGlHelper.GL_COPY_READ_BUFFER, 0L, i, j, (ByteBuffer)null);
+        OpenGlHelper.glBindBuffer(OpenGlHelper.GL_COPY_READ_BUFFER, 0);
+
+        if (bytebuffer == null)
+        {
+            LOGGER.warn("Could not map the chunk upload staging buffer, uploading chunk geometry directly");
+            OpenGlHelper.glDeleteBuffers(k);
+            return null;
+        }
+        else
+        {
+            return new VertexStagingRing(k, bytebuffer);
+        }
+    }
+
+    /**
+     * Copies the remaining bytes of data into the buffer targetBufferId at targetOffset by way of the ring. The target
+     * must already be large enough. Returns false without doing anything if data is larger than a segment.
+     */
+    public boolean upload(ByteBuffer data, int targetBufferId, long targetOffset)
+    {
+        int i = data.remaining();
+
+        if (i > SEGMENT_SIZE)
+        {
+            return false;
+        }
+        else
+        {
+            if (this.segmentOffset + i > SEGMENT_SIZE)
+            {
+                this.nextSegment();
+            }
+
+            int j = data.position();
+            int k = this.segment * SEGMENT_SIZE + this.segmentOffset;
+            this.mappedBuffer.clear();
+            this.mappedBuffer.position(k);
+            this.mappedBuffer.put(data);
+            data.position(j);
+            this.segmentOffset += i + 63 & -64;
+            OpenGlHelper.glBindBuffer(OpenGlHelper.GL_COPY_READ_BUFFER, this.glBufferId);
+            OpenGlHelper.glBindBuffer(OpenGlHelper.GL_COPY_WRITE_BUFFER, targetBufferId);
+            OpenGlHelper.glCopyBufferSubData(OpenGlHelper.GL_COPY_READ_BUFFER, OpenGlHelper.GL_COPY_WRITE_BUFFER, (long)k, targetOffset, (long)i);
+            OpenGlHelper.glBindBuffer(OpenGlHelper.GL_COPY_READ_BUFFER, 0);
+            OpenGlHelper.glBindBuffer(OpenGlHelper.GL_COPY_WRITE_BUFFER, 0);
+            return true;
+        }
+    }
+
+    /**
+     * Fences the copies out of the current segment and moves on to the next one once the GPU is done reading it.
+     */
+    private void nextSegment()
+    {
+        this.segmentFences[this.segment] = GL32.glFenceSync(GL32.GL_SYNC_GPU_COMMANDS_COMPLETE, 0);
+        this.segment = (this.segment + 1) % SEGMENTS;
+        this.segmentOffset = 0;
+        GLSync glsync = this.segmentFences[this.segment];
+
+        if (glsync != null)
+        {
+            while (GL32.glClientWaitSync(glsync, GL32.GL_SYNC_FLUSH_COMMANDS_BIT, FENCE_TIMEOUT_NANOS) == GL32.GL_TIMEOUT_EXPIRED)
+            {
+                LOGGER.warn("Waiting for chunk uploads to leave the staging buffer");
+            }
+
+            GL32.glDeleteSync(glsync);
+            this.segmentFences[this.segment] = null;
+        }
+    }
+}
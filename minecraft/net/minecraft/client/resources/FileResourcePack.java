@@ -24,7 +24,7 @@ public class FileResourcePack extends AbstractResourcePack implements Closeable
         super(resourcePackFileIn);
     }
 
-    private ZipFile getResourcePackZipFile() throws IOException
+    private synchronized ZipFile getResourcePackZipFile() throws IOException
     {
         if (this.resourcePackZipFile == null)
         {
@@ -14,6 +14,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.logging.log4j.LogManager;
@@ -53,11 +57,19 @@ import net.optifine.CustomItems;
 import net.optifine.reflect.Reflector;
 import net.optifine.util.StrUtils;
 import net.optifine.util.TextureUtils;
+import pisi.unitedmeows.minecraft.Settings;
 
 public class ModelBakery
 {
     private static final Set<ResourceLocation> LOCATIONS_BUILTIN_TEXTURES = Sets.newHashSet(new ResourceLocation[] {new ResourceLocation("blocks/water_flow"), new ResourceLocation("blocks/water_still"), new ResourceLocation("blocks/lava_flow"), new ResourceLocation("blocks/lava_still"), new ResourceLocation("blocks/destroy_stage_0"), new ResourceLocation("blocks/destroy_stage_1"), new ResourceLocation("blocks/destroy_stage_2"), new ResourceLocation("blocks/destroy_stage_3"), new ResourceLocation("blocks/destroy_stage_4"), new ResourceLocation("blocks/destroy_stage_5"), new ResourceLocation("blocks/destroy_stage_6"), new ResourceLocation("blocks/destroy_stage_7"), new ResourceLocation("blocks/destroy_stage_8"), new ResourceLocation("blocks/destroy_stage_9"), new ResourceLocation("items/empty_armor_slot_helmet"), new ResourceLocation("items/empty_armor_slot_chestplate"), new ResourceLocation("items/empty_armor_slot_leggings"), new ResourceLocation("items/empty_armor_slot_boots")});
     private static final Logger LOGGER = LogManager.getLogger();
+
+    /** Bakes the models of a registry setup, registering the results stays on the caller */
+    private static final ForkJoinPool bakingPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors(), (pool) -> {
+        ForkJoinWorkerThread forkjoinworkerthread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        forkjoinworkerthread.setName("Model Baker #" + forkjoinworkerthread.getPoolIndex());
+        return forkjoinworkerthread;
+    }, (Thread.UncaughtExceptionHandler)null, false);
     protected static final ModelResourceLocation MODEL_MISSING = new ModelResourceLocation("builtin/missing", "missing");
     private static final Map<String, String> BUILT_IN_MODELS = Maps.<String, String>newHashMap();
     private static final Joiner JOINER = Joiner.on(" -> ");
@@ -418,68 +430,122 @@ public class ModelBakery
 
     private void bakeBlockModels()
     {
-        for (ModelResourceLocation modelresourcelocation : this.variants.keySet())
-        {
-            WeightedBakedModel.Builder weightedbakedmodel$builder = new WeightedBakedModel.Builder();
-            int i = 0;
+        final List<ModelResourceLocation> list = Lists.newArrayList(this.variants.keySet());
+        final IBakedModel[] aibakedmodel = new IBakedModel[list.size()];
+        this.runBakes(list.size(), (i) -> {
+            aibakedmodel[i] = this.bakeVariants((ModelResourceLocation)list.get(i));
+        });
 
-            for (ModelBlockDefinition.Variant modelblockdefinition$variant : ((ModelBlockDefinition.Variants)this.variants.get(modelresourcelocation)).getVariants())
+        for (int j = 0; j < aibakedmodel.length; ++j)
+        {
+            if (aibakedmodel[j] != null)
             {
-                ModelBlock modelblock = (ModelBlock)this.models.get(modelblockdefinition$variant.getModelLocation());
-
-                if (modelblock != null && modelblock.isResolved())
-                {
-                    ++i;
-                    weightedbakedmodel$builder.add(this.bakeModel(modelblock, modelblockdefinition$variant.getRotation(), modelblockdefinition$variant.isUvLocked()), modelblockdefinition$variant.getWeight());
-                }
-                else
-                {
-                    LOGGER.warn("Missing model for: " + modelresourcelocation);
-                }
+                this.bakedRegistry.putObject(list.get(j), aibakedmodel[j]);
             }
+        }
 
-            if (i == 0)
+        final List<ModelResourceLocation> list1 = Lists.<ModelResourceLocation>newArrayList();
+        final List<ResourceLocation> list2 = Lists.<ResourceLocation>newArrayList();
+
+        for (Entry<String, ResourceLocation> entry : this.itemLocations.entrySet())
+        {
+            ModelResourceLocation modelresourcelocation1 = new ModelResourceLocation((String)entry.getKey(), "inventory");
+
+            if (Reflector.ModelLoader_getInventoryVariant.exists())
             {
-                LOGGER.warn("No weighted models for: " + modelresourcelocation);
+                modelresourcelocation1 = (ModelResourceLocation)Reflector.call(Reflector.ModelLoader_getInventoryVariant, new Object[] {entry.getKey()});
             }
-            else if (i == 1)
+
+            list1.add(modelresourcelocation1);
+            list2.add(entry.getValue());
+        }
+
+        final IBakedModel[] aibakedmodel1 = new IBakedModel[list1.size()];
+        this.runBakes(list1.size(), (k) -> {
+            aibakedmodel1[k] = this.bakeItemModel((ResourceLocation)list2.get(k));
+        });
+
+        for (int l = 0; l < aibakedmodel1.length; ++l)
+        {
+            if (aibakedmodel1[l] != null)
             {
-                this.bakedRegistry.putObject(modelresourcelocation, weightedbakedmodel$builder.first());
+                this.bakedRegistry.putObject(list1.get(l), aibakedmodel1[l]);
             }
-            else
+        }
+    }
+
+    /**
+     * Runs the bakes of count independent models, on the baking pool if enabled. Baking only reads the resolved models
+     * and sprites, so models can be baked in any order.
+     */
+    private void runBakes(final int count, final IntConsumer bake)
+    {
+        if (Settings.PARALLEL_MODEL_BAKING && count > 1)
+        {
+            bakingPool.submit(() -> {
+                IntStream.range(0, count).parallel().forEach(bake);
+            }).join();
+        }
+        else
+        {
+            for (int i = 0; i < count; ++i)
             {
-                this.bakedRegistry.putObject(modelresourcelocation, weightedbakedmodel$builder.build());
+                bake.accept(i);
             }
         }
+    }
 
-        for (Entry<String, ResourceLocation> entry : this.itemLocations.entrySet())
+    private IBakedModel bakeVariants(ModelResourceLocation modelresourcelocation)
+    {
+        WeightedBakedModel.Builder weightedbakedmodel$builder = new WeightedBakedModel.Builder();
+        int i = 0;
+
+        for (ModelBlockDefinition.Variant modelblockdefinition$variant : ((ModelBlockDefinition.Variants)this.variants.get(modelresourcelocation)).getVariants())
         {
-            ResourceLocation resourcelocation = (ResourceLocation)entry.getValue();
-            ModelResourceLocation modelresourcelocation1 = new ModelResourceLocation((String)entry.getKey(), "inventory");
+            ModelBlock modelblock = (ModelBlock)this.models.get(modelblockdefinition$variant.getModelLocation());
 
-            if (Reflector.ModelLoader_getInventoryVariant.exists())
+            if (modelblock != null && modelblock.isResolved())
             {
-                modelresourcelocation1 = (ModelResourceLocation)Reflector.call(Reflector.ModelLoader_getInventoryVariant, new Object[] {entry.getKey()});
+                ++i;
+                weightedbakedmodel$builder.add(this.bakeModel(modelblock, modelblockdefinition$variant.getRotation(), modelblockdefinition$variant.isUvLocked()), modelblockdefinition$variant.getWeight());
+            }
+            else
+            {
+                LOGGER.warn("Missing model for: " + modelresourcelocation);
             }
+        }
+
+        if (i == 0)
+        {
+            LOGGER.warn("No weighted models for: " + modelresourcelocation);
+            return null;
+        }
+        else
+        {
+            return i == 1 ? weightedbakedmodel$builder.first() : weightedbakedmodel$builder.build();
+        }
+    }
 
-            ModelBlock modelblock1 = (ModelBlock)this.models.get(resourcelocation);
+    private IBakedModel bakeItemModel(ResourceLocation resourcelocation)
+    {
+        ModelBlock modelblock1 = (ModelBlock)this.models.get(resourcelocation);
 
-            if (modelblock1 != null && modelblock1.isResolved())
+        if (modelblock1 != null && modelblock1.isResolved())
+        {
+            if (this.isCustomRenderer(modelblock1))
             {
-                if (this.isCustomRenderer(modelblock1))
-                {
-                    this.bakedRegistry.putObject(modelresourcelocation1, new BuiltInModel(modelblock1.getAllTransforms()));
-                }
-                else
-                {
-                    this.bakedRegistry.putObject(modelresourcelocation1, this.bakeModel(modelblock1, ModelRotation.X0_Y0, false));
-                }
+                return new BuiltInModel(modelblock1.getAllTransforms());
             }
             else
             {
-                LOGGER.warn("Missing model for: " + resourcelocation);
+                return this.bakeModel(modelblock1, ModelRotation.X0_Y0, false);
             }
         }
+        else
+        {
+            LOGGER.warn("Missing model for: " + resourcelocation);
+            return null;
+        }
     }
 
     private Set<ResourceLocation> getVariantsTextureLocations()
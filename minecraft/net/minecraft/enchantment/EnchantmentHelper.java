@@ -27,14 +27,15 @@ public class EnchantmentHelper {
 	/**
 	 * Used to calculate the extra armor of enchantments on armors equipped on player.
 	 */
-	private static final EnchantmentHelper.ModifierDamage enchantmentModifierDamage = new EnchantmentHelper.ModifierDamage();
+	private static final ThreadLocal<EnchantmentHelper.ModifierDamage> enchantmentModifierDamage = ThreadLocal.<EnchantmentHelper.ModifierDamage>withInitial(() -> new EnchantmentHelper.ModifierDamage());
 	/**
 	 * Used to calculate the (magic) extra damage done by enchantments on current equipped item of
 	 * player.
 	 */
-	private static final EnchantmentHelper.ModifierLiving enchantmentModifierLiving = new EnchantmentHelper.ModifierLiving();
-	private static final EnchantmentHelper.HurtIterator ENCHANTMENT_ITERATOR_HURT = new EnchantmentHelper.HurtIterator();
-	private static final EnchantmentHelper.DamageIterator ENCHANTMENT_ITERATOR_DAMAGE = new EnchantmentHelper.DamageIterator();
+	private static final ThreadLocal<EnchantmentHelper.ModifierLiving> enchantmentModifierLiving = ThreadLocal.<EnchantmentHelper.ModifierLiving>withInitial(() -> new EnchantmentHelper.ModifierLiving());
+	/** The modifiers are reused per thread instead of shared, since the worlds may tick on several */
+	private static final ThreadLocal<EnchantmentHelper.HurtIterator> ENCHANTMENT_ITERATOR_HURT = ThreadLocal.<EnchantmentHelper.HurtIterator>withInitial(() -> new EnchantmentHelper.HurtIterator());
+	private static final ThreadLocal<EnchantmentHelper.DamageIterator> ENCHANTMENT_ITERATOR_DAMAGE = ThreadLocal.<EnchantmentHelper.DamageIterator>withInitial(() -> new EnchantmentHelper.DamageIterator());
 
 	/**
 	 * Returns the level of enchantment on the ItemStack passed.
@@ -127,12 +128,13 @@ public class EnchantmentHelper {
 			applyEnchantmentModifierArray(enchantmentModifierDamage, stacks);
 			return enchantmentModifierDamage.damageModifier;
 		} else {
-			enchantmentModifierDamage.damageModifier = 0;
-			enchantmentModifierDamage.source = source;
-			applyEnchantmentModifierArray(enchantmentModifierDamage, stacks);
-			if (enchantmentModifierDamage.damageModifier > 25) enchantmentModifierDamage.damageModifier = 25;
-			else if (enchantmentModifierDamage.damageModifier < 0) enchantmentModifierDamage.damageModifier = 0;
-			return (enchantmentModifierDamage.damageModifier + 1 >> 1) + enchantmentRand.nextInt((enchantmentModifierDamage.damageModifier >> 1) + 1);
+			final EnchantmentHelper.ModifierDamage enchantmenthelper$modifierdamage = enchantmentModifierDamage.get();
+			enchantmenthelper$modifierdamage.damageModifier = 0;
+			enchantmenthelper$modifierdamage.source = source;
+			applyEnchantmentModifierArray(enchantmenthelper$modifierdamage, stacks);
+			if (enchantmenthelper$modifierdamage.damageModifier > 25) enchantmenthelper$modifierdamage.damageModifier = 25;
+			else if (enchantmenthelper$modifierdamage.damageModifier < 0) enchantmenthelper$modifierdamage.damageModifier = 0;
+			return (enchantmenthelper$modifierdamage.damageModifier + 1 >> 1) + enchantmentRand.nextInt((enchantmenthelper$modifierdamage.damageModifier >> 1) + 1);
 		}
 	}
 
@@ -144,10 +146,11 @@ public class EnchantmentHelper {
 			applyEnchantmentModifier(enchantmentModifierLiving, p_152377_0_);
 			return enchantmentModifierLiving.livingModifier;
 		} else {
-			enchantmentModifierLiving.livingModifier = 0.0F;
-			enchantmentModifierLiving.entityLiving = p_152377_1_;
-			applyEnchantmentModifier(enchantmentModifierLiving, p_152377_0_);
-			return enchantmentModifierLiving.livingModifier;
+			final EnchantmentHelper.ModifierLiving enchantmenthelper$modifierliving = enchantmentModifierLiving.get();
+			enchantmenthelper$modifierliving.livingModifier = 0.0F;
+			enchantmenthelper$modifierliving.entityLiving = p_152377_1_;
+			applyEnchantmentModifier(enchantmenthelper$modifierliving, p_152377_0_);
+			return enchantmenthelper$modifierliving.livingModifier;
 		}
 	}
 
@@ -159,10 +162,11 @@ public class EnchantmentHelper {
 			if (p_151384_0_ != null) applyEnchantmentModifierArray(enchantmentIteratorHurt, p_151384_0_.getInventory());
 			if (p_151384_1_ instanceof EntityPlayer) applyEnchantmentModifier(enchantmentIteratorHurt, p_151384_0_.getHeldItem());
 		} else {
-			ENCHANTMENT_ITERATOR_HURT.attacker = p_151384_1_;
-			ENCHANTMENT_ITERATOR_HURT.user = p_151384_0_;
-			if (p_151384_0_ != null) applyEnchantmentModifierArray(ENCHANTMENT_ITERATOR_HURT, p_151384_0_.getInventory());
-			if (p_151384_1_ instanceof EntityPlayer) applyEnchantmentModifier(ENCHANTMENT_ITERATOR_HURT, p_151384_0_.getHeldItem());
+			final EnchantmentHelper.HurtIterator enchantmenthelper$hurtiterator = ENCHANTMENT_ITERATOR_HURT.get();
+			enchantmenthelper$hurtiterator.attacker = p_151384_1_;
+			enchantmenthelper$hurtiterator.user = p_151384_0_;
+			if (p_151384_0_ != null) applyEnchantmentModifierArray(enchantmenthelper$hurtiterator, p_151384_0_.getInventory());
+			if (p_151384_1_ instanceof EntityPlayer) applyEnchantmentModifier(enchantmenthelper$hurtiterator, p_151384_0_.getHeldItem());
 		}
 	}
 
@@ -174,10 +178,11 @@ public class EnchantmentHelper {
 			if (p_151385_0_ != null) applyEnchantmentModifierArray(enchantmentIteratorDamage, p_151385_0_.getInventory());
 			if (p_151385_0_ instanceof EntityPlayer) applyEnchantmentModifier(enchantmentIteratorDamage, p_151385_0_.getHeldItem());
 		} else {
-			ENCHANTMENT_ITERATOR_DAMAGE.user = p_151385_0_;
-			ENCHANTMENT_ITERATOR_DAMAGE.target = p_151385_1_;
-			if (p_151385_0_ != null) applyEnchantmentModifierArray(ENCHANTMENT_ITERATOR_DAMAGE, p_151385_0_.getInventory());
-			if (p_151385_0_ instanceof EntityPlayer) applyEnchantmentModifier(ENCHANTMENT_ITERATOR_DAMAGE, p_151385_0_.getHeldItem());
+			final EnchantmentHelper.DamageIterator enchantmenthelper$damageiterator = ENCHANTMENT_ITERATOR_DAMAGE.get();
+			enchantmenthelper$damageiterator.user = p_151385_0_;
+			enchantmenthelper$damageiterator.target = p_151385_1_;
+			if (p_151385_0_ != null) applyEnchantmentModifierArray(enchantmenthelper$damageiterator, p_151385_0_.getInventory());
+			if (p_151385_0_ instanceof EntityPlayer) applyEnchantmentModifier(enchantmenthelper$damageiterator, p_151385_0_.getHeldItem());
 		}
 	}
 
@@ -4,6 +4,7 @@ import java.util.List;
 import java.util.Random;
 import java.util.UUID;
 import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
 import net.minecraft.block.Block;
 import net.minecraft.block.BlockFence;
 import net.minecraft.block.BlockFenceGate;
@@ -50,7 +51,7 @@ import net.minecraft.world.WorldServer;
 public abstract class Entity implements ICommandSender
 {
     private static final AxisAlignedBB ZERO_AABB = new AxisAlignedBB(0.0D, 0.0D, 0.0D, 0.0D, 0.0D, 0.0D);
-    private static int nextEntityID;
+    private static final AtomicInteger nextEntityID = new AtomicInteger();
     private int entityId;
     public double renderDistanceWeight;
 
@@ -263,7 +264,7 @@ public abstract class Entity implements ICommandSender
 
     public Entity(World worldIn)
     {
-        this.entityId = nextEntityID++;
+        this.entityId = nextEntityID.getAndIncrement();
         this.renderDistanceWeight = 1.0D;
         this.boundingBox = ZERO_AABB;
         this.width = 0.6F;
@@ -2458,44 +2459,52 @@ public abstract class Entity implements ICommandSender
     {
         if (!this.worldObj.isRemote && !this.isDead)
         {
-            this.worldObj.theProfiler.startSection("changeDimension");
             MinecraftServer minecraftserver = MinecraftServer.getServer();
-            int i = this.dimension;
-            WorldServer worldserver = minecraftserver.worldServerForDimension(i);
-            WorldServer worldserver1 = minecraftserver.worldServerForDimension(dimensionId);
-            this.dimension = dimensionId;
 
-            if (i == 1 && dimensionId == 1)
+            if (minecraftserver.isTickingWorldsInParallel())
             {
-                worldserver1 = minecraftserver.worldServerForDimension(0);
-                this.dimension = 0;
+                minecraftserver.runOutsideWorldTicks(() -> this.travelToDimension(dimensionId));
             }
-
-            this.worldObj.removeEntity(this);
-            this.isDead = false;
-            this.worldObj.theProfiler.startSection("reposition");
-            minecraftserver.getConfigurationManager().transferEntityToWorld(this, i, worldserver, worldserver1);
-            this.worldObj.theProfiler.endStartSection("reloading");
-            Entity entity = EntityList.createEntityByName(EntityList.getEntityString(this), worldserver1);
-
-            if (entity != null)
+            else
             {
-                entity.copyDataFromOld(this);
+                this.worldObj.theProfiler.startSection("changeDimension");
+                int i = this.dimension;
+                WorldServer worldserver = minecraftserver.worldServerForDimension(i);
+                WorldServer worldserver1 = minecraftserver.worldServerForDimension(dimensionId);
+                this.dimension = dimensionId;
 
                 if (i == 1 && dimensionId == 1)
                 {
-                    BlockPos blockpos = this.worldObj.getTopSolidOrLiquidBlock(worldserver1.getSpawnPoint());
-                    entity.moveToBlockPosAndAngles(blockpos, entity.rotationYaw, entity.rotationPitch);
+                    worldserver1 = minecraftserver.worldServerForDimension(0);
+                    this.dimension = 0;
                 }
 
-                worldserver1.spawnEntityInWorld(entity);
-            }
+                this.worldObj.removeEntity(this);
+                this.isDead = false;
+                this.worldObj.theProfiler.startSection("reposition");
+                minecraftserver.getConfigurationManager().transferEntityToWorld(this, i, worldserver, worldserver1);
+                this.worldObj.theProfiler.endStartSection("reloading");
+                Entity entity = EntityList.createEntityByName(EntityList.getEntityString(this), worldserver1);
 
-            this.isDead = true;
-            this.worldObj.theProfiler.endSection();
-            worldserver.resetUpdateEntityTick();
-            worldserver1.resetUpdateEntityTick();
-            this.worldObj.theProfiler.endSection();
+                if (entity != null)
+                {
+                    entity.copyDataFromOld(this);
+
+                    if (i == 1 && dimensionId == 1)
+                    {
+                        BlockPos blockpos = this.worldObj.getTopSolidOrLiquidBlock(worldserver1.getSpawnPoint());
+                        entity.moveToBlockPosAndAngles(blockpos, entity.rotationYaw, entity.rotationPitch);
+                    }
+
+                    worldserver1.spawnEntityInWorld(entity);
+                }
+
+                this.isDead = true;
+                this.worldObj.theProfiler.endSection();
+                worldserver.resetUpdateEntityTick();
+                worldserver1.resetUpdateEntityTick();
+                this.worldObj.theProfiler.endSection();
+            }
         }
     }
 
@@ -1,8 +1,10 @@
 package net.minecraft.entity;
 
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Callable;
 import net.minecraft.crash.CrashReport;
@@ -34,7 +36,10 @@ import net.minecraft.entity.projectile.EntitySmallFireball;
 import net.minecraft.entity.projectile.EntitySnowball;
 import net.minecraft.network.Packet;
 import net.minecraft.util.IntHashMap;
+import net.minecraft.util.LongHashMap;
+import net.minecraft.util.MathHelper;
 import net.minecraft.util.ReportedException;
+import net.minecraft.world.ChunkCoordIntPair;
 import net.minecraft.world.WorldServer;
 import net.minecraft.world.chunk.Chunk;
 import org.apache.logging.log4j.LogManager;
@@ -46,6 +51,12 @@ public class EntityTracker
     private final WorldServer theWorld;
     private Set<EntityTrackerEntry> trackedEntities = Sets.<EntityTrackerEntry>newHashSet();
     private IntHashMap<EntityTrackerEntry> trackedEntityHashTable = new IntHashMap();
+
+    /** Tracked entries bucketed by the chunk column of their last sent position, which is what range checks use */
+    private final LongHashMap<Set<EntityTrackerEntry>> entriesByCell = new LongHashMap();
+
+    /** The entries each player is currently tracking, kept in step with EntityTrackerEntry.trackingPlayers */
+    private final Map<EntityPlayerMP, Set<EntityTrackerEntry>> entriesByTrackingPlayer = Maps.<EntityPlayerMP, Set<EntityTrackerEntry>>newHashMap();
     private int maxTrackingDistanceThreshold;
 
     public EntityTracker(WorldServer theWorldIn)
@@ -61,7 +72,7 @@ public class EntityTracker
             this.trackEntity(entityIn, 512, 2);
             EntityPlayerMP entityplayermp = (EntityPlayerMP)entityIn;
 
-            for (EntityTrackerEntry entitytrackerentry : this.trackedEntities)
+            for (EntityTrackerEntry entitytrackerentry : this.getEntriesAround(entityplayermp))
             {
                 if (entitytrackerentry.trackedEntity != entityplayermp)
                 {
@@ -196,6 +207,8 @@ public class EntityTracker
             EntityTrackerEntry entitytrackerentry = new EntityTrackerEntry(entityIn, trackingRange, updateFrequency, sendVelocityUpdates);
             this.trackedEntities.add(entitytrackerentry);
             this.trackedEntityHashTable.addKey(entityIn.getEntityId(), entitytrackerentry);
+            entitytrackerentry.tracker = this;
+            this.addToCell(entitytrackerentry, getCell(entitytrackerentry));
             entitytrackerentry.updatePlayerEntities(this.theWorld.playerEntities);
         }
         catch (Throwable throwable)
@@ -238,10 +251,12 @@ public class EntityTracker
         {
             EntityPlayerMP entityplayermp = (EntityPlayerMP)entityIn;
 
-            for (EntityTrackerEntry entitytrackerentry : this.trackedEntities)
+            for (EntityTrackerEntry entitytrackerentry : this.getEntriesTrackedBy(entityplayermp))
             {
                 entitytrackerentry.removeFromTrackedPlayers(entityplayermp);
             }
+
+            this.entriesByTrackingPlayer.remove(entityplayermp);
         }
 
         EntityTrackerEntry entitytrackerentry1 = (EntityTrackerEntry)this.trackedEntityHashTable.removeObject(entityIn.getEntityId());
@@ -249,7 +264,15 @@ public class EntityTracker
         if (entitytrackerentry1 != null)
         {
             this.trackedEntities.remove(entitytrackerentry1);
+            this.removeFromCell(entitytrackerentry1);
             entitytrackerentry1.sendDestroyEntityPacketToTrackedPlayers();
+
+            for (EntityPlayerMP entityplayermp1 : entitytrackerentry1.trackingPlayers)
+            {
+                this.onTrackingPlayerRemoved(entitytrackerentry1, entityplayermp1);
+            }
+
+            entitytrackerentry1.tracker = null;
         }
     }
 
@@ -260,6 +283,13 @@ public class EntityTracker
         for (EntityTrackerEntry entitytrackerentry : this.trackedEntities)
         {
             entitytrackerentry.updatePlayerList(this.theWorld.playerEntities);
+            long j = getCell(entitytrackerentry);
+
+            if (j != entitytrackerentry.trackerCell)
+            {
+                this.removeFromCell(entitytrackerentry);
+                this.addToCell(entitytrackerentry, j);
+            }
 
             if (entitytrackerentry.playerEntitiesUpdated && entitytrackerentry.trackedEntity instanceof EntityPlayerMP)
             {
@@ -271,7 +301,7 @@ public class EntityTracker
         {
             EntityPlayerMP entityplayermp = (EntityPlayerMP)list.get(i);
 
-            for (EntityTrackerEntry entitytrackerentry1 : this.trackedEntities)
+            for (EntityTrackerEntry entitytrackerentry1 : this.getEntriesAround(entityplayermp))
             {
                 if (entitytrackerentry1.trackedEntity != entityplayermp)
                 {
@@ -283,15 +313,18 @@ public class EntityTracker
 
     public void func_180245_a(EntityPlayerMP p_180245_1_)
     {
-        for (EntityTrackerEntry entitytrackerentry : this.trackedEntities)
+        EntityTrackerEntry entitytrackerentry = (EntityTrackerEntry)this.trackedEntityHashTable.lookup(p_180245_1_.getEntityId());
+
+        if (entitytrackerentry != null)
         {
-            if (entitytrackerentry.trackedEntity == p_180245_1_)
-            {
-                entitytrackerentry.updatePlayerEntities(this.theWorld.playerEntities);
-            }
-            else
+            entitytrackerentry.updatePlayerEntities(this.theWorld.playerEntities);
+        }
+
+        for (EntityTrackerEntry entitytrackerentry1 : this.getEntriesAround(p_180245_1_))
+        {
+            if (entitytrackerentry1.trackedEntity != p_180245_1_)
             {
-                entitytrackerentry.updatePlayerEntity(p_180245_1_);
+                entitytrackerentry1.updatePlayerEntity(p_180245_1_);
             }
         }
     }
@@ -318,7 +351,7 @@ public class EntityTracker
 
     public void removePlayerFromTrackers(EntityPlayerMP p_72787_1_)
     {
-        for (EntityTrackerEntry entitytrackerentry : this.trackedEntities)
+        for (EntityTrackerEntry entitytrackerentry : this.getEntriesTrackedBy(p_72787_1_))
         {
             entitytrackerentry.removeTrackedPlayerSymmetric(p_72787_1_);
         }
@@ -326,7 +359,22 @@ public class EntityTracker
 
     public void func_85172_a(EntityPlayerMP p_85172_1_, Chunk p_85172_2_)
     {
-        for (EntityTrackerEntry entitytrackerentry : this.trackedEntities)
+        List<EntityTrackerEntry> list = Lists.<EntityTrackerEntry>newArrayList();
+
+        for (int i = p_85172_2_.xPosition - 1; i <= p_85172_2_.xPosition + 1; ++i)
+        {
+            for (int j = p_85172_2_.zPosition - 1; j <= p_85172_2_.zPosition + 1; ++j)
+            {
+                Set<EntityTrackerEntry> set = (Set)this.entriesByCell.getValueByKey(ChunkCoordIntPair.chunkXZ2Int(i, j));
+
+                if (set != null)
+                {
+                    list.addAll(set);
+                }
+            }
+        }
+
+        for (EntityTrackerEntry entitytrackerentry : list)
         {
             if (entitytrackerentry.trackedEntity != p_85172_1_ && entitytrackerentry.trackedEntity.chunkCoordX == p_85172_2_.xPosition && entitytrackerentry.trackedEntity.chunkCoordZ == p_85172_2_.zPosition)
             {
@@ -334,4 +382,97 @@ public class EntityTracker
             }
         }
     }
+
+    void onTrackingPlayerAdded(EntityTrackerEntry entry, EntityPlayerMP player)
+    {
+        Set<EntityTrackerEntry> set = (Set)this.entriesByTrackingPlayer.get(player);
+
+        if (set == null)
+        {
+            set = Sets.<EntityTrackerEntry>newHashSet();
+            this.entriesByTrackingPlayer.put(player, set);
+        }
+
+        set.add(entry);
+    }
+
+    void onTrackingPlayerRemoved(EntityTrackerEntry entry, EntityPlayerMP player)
+    {
+        Set<EntityTrackerEntry> set = (Set)this.entriesByTrackingPlayer.get(player);
+
+        if (set != null && set.remove(entry) && set.isEmpty())
+        {
+            this.entriesByTrackingPlayer.remove(player);
+        }
+    }
+
+    /**
+     * Returns a copy of the entries currently tracked by the player.
+     */
+    private List<EntityTrackerEntry> getEntriesTrackedBy(EntityPlayerMP player)
+    {
+        Set<EntityTrackerEntry> set = (Set)this.entriesByTrackingPlayer.get(player);
+        return set == null ? Lists.<EntityTrackerEntry>newArrayList() : Lists.newArrayList(set);
+    }
+
+    /**
+     * Returns every entry whose tracking state for the player can change right now: those whose cell lies within the
+     * largest tracking range of the player, plus those the player is tracking wherever they are, so they can be
+     * dropped. All other entries are out of range and not tracked, which updatePlayerEntity would leave alone.
+     */
+    private Set<EntityTrackerEntry> getEntriesAround(EntityPlayerMP player)
+    {
+        Set<EntityTrackerEntry> set = Sets.<EntityTrackerEntry>newHashSet(this.getEntriesTrackedBy(player));
+        int i = MathHelper.floor_double(player.posX - (double)this.maxTrackingDistanceThreshold) >> 4;
+        int j = MathHelper.floor_double(player.posX + (double)this.maxTrackingDistanceThreshold) >> 4;
+        int k = MathHelper.floor_double(player.posZ - (double)this.maxTrackingDistanceThreshold) >> 4;
+        int l = MathHelper.floor_double(player.posZ + (double)this.maxTrackingDistanceThreshold) >> 4;
+
+        for (int i1 = i; i1 <= j; ++i1)
+        {
+            for (int j1 = k; j1 <= l; ++j1)
+            {
+                Set<EntityTrackerEntry> set1 = (Set)this.entriesByCell.getValueByKey(ChunkCoordIntPair.chunkXZ2Int(i1, j1));
+
+                if (set1 != null)
+                {
+                    set.addAll(set1);
+                }
+            }
+        }
+
+        return set;
+    }
+
+    /**
+     * Cell of the block position EntityTrackerEntry.func_180233_c measures the tracking range from.
+     */
+    private static long getCell(EntityTrackerEntry entry)
+    {
+        return ChunkCoordIntPair.chunkXZ2Int(entry.encodedPosX / 32 >> 4, entry.encodedPosZ / 32 >> 4);
+    }
+
+    private void addToCell(EntityTrackerEntry entry, long cell)
+    {
+        Set<EntityTrackerEntry> set = (Set)this.entriesByCell.getValueByKey(cell);
+
+        if (set == null)
+        {
+            set = Sets.<EntityTrackerEntry>newHashSet();
+            this.entriesByCell.add(cell, set);
+        }
+
+        set.add(entry);
+        entry.trackerCell = cell;
+    }
+
+    private void removeFromCell(EntityTrackerEntry entry)
+    {
+        Set<EntityTrackerEntry> set = (Set)this.entriesByCell.getValueByKey(entry.trackerCell);
+
+        if (set != null && set.remove(entry) && set.isEmpty())
+        {
+            this.entriesByCell.remove(entry.trackerCell);
+        }
+    }
 }
@@ -107,6 +107,12 @@ public class EntityTrackerEntry
     public boolean playerEntitiesUpdated;
     public Set<EntityPlayerMP> trackingPlayers = Sets.<EntityPlayerMP>newHashSet();
 
+    /** Tracker notified whenever trackingPlayers changes, so it can index entries by the players tracking them */
+    EntityTracker tracker;
+
+    /** Grid cell of the tracker this entry is currently filed under */
+    long trackerCell;
+
     public EntityTrackerEntry(Entity trackedEntityIn, int trackingDistanceThresholdIn, int updateFrequencyIn, boolean sendVelocityUpdatesIn)
     {
         this.trackedEntity = trackedEntityIn;
@@ -362,7 +368,7 @@ public class EntityTrackerEntry
         if (this.trackingPlayers.contains(playerMP))
         {
             playerMP.removeEntity(this.trackedEntity);
-            this.trackingPlayers.remove(playerMP);
+            this.removeTrackingPlayer(playerMP);
         }
     }
 
@@ -374,7 +380,7 @@ public class EntityTrackerEntry
             {
                 if (!this.trackingPlayers.contains(playerMP) && (this.isPlayerWatchingThisChunk(playerMP) || this.trackedEntity.forceSpawn))
                 {
-                    this.trackingPlayers.add(playerMP);
+                    this.addTrackingPlayer(playerMP);
                     Packet packet = this.createSpawnPacket();
                     playerMP.playerNetServerHandler.sendPacket(packet);
 
@@ -456,7 +462,7 @@ public class EntityTrackerEntry
             }
             else if (this.trackingPlayers.contains(playerMP))
             {
-                this.trackingPlayers.remove(playerMP);
+                this.removeTrackingPlayer(playerMP);
                 playerMP.removeEntity(this.trackedEntity);
             }
         }
@@ -639,8 +645,28 @@ public class EntityTrackerEntry
     {
         if (this.trackingPlayers.contains(playerMP))
         {
-            this.trackingPlayers.remove(playerMP);
+            this.removeTrackingPlayer(playerMP);
             playerMP.removeEntity(this.trackedEntity);
         }
     }
+
+    private void addTrackingPlayer(EntityPlayerMP playerMP)
+    {
+        this.trackingPlayers.add(playerMP);
+
+        if (this.tracker != null)
+        {
+            this.tracker.onTrackingPlayerAdded(this, playerMP);
+        }
+    }
+
+    private void removeTrackingPlayer(EntityPlayerMP playerMP)
+    {
+        this.trackingPlayers.remove(playerMP);
+
+        if (this.tracker != null)
+        {
+            this.tracker.onTrackingPlayerRemoved(this, playerMP);
+        }
+    }
 }
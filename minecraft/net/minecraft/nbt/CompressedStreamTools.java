@@ -1,5 +1,6 @@
 package net.minecraft.nbt;
 
+import com.google.common.io.ByteStreams;
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
 import java.io.DataInput;
@@ -40,6 +41,26 @@ public class CompressedStreamTools
         return nbttagcompound;
     }
 
+    /**
+     * Load the gzipped compound from the inputstream, decoding nested compounds and lists only once they are accessed.
+     */
+    public static NBTTagCompound readCompressedLazy(InputStream is) throws IOException
+    {
+        DataInputStream datainputstream = new DataInputStream(new BufferedInputStream(new GZIPInputStream(is)));
+        byte[] abyte;
+
+        try
+        {
+            abyte = ByteStreams.toByteArray(datainputstream);
+        }
+        finally
+        {
+            datainputstream.close();
+        }
+
+        return readLazy(abyte, NBTSizeTracker.INFINITE, Integer.MAX_VALUE);
+    }
+
     /**
      * Write the compound, gzipped, to the outputstream.
      */
@@ -146,6 +167,24 @@ public class CompressedStreamTools
         }
     }
 
+    /**
+     * Reads a root compound from uncompressed data. Compounds and lists nested up to lazyDepth levels deep are kept as
+     * slices of the array and only decoded when accessed. The size tracker is charged for the whole tree up front.
+     */
+    public static NBTTagCompound readLazy(byte[] data, NBTSizeTracker sizeTracker, int lazyDepth) throws IOException
+    {
+        NBTStreamReader nbtstreamreader = new NBTStreamReader(data, 0, data.length, sizeTracker);
+
+        if (nbtstreamreader.beginRoot() != 10)
+        {
+            throw new IOException("Root tag must be a named compound tag");
+        }
+        else
+        {
+            return NBTTagCompound.readLazy(nbtstreamreader, lazyDepth);
+        }
+    }
+
     public static void write(NBTTagCompound p_74800_0_, DataOutput p_74800_1_) throws IOException
     {
         writeTag(p_74800_0_, p_74800_1_);
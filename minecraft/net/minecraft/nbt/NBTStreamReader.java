@@ -0,0 +1,386 @@
+package net.minecraft.nbt;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+
+/**
+ * Pull parser over the NBT binary format. Tags are visited one at a time and can be read into plain values, decoded
+ * into a tag, or skipped without allocating anything. The size tracker is charged as if the data had been read with
+ * CompressedStreamTools, skipped tags included, so a reader never accepts data the eager one would have refused.
+ */
+public class NBTStreamReader
+{
+    private final DataInput input;
+    private final NBTSizeTracker sizeTracker;
+    private final NBTStreamReader.PositionInputStream positionInput;
+    private int depth;
+    private byte listType;
+    private String name = "";
+
+    public NBTStreamReader(DataInput inputIn, NBTSizeTracker sizeTrackerIn)
+    {
+        this.input = inputIn;
+        this.sizeTracker = sizeTrackerIn;
+        this.positionInput = null;
+    }
+
+    /**
+     * Reads from a slice of an array. Only readers created this way know their position, which lazy tags need.
+     */
+    public NBTStreamReader(byte[] data, int offset, int length, NBTSizeTracker sizeTrackerIn)
+    {
+        this.positionInput = new NBTStreamReader.PositionInputStream(data, offset, length);
+        this.input = new DataInputStream(this.positionInput);
+        this.sizeTracker = sizeTrackerIn;
+    }
+
+    /**
+     * Reads the type and name of the root tag. Returns 0 if the data holds no tag.
+     */
+    public byte beginRoot() throws IOException
+    {
+        byte b0 = this.input.readByte();
+        this.name = b0 == 0 ? "" : this.input.readUTF();
+        return b0;
+    }
+
+    /**
+     * Reads the header of the next entry of the current compound and returns its type. Returns 0 once the compound
+     * has ended, which also leaves it.
+     */
+    public byte nextTag() throws IOException
+    {
+        byte b0 = this.input.readByte();
+
+        if (b0 == 0)
+        {
+            this.name = "";
+            --this.depth;
+        }
+        else
+        {
+            this.name = this.input.readUTF();
+            this.sizeTracker.read((long)(224 + 16 * this.name.length()));
+        }
+
+        return b0;
+    }
+
+    /**
+     * Name of the entry returned by the last call to nextTag.
+     */
+    public String getName()
+    {
+        return this.name;
+    }
+
+    /**
+     * Steps into a compound payload, either after nextTag returned 10 or for an element of a compound list. Its
+     * entries are then visited with nextTag until it returns 0.
+     */
+    public void enterCompound()
+    {
+        this.sizeTracker.read(384L);
+        this.checkDepth();
+        ++this.depth;
+    }
+
+    /**
+     * Steps into a list payload and returns the number of elements, which must all be consumed before calling
+     * exitList.
+     */
+    public int enterList() throws IOException
+    {
+        this.sizeTracker.read(296L);
+        this.checkDepth();
+        this.listType = this.input.readByte();
+        int i = this.input.readInt();
+
+        if (this.listType == 0 && i > 0)
+        {
+            throw new RuntimeException("Missing type on ListTag");
+        }
+        else
+        {
+            this.sizeTracker.read(32L * (long)i);
+            ++this.depth;
+            return i;
+        }
+    }
+
+    /**
+     * Element type of the list entered last.
+     */
+    public byte getListType()
+    {
+        return this.listType;
+    }
+
+    public void exitList()
+    {
+        --this.depth;
+    }
+
+    public byte readByte() throws IOException
+    {
+        this.sizeTracker.read(72L);
+        return this.input.readByte();
+    }
+
+    public short readShort() throws IOException
+    {
+        this.sizeTracker.read(80L);
+        return this.input.readShort();
+    }
+
+    public int readInt() throws IOException
+    {
+        this.sizeTracker.read(96L);
+        return this.input.readInt();
+    }
+
+    public long readLong() throws IOException
+    {
+        this.sizeTracker.read(128L);
+        return this.input.readLong();
+    }
+
+    public float readFloat() throws IOException
+    {
+        this.sizeTracker.read(96L);
+        return this.input.readFloat();
+    }
+
+    public double readDouble() throws IOException
+    {
+        this.sizeTracker.read(128L);
+        return this.input.readDouble();
+    }
+
+    public String readString() throws IOException
+    {
+        this.sizeTracker.read(288L);
+        String s = this.input.readUTF();
+        this.sizeTracker.read((long)(16 * s.length()));
+        return s;
+    }
+
+    public byte[] readByteArray() throws IOException
+    {
+        this.sizeTracker.read(192L);
+        int i = this.input.readInt();
+        this.sizeTracker.read((long)(8 * i));
+        byte[] abyte = new byte[i];
+        this.input.readFully(abyte);
+        return abyte;
+    }
+
+    /**
+     * Reads a byte array payload into the given buffer instead of allocating one and returns its length. Fails if the
+     * array does not fit.
+     */
+    public int readByteArray(byte[] buffer) throws IOException
+    {
+        this.sizeTracker.read(192L);
+        int i = this.input.readInt();
+
+        if (i < 0 || i > buffer.length)
+        {
+            throw new IOException("Byte array of length " + i + " does not fit into a buffer of " + buffer.length);
+        }
+        else
+        {
+            this.sizeTracker.read((long)(8 * i));
+            this.input.readFully(buffer, 0, i);
+            return i;
+        }
+    }
+
+    public int[] readIntArray() throws IOException
+    {
+        this.sizeTracker.read(192L);
+        int i = this.input.readInt();
+        this.sizeTracker.read((long)(32 * i));
+        int[] aint = new int[i];
+
+        for (int j = 0; j < i; ++j)
+        {
+            aint[j] = this.input.readInt();
+        }
+
+        return aint;
+    }
+
+    /**
+     * Decodes the payload of a tag of the given type into a regular tag.
+     */
+    public NBTBase readTag(byte type) throws IOException
+    {
+        NBTBase nbtbase = NBTBase.createNewByType(type);
+
+        if (nbtbase == null)
+        {
+            throw new IOException("Unknown NBT tag type " + type);
+        }
+        else
+        {
+            nbtbase.read(this.input, this.depth, this.sizeTracker);
+            return nbtbase;
+        }
+    }
+
+    /**
+     * Skips the payload of a tag of the given type.
+     */
+    public void skipTag(byte type) throws IOException
+    {
+        switch (type)
+        {
+            case 0:
+                this.sizeTracker.read(64L);
+                break;
+
+            case 1:
+                this.sizeTracker.read(72L);
+                this.skipFully(1);
+                break;
+
+            case 2:
+                this.sizeTracker.read(80L);
+                this.skipFully(2);
+                break;
+
+            case 3:
+            case 5:
+                this.sizeTracker.read(96L);
+                this.skipFully(4);
+                break;
+
+            case 4:
+            case 6:
+                this.sizeTracker.read(128L);
+                this.skipFully(8);
+                break;
+
+            case 7:
+                this.sizeTracker.read(192L);
+                int i = this.input.readInt();
+                this.sizeTracker.read((long)(8 * i));
+                this.skipFully(i);
+                break;
+
+            case 8:
+                int j = this.input.readUnsignedShort();
+                this.sizeTracker.read((long)(288 + 16 * j));
+                this.skipFully(j);
+                break;
+
+            case 9:
+                int k = this.enterList();
+                byte b0 = this.listType;
+
+                for (int l = 0; l < k; ++l)
+                {
+                    this.skipTag(b0);
+                }
+
+                this.exitList();
+                break;
+
+            case 10:
+                this.enterCompound();
+                byte b1;
+
+                while ((b1 = this.nextTag()) != 0)
+                {
+                    this.skipTag(b1);
+                }
+
+                break;
+
+            case 11:
+                this.sizeTracker.read(192L);
+                int i1 = this.input.readInt();
+                this.sizeTracker.read((long)(32 * i1));
+                this.skipFully(i1 * 4);
+                break;
+
+            default:
+                throw new IOException("Unknown NBT tag type " + type);
+        }
+    }
+
+    /**
+     * Offset of the next unread byte in the backing array, only available for array backed readers.
+     */
+    int getPosition()
+    {
+        return this.getPositionInput().getPosition();
+    }
+
+    byte[] getData()
+    {
+        return this.getPositionInput().getData();
+    }
+
+    private NBTStreamReader.PositionInputStream getPositionInput()
+    {
+        if (this.positionInput == null)
+        {
+            throw new IllegalStateException("Reader is not backed by an array, lazy tags cannot be read from it");
+        }
+        else
+        {
+            return this.positionInput;
+        }
+    }
+
+    private void checkDepth()
+    {
+        if (this.depth > 512)
+        {
+            throw new RuntimeException("Tried to read NBT tag with too high complexity, depth > 512");
+        }
+    }
+
+    private void skipFully(int count) throws IOException
+    {
+        if (count < 0)
+        {
+            throw new IOException("Negative length " + count);
+        }
+
+        while (count > 0)
+        {
+            int i = this.input.skipBytes(count);
+
+            if (i <= 0)
+            {
+                throw new EOFException();
+            }
+
+            count -= i;
+        }
+    }
+
+    static class PositionInputStream extends ByteArrayInputStream
+    {
+        public PositionInputStream(byte[] data, int offset, int length)
+        {
+            super(data, offset, length);
+        }
+
+        public int getPosition()
+        {
+            return this.pos;
+        }
+
+        public byte[] getData()
+        {
+            return this.buf;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package net.minecraft.nbt;
+
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Writes NBT in the same binary layout as CompressedStreamTools.write without building a tag tree first. Compounds and
+ * lists are opened and closed explicitly; the caller is responsible for writing exactly as many list elements as were
+ * announced.
+ */
+public class NBTStreamWriter
+{
+    private final DataOutput output;
+
+    public NBTStreamWriter(DataOutput outputIn)
+    {
+        this.output = outputIn;
+    }
+
+    /**
+     * Opens the nameless root compound of a file.
+     */
+    public void beginRoot() throws IOException
+    {
+        this.beginCompound("");
+    }
+
+    public void beginCompound(String name) throws IOException
+    {
+        this.writeHeader(10, name);
+    }
+
+    /**
+     * Closes the current compound, also used to close compound list elements.
+     */
+    public void endCompound() throws IOException
+    {
+        this.output.writeByte(0);
+    }
+
+    /**
+     * Opens a list of count elements of the given type. Elements are written with the write*Element methods.
+     */
+    public void beginList(String name, int type, int count) throws IOException
+    {
+        this.writeHeader(9, name);
+        this.output.writeByte(count == 0 ? 0 : type);
+        this.output.writeInt(count);
+    }
+
+    public void writeByte(String name, byte value) throws IOException
+    {
+        this.writeHeader(1, name);
+        this.output.writeByte(value);
+    }
+
+    public void writeBoolean(String name, boolean value) throws IOException
+    {
+        this.writeByte(name, (byte)(value ? 1 : 0));
+    }
+
+    public void writeInt(String name, int value) throws IOException
+    {
+        this.writeHeader(3, name);
+        this.output.writeInt(value);
+    }
+
+    public void writeLong(String name, long value) throws IOException
+    {
+        this.writeHeader(4, name);
+        this.output.writeLong(value);
+    }
+
+    public void writeString(String name, String value) throws IOException
+    {
+        this.writeHeader(8, name);
+        this.output.writeUTF(value);
+    }
+
+    public void writeByteArray(String name, byte[] value) throws IOException
+    {
+        this.writeByteArray(name, value, value.length);
+    }
+
+    /**
+     * Writes the first length bytes of the array, so scratch buffers can be reused between tags.
+     */
+    public void writeByteArray(String name, byte[] value, int length) throws IOException
+    {
+        this.writeHeader(7, name);
+        this.output.writeInt(length);
+        this.output.write(value, 0, length);
+    }
+
+    public void writeIntArray(String name, int[] value) throws IOException
+    {
+        this.writeHeader(11, name);
+        this.output.writeInt(value.length);
+
+        for (int i = 0; i < value.length; ++i)
+        {
+            this.output.writeInt(value[i]);
+        }
+    }
+
+    /**
+     * Writes the payload of an already built tag as the next element of the current list.
+     */
+    public void writeListElement(NBTBase tag) throws IOException
+    {
+        tag.write(this.output);
+    }
+
+    private void writeHeader(int type, String name) throws IOException
+    {
+        this.output.writeByte(type);
+        this.output.writeUTF(name);
+    }
+}
@@ -159,11 +159,32 @@ public class NBTTagCompound extends NBTBase
     }
 
     /**
-     * gets a generic tag with the specified name
+     * gets a generic tag with the specified name. A lazily read entry is decoded on first access and replaces its
+     * undecoded form in the map, so that changes made to the returned tag stick. Reading therefore modifies this
+     * compound and, like writing, must not happen from several threads at once.
      */
     public NBTBase getTag(String key)
     {
-        return (NBTBase)this.tagMap.get(key);
+        NBTBase nbtbase = (NBTBase)this.tagMap.get(key);
+
+        if (nbtbase instanceof NBTTagLazy)
+        {
+            nbtbase = ((NBTTagLazy)nbtbase).decode(key);
+            this.tagMap.put(key, nbtbase);
+        }
+
+        return nbtbase;
+    }
+
+    /**
+     * Returns a reader over the payload of a tag that was read lazily and has not been accessed yet, or null
+     * otherwise. Reading through it leaves the tag undecoded, so callers that only need to stream the data once never
+     * build the subtree.
+     */
+    public NBTStreamReader getTagReader(String key)
+    {
+        NBTBase nbtbase = (NBTBase)this.tagMap.get(key);
+        return nbtbase instanceof NBTTagLazy ? ((NBTTagLazy)nbtbase).getReader() : null;
     }
 
     /**
@@ -213,7 +234,7 @@ public class NBTTagCompound extends NBTBase
     {
         try
         {
-            return !this.hasKey(key, 99) ? 0 : ((NBTBase.NBTPrimitive)this.tagMap.get(key)).getByte();
+            return !this.hasKey(key, 99) ? 0 : ((NBTBase.NBTPrimitive)this.getTag(key)).getByte();
         }
         catch (ClassCastException var3)
         {
@@ -228,7 +249,7 @@ public class NBTTagCompound extends NBTBase
     {
         try
         {
-            return !this.hasKey(key, 99) ? 0 : ((NBTBase.NBTPrimitive)this.tagMap.get(key)).getShort();
+            return !this.hasKey(key, 99) ? 0 : ((NBTBase.NBTPrimitive)this.getTag(key)).getShort();
         }
         catch (ClassCastException var3)
         {
@@ -243,7 +264,7 @@ public class NBTTagCompound extends NBTBase
     {
         try
         {
-            return !this.hasKey(key, 99) ? 0 : ((NBTBase.NBTPrimitive)this.tagMap.get(key)).getInt();
+            return !this.hasKey(key, 99) ? 0 : ((NBTBase.NBTPrimitive)this.getTag(key)).getInt();
         }
         catch (ClassCastException var3)
         {
@@ -258,7 +279,7 @@ public class NBTTagCompound extends NBTBase
     {
         try
         {
-            return !this.hasKey(key, 99) ? 0L : ((NBTBase.NBTPrimitive)this.tagMap.get(key)).getLong();
+            return !this.hasKey(key, 99) ? 0L : ((NBTBase.NBTPrimitive)this.getTag(key)).getLong();
         }
         catch (ClassCastException var3)
         {
@@ -273,7 +294,7 @@ public class NBTTagCompound extends NBTBase
     {
         try
         {
-            return !this.hasKey(key, 99) ? 0.0F : ((NBTBase.NBTPrimitive)this.tagMap.get(key)).getFloat();
+            return !this.hasKey(key, 99) ? 0.0F : ((NBTBase.NBTPrimitive)this.getTag(key)).getFloat();
         }
         catch (ClassCastException var3)
         {
@@ -288,7 +309,7 @@ public class NBTTagCompound extends NBTBase
     {
         try
         {
-            return !this.hasKey(key, 99) ? 0.0D : ((NBTBase.NBTPrimitive)this.tagMap.get(key)).getDouble();
+            return !this.hasKey(key, 99) ? 0.0D : ((NBTBase.NBTPrimitive)this.getTag(key)).getDouble();
         }
         catch (ClassCastException var3)
         {
@@ -303,7 +324,7 @@ public class NBTTagCompound extends NBTBase
     {
         try
         {
-            return !this.hasKey(key, 8) ? "" : ((NBTBase)this.tagMap.get(key)).getString();
+            return !this.hasKey(key, 8) ? "" : ((NBTBase)this.getTag(key)).getString();
         }
         catch (ClassCastException var3)
         {
@@ -318,7 +339,7 @@ public class NBTTagCompound extends NBTBase
     {
         try
         {
-            return !this.hasKey(key, 7) ? new byte[0] : ((NBTTagByteArray)this.tagMap.get(key)).getByteArray();
+            return !this.hasKey(key, 7) ? new byte[0] : ((NBTTagByteArray)this.getTag(key)).getByteArray();
         }
         catch (ClassCastException classcastexception)
         {
@@ -333,7 +354,7 @@ public class NBTTagCompound extends NBTBase
     {
         try
         {
-            return !this.hasKey(key, 11) ? new int[0] : ((NBTTagIntArray)this.tagMap.get(key)).getIntArray();
+            return !this.hasKey(key, 11) ? new int[0] : ((NBTTagIntArray)this.getTag(key)).getIntArray();
         }
         catch (ClassCastException classcastexception)
         {
@@ -349,7 +370,7 @@ public class NBTTagCompound extends NBTBase
     {
         try
         {
-            return !this.hasKey(key, 10) ? new NBTTagCompound() : (NBTTagCompound)this.tagMap.get(key);
+            return !this.hasKey(key, 10) ? new NBTTagCompound() : (NBTTagCompound)this.getTag(key);
         }
         catch (ClassCastException classcastexception)
         {
@@ -370,7 +391,7 @@ public class NBTTagCompound extends NBTBase
             }
             else
             {
-                NBTTagList nbttaglist = (NBTTagList)this.tagMap.get(key);
+                NBTTagList nbttaglist = (NBTTagList)this.getTag(key);
                 return nbttaglist.tagCount() > 0 && nbttaglist.getTagType() != type ? new NBTTagList() : nbttaglist;
             }
         }
@@ -399,6 +420,7 @@ public class NBTTagCompound extends NBTBase
 
     public String toString()
     {
+        this.decodeAll();
         StringBuilder stringbuilder = new StringBuilder("{");
 
         for (Entry<String, NBTBase> entry : this.tagMap.entrySet())
@@ -467,6 +489,8 @@ public class NBTTagCompound extends NBTBase
         if (super.equals(p_equals_1_))
         {
             NBTTagCompound nbttagcompound = (NBTTagCompound)p_equals_1_;
+            this.decodeAll();
+            nbttagcompound.decodeAll();
             return this.tagMap.entrySet().equals(nbttagcompound.tagMap.entrySet());
         }
         else
@@ -477,9 +501,56 @@ public class NBTTagCompound extends NBTBase
 
     public int hashCode()
     {
+        this.decodeAll();
         return super.hashCode() ^ this.tagMap.hashCode();
     }
 
+    /**
+     * Replaces every lazily read entry by its decoded tag.
+     */
+    private void decodeAll()
+    {
+        for (Entry<String, NBTBase> entry : this.tagMap.entrySet())
+        {
+            if (entry.getValue() instanceof NBTTagLazy)
+            {
+                entry.setValue(((NBTTagLazy)entry.getValue()).decode((String)entry.getKey()));
+            }
+        }
+    }
+
+    /**
+     * Reads a compound payload, keeping nested compounds and lists undecoded for lazyDepth levels. Requires an array
+     * backed reader.
+     */
+    static NBTTagCompound readLazy(NBTStreamReader reader, int lazyDepth) throws IOException
+    {
+        NBTTagCompound nbttagcompound = new NBTTagCompound();
+        reader.enterCompound();
+        byte b0;
+
+        while ((b0 = reader.nextTag()) != 0)
+        {
+            String s = reader.getName();
+            NBTBase nbtbase;
+
+            if (lazyDepth > 0 && (b0 == 9 || b0 == 10))
+            {
+                int i = reader.getPosition();
+                reader.skipTag(b0);
+                nbtbase = new NBTTagLazy(reader.getData(), i, reader.getPosition() - i, b0, lazyDepth - 1);
+            }
+            else
+            {
+                nbtbase = reader.readTag(b0);
+            }
+
+            nbttagcompound.tagMap.put(s, nbtbase);
+        }
+
+        return nbttagcompound;
+    }
+
     private static void writeEntry(String name, NBTBase data, DataOutput output) throws IOException
     {
         output.writeByte(data.getId());
@@ -528,7 +599,7 @@ public class NBTTagCompound extends NBTBase
     {
         for (String s : other.tagMap.keySet())
         {
-            NBTBase nbtbase = (NBTBase)other.tagMap.get(s);
+            NBTBase nbtbase = other.getTag(s);
 
             if (nbtbase.getId() == 10)
             {
@@ -0,0 +1,103 @@
+package net.minecraft.nbt;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import net.minecraft.crash.CrashReport;
+import net.minecraft.crash.CrashReportCategory;
+import net.minecraft.util.ReportedException;
+
+/**
+ * Placeholder for a compound or list that has been read lazily. It only remembers where its payload sits in the
+ * source array; the owning compound swaps it for the decoded tag on first access. The size tracker was already charged
+ * while the payload was skipped, so decoding no longer checks limits.
+ */
+class NBTTagLazy extends NBTBase
+{
+    private byte[] data;
+    private int offset;
+    private int length;
+    private final byte id;
+
+    /** How many more levels of nested compounds keep their children lazy once decoded */
+    private final int lazyDepth;
+
+    NBTTagLazy(byte[] dataIn, int offsetIn, int lengthIn, byte idIn, int lazyDepthIn)
+    {
+        this.data = dataIn;
+        this.offset = offsetIn;
+        this.length = lengthIn;
+        this.id = idIn;
+        this.lazyDepth = lazyDepthIn;
+    }
+
+    /**
+     * Returns a reader positioned at the start of the payload.
+     */
+    NBTStreamReader getReader()
+    {
+        return new NBTStreamReader(this.data, this.offset, this.length, NBTSizeTracker.INFINITE);
+    }
+
+    NBTBase decode(String key)
+    {
+        try
+        {
+            NBTStreamReader nbtstreamreader = this.getReader();
+            return this.id == 10 ? NBTTagCompound.readLazy(nbtstreamreader, this.lazyDepth) : NBTTagList.readLazy(nbtstreamreader, this.lazyDepth);
+        }
+        catch (IOException ioexception)
+        {
+            CrashReport crashreport = CrashReport.makeCrashReport(ioexception, "Loading NBT data");
+            CrashReportCategory crashreportcategory = crashreport.makeCategory("NBT Tag");
+            crashreportcategory.addCrashSection("Tag name", key);
+            crashreportcategory.addCrashSection("Tag type", Byte.valueOf(this.id));
+            throw new ReportedException(crashreport);
+        }
+    }
+
+    /**
+     * Write the actual data contents of the tag, implemented in NBT extension classes
+     */
+    void write(DataOutput output) throws IOException
+    {
+        output.write(this.data, this.offset, this.length);
+    }
+
+    /**
+     * Reads a payload of this tag's type from the stream and keeps its encoded form, so the tag stays undecoded.
+     */
+    void read(DataInput input, int depth, NBTSizeTracker sizeTracker) throws IOException
+    {
+        NBTBase nbtbase = NBTBase.createNewByType(this.id);
+        nbtbase.read(input, depth, sizeTracker);
+        ByteArrayOutputStream bytearrayoutputstream = new ByteArrayOutputStream();
+        nbtbase.write(new DataOutputStream(bytearrayoutputstream));
+        this.data = bytearrayoutputstream.toByteArray();
+        this.offset = 0;
+        this.length = this.data.length;
+    }
+
+    /**
+     * Gets the type byte for the tag.
+     */
+    public byte getId()
+    {
+        return this.id;
+    }
+
+    public String toString()
+    {
+        return this.decode("[LAZY TAG]").toString();
+    }
+
+    /**
+     * Creates a clone of the tag. The source array is never written to, so copies can share it.
+     */
+    public NBTBase copy()
+    {
+        return new NBTTagLazy(this.data, this.offset, this.length, this.id, this.lazyDepth);
+    }
+}
@@ -73,6 +73,25 @@ public class NBTTagList extends NBTBase
         }
     }
 
+    /**
+     * Reads a list payload. Compound elements keep their own nested tags undecoded for lazyDepth levels.
+     */
+    static NBTTagList readLazy(NBTStreamReader reader, int lazyDepth) throws IOException
+    {
+        NBTTagList nbttaglist = new NBTTagList();
+        int i = reader.enterList();
+        nbttaglist.tagType = reader.getListType();
+        nbttaglist.tagList = Lists.<NBTBase>newArrayListWithCapacity(i);
+
+        for (int j = 0; j < i; ++j)
+        {
+            nbttaglist.tagList.add(nbttaglist.tagType == 10 ? NBTTagCompound.readLazy(reader, lazyDepth) : reader.readTag(nbttaglist.tagType));
+        }
+
+        reader.exitList();
+        return nbttaglist;
+    }
+
     /**
      * Gets the type byte for the tag.
      */
@@ -3,7 +3,8 @@ package net.minecraft.network;
 import java.net.InetAddress;
 import java.net.SocketAddress;
 import java.util.Queue;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.crypto.SecretKey;
 
@@ -41,6 +42,7 @@ import io.netty.handler.timeout.TimeoutException;
 import io.netty.util.AttributeKey;
 import io.netty.util.concurrent.Future;
 import io.netty.util.concurrent.GenericFutureListener;
+import net.minecraft.network.play.server.S40PacketDisconnect;
 import net.minecraft.util.ChatComponentText;
 import net.minecraft.util.ChatComponentTranslation;
 import net.minecraft.util.CryptManager;
@@ -51,6 +53,7 @@ import net.minecraft.util.MessageDeserializer;
 import net.minecraft.util.MessageDeserializer2;
 import net.minecraft.util.MessageSerializer;
 import net.minecraft.util.MessageSerializer2;
+import pisi.unitedmeows.minecraft.Settings;
 
 public class NetworkManager extends SimpleChannelInboundHandler<Packet> {
 	private static final Logger logger = LogManager.getLogger();
@@ -71,7 +74,16 @@ public class NetworkManager extends SimpleChannelInboundHandler<Packet> {
 	};
 	private final EnumPacketDirection direction;
 	private final Queue<NetworkManager.InboundHandlerTuplePacketListener> outboundPacketsQueue = Queues.<NetworkManager.InboundHandlerTuplePacketListener>newConcurrentLinkedQueue();
-	private final ReentrantReadWriteLock readWriteLock = new ReentrantReadWriteLock();
+	/** Set while a batch written by writeQueuedPackets is waiting for the event loop */
+	private final AtomicBoolean batchScheduled = new AtomicBoolean();
+	private static final AtomicLong packetsWritten = new AtomicLong();
+	private static final AtomicLong flushes = new AtomicLong();
+	private static final Object packetRateLock = new Object();
+	private static long lastRateSample = System.currentTimeMillis();
+	private static long lastPacketsWritten;
+	private static long lastFlushes;
+	private static int packetRate;
+	private static int flushRate;
 	/** The active channel */
 	private Channel channel;
 	/** The address of the remote party */
@@ -138,81 +150,110 @@ public class NetworkManager extends SimpleChannelInboundHandler<Packet> {
 	}
 
 	public void sendPacket(final Packet packetIn) {
-		if (this.isChannelOpen()) {
-			this.flushOutboundQueue();
-			this.dispatchPacket(packetIn, (GenericFutureListener<? extends Future<? super Void>>[]) null);
-		} else {
-			this.readWriteLock.writeLock().lock();
-			try {
-				this.outboundPacketsQueue.add(new NetworkManager.InboundHandlerTuplePacketListener(packetIn, (GenericFutureListener[]) null));
-			} finally {
-				this.readWriteLock.writeLock().unlock();
-			}
-		}
+		this.outboundPacketsQueue.add(new NetworkManager.InboundHandlerTuplePacketListener(packetIn, (GenericFutureListener[]) null));
+		if (this.isChannelOpen() && !this.shouldBatch(packetIn, (GenericFutureListener<? extends Future<? super Void>>[]) null)) this.writeQueuedPackets();
 	}
 
 	public void sendPacket(final Packet packetIn, final GenericFutureListener<? extends Future<? super Void>> listener, final GenericFutureListener<? extends Future<? super Void>>... listeners) {
-		if (this.isChannelOpen()) {
-			this.flushOutboundQueue();
-			this.dispatchPacket(packetIn, ArrayUtils.add(listeners, 0, listener));
-		} else {
-			this.readWriteLock.writeLock().lock();
-			try {
-				this.outboundPacketsQueue.add(new NetworkManager.InboundHandlerTuplePacketListener(packetIn, ArrayUtils.add(listeners, 0, listener)));
-			} finally {
-				this.readWriteLock.writeLock().unlock();
-			}
-		}
+		final GenericFutureListener<? extends Future<? super Void>>[] agenericfuturelistener = ArrayUtils.add(listeners, 0, listener);
+		this.outboundPacketsQueue.add(new NetworkManager.InboundHandlerTuplePacketListener(packetIn, agenericfuturelistener));
+		if (this.isChannelOpen() && !this.shouldBatch(packetIn, agenericfuturelistener)) this.writeQueuedPackets();
 	}
 
 	/**
-	 * Will commit the packet to the channel. If the current thread 'owns' the channel it will write and
-	 * flush the packet, otherwise it will add a task for the channel eventloop thread to do that.
+	 * Whether the packet should wait in the outbound queue for the next batch instead of being written right away.
+	 * Only play packets the server sends from outside the event loop are batched, everything else keeps the
+	 * immediate path so logins and client input are never delayed. Packets someone waits on, like the disconnect
+	 * packet that closes the channel once it is sent, are never batched either since no later tick may write them.
 	 */
-	private void dispatchPacket(final Packet inPacket, final GenericFutureListener<? extends Future<? super Void>>[] futureListeners) {
+	private boolean shouldBatch(final Packet packetIn, final GenericFutureListener<? extends Future<? super Void>>[] futureListeners) {
+		return Settings.BATCHED_PACKET_WRITES && this.direction == EnumPacketDirection.SERVERBOUND && futureListeners == null && !(packetIn instanceof S40PacketDisconnect) && !this.channel.eventLoop().inEventLoop()
+				&& this.channel.attr(attrKeyConnectionState).get() == EnumConnectionState.PLAY && EnumConnectionState.getFromPacket(packetIn) == EnumConnectionState.PLAY;
+	}
+
+	/**
+	 * Writes the packet from the channel's event loop, switching the connection state first if the packet belongs to
+	 * another one.
+	 */
+	private void writePacket(final Packet inPacket, final GenericFutureListener<? extends Future<? super Void>>[] futureListeners) {
 		final EnumConnectionState enumconnectionstate = EnumConnectionState.getFromPacket(inPacket);
 		final EnumConnectionState enumconnectionstate1 = this.channel.attr(attrKeyConnectionState).get();
 		if (enumconnectionstate1 != enumconnectionstate) {
 			logger.debug("Disabled auto read");
 			this.channel.config().setAutoRead(false);
+			this.setConnectionState(enumconnectionstate);
 		}
-		if (this.channel.eventLoop().inEventLoop()) {
-			if (enumconnectionstate != enumconnectionstate1) this.setConnectionState(enumconnectionstate);
-			final ChannelFuture channelfuture = this.channel.writeAndFlush(inPacket);
-			if (futureListeners != null) channelfuture.addListeners(futureListeners);
-			channelfuture.addListener(ChannelFutureListener.FIRE_EXCEPTION_ON_FAILURE);
-		} else this.channel.eventLoop().execute(() -> {
-			if (enumconnectionstate != enumconnectionstate1) NetworkManager.this.setConnectionState(enumconnectionstate);
-			final ChannelFuture channelfuture1 = NetworkManager.this.channel.writeAndFlush(inPacket);
-			if (futureListeners != null) channelfuture1.addListeners(futureListeners);
-			channelfuture1.addListener(ChannelFutureListener.FIRE_EXCEPTION_ON_FAILURE);
-		});
+		final ChannelFuture channelfuture = this.channel.write(inPacket);
+		if (futureListeners != null) channelfuture.addListeners(futureListeners);
+		channelfuture.addListener(ChannelFutureListener.FIRE_EXCEPTION_ON_FAILURE);
+		if (this.direction == EnumPacketDirection.SERVERBOUND) packetsWritten.incrementAndGet();
 	}
 
 	/**
-	 * Will iterate through the outboundPacketQueue and dispatch all Packets
+	 * Writes everything queued so far as one batch: packets are written one after another and the channel is flushed
+	 * once at the end, or early whenever the pending bytes pass the channel's high water mark. Only the event loop
+	 * takes packets out of the queue, so they always go out in the order they were sent. Called off the event loop
+	 * this hands the batch to it, with at most one batch in flight; packets queued meanwhile are picked up by it or by
+	 * the next one.
 	 */
-	private void flushOutboundQueue() {
-		if (this.channel != null && this.channel.isOpen()) {
-			this.readWriteLock.readLock().lock();
-			try {
-				while (!this.outboundPacketsQueue.isEmpty()) {
-					final NetworkManager.InboundHandlerTuplePacketListener networkmanager$inboundhandlertuplepacketlistener = this.outboundPacketsQueue.poll();
-					this.dispatchPacket(networkmanager$inboundhandlertuplepacketlistener.packet, networkmanager$inboundhandlertuplepacketlistener.futureListeners);
-				}
-			} finally {
-				this.readWriteLock.readLock().unlock();
+	public void writeQueuedPackets() {
+		if (this.isChannelOpen() && !this.outboundPacketsQueue.isEmpty()) {
+			if (this.channel.eventLoop().inEventLoop()) this.drainOutboundQueue();
+			else if (this.batchScheduled.compareAndSet(false, true)) this.channel.eventLoop().execute(() -> {
+				NetworkManager.this.batchScheduled.set(false);
+				NetworkManager.this.drainOutboundQueue();
+			});
+		}
+	}
+
+	private void drainOutboundQueue() {
+		NetworkManager.InboundHandlerTuplePacketListener networkmanager$inboundhandlertuplepacketlistener;
+		boolean flag = false;
+		while (this.channel.isOpen() && (networkmanager$inboundhandlertuplepacketlistener = this.outboundPacketsQueue.poll()) != null) {
+			this.writePacket(networkmanager$inboundhandlertuplepacketlistener.packet, networkmanager$inboundhandlertuplepacketlistener.futureListeners);
+			flag = true;
+			if (!this.channel.isWritable()) {
+				this.flushChannel();
+				flag = false;
 			}
 		}
+		if (flag) this.flushChannel();
+	}
+
+	private void flushChannel() {
+		this.channel.flush();
+		if (this.direction == EnumPacketDirection.SERVERBOUND) flushes.incrementAndGet();
 	}
 
 	/**
 	 * Checks timeouts and processes all packets received
 	 */
 	public void processReceivedPackets() {
-		this.flushOutboundQueue();
+		// batched server connections are written by NetworkSystem once every connection has been ticked
+		final boolean flag = Settings.BATCHED_PACKET_WRITES && this.direction == EnumPacketDirection.SERVERBOUND;
+		if (!flag) this.writeQueuedPackets();
 		if (this.packetListener instanceof ITickable) ((ITickable) this.packetListener).update();
-		this.channel.flush();
+		if (!flag) this.channel.flush();
+	}
+
+	/**
+	 * Packets and flushes per second written by server side connections, sampled at most once a second.
+	 */
+	public static String getDebugInfo() {
+		final long i = System.currentTimeMillis();
+		synchronized (packetRateLock) {
+			final long j = i - lastRateSample;
+			if (j >= 1000L) {
+				final long k = packetsWritten.get();
+				final long l = flushes.get();
+				packetRate = (int) ((k - lastPacketsWritten) * 1000L / j);
+				flushRate = (int) ((l - lastFlushes) * 1000L / j);
+				lastPacketsWritten = k;
+				lastFlushes = l;
+				lastRateSample = i;
+			}
+			return "Packets: " + packetRate + "/s, flushes: " + flushRate + "/s";
+		}
 	}
 
 	/**
@@ -225,6 +266,7 @@ public class NetworkManager extends SimpleChannelInboundHandler<Packet> {
 	 */
 	public void closeChannel(final IChatComponent message) {
 		if (this.channel.isOpen()) {
+			this.writeQueuedPackets();
 			this.channel.close().awaitUninterruptibly();
 			this.terminationReason = message;
 		}
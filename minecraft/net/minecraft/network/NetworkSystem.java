@@ -44,6 +44,7 @@ import net.minecraft.util.MessageSerializer2;
 import net.minecraft.util.ReportedException;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import pisi.unitedmeows.minecraft.Settings;
 
 public class NetworkSystem
 {
@@ -232,6 +233,25 @@ public class NetworkSystem
                     }
                 }
             }
+
+            if (Settings.BATCHED_PACKET_WRITES)
+            {
+                this.writeQueuedPackets();
+            }
+        }
+    }
+
+    /**
+     * Hands the packets every connection has batched so far to its event loop
+     */
+    public void writeQueuedPackets()
+    {
+        synchronized (this.networkManagers)
+        {
+            for (NetworkManager networkmanager : this.networkManagers)
+            {
+                networkmanager.writeQueuedPackets();
+            }
         }
     }
 
@@ -7,11 +7,8 @@ import net.minecraft.world.pathfinder.NodeProcessor;
 
 public class PathFinder
 {
-    /** The path being generated */
-    private Path path = new Path();
-
-    /** Selection of path points to add to the path */
-    private PathPoint[] pathOptions = new PathPoint[32];
+    /** Selection of nodes to add to the path */
+    private int[] pathOptions = new int[32];
     private NodeProcessor nodeProcessor;
 
     public PathFinder(NodeProcessor nodeProcessorIn)
@@ -40,11 +37,25 @@ public class PathFinder
      */
     private PathEntity createEntityPathTo(IBlockAccess blockaccess, Entity entityIn, double x, double y, double z, float distance)
     {
-        this.path.clearPath();
         this.nodeProcessor.initProcessor(blockaccess, entityIn);
-        PathPoint pathpoint = this.nodeProcessor.getPathPointTo(entityIn);
-        PathPoint pathpoint1 = this.nodeProcessor.getPathPointToCoords(entityIn, x, y, z);
-        PathEntity pathentity = this.addToPath(entityIn, pathpoint, pathpoint1, distance);
+        BlockPos blockpos = this.nodeProcessor.getPathPointTo(entityIn);
+        BlockPos blockpos1 = this.nodeProcessor.getPathPointToCoords(entityIn, x, y, z);
+        return this.findPath(entityIn, blockpos, blockpos1, distance);
+    }
+
+    /**
+     * Searches a path between two node positions of a node processor already initialised for the entity. Neither the
+     * entity nor the world is looked at here, so this may run on another thread when the processor reads a copy of
+     * the blocks.
+     */
+    public PathEntity findPath(Entity entityIn, BlockPos start, BlockPos end, float distance)
+    {
+        PathNodePool pathnodepool = PathNodePool.get();
+        pathnodepool.clear();
+        this.nodeProcessor.setNodes(pathnodepool);
+        int i = pathnodepool.openNode(start.getX(), start.getY(), start.getZ());
+        int j = pathnodepool.openNode(end.getX(), end.getY(), end.getZ());
+        PathEntity pathentity = this.addToPath(pathnodepool, entityIn, i, j, distance);
         this.nodeProcessor.postProcess();
         return pathentity;
     }
@@ -52,86 +63,83 @@ public class PathFinder
     /**
      * Adds a path from start to end and returns the whole path
      */
-    private PathEntity addToPath(Entity entityIn, PathPoint pathpointStart, PathPoint pathpointEnd, float maxDistance)
+    private PathEntity addToPath(PathNodePool nodes, Entity entityIn, int start, int end, float maxDistance)
     {
-        pathpointStart.totalPathDistance = 0.0F;
-        pathpointStart.distanceToNext = pathpointStart.distanceToSquared(pathpointEnd);
-        pathpointStart.distanceToTarget = pathpointStart.distanceToNext;
-        this.path.clearPath();
-        this.path.addPoint(pathpointStart);
-        PathPoint pathpoint = pathpointStart;
-
-        while (!this.path.isPathEmpty())
+        nodes.totalPathDistance[start] = 0.0F;
+        nodes.distanceToNext[start] = nodes.distanceToSquared(start, end);
+        nodes.distanceToTarget[start] = nodes.distanceToNext[start];
+        nodes.addToOpenSet(start);
+        int i = start;
+
+        while (!nodes.isOpenSetEmpty())
         {
-            PathPoint pathpoint1 = this.path.dequeue();
+            int j = nodes.dequeue();
 
-            if (pathpoint1.equals(pathpointEnd))
+            if (j == end)
             {
-                return this.createEntityPath(pathpointStart, pathpointEnd);
+                return this.createEntityPath(nodes, end);
             }
 
-            if (pathpoint1.distanceToSquared(pathpointEnd) < pathpoint.distanceToSquared(pathpointEnd))
+            if (nodes.distanceToSquared(j, end) < nodes.distanceToSquared(i, end))
             {
-                pathpoint = pathpoint1;
+                i = j;
             }
 
-            pathpoint1.visited = true;
-            int i = this.nodeProcessor.findPathOptions(this.pathOptions, entityIn, pathpoint1, pathpointEnd, maxDistance);
+            nodes.setVisited(j);
+            int k = this.nodeProcessor.findPathOptions(this.pathOptions, entityIn, j, end, maxDistance);
 
-            for (int j = 0; j < i; ++j)
+            for (int l = 0; l < k; ++l)
             {
-                PathPoint pathpoint2 = this.pathOptions[j];
-                float f = pathpoint1.totalPathDistance + pathpoint1.distanceToSquared(pathpoint2);
+                int i1 = this.pathOptions[l];
+                float f = nodes.totalPathDistance[j] + nodes.distanceToSquared(j, i1);
 
-                if (f < maxDistance * 2.0F && (!pathpoint2.isAssigned() || f < pathpoint2.totalPathDistance))
+                if (f < maxDistance * 2.0F && (!nodes.isAssigned(i1) || f < nodes.totalPathDistance[i1]))
                 {
-                    pathpoint2.previous = pathpoint1;
-                    pathpoint2.totalPathDistance = f;
-                    pathpoint2.distanceToNext = pathpoint2.distanceToSquared(pathpointEnd);
+                    nodes.previous[i1] = j;
+                    nodes.totalPathDistance[i1] = f;
+                    nodes.distanceToNext[i1] = nodes.distanceToSquared(i1, end);
 
-                    if (pathpoint2.isAssigned())
+                    if (nodes.isAssigned(i1))
                     {
-                        this.path.changeDistance(pathpoint2, pathpoint2.totalPathDistance + pathpoint2.distanceToNext);
+                        nodes.changeDistance(i1, nodes.totalPathDistance[i1] + nodes.distanceToNext[i1]);
                     }
                     else
                     {
-                        pathpoint2.distanceToTarget = pathpoint2.totalPathDistance + pathpoint2.distanceToNext;
-                        this.path.addPoint(pathpoint2);
+                        nodes.distanceToTarget[i1] = nodes.totalPathDistance[i1] + nodes.distanceToNext[i1];
+                        nodes.addToOpenSet(i1);
                     }
                 }
             }
         }
 
-        if (pathpoint == pathpointStart)
+        if (i == start)
         {
             return null;
         }
         else
         {
-            return this.createEntityPath(pathpointStart, pathpoint);
+            return this.createEntityPath(nodes, i);
         }
     }
 
     /**
-     * Returns a new PathEntity for a given start and end point
+     * Returns a new PathEntity through the nodes leading up to end
      */
-    private PathEntity createEntityPath(PathPoint start, PathPoint end)
+    private PathEntity createEntityPath(PathNodePool nodes, int end)
     {
         int i = 1;
 
-        for (PathPoint pathpoint = end; pathpoint.previous != null; pathpoint = pathpoint.previous)
+        for (int j = end; nodes.previous[j] >= 0; j = nodes.previous[j])
         {
             ++i;
         }
 
         PathPoint[] apathpoint = new PathPoint[i];
-        PathPoint pathpoint1 = end;
-        --i;
 
-        for (apathpoint[i] = end; pathpoint1.previous != null; apathpoint[i] = pathpoint1)
+        for (int k = end; k >= 0; k = nodes.previous[k])
         {
-            pathpoint1 = pathpoint1.previous;
             --i;
+            apathpoint[i] = new PathPoint(nodes.getX(k), nodes.getY(k), nodes.getZ(k));
         }
 
         return new PathEntity(apathpoint);
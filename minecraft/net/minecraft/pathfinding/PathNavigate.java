@@ -1,6 +1,11 @@
 package net.minecraft.pathfinding;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import net.minecraft.entity.Entity;
 import net.minecraft.entity.EntityLiving;
 import net.minecraft.entity.SharedMonsterAttributes;
@@ -10,10 +15,17 @@ import net.minecraft.util.BlockPos;
 import net.minecraft.util.MathHelper;
 import net.minecraft.util.Vec3;
 import net.minecraft.world.ChunkCache;
+import net.minecraft.world.ChunkCacheSnapshot;
 import net.minecraft.world.World;
+import net.minecraft.world.pathfinder.NodeProcessor;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pisi.unitedmeows.minecraft.Settings;
 
 public abstract class PathNavigate
 {
+    private static final Logger logger = LogManager.getLogger();
+    private static final ExecutorService pathfindingExecutor = Executors.newFixedThreadPool(Settings.PATHFINDING_THREADS, (new ThreadFactoryBuilder()).setNameFormat("Pathfinder #%d").setDaemon(true).build());
     protected EntityLiving theEntity;
     protected World worldObj;
 
@@ -41,6 +53,9 @@ public abstract class PathNavigate
     private float heightRequirement = 1.0F;
     private final PathFinder pathFinder;
 
+    /** The search started by the last tryMoveTo call while it runs on a pathfinder thread */
+    private PathNavigate.PendingPath pendingPath;
+
     public PathNavigate(EntityLiving entitylivingIn, World worldIn)
     {
         this.theEntity = entitylivingIn;
@@ -102,6 +117,14 @@ public abstract class PathNavigate
      */
     public boolean tryMoveToXYZ(double x, double y, double z, double speedIn)
     {
+        NodeProcessor nodeprocessor = this.createAsyncNodeProcessor();
+
+        if (nodeprocessor != null)
+        {
+            BlockPos blockpos = new BlockPos(MathHelper.floor_double(x), (int)y, MathHelper.floor_double(z));
+            return this.searchPathAsync(nodeprocessor, new BlockPos(this.theEntity), 8.0F, (double)((float)blockpos.getX() + 0.5F), (double)((float)blockpos.getY() + 0.5F), (double)((float)blockpos.getZ() + 0.5F), speedIn, false);
+        }
+
         PathEntity pathentity = this.getPathToXYZ((double)MathHelper.floor_double(x), (double)((int)y), (double)MathHelper.floor_double(z));
         return this.setPath(pathentity, speedIn);
     }
@@ -141,16 +164,108 @@ public abstract class PathNavigate
      */
     public boolean tryMoveToEntityLiving(Entity entityIn, double speedIn)
     {
+        NodeProcessor nodeprocessor = this.createAsyncNodeProcessor();
+
+        if (nodeprocessor != null)
+        {
+            return this.searchPathAsync(nodeprocessor, (new BlockPos(this.theEntity)).up(), 16.0F, entityIn.posX, entityIn.getEntityBoundingBox().minY, entityIn.posZ, speedIn, true);
+        }
+
         PathEntity pathentity = this.getPathToEntityLiving(entityIn);
         return pathentity != null ? this.setPath(pathentity, speedIn) : false;
     }
 
+    /**
+     * Returns a node processor for a search of its own if this navigator may search paths on a pathfinder thread, or
+     * null to search them right away.
+     */
+    protected NodeProcessor createAsyncNodeProcessor()
+    {
+        return null;
+    }
+
+    /**
+     * Starts searching a path to the point on a pathfinder thread, through a copy of the blocks around the center
+     * taken now. The current path is followed until the new one is installed by onUpdateNavigation. Returns false
+     * where the search would not even have started, like getPathToPos returning null.
+     */
+    private boolean searchPathAsync(NodeProcessor nodeProcessor, BlockPos center, float extraRange, double x, double y, double z, double speedIn, boolean keepPathIfNone)
+    {
+        if (!this.canNavigate())
+        {
+            if (!keepPathIfNone)
+            {
+                this.setPath((PathEntity)null, speedIn);
+            }
+
+            return false;
+        }
+        else
+        {
+            final float f = this.getPathSearchRange();
+            this.worldObj.theProfiler.startSection("pathfind");
+            int i = (int)(f + extraRange);
+            ChunkCacheSnapshot chunkcachesnapshot = new ChunkCacheSnapshot(this.worldObj, center.add(-i, -i, -i), center.add(i, i, i));
+            nodeProcessor.initProcessor(chunkcachesnapshot, this.theEntity);
+            final BlockPos blockpos = nodeProcessor.getPathPointTo(this.theEntity);
+            final BlockPos blockpos1 = nodeProcessor.getPathPointToCoords(this.theEntity, x, y, z);
+            final PathFinder pathfinder = new PathFinder(nodeProcessor);
+            final EntityLiving entityliving = this.theEntity;
+            this.cancelPendingPath();
+            this.pendingPath = new PathNavigate.PendingPath(pathfindingExecutor.submit(() -> pathfinder.findPath(entityliving, blockpos, blockpos1, f)), speedIn, keepPathIfNone);
+            this.worldObj.theProfiler.endSection();
+            return true;
+        }
+    }
+
+    /**
+     * Installs the path of the pending search once it is done.
+     */
+    private void installPendingPath()
+    {
+        if (this.pendingPath != null && this.pendingPath.future.isDone())
+        {
+            PathNavigate.PendingPath pathnavigate$pendingpath = this.pendingPath;
+            this.pendingPath = null;
+            PathEntity pathentity = null;
+
+            try
+            {
+                pathentity = (PathEntity)pathnavigate$pendingpath.future.get();
+            }
+            catch (InterruptedException interruptedexception)
+            {
+                Thread.currentThread().interrupt();
+            }
+            catch (ExecutionException executionexception)
+            {
+                logger.warn("Couldn't find path for " + this.theEntity, executionexception.getCause());
+            }
+
+            if (pathentity != null || !pathnavigate$pendingpath.keepPathIfNone)
+            {
+                this.setPath(pathentity, pathnavigate$pendingpath.speed);
+            }
+        }
+    }
+
+    private void cancelPendingPath()
+    {
+        if (this.pendingPath != null)
+        {
+            this.pendingPath.future.cancel(false);
+            this.pendingPath = null;
+        }
+    }
+
     /**
      * Sets a new path. If it's diferent from the old path. Checks to adjust path for sun avoiding, and stores start
      * coords. Args : path, speed
      */
     public boolean setPath(PathEntity pathentityIn, double speedIn)
     {
+        this.cancelPendingPath();
+
         if (pathentityIn == null)
         {
             this.currentPath = null;
@@ -191,8 +306,9 @@ public abstract class PathNavigate
     public void onUpdateNavigation()
     {
         ++this.totalTicks;
+        this.installPendingPath();
 
-        if (!this.noPath())
+        if (this.isFollowingPath())
         {
             if (this.canNavigate())
             {
@@ -209,7 +325,7 @@ public abstract class PathNavigate
                 }
             }
 
-            if (!this.noPath())
+            if (this.isFollowingPath())
             {
                 Vec3 vec32 = this.currentPath.getPosition(this.theEntity);
 
@@ -296,7 +412,15 @@ public abstract class PathNavigate
      */
     public boolean noPath()
     {
-        return this.currentPath == null || this.currentPath.isFinished();
+        return !this.isFollowingPath() && this.pendingPath == null;
+    }
+
+    /**
+     * If there is a path left to follow, regardless of a search for a new one
+     */
+    private boolean isFollowingPath()
+    {
+        return this.currentPath != null && !this.currentPath.isFinished();
     }
 
     /**
@@ -304,6 +428,7 @@ public abstract class PathNavigate
      */
     public void clearPathEntity()
     {
+        this.cancelPendingPath();
         this.currentPath = null;
     }
 
@@ -334,4 +459,20 @@ public abstract class PathNavigate
      * pos1, pos2, entityXSize, entityYSize, entityZSize
      */
     protected abstract boolean isDirectPathBetweenPoints(Vec3 posVec31, Vec3 posVec32, int sizeX, int sizeY, int sizeZ);
+
+    static class PendingPath
+    {
+        final Future<PathEntity> future;
+        final double speed;
+
+        /** Whether no path being found leaves the current one alone, as tryMoveToEntityLiving does */
+        final boolean keepPathIfNone;
+
+        PendingPath(Future<PathEntity> futureIn, double speedIn, boolean keepPathIfNoneIn)
+        {
+            this.future = futureIn;
+            this.speed = speedIn;
+            this.keepPathIfNone = keepPathIfNoneIn;
+        }
+    }
 }
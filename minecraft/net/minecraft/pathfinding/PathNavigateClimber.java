@@ -5,6 +5,7 @@ import net.minecraft.entity.EntityLiving;
 import net.minecraft.util.BlockPos;
 import net.minecraft.util.MathHelper;
 import net.minecraft.world.World;
+import net.minecraft.world.pathfinder.NodeProcessor;
 
 public class PathNavigateClimber extends PathNavigateGround
 {
@@ -34,6 +35,14 @@ public class PathNavigateClimber extends PathNavigateGround
         return super.getPathToEntityLiving(entityIn);
     }
 
+    /**
+     * Climbers walk straight at the target when no path is found, so they need the answer right away.
+     */
+    protected NodeProcessor createAsyncNodeProcessor()
+    {
+        return null;
+    }
+
     /**
      * Try to find and set a path to EntityLiving. Returns true if successful. Args : entity, speed
      */
@@ -10,9 +10,11 @@ import net.minecraft.util.BlockPos;
 import net.minecraft.util.MathHelper;
 import net.minecraft.util.Vec3;
 import net.minecraft.world.World;
+import net.minecraft.world.pathfinder.NodeProcessor;
 import net.minecraft.world.pathfinder.WalkNodeProcessor;
 
 import pisi.unitedmeows.meowlib.math.MeowMath;
+import pisi.unitedmeows.minecraft.Settings;
 
 
 public class PathNavigateGround extends PathNavigate
@@ -32,6 +34,11 @@ public class PathNavigateGround extends PathNavigate
         return new PathFinder(this.nodeProcessor);
     }
 
+    protected NodeProcessor createAsyncNodeProcessor()
+    {
+        return Settings.ASYNC_PATHFINDING && !this.worldObj.isRemote ? this.nodeProcessor.copy() : null;
+    }
+
     /**
      * If on ground or swimming and can swim
      */
@@ -0,0 +1,343 @@
+package net.minecraft.pathfinding;
+
+import java.util.Arrays;
+import net.minecraft.util.BlockPos;
+import net.minecraft.util.MathHelper;
+
+/**
+ * Nodes of one path search kept in primitive arrays and reused by every search on the same thread, so a search neither
+ * allocates a PathPoint per node nor boxes positions in a hash map. A node is an index into the arrays, found again by
+ * its packed position in an open addressing table. Also holds the open set, a binary heap of node indices ordered by
+ * distanceToTarget.
+ */
+public class PathNodePool
+{
+    private static final ThreadLocal<PathNodePool> POOLS = ThreadLocal.<PathNodePool>withInitial(PathNodePool::new);
+
+    /** Packed positions of the table slots */
+    private long[] keys = new long[256];
+
+    /** Node of each table slot, -1 if the slot is free */
+    private int[] slots = new int[256];
+    int[] xCoords = new int[128];
+    int[] yCoords = new int[128];
+    int[] zCoords = new int[128];
+
+    /** The distance along the path to each node */
+    float[] totalPathDistance = new float[128];
+
+    /** The squared distance from each node to the target */
+    float[] distanceToNext = new float[128];
+
+    /** totalPathDistance plus distanceToNext, what the open set is ordered by */
+    float[] distanceToTarget = new float[128];
+
+    /** The node preceding each node in its path, -1 for none */
+    int[] previous = new int[128];
+
+    /** The index of each node in the open set, -1 if it is not in it */
+    int[] heapIndex = new int[128];
+    private boolean[] visited = new boolean[128];
+    private int count;
+    private int[] openSet = new int[128];
+    private int openCount;
+
+    public PathNodePool()
+    {
+        Arrays.fill(this.slots, -1);
+    }
+
+    /**
+     * The pool of the calling thread, shared by all searches that thread runs one after another.
+     */
+    public static PathNodePool get()
+    {
+        return (PathNodePool)POOLS.get();
+    }
+
+    /**
+     * Forgets all nodes and the open set for a new search.
+     */
+    public void clear()
+    {
+        if (this.count > 0)
+        {
+            Arrays.fill(this.slots, -1);
+            this.count = 0;
+        }
+
+        this.openCount = 0;
+    }
+
+    /**
+     * Returns the node at the given position, adding it if the search has not seen it yet.
+     */
+    public int openNode(int x, int y, int z)
+    {
+        long i = BlockPos.toLong(x, y, z);
+        int j = this.keys.length - 1;
+        int k = hash(i) & j;
+
+        while (this.slots[k] >= 0)
+        {
+            if (this.keys[k] == i)
+            {
+                return this.slots[k];
+            }
+
+            k = k + 1 & j;
+        }
+
+        if (this.count == this.xCoords.length)
+        {
+            this.growNodes();
+        }
+
+        int l = this.count++;
+        this.xCoords[l] = x;
+        this.yCoords[l] = y;
+        this.zCoords[l] = z;
+        this.totalPathDistance[l] = 0.0F;
+        this.distanceToNext[l] = 0.0F;
+        this.distanceToTarget[l] = 0.0F;
+        this.previous[l] = -1;
+        this.heapIndex[l] = -1;
+        this.visited[l] = false;
+        this.keys[k] = i;
+        this.slots[k] = l;
+
+        if (this.count * 2 > this.keys.length)
+        {
+            this.growTable();
+        }
+
+        return l;
+    }
+
+    private static int hash(long key)
+    {
+        return (int)(key * -7046029254386353131L >>> 32);
+    }
+
+    private void growNodes()
+    {
+        int i = this.xCoords.length * 2;
+        this.xCoords = Arrays.copyOf(this.xCoords, i);
+        this.yCoords = Arrays.copyOf(this.yCoords, i);
+        this.zCoords = Arrays.copyOf(this.zCoords, i);
+        this.totalPathDistance = Arrays.copyOf(this.totalPathDistance, i);
+        this.distanceToNext = Arrays.copyOf(this.distanceToNext, i);
+        this.distanceToTarget = Arrays.copyOf(this.distanceToTarget, i);
+        this.previous = Arrays.copyOf(this.previous, i);
+        this.heapIndex = Arrays.copyOf(this.heapIndex, i);
+        this.visited = Arrays.copyOf(this.visited, i);
+        this.openSet = Arrays.copyOf(this.openSet, i);
+    }
+
+    private void growTable()
+    {
+        long[] along = this.keys;
+        int[] aint = this.slots;
+        this.keys = new long[along.length * 2];
+        this.slots = new int[along.length * 2];
+        Arrays.fill(this.slots, -1);
+        int i = this.keys.length - 1;
+
+        for (int j = 0; j < along.length; ++j)
+        {
+            if (aint[j] >= 0)
+            {
+                int k = hash(along[j]) & i;
+
+                while (this.slots[k] >= 0)
+                {
+                    k = k + 1 & i;
+                }
+
+                this.keys[k] = along[j];
+                this.slots[k] = aint[j];
+            }
+        }
+    }
+
+    public int getX(int node)
+    {
+        return this.xCoords[node];
+    }
+
+    public int getY(int node)
+    {
+        return this.yCoords[node];
+    }
+
+    public int getZ(int node)
+    {
+        return this.zCoords[node];
+    }
+
+    /**
+     * True if the search has already taken the node out of the open set and looked at its neighbours
+     */
+    public boolean isVisited(int node)
+    {
+        return this.visited[node];
+    }
+
+    void setVisited(int node)
+    {
+        this.visited[node] = true;
+    }
+
+    /**
+     * Returns the linear distance between two nodes
+     */
+    public float distanceTo(int node, int other)
+    {
+        return MathHelper.sqrt_float(this.distanceToSquared(node, other));
+    }
+
+    /**
+     * Returns the squared distance between two nodes
+     */
+    public float distanceToSquared(int node, int other)
+    {
+        float f = (float)(this.xCoords[other] - this.xCoords[node]);
+        float f1 = (float)(this.yCoords[other] - this.yCoords[node]);
+        float f2 = (float)(this.zCoords[other] - this.zCoords[node]);
+        return f * f + f1 * f1 + f2 * f2;
+    }
+
+    /**
+     * Returns true if the node is in the open set
+     */
+    boolean isAssigned(int node)
+    {
+        return this.heapIndex[node] >= 0;
+    }
+
+    boolean isOpenSetEmpty()
+    {
+        return this.openCount == 0;
+    }
+
+    /**
+     * Adds a node to the open set
+     */
+    void addToOpenSet(int node)
+    {
+        if (this.heapIndex[node] >= 0)
+        {
+            throw new IllegalStateException("Node " + node + " is already in the open set");
+        }
+        else
+        {
+            this.openSet[this.openCount] = node;
+            this.heapIndex[node] = this.openCount;
+            this.sortBack(this.openCount++);
+        }
+    }
+
+    /**
+     * Returns and removes the node of the open set with the smallest distanceToTarget
+     */
+    int dequeue()
+    {
+        int i = this.openSet[0];
+        this.openSet[0] = this.openSet[--this.openCount];
+
+        if (this.openCount > 0)
+        {
+            this.sortForward(0);
+        }
+
+        this.heapIndex[i] = -1;
+        return i;
+    }
+
+    /**
+     * Changes the distanceToTarget of a node in the open set
+     */
+    void changeDistance(int node, float distance)
+    {
+        float f = this.distanceToTarget[node];
+        this.distanceToTarget[node] = distance;
+
+        if (distance < f)
+        {
+            this.sortBack(this.heapIndex[node]);
+        }
+        else
+        {
+            this.sortForward(this.heapIndex[node]);
+        }
+    }
+
+    private void sortBack(int index)
+    {
+        int i = this.openSet[index];
+        int j;
+
+        for (float f = this.distanceToTarget[i]; index > 0; index = j)
+        {
+            j = index - 1 >> 1;
+            int k = this.openSet[j];
+
+            if (f >= this.distanceToTarget[k])
+            {
+                break;
+            }
+
+            this.openSet[index] = k;
+            this.heapIndex[k] = index;
+        }
+
+        this.openSet[index] = i;
+        this.heapIndex[i] = index;
+    }
+
+    private void sortForward(int index)
+    {
+        int i = this.openSet[index];
+        float f = this.distanceToTarget[i];
+
+        while (true)
+        {
+            int j = 1 + (index << 1);
+            int k = j + 1;
+
+            if (j >= this.openCount)
+            {
+                break;
+            }
+
+            float f1 = this.distanceToTarget[this.openSet[j]];
+            float f2 = k >= this.openCount ? Float.POSITIVE_INFINITY : this.distanceToTarget[this.openSet[k]];
+
+            if (f1 < f2)
+            {
+                if (f1 >= f)
+                {
+                    break;
+                }
+
+                this.openSet[index] = this.openSet[j];
+                this.heapIndex[this.openSet[index]] = index;
+                index = j;
+            }
+            else
+            {
+                if (f2 >= f)
+                {
+                    break;
+                }
+
+                this.openSet[index] = this.openSet[k];
+                this.heapIndex[this.openSet[index]] = index;
+                index = k;
+            }
+        }
+
+        this.openSet[index] = i;
+        this.heapIndex[i] = index;
+    }
+}
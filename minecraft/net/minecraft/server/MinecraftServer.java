@@ -15,7 +15,10 @@ import java.util.Queue;
 import java.util.Random;
 import java.util.UUID;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.FutureTask;
 
 import javax.imageio.ImageIO;
@@ -25,11 +28,14 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import com.google.common.base.Charsets;
+import com.google.common.base.Throwables;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Queues;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListenableFutureTask;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.Uninterruptibles;
 import com.mojang.authlib.GameProfile;
 import com.mojang.authlib.GameProfileRepository;
 import com.mojang.authlib.minecraft.MinecraftSessionService;
@@ -78,12 +84,15 @@ import net.minecraft.world.demo.DemoWorldServer;
 import net.minecraft.world.storage.ISaveFormat;
 import net.minecraft.world.storage.ISaveHandler;
 import net.minecraft.world.storage.WorldInfo;
+import pisi.unitedmeows.minecraft.Settings;
 
 public abstract class MinecraftServer implements Runnable, ICommandSender, IThreadListener, IPlayerUsage {
 	private static final Logger logger = LogManager.getLogger();
 	public static final File USER_CACHE_FILE = new File("usercache.json");
 	/** Instance of Minecraft Server. */
 	private static MinecraftServer mcServer;
+	/** Ticks the dimensions other than the overworld when Settings.PARALLEL_WORLD_TICKING is on */
+	private static final ExecutorService worldTickExecutor = Executors.newFixedThreadPool(2, (new ThreadFactoryBuilder()).setNameFormat("Server World Ticker #%d").setDaemon(true).build());
 	private final ISaveFormat anvilConverterForAnvilFile;
 	/** The PlayerUsageSnooper instance. */
 	private final PlayerUsageSnooper usageSnooper = new PlayerUsageSnooper("server", this, getCurrentTimeMillis());
@@ -161,6 +170,9 @@ public abstract class MinecraftServer implements Runnable, ICommandSender, IThre
 	private final PlayerProfileCache profileCache;
 	protected final Queue<FutureTask<?>> futureTaskQueue = Queues.<FutureTask<?>>newArrayDeque();
 	private Thread serverThread;
+	/** Set while the worlds are ticked on several threads, see tickWorldsInParallel */
+	private volatile boolean tickingWorldsInParallel;
+	private final Queue<Runnable> deferredWorldTasks = Queues.<Runnable>newConcurrentLinkedQueue();
 	private long currentTime = getCurrentTimeMillis();
 
 	public MinecraftServer(final Proxy proxy, final File workDir)
@@ -376,6 +388,7 @@ public abstract class MinecraftServer implements Runnable, ICommandSender, IThre
 				this.serverConfigManager.saveAllPlayerData();
 				this.serverConfigManager.removeAllPlayers();
 			}
+			if (this.getNetworkSystem() != null) this.getNetworkSystem().writeQueuedPackets();
 			if (this.worldServers != null) {
 				logger.info("Saving worlds");
 				this.saveAllWorlds(false);
@@ -521,40 +534,8 @@ public abstract class MinecraftServer implements Runnable, ICommandSender, IThre
 			while (!this.futureTaskQueue.isEmpty()) Util.runTask((FutureTask) this.futureTaskQueue.poll(), logger);
 		}
 		this.theProfiler.endStartSection("levels");
-		for (int j = 0; j < this.worldServers.length; ++j) {
-			final long i = System.nanoTime();
-			if (j == 0 || this.getAllowNether()) {
-				final WorldServer worldserver = this.worldServers[j];
-				this.theProfiler.startSection(worldserver.getWorldInfo().getWorldName());
-				if (this.tickCounter % 20 == 0) {
-					this.theProfiler.startSection("timeSync");
-					this.serverConfigManager.sendPacketToAllPlayersInDimension(new S03PacketTimeUpdate(worldserver.getTotalWorldTime(), worldserver.getWorldTime(), worldserver.getGameRules().getBoolean("doDaylightCycle")),
-							worldserver.provider.getDimensionId());
-					this.theProfiler.endSection();
-				}
-				this.theProfiler.startSection("tick");
-				try {
-					worldserver.tick();
-				} catch (final Throwable throwable1) {
-					final CrashReport crashreport = CrashReport.makeCrashReport(throwable1, "Exception ticking world");
-					worldserver.addWorldInfoToCrashReport(crashreport);
-					throw new ReportedException(crashreport);
-				}
-				try {
-					worldserver.updateEntities();
-				} catch (final Throwable throwable) {
-					final CrashReport crashreport1 = CrashReport.makeCrashReport(throwable, "Exception ticking world entities");
-					worldserver.addWorldInfoToCrashReport(crashreport1);
-					throw new ReportedException(crashreport1);
-				}
-				this.theProfiler.endSection();
-				this.theProfiler.startSection("tracker");
-				worldserver.getEntityTracker().updateTrackedEntities();
-				this.theProfiler.endSection();
-				this.theProfiler.endSection();
-			}
-			this.timeOfLastDimensionTick[j][this.tickCounter % 100] = System.nanoTime() - i;
-		}
+		if (Settings.PARALLEL_WORLD_TICKING && this.worldServers.length > 1 && !this.theProfiler.profilingEnabled) this.tickWorldsInParallel();
+		else for (int j = 0; j < this.worldServers.length; ++j) this.tickWorld(j);
 		this.theProfiler.endStartSection("connection");
 		this.getNetworkSystem().networkTick();
 		this.theProfiler.endStartSection("players");
@@ -564,6 +545,91 @@ public abstract class MinecraftServer implements Runnable, ICommandSender, IThre
 		this.theProfiler.endSection();
 	}
 
+	/**
+	 * Ticks the overworld on the server thread and the other dimensions on the world tick pool, and waits for all of
+	 * them before the connections and players are ticked. Work spanning worlds is held back until then, see
+	 * runOutsideWorldTicks. The profiler is not thread safe, so this is only used while it is off.
+	 */
+	private void tickWorldsInParallel() {
+		final List<Future<?>> list = Lists.<Future<?>>newArrayList();
+		Throwable throwable = null;
+		this.tickingWorldsInParallel = true;
+		try {
+			for (int j = 1; j < this.worldServers.length; ++j) {
+				final int k = j;
+				list.add(worldTickExecutor.submit(() -> this.tickWorld(k)));
+			}
+			this.tickWorld(0);
+		} catch (final Throwable throwable1) {
+			throwable = throwable1;
+		}
+		for (final Future<?> future : list) try {
+			Uninterruptibles.getUninterruptibly(future);
+		} catch (final ExecutionException executionexception) {
+			if (throwable == null) throwable = executionexception.getCause();
+		}
+		this.tickingWorldsInParallel = false;
+		try {
+			if (throwable != null) {
+				Throwables.propagateIfPossible(throwable);
+				throw new RuntimeException(throwable);
+			}
+			Runnable runnable;
+			while ((runnable = this.deferredWorldTasks.poll()) != null) runnable.run();
+		} finally {
+			this.deferredWorldTasks.clear();
+		}
+	}
+
+	private void tickWorld(final int dimensionIndex) {
+		final long i = System.nanoTime();
+		if (dimensionIndex == 0 || this.getAllowNether()) {
+			final WorldServer worldserver = this.worldServers[dimensionIndex];
+			this.theProfiler.startSection(worldserver.getWorldInfo().getWorldName());
+			if (this.tickCounter % 20 == 0) {
+				this.theProfiler.startSection("timeSync");
+				this.serverConfigManager.sendPacketToAllPlayersInDimension(new S03PacketTimeUpdate(worldserver.getTotalWorldTime(), worldserver.getWorldTime(), worldserver.getGameRules().getBoolean("doDaylightCycle")),
+						worldserver.provider.getDimensionId());
+				this.theProfiler.endSection();
+			}
+			this.theProfiler.startSection("tick");
+			try {
+				worldserver.tick();
+			} catch (final Throwable throwable1) {
+				final CrashReport crashreport = CrashReport.makeCrashReport(throwable1, "Exception ticking world");
+				worldserver.addWorldInfoToCrashReport(crashreport);
+				throw new ReportedException(crashreport);
+			}
+			try {
+				worldserver.updateEntities();
+			} catch (final Throwable throwable) {
+				final CrashReport crashreport1 = CrashReport.makeCrashReport(throwable, "Exception ticking world entities");
+				worldserver.addWorldInfoToCrashReport(crashreport1);
+				throw new ReportedException(crashreport1);
+			}
+			this.theProfiler.endSection();
+			this.theProfiler.startSection("tracker");
+			worldserver.getEntityTracker().updateTrackedEntities();
+			this.theProfiler.endSection();
+			this.theProfiler.endSection();
+		}
+		this.timeOfLastDimensionTick[dimensionIndex][this.tickCounter % 100] = System.nanoTime() - i;
+	}
+
+	/**
+	 * Whether the worlds are being ticked on several threads at the moment.
+	 */
+	public boolean isTickingWorldsInParallel() { return this.tickingWorldsInParallel; }
+
+	/**
+	 * Runs work that touches more than one world, such as moving an entity to another dimension: right away, or
+	 * after every world finished its tick if they are being ticked in parallel.
+	 */
+	public void runOutsideWorldTicks(final Runnable task) {
+		if (this.tickingWorldsInParallel) this.deferredWorldTasks.add(task);
+		else task.run();
+	}
+
 	public boolean getAllowNether() { return true; }
 
 	public void startServerThread() {
@@ -507,10 +507,31 @@ public class PlayerManager
         private int flagsYAreasToUpdate;
         private long previousWorldTime;
 
+        /** false while the chunk is still being read by the chunk I/O executor, and again once the instance is removed */
+        private boolean loaded;
+        private boolean removed;
+
         public PlayerInstance(int chunkX, int chunkZ)
         {
             this.chunkCoords = new ChunkCoordIntPair(chunkX, chunkZ);
-            PlayerManager.this.getWorldServer().theChunkProviderServer.loadChunk(chunkX, chunkZ);
+            this.loadChunk();
+        }
+
+        private void loadChunk()
+        {
+            int i = this.chunkCoords.chunkXPos;
+            int j = this.chunkCoords.chunkZPos;
+            PlayerManager.this.getWorldServer().theChunkProviderServer.loadChunk(i, j, () ->
+            {
+                if (!this.removed)
+                {
+                    this.loaded = true;
+                }
+                else if (!PlayerManager.this.hasPlayerInstance(i, j))
+                {
+                    PlayerManager.this.getWorldServer().theChunkProviderServer.dropChunk(i, j);
+                }
+            });
         }
 
         public void addPlayer(EntityPlayerMP player)
@@ -524,6 +545,12 @@ public class PlayerManager
                 if (this.playersWatchingChunk.isEmpty())
                 {
                     this.previousWorldTime = PlayerManager.this.theWorldServer.getTotalWorldTime();
+
+                    if (this.removed)
+                    {
+                        this.removed = false;
+                        this.loadChunk();
+                    }
                 }
 
                 this.playersWatchingChunk.add(player);
@@ -535,9 +562,9 @@ public class PlayerManager
         {
             if (this.playersWatchingChunk.contains(player))
             {
-                Chunk chunk = PlayerManager.this.theWorldServer.getChunkFromChunkCoords(this.chunkCoords.chunkXPos, this.chunkCoords.chunkZPos);
+                Chunk chunk = this.loaded ? PlayerManager.this.theWorldServer.getChunkFromChunkCoords(this.chunkCoords.chunkXPos, this.chunkCoords.chunkZPos) : null;
 
-                if (chunk.isPopulated())
+                if (chunk != null && chunk.isPopulated())
                 {
                     player.playerNetServerHandler.sendPacket(new S21PacketChunkData(chunk, true, 0));
                 }
@@ -548,9 +575,16 @@ public class PlayerManager
                 if (this.playersWatchingChunk.isEmpty())
                 {
                     long i = (long)this.chunkCoords.chunkXPos + 2147483647L | (long)this.chunkCoords.chunkZPos + 2147483647L << 32;
-                    this.increaseInhabitedTime(chunk);
+
+                    if (chunk != null)
+                    {
+                        this.increaseInhabitedTime(chunk);
+                    }
+
                     PlayerManager.this.playerInstances.remove(i);
                     PlayerManager.this.playerInstanceList.remove(this);
+                    this.removed = true;
+                    this.loaded = false;
 
                     if (this.numBlocksToUpdate > 0)
                     {
@@ -564,7 +598,10 @@ public class PlayerManager
 
         public void processChunk()
         {
-            this.increaseInhabitedTime(PlayerManager.this.theWorldServer.getChunkFromChunkCoords(this.chunkCoords.chunkXPos, this.chunkCoords.chunkZPos));
+            if (this.loaded)
+            {
+                this.increaseInhabitedTime(PlayerManager.this.theWorldServer.getChunkFromChunkCoords(this.chunkCoords.chunkXPos, this.chunkCoords.chunkZPos));
+            }
         }
 
         private void increaseInhabitedTime(Chunk theChunk)
@@ -130,7 +130,12 @@ public class BlockPos extends Vec3i {
 	/**
 	 * Serialize this BlockPos into a long value
 	 */
-	public long toLong() { return (this.getX() & X_MASK) << X_SHIFT | (this.getY() & Y_MASK) << Y_SHIFT | (this.getZ() & Z_MASK) << 0; }
+	public long toLong() { return toLong(this.getX(), this.getY(), this.getZ()); }
+
+	/**
+	 * Serialize the given coordinates the same way as toLong, without creating a BlockPos
+	 */
+	public static long toLong(final int x, final int y, final int z) { return (x & X_MASK) << X_SHIFT | (y & Y_MASK) << Y_SHIFT | (z & Z_MASK) << 0; }
 
 	/**
 	 * Create a BlockPos from a serialized long value (created by toLong)
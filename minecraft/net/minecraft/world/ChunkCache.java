@@ -8,6 +8,7 @@ import net.minecraft.util.BlockPos;
 import net.minecraft.util.EnumFacing;
 import net.minecraft.world.biome.BiomeGenBase;
 import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.storage.ExtendedBlockStorage;
 
 public class ChunkCache implements IBlockAccess
 {
@@ -61,6 +62,26 @@ public class ChunkCache implements IBlockAccess
         return this.hasExtendedLevels;
     }
 
+    /**
+     * The block storage holding the position, or null if the position lies outside the chunks of this cache or in a
+     * section without blocks, where it reads as air
+     */
+    public ExtendedBlockStorage getBlockStorage(int x, int y, int z)
+    {
+        if (y >= 0 && y < 256)
+        {
+            int i = (x >> 4) - this.chunkX;
+            int j = (z >> 4) - this.chunkZ;
+
+            if (i >= 0 && i < this.chunkArray.length && j >= 0 && j < this.chunkArray[i].length && this.chunkArray[i][j] != null)
+            {
+                return this.chunkArray[i][j].getBlockStorageArray()[y >> 4];
+            }
+        }
+
+        return null;
+    }
+
     public TileEntity getTileEntity(BlockPos pos)
     {
         int i = (pos.getX() >> 4) - this.chunkX;
@@ -0,0 +1,207 @@
+package net.minecraft.world;
+
+import com.google.common.collect.Maps;
+import java.util.Map;
+import java.util.WeakHashMap;
+import net.minecraft.block.Block;
+import net.minecraft.block.material.Material;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.init.Blocks;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.BlockPos;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.MathHelper;
+import net.minecraft.world.biome.BiomeGenBase;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.storage.ExtendedBlockStorage;
+
+/**
+ * Copy of the blocks in the sections a ChunkCache of the same corners would read, for path searches that run off the
+ * server thread while the world goes on changing. Only block states are copied; tile entities, light, power and
+ * biomes are not there, and sections above or below the corners read as air. Copied sections are shared by every
+ * snapshot of the world until a block of the section changes, so mobs pathing close to each other copy each section
+ * once.
+ */
+public class ChunkCacheSnapshot implements IBlockAccess
+{
+    /** Shared copies are dropped instead of kept past this many sections */
+    private static final int MAX_SHARED_SECTIONS = 1024;
+    private static final Map<World, Map<Long, char[]>> SHARED_SECTIONS = new WeakHashMap();
+    private final WorldType worldType;
+    private final int chunkX;
+    private final int chunkZ;
+    private final int sizeX;
+    private final int sizeZ;
+
+    /** The lowest section copied of each chunk */
+    private final int minSection;
+
+    /** How many sections are copied of each chunk */
+    private final int sizeY;
+
+    /** Block data of the copied sections, null for sections without blocks */
+    private final char[][] sections;
+
+    /** Modification stamp of each copied section when it was copied, 0 for sections without blocks */
+    private final long[] stamps;
+
+    /**
+     * Copies the region on the calling thread, which must be the one ticking the world.
+     */
+    public ChunkCacheSnapshot(World worldIn, BlockPos posFromIn, BlockPos posToIn)
+    {
+        this.worldType = worldIn.getWorldType();
+        this.chunkX = posFromIn.getX() >> 4;
+        this.chunkZ = posFromIn.getZ() >> 4;
+        this.sizeX = (posToIn.getX() >> 4) - this.chunkX + 1;
+        this.sizeZ = (posToIn.getZ() >> 4) - this.chunkZ + 1;
+        this.minSection = MathHelper.clamp_int(posFromIn.getY() >> 4, 0, 15);
+        this.sizeY = Math.max(0, MathHelper.clamp_int(posToIn.getY() >> 4, 0, 15) - this.minSection + 1);
+        this.sections = new char[this.sizeX * this.sizeZ * this.sizeY][];
+        this.stamps = new long[this.sections.length];
+        Map<Long, char[]> map = getSharedSections(worldIn);
+
+        for (int i = 0; i < this.sizeX; ++i)
+        {
+            for (int j = 0; j < this.sizeZ; ++j)
+            {
+                Chunk chunk = worldIn.getChunkFromChunkCoords(this.chunkX + i, this.chunkZ + j);
+
+                if (chunk != null)
+                {
+                    ExtendedBlockStorage[] aextendedblockstorage = chunk.getBlockStorageArray();
+
+                    for (int k = 0; k < this.sizeY; ++k)
+                    {
+                        ExtendedBlockStorage extendedblockstorage = aextendedblockstorage[this.minSection + k];
+
+                        if (extendedblockstorage != null && !extendedblockstorage.isEmpty())
+                        {
+                            int l = (i * this.sizeZ + j) * this.sizeY + k;
+                            Long olong = Long.valueOf(extendedblockstorage.getModificationStamp());
+                            char[] achar = (char[])map.get(olong);
+
+                            if (achar == null)
+                            {
+                                achar = (char[])extendedblockstorage.getData().clone();
+                                map.put(olong, achar);
+                            }
+
+                            this.sections[l] = achar;
+                            this.stamps[l] = olong.longValue();
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the shared copies of the world by modification stamp, emptied first if there are too many. A stamp
+     * changes with every block change of its section, so a copy found by it is always current.
+     */
+    private static Map<Long, char[]> getSharedSections(World worldIn)
+    {
+        Map<Long, char[]> map;
+
+        synchronized (SHARED_SECTIONS)
+        {
+            map = (Map)SHARED_SECTIONS.get(worldIn);
+
+            if (map == null)
+            {
+                map = Maps.<Long, char[]>newHashMap();
+                SHARED_SECTIONS.put(worldIn, map);
+            }
+        }
+
+        if (map.size() >= MAX_SHARED_SECTIONS)
+        {
+            map.clear();
+        }
+
+        return map;
+    }
+
+    /**
+     * Index of the copied section holding the position, -1 if it was not copied
+     */
+    private int getSectionIndex(int x, int y, int z)
+    {
+        if (y >= 0 && y < 256)
+        {
+            int i = (x >> 4) - this.chunkX;
+            int j = (z >> 4) - this.chunkZ;
+            int k = (y >> 4) - this.minSection;
+
+            if (i >= 0 && i < this.sizeX && j >= 0 && j < this.sizeZ && k >= 0 && k < this.sizeY)
+            {
+                return (i * this.sizeZ + j) * this.sizeY + k;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * The modification stamp the section holding the position had when it was copied, or 0 if the position reads as
+     * air because no blocks of it were copied
+     */
+    public long getSectionStamp(int x, int y, int z)
+    {
+        int i = this.getSectionIndex(x, y, z);
+        return i >= 0 ? this.stamps[i] : 0L;
+    }
+
+    public IBlockState getBlockState(BlockPos pos)
+    {
+        int i = this.getSectionIndex(pos.getX(), pos.getY(), pos.getZ());
+
+        if (i >= 0 && this.sections[i] != null)
+        {
+            IBlockState iblockstate = (IBlockState)Block.BLOCK_STATE_IDS.getByValue(this.sections[i][(pos.getY() & 15) << 8 | (pos.getZ() & 15) << 4 | pos.getX() & 15]);
+
+            if (iblockstate != null)
+            {
+                return iblockstate;
+            }
+        }
+
+        return Blocks.air.getDefaultState();
+    }
+
+    public boolean isAirBlock(BlockPos pos)
+    {
+        return this.getBlockState(pos).getBlock().getMaterial() == Material.air;
+    }
+
+    public TileEntity getTileEntity(BlockPos pos)
+    {
+        return null;
+    }
+
+    public int getCombinedLight(BlockPos pos, int lightValue)
+    {
+        return 0;
+    }
+
+    public BiomeGenBase getBiomeGenForCoords(BlockPos pos)
+    {
+        return BiomeGenBase.plains;
+    }
+
+    public boolean extendedLevelsInChunkCache()
+    {
+        return false;
+    }
+
+    public int getStrongPower(BlockPos pos, EnumFacing direction)
+    {
+        return 0;
+    }
+
+    public WorldType getWorldType()
+    {
+        return this.worldType;
+    }
+}
@@ -2,14 +2,11 @@ package net.minecraft.world;
 
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
-import com.google.common.collect.Sets;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
-import java.util.Set;
 import net.minecraft.block.Block;
 import net.minecraft.block.material.Material;
-import net.minecraft.block.state.IBlockState;
 import net.minecraft.enchantment.EnchantmentProtection;
 import net.minecraft.entity.Entity;
 import net.minecraft.entity.EntityLivingBase;
@@ -40,6 +37,9 @@ public class Explosion
     private final List<BlockPos> affectedBlockPositions;
     private final Map<EntityPlayer, Vec3> playerKnockbackMap;
 
+    /** Directions of the rays every explosion casts, x, y and z one after another */
+    private static final double[] RAY_DIRECTIONS = createRayDirections();
+
     public Explosion(World worldIn, Entity entityIn, double x, double y, double z, float size, List<BlockPos> affectedPositions)
     {
         this(worldIn, entityIn, x, y, z, size, false, true, affectedPositions);
@@ -67,12 +67,12 @@ public class Explosion
     }
 
     /**
-     * Does the first part of the explosion (destroy blocks)
+     * Normalized directions from the center to the 1352 outer cells of a 16x16x16 grid.
      */
-    public void doExplosionA()
+    private static double[] createRayDirections()
     {
-        Set<BlockPos> set = Sets.<BlockPos>newHashSet();
-        int i = 16;
+        double[] adouble = new double[1352 * 3];
+        int i = 0;
 
         for (int j = 0; j < 16; ++j)
         {
@@ -86,40 +86,59 @@ public class Explosion
                         double d1 = (double)((float)k / 15.0F * 2.0F - 1.0F);
                         double d2 = (double)((float)l / 15.0F * 2.0F - 1.0F);
                         double d3 = Math.sqrt(d0 * d0 + d1 * d1 + d2 * d2);
-                        d0 = d0 / d3;
-                        d1 = d1 / d3;
-                        d2 = d2 / d3;
-                        float f = this.explosionSize * (0.7F + this.worldObj.rand.nextFloat() * 0.6F);
-                        double d4 = this.explosionX;
-                        double d6 = this.explosionY;
-                        double d8 = this.explosionZ;
-
-                        for (float f1 = 0.3F; f > 0.0F; f -= 0.22500001F)
-                        {
-                            BlockPos blockpos = new BlockPos(d4, d6, d8);
-                            IBlockState iblockstate = this.worldObj.getBlockState(blockpos);
-
-                            if (iblockstate.getBlock().getMaterial() != Material.air)
-                            {
-                                float f2 = this.exploder != null ? this.exploder.getExplosionResistance(this, this.worldObj, blockpos, iblockstate) : iblockstate.getBlock().getExplosionResistance((Entity)null);
-                                f -= (f2 + 0.3F) * 0.3F;
-                            }
-
-                            if (f > 0.0F && (this.exploder == null || this.exploder.verifyExplosion(this, this.worldObj, blockpos, iblockstate, f)))
-                            {
-                                set.add(blockpos);
-                            }
-
-                            d4 += d0 * 0.30000001192092896D;
-                            d6 += d1 * 0.30000001192092896D;
-                            d8 += d2 * 0.30000001192092896D;
-                        }
+                        adouble[i++] = d0 / d3;
+                        adouble[i++] = d1 / d3;
+                        adouble[i++] = d2 / d3;
                     }
                 }
             }
         }
 
-        this.affectedBlockPositions.addAll(set);
+        return adouble;
+    }
+
+    /**
+     * Does the first part of the explosion (destroy blocks)
+     */
+    public void doExplosionA()
+    {
+        ExplosionBlockCache explosionblockcache = new ExplosionBlockCache(this.worldObj, this, this.exploder);
+        this.doExplosionA(explosionblockcache);
+        explosionblockcache.addAffectedPositions(this.affectedBlockPositions);
+    }
+
+    /**
+     * Casts the rays and hurts the entities in range, reading blocks through the given cache. The blocks to destroy
+     * are only marked in the cache, which may be shared by several explosions going off together.
+     */
+    void doExplosionA(ExplosionBlockCache explosionblockcache)
+    {
+        for (int i = 0; i < RAY_DIRECTIONS.length; i += 3)
+        {
+            double d0 = RAY_DIRECTIONS[i];
+            double d1 = RAY_DIRECTIONS[i + 1];
+            double d2 = RAY_DIRECTIONS[i + 2];
+            float f = this.explosionSize * (0.7F + this.worldObj.rand.nextFloat() * 0.6F);
+            double d4 = this.explosionX;
+            double d6 = this.explosionY;
+            double d8 = this.explosionZ;
+
+            for (float f1 = 0.3F; f > 0.0F; f -= 0.22500001F)
+            {
+                int j = explosionblockcache.getSlot(MathHelper.floor_double(d4), MathHelper.floor_double(d6), MathHelper.floor_double(d8));
+                f -= explosionblockcache.getAttenuation(j);
+
+                if (f > 0.0F && (this.exploder == null || this.exploder.verifyExplosion(this, this.worldObj, explosionblockcache.getPos(j), explosionblockcache.getState(j), f)))
+                {
+                    explosionblockcache.setAffected(j);
+                }
+
+                d4 += d0 * 0.30000001192092896D;
+                d6 += d1 * 0.30000001192092896D;
+                d8 += d2 * 0.30000001192092896D;
+            }
+        }
+
         float f3 = this.explosionSize * 2.0F;
         int k1 = MathHelper.floor_double(this.explosionX - (double)f3 - 1.0D);
         int l1 = MathHelper.floor_double(this.explosionX + (double)f3 + 1.0D);
@@ -128,7 +147,17 @@ public class Explosion
         int j2 = MathHelper.floor_double(this.explosionZ - (double)f3 - 1.0D);
         int j1 = MathHelper.floor_double(this.explosionZ + (double)f3 + 1.0D);
         List<Entity> list = this.worldObj.getEntitiesWithinAABBExcludingEntity(this.exploder, new AxisAlignedBB((double)k1, (double)i2, (double)j2, (double)l1, (double)i1, (double)j1));
-        Vec3 vec3 = new Vec3(this.explosionX, this.explosionY, this.explosionZ);
+        float[] afloat = new float[list.size()];
+
+        for (int l2 = 0; l2 < list.size(); ++l2)
+        {
+            Entity entity1 = (Entity)list.get(l2);
+
+            if (!entity1.isImmuneToExplosions() && entity1.getDistance(this.explosionX, this.explosionY, this.explosionZ) / (double)f3 <= 1.0D)
+            {
+                afloat[l2] = explosionblockcache.getExposure(this.explosionX, this.explosionY, this.explosionZ, entity1);
+            }
+        }
 
         for (int k2 = 0; k2 < list.size(); ++k2)
         {
@@ -150,7 +179,7 @@ public class Explosion
                         d5 = d5 / d13;
                         d7 = d7 / d13;
                         d9 = d9 / d13;
-                        double d14 = (double)this.worldObj.getBlockDensity(vec3, entity.getEntityBoundingBox());
+                        double d14 = (double)afloat[k2];
                         double d10 = (1.0D - d12) * d14;
                         entity.attackEntityFrom(DamageSource.setExplosionSource(this), (float)((int)((d10 * d10 + d10) / 2.0D * 8.0D * (double)f3 + 1.0D)));
                         double d11 = EnchantmentProtection.func_92092_a(entity, d10);
@@ -0,0 +1,186 @@
+package net.minecraft.world;
+
+import com.google.common.collect.Lists;
+import java.util.List;
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.entity.player.EntityPlayerMP;
+import net.minecraft.network.play.server.S27PacketExplosion;
+import net.minecraft.util.BlockPos;
+import net.minecraft.util.Vec3;
+import pisi.unitedmeows.minecraft.Settings;
+
+/**
+ * Holds back the explosions of primed TNT during the entity tick of a world and sets them off together at its end.
+ * Explosions of the same kind whose blast radii overlap go off as one group: they trace their rays through a single
+ * block cache, so each sees the world as it was before any of them and an entity near a shared center is traced only
+ * once, the union of their blocks is destroyed and dropped once, and every player in range gets one explosion packet
+ * with all the blocks and the summed knockback.
+ */
+class ExplosionBatcher
+{
+    private final WorldServer world;
+    private final List<ExplosionBatcher.QueuedExplosion> queuedExplosions = Lists.<ExplosionBatcher.QueuedExplosion>newArrayList();
+    private boolean collecting;
+
+    ExplosionBatcher(WorldServer worldIn)
+    {
+        this.world = worldIn;
+    }
+
+    /**
+     * Starts holding back explosions, if enabled, until the next flush.
+     */
+    void begin()
+    {
+        this.collecting = Settings.BATCHED_TNT_EXPLOSIONS;
+    }
+
+    boolean isCollecting()
+    {
+        return this.collecting;
+    }
+
+    /**
+     * Queues an explosion to go off on the next flush and returns it. It has not done anything yet.
+     */
+    Explosion queue(Entity exploder, double x, double y, double z, float strength, boolean isFlaming, boolean isSmoking)
+    {
+        Explosion explosion = new Explosion(this.world, exploder, x, y, z, strength, isFlaming, isSmoking);
+        this.queuedExplosions.add(new ExplosionBatcher.QueuedExplosion(explosion, exploder, x, y, z, strength, isFlaming, isSmoking));
+        return explosion;
+    }
+
+    /**
+     * Sets off everything queued, in queue order, grouping each explosion with the later ones that overlap it.
+     */
+    void flush()
+    {
+        this.collecting = false;
+
+        while (!this.queuedExplosions.isEmpty())
+        {
+            List<ExplosionBatcher.QueuedExplosion> list = Lists.newArrayList(this.queuedExplosions);
+            this.queuedExplosions.clear();
+            boolean[] aboolean = new boolean[list.size()];
+
+            for (int i = 0; i < list.size(); ++i)
+            {
+                if (!aboolean[i])
+                {
+                    ExplosionBatcher.QueuedExplosion explosionbatcher$queuedexplosion = (ExplosionBatcher.QueuedExplosion)list.get(i);
+                    List<ExplosionBatcher.QueuedExplosion> list1 = Lists.newArrayList(new ExplosionBatcher.QueuedExplosion[] {explosionbatcher$queuedexplosion});
+
+                    for (int j = i + 1; j < list.size(); ++j)
+                    {
+                        ExplosionBatcher.QueuedExplosion explosionbatcher$queuedexplosion1 = (ExplosionBatcher.QueuedExplosion)list.get(j);
+
+                        if (!aboolean[j] && explosionbatcher$queuedexplosion.overlaps(explosionbatcher$queuedexplosion1))
+                        {
+                            aboolean[j] = true;
+                            list1.add(explosionbatcher$queuedexplosion1);
+                        }
+                    }
+
+                    this.detonate(list1);
+                }
+            }
+        }
+    }
+
+    /**
+     * Sets off a group at once. The first explosion of the group destroys the blocks of all of them and is the one
+     * players are told about, the others only hurt and push entities.
+     */
+    private void detonate(List<ExplosionBatcher.QueuedExplosion> group)
+    {
+        ExplosionBatcher.QueuedExplosion explosionbatcher$queuedexplosion = (ExplosionBatcher.QueuedExplosion)group.get(0);
+        Explosion explosion = explosionbatcher$queuedexplosion.explosion;
+        ExplosionBlockCache explosionblockcache = new ExplosionBlockCache(this.world, explosion, explosionbatcher$queuedexplosion.exploder);
+
+        for (ExplosionBatcher.QueuedExplosion explosionbatcher$queuedexplosion1 : group)
+        {
+            explosionbatcher$queuedexplosion1.explosion.doExplosionA(explosionblockcache);
+        }
+
+        List<BlockPos> list = explosion.getAffectedBlockPositions();
+        explosionblockcache.addAffectedPositions(list);
+        explosion.doExplosionB(false);
+
+        if (!explosionbatcher$queuedexplosion.isSmoking)
+        {
+            explosion.clearAffectedBlockPositions();
+        }
+
+        for (EntityPlayer entityplayer : this.world.playerEntities)
+        {
+            boolean flag = false;
+            Vec3 vec3 = null;
+
+            for (ExplosionBatcher.QueuedExplosion explosionbatcher$queuedexplosion2 : group)
+            {
+                if (entityplayer.getDistanceSq(explosionbatcher$queuedexplosion2.x, explosionbatcher$queuedexplosion2.y, explosionbatcher$queuedexplosion2.z) < 4096.0D)
+                {
+                    flag = true;
+                }
+
+                Vec3 vec31 = (Vec3)explosionbatcher$queuedexplosion2.explosion.getPlayerKnockbackMap().get(entityplayer);
+
+                if (vec31 != null)
+                {
+                    vec3 = vec3 == null ? vec31 : vec3.add(vec31);
+                }
+            }
+
+            if (flag)
+            {
+                ((EntityPlayerMP)entityplayer).playerNetServerHandler.sendPacket(new S27PacketExplosion(explosionbatcher$queuedexplosion.x, explosionbatcher$queuedexplosion.y, explosionbatcher$queuedexplosion.z, explosionbatcher$queuedexplosion.strength, list, vec3));
+            }
+        }
+    }
+
+    static class QueuedExplosion
+    {
+        final Explosion explosion;
+        final Entity exploder;
+        final double x;
+        final double y;
+        final double z;
+        final float strength;
+        final boolean isFlaming;
+        final boolean isSmoking;
+
+        QueuedExplosion(Explosion explosionIn, Entity exploderIn, double xIn, double yIn, double zIn, float strengthIn, boolean isFlamingIn, boolean isSmokingIn)
+        {
+            this.explosion = explosionIn;
+            this.exploder = exploderIn;
+            this.x = xIn;
+            this.y = yIn;
+            this.z = zIn;
+            this.strength = strengthIn;
+            this.isFlaming = isFlamingIn;
+            this.isSmoking = isSmokingIn;
+        }
+
+        /**
+         * Whether the other explosion can go off together with this one: same strength and kind of exploder, which
+         * block resistance depends on, and blast spheres that touch. Only comparing against the first explosion of a
+         * group keeps all its blocks close enough to the first center to fit in the explosion packet.
+         */
+        boolean overlaps(ExplosionBatcher.QueuedExplosion other)
+        {
+            if (this.strength == other.strength && this.isFlaming == other.isFlaming && this.isSmoking == other.isSmoking && this.exploder.getClass() == other.exploder.getClass())
+            {
+                double d0 = this.x - other.x;
+                double d1 = this.y - other.y;
+                double d2 = this.z - other.z;
+                double d3 = (double)(this.strength * 4.0F);
+                return d0 * d0 + d1 * d1 + d2 * d2 <= d3 * d3;
+            }
+            else
+            {
+                return false;
+            }
+        }
+    }
+}
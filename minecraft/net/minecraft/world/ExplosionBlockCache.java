@@ -0,0 +1,435 @@
+package net.minecraft.world;
+
+import com.google.common.collect.Maps;
+import java.util.List;
+import java.util.Map;
+import net.minecraft.block.Block;
+import net.minecraft.block.material.Material;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.entity.Entity;
+import net.minecraft.util.AxisAlignedBB;
+import net.minecraft.util.BlockPos;
+import net.minecraft.util.MathHelper;
+import net.minecraft.util.Vec3;
+
+/**
+ * Blocks looked at by one explosion, in an open addressing table keyed by packed position. The rays of an explosion
+ * cross the same blocks over and over and the exposure of nearby entities is traced through them once more, so each
+ * block is read from the world and its resistance worked out only once. Also keeps the set of destroyed blocks and
+ * the last exposure of each entity, so explosions sharing a cache and a center trace an entity only once.
+ */
+class ExplosionBlockCache
+{
+    private final World world;
+    private final Explosion explosion;
+    private final Entity exploder;
+    private final BlockPos.MutableBlockPos mutablePos = new BlockPos.MutableBlockPos();
+    private long[] keys;
+    private int[] posX;
+    private int[] posY;
+    private int[] posZ;
+    private IBlockState[] states;
+
+    /** How much power a ray loses in the block, NaN until first asked for */
+    private float[] attenuations;
+    private boolean[] affected;
+    private int size;
+    private final Map<Entity, ExplosionBlockCache.Exposure> exposures = Maps.<Entity, ExplosionBlockCache.Exposure>newIdentityHashMap();
+
+    ExplosionBlockCache(World worldIn, Explosion explosionIn, Entity exploderIn)
+    {
+        this.world = worldIn;
+        this.explosion = explosionIn;
+        this.exploder = exploderIn;
+        this.allocate(512);
+    }
+
+    private void allocate(int capacity)
+    {
+        this.keys = new long[capacity];
+        this.posX = new int[capacity];
+        this.posY = new int[capacity];
+        this.posZ = new int[capacity];
+        this.states = new IBlockState[capacity];
+        this.attenuations = new float[capacity];
+        this.affected = new boolean[capacity];
+        this.size = 0;
+    }
+
+    /**
+     * Returns the slot of the block at the given position, reading the block from the world on first use. A slot is
+     * only valid until the next call, which may grow the table.
+     */
+    int getSlot(int x, int y, int z)
+    {
+        if ((this.size + 1) * 2 > this.keys.length)
+        {
+            this.grow();
+        }
+
+        long i = BlockPos.toLong(x, y, z);
+        int j = this.keys.length - 1;
+        int k = hash(i) & j;
+
+        while (this.states[k] != null)
+        {
+            if (this.keys[k] == i)
+            {
+                return k;
+            }
+
+            k = k + 1 & j;
+        }
+
+        this.keys[k] = i;
+        this.posX[k] = x;
+        this.posY[k] = y;
+        this.posZ[k] = z;
+        this.states[k] = this.world.getBlockState(this.mutablePos.set(x, y, z));
+        this.attenuations[k] = Float.NaN;
+        ++this.size;
+        return k;
+    }
+
+    private void grow()
+    {
+        long[] along = this.keys;
+        int[] aint = this.posX;
+        int[] aint1 = this.posY;
+        int[] aint2 = this.posZ;
+        IBlockState[] aiblockstate = this.states;
+        float[] afloat = this.attenuations;
+        boolean[] aboolean = this.affected;
+        this.allocate(along.length * 2);
+        int i = this.keys.length - 1;
+
+        for (int j = 0; j < along.length; ++j)
+        {
+            if (aiblockstate[j] != null)
+            {
+                int k = hash(along[j]) & i;
+
+                while (this.states[k] != null)
+                {
+                    k = k + 1 & i;
+                }
+
+                this.keys[k] = along[j];
+                this.posX[k] = aint[j];
+                this.posY[k] = aint1[j];
+                this.posZ[k] = aint2[j];
+                this.states[k] = aiblockstate[j];
+                this.attenuations[k] = afloat[j];
+                this.affected[k] = aboolean[j];
+                ++this.size;
+            }
+        }
+    }
+
+    private static int hash(long key)
+    {
+        return (int)(key * -7046029254386353131L >>> 32);
+    }
+
+    IBlockState getState(int slot)
+    {
+        return this.states[slot];
+    }
+
+    /**
+     * Returns the position of the slot. The returned instance is reused for every slot and must not be kept.
+     */
+    BlockPos getPos(int slot)
+    {
+        return this.mutablePos.set(this.posX[slot], this.posY[slot], this.posZ[slot]);
+    }
+
+    /**
+     * How much power a ray loses passing through the block, (resistance + 0.3) * 0.3 and nothing for air.
+     */
+    float getAttenuation(int slot)
+    {
+        float f = this.attenuations[slot];
+
+        if (Float.isNaN(f))
+        {
+            IBlockState iblockstate = this.states[slot];
+
+            if (iblockstate.getBlock().getMaterial() == Material.air)
+            {
+                f = 0.0F;
+            }
+            else
+            {
+                float f1 = this.exploder != null ? this.exploder.getExplosionResistance(this.explosion, this.world, this.getPos(slot), iblockstate) : iblockstate.getBlock().getExplosionResistance((Entity)null);
+                f = (f1 + 0.3F) * 0.3F;
+            }
+
+            this.attenuations[slot] = f;
+        }
+
+        return f;
+    }
+
+    void setAffected(int slot)
+    {
+        this.affected[slot] = true;
+    }
+
+    void addAffectedPositions(List<BlockPos> positions)
+    {
+        for (int i = 0; i < this.keys.length; ++i)
+        {
+            if (this.affected[i])
+            {
+                positions.add(new BlockPos(this.posX[i], this.posY[i], this.posZ[i]));
+            }
+        }
+    }
+
+    /**
+     * The exposure of the entity to the given position, reused while the entity keeps its bounding box and is asked
+     * about the same position again.
+     */
+    float getExposure(double x, double y, double z, Entity entity)
+    {
+        AxisAlignedBB axisalignedbb = entity.getEntityBoundingBox();
+        ExplosionBlockCache.Exposure explosionblockcache$exposure = (ExplosionBlockCache.Exposure)this.exposures.get(entity);
+
+        if (explosionblockcache$exposure == null || explosionblockcache$exposure.box != axisalignedbb || explosionblockcache$exposure.x != x || explosionblockcache$exposure.y != y || explosionblockcache$exposure.z != z)
+        {
+            explosionblockcache$exposure = new ExplosionBlockCache.Exposure(x, y, z, axisalignedbb, this.getExposure(x, y, z, axisalignedbb));
+            this.exposures.put(entity, explosionblockcache$exposure);
+        }
+
+        return explosionblockcache$exposure.value;
+    }
+
+    /**
+     * Fraction of rays from points spread over the box to the given position that are not blocked, the same as
+     * World.getBlockDensity but reading blocks through this cache.
+     */
+    float getExposure(double x, double y, double z, AxisAlignedBB bb)
+    {
+        double d0 = 1.0D / ((bb.maxX - bb.minX) * 2.0D + 1.0D);
+        double d1 = 1.0D / ((bb.maxY - bb.minY) * 2.0D + 1.0D);
+        double d2 = 1.0D / ((bb.maxZ - bb.minZ) * 2.0D + 1.0D);
+        double d3 = (1.0D - Math.floor(1.0D / d0) * d0) / 2.0D;
+        double d4 = (1.0D - Math.floor(1.0D / d2) * d2) / 2.0D;
+
+        if (d0 >= 0.0D && d1 >= 0.0D && d2 >= 0.0D)
+        {
+            int i = 0;
+            int j = 0;
+
+            for (float f = 0.0F; f <= 1.0F; f = (float)((double)f + d0))
+            {
+                for (float f1 = 0.0F; f1 <= 1.0F; f1 = (float)((double)f1 + d1))
+                {
+                    for (float f2 = 0.0F; f2 <= 1.0F; f2 = (float)((double)f2 + d2))
+                    {
+                        double d5 = bb.minX + (bb.maxX - bb.minX) * (double)f;
+                        double d6 = bb.minY + (bb.maxY - bb.minY) * (double)f1;
+                        double d7 = bb.minZ + (bb.maxZ - bb.minZ) * (double)f2;
+
+                        if (!this.isRayBlocked(d5 + d3, d6, d7 + d4, x, y, z))
+                        {
+                            ++i;
+                        }
+
+                        ++j;
+                    }
+                }
+            }
+
+            return (float)i / (float)j;
+        }
+        else
+        {
+            return 0.0F;
+        }
+    }
+
+    /**
+     * Walks the blocks between the two points the way World.rayTraceBlocks does without stopping on liquids, and
+     * returns whether any of them stops the ray.
+     */
+    private boolean isRayBlocked(double startX, double startY, double startZ, double endX, double endY, double endZ)
+    {
+        if (!Double.isNaN(startX) && !Double.isNaN(startY) && !Double.isNaN(startZ) && !Double.isNaN(endX) && !Double.isNaN(endY) && !Double.isNaN(endZ))
+        {
+            int i = MathHelper.floor_double(endX);
+            int j = MathHelper.floor_double(endY);
+            int k = MathHelper.floor_double(endZ);
+            int l = MathHelper.floor_double(startX);
+            int i1 = MathHelper.floor_double(startY);
+            int j1 = MathHelper.floor_double(startZ);
+
+            if (this.isHit(l, i1, j1, startX, startY, startZ, endX, endY, endZ))
+            {
+                return true;
+            }
+
+            int k1 = 200;
+
+            while (k1-- >= 0)
+            {
+                if (Double.isNaN(startX) || Double.isNaN(startY) || Double.isNaN(startZ))
+                {
+                    return false;
+                }
+
+                if (l == i && i1 == j && j1 == k)
+                {
+                    return false;
+                }
+
+                boolean flag = true;
+                boolean flag1 = true;
+                boolean flag2 = true;
+                double d0 = 999.0D;
+                double d1 = 999.0D;
+                double d2 = 999.0D;
+
+                if (i > l)
+                {
+                    d0 = (double)l + 1.0D;
+                }
+                else if (i < l)
+                {
+                    d0 = (double)l + 0.0D;
+                }
+                else
+                {
+                    flag = false;
+                }
+
+                if (j > i1)
+                {
+                    d1 = (double)i1 + 1.0D;
+                }
+                else if (j < i1)
+                {
+                    d1 = (double)i1 + 0.0D;
+                }
+                else
+                {
+                    flag1 = false;
+                }
+
+                if (k > j1)
+                {
+                    d2 = (double)j1 + 1.0D;
+                }
+                else if (k < j1)
+                {
+                    d2 = (double)j1 + 0.0D;
+                }
+                else
+                {
+                    flag2 = false;
+                }
+
+                double d3 = 999.0D;
+                double d4 = 999.0D;
+                double d5 = 999.0D;
+                double d6 = endX - startX;
+                double d7 = endY - startY;
+                double d8 = endZ - startZ;
+
+                if (flag)
+                {
+                    d3 = (d0 - startX) / d6;
+                }
+
+                if (flag1)
+                {
+                    d4 = (d1 - startY) / d7;
+                }
+
+                if (flag2)
+                {
+                    d5 = (d2 - startZ) / d8;
+                }
+
+                if (d3 == -0.0D)
+                {
+                    d3 = -1.0E-4D;
+                }
+
+                if (d4 == -0.0D)
+                {
+                    d4 = -1.0E-4D;
+                }
+
+                if (d5 == -0.0D)
+                {
+                    d5 = -1.0E-4D;
+                }
+
+                int l1 = 0;
+                int i2 = 0;
+                int j2 = 0;
+
+                if (d3 < d4 && d3 < d5)
+                {
+                    l1 = i > l ? 0 : 1;
+                    startY += d7 * d3;
+                    startZ += d8 * d3;
+                    startX = d0;
+                }
+                else if (d4 < d5)
+                {
+                    i2 = j > i1 ? 0 : 1;
+                    startX += d6 * d4;
+                    startZ += d8 * d4;
+                    startY = d1;
+                }
+                else
+                {
+                    j2 = k > j1 ? 0 : 1;
+                    startX += d6 * d5;
+                    startY += d7 * d5;
+                    startZ = d2;
+                }
+
+                l = MathHelper.floor_double(startX) - l1;
+                i1 = MathHelper.floor_double(startY) - i2;
+                j1 = MathHelper.floor_double(startZ) - j2;
+
+                if (this.isHit(l, i1, j1, startX, startY, startZ, endX, endY, endZ))
+                {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    private boolean isHit(int x, int y, int z, double startX, double startY, double startZ, double endX, double endY, double endZ)
+    {
+        int i = this.getSlot(x, y, z);
+        IBlockState iblockstate = this.states[i];
+        Block block = iblockstate.getBlock();
+        return block.canCollideCheck(iblockstate, false) && block.collisionRayTrace(this.world, this.getPos(i), new Vec3(startX, startY, startZ), new Vec3(endX, endY, endZ)) != null;
+    }
+
+    static class Exposure
+    {
+        final double x;
+        final double y;
+        final double z;
+        final AxisAlignedBB box;
+        final float value;
+
+        Exposure(double xIn, double yIn, double zIn, AxisAlignedBB boxIn, float valueIn)
+        {
+            this.x = xIn;
+            this.y = yIn;
+            this.z = zIn;
+            this.box = boxIn;
+            this.value = valueIn;
+        }
+    }
+}
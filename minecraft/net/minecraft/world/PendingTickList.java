@@ -0,0 +1,138 @@
+package net.minecraft.world;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import net.minecraft.util.BlockPos;
+import net.minecraft.util.LongHashMap;
+
+/**
+ * Scheduled block ticks of a world, ordered by due time for ticking and bucketed by chunk so the ticks of an area can
+ * be collected without walking every pending tick in the world.
+ */
+class PendingTickList
+{
+    private final Set<NextTickListEntry> entries = Sets.<NextTickListEntry>newHashSet();
+    private final TreeSet<NextTickListEntry> entriesByTime = new TreeSet();
+    private final LongHashMap<Set<NextTickListEntry>> entriesByChunk = new LongHashMap();
+
+    /**
+     * Adds the entry unless an equal one (same position and block) is already scheduled.
+     */
+    public boolean add(NextTickListEntry entry)
+    {
+        if (!this.entries.add(entry))
+        {
+            return false;
+        }
+        else
+        {
+            this.entriesByTime.add(entry);
+            long i = ChunkCoordIntPair.chunkXZ2Int(entry.position.getX() >> 4, entry.position.getZ() >> 4);
+            Set<NextTickListEntry> set = (Set)this.entriesByChunk.getValueByKey(i);
+
+            if (set == null)
+            {
+                set = Sets.<NextTickListEntry>newHashSet();
+                this.entriesByChunk.add(i, set);
+            }
+
+            set.add(entry);
+            return true;
+        }
+    }
+
+    public boolean contains(NextTickListEntry entry)
+    {
+        return this.entries.contains(entry);
+    }
+
+    /**
+     * Returns the entry that is due first, or null if nothing is scheduled.
+     */
+    public NextTickListEntry getFirst()
+    {
+        return this.entriesByTime.isEmpty() ? null : (NextTickListEntry)this.entriesByTime.first();
+    }
+
+    public void remove(NextTickListEntry entry)
+    {
+        if (this.entries.remove(entry))
+        {
+            this.entriesByTime.remove(entry);
+            long i = ChunkCoordIntPair.chunkXZ2Int(entry.position.getX() >> 4, entry.position.getZ() >> 4);
+            Set<NextTickListEntry> set = (Set)this.entriesByChunk.getValueByKey(i);
+
+            if (set != null && set.remove(entry) && set.isEmpty())
+            {
+                this.entriesByChunk.remove(i);
+            }
+        }
+    }
+
+    public int size()
+    {
+        return this.entries.size();
+    }
+
+    /**
+     * Whether the time and chunk indices still agree with the entry set.
+     */
+    public boolean isConsistent()
+    {
+        return this.entriesByTime.size() == this.entries.size();
+    }
+
+    /**
+     * Collects the entries with minX <= x < maxX and minZ <= z < maxZ in due order, optionally unscheduling them. Only
+     * the chunks overlapping the area are visited. Returns null if there are none.
+     */
+    public List<NextTickListEntry> getEntriesInArea(int minX, int minZ, int maxX, int maxZ, boolean remove)
+    {
+        List<NextTickListEntry> list = null;
+
+        for (int i = minX >> 4; i <= maxX - 1 >> 4; ++i)
+        {
+            for (int j = minZ >> 4; j <= maxZ - 1 >> 4; ++j)
+            {
+                Set<NextTickListEntry> set = (Set)this.entriesByChunk.getValueByKey(ChunkCoordIntPair.chunkXZ2Int(i, j));
+
+                if (set != null)
+                {
+                    for (NextTickListEntry nextticklistentry : set)
+                    {
+                        BlockPos blockpos = nextticklistentry.position;
+
+                        if (blockpos.getX() >= minX && blockpos.getX() < maxX && blockpos.getZ() >= minZ && blockpos.getZ() < maxZ)
+                        {
+                            if (list == null)
+                            {
+                                list = Lists.<NextTickListEntry>newArrayList();
+                            }
+
+                            list.add(nextticklistentry);
+                        }
+                    }
+                }
+            }
+        }
+
+        if (list != null)
+        {
+            Collections.sort(list);
+
+            if (remove)
+            {
+                for (NextTickListEntry nextticklistentry1 : list)
+                {
+                    this.remove(nextticklistentry1);
+                }
+            }
+        }
+
+        return list;
+    }
+}
@@ -3,15 +3,12 @@ package net.minecraft.world;
 import com.google.common.base.Predicate;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
-import com.google.common.collect.Sets;
 import com.google.common.util.concurrent.ListenableFuture;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
-import java.util.Set;
-import java.util.TreeSet;
 import java.util.UUID;
 import net.minecraft.block.Block;
 import net.minecraft.block.BlockEventData;
@@ -25,6 +22,7 @@ import net.minecraft.entity.EntityTracker;
 import net.minecraft.entity.EnumCreatureType;
 import net.minecraft.entity.INpc;
 import net.minecraft.entity.effect.EntityLightningBolt;
+import net.minecraft.entity.item.EntityTNTPrimed;
 import net.minecraft.entity.passive.EntityAnimal;
 import net.minecraft.entity.passive.EntityWaterMob;
 import net.minecraft.entity.player.EntityPlayer;
@@ -77,8 +75,7 @@ public class WorldServer extends World implements IThreadListener
     private final MinecraftServer mcServer;
     private final EntityTracker theEntityTracker;
     private final PlayerManager thePlayerManager;
-    private final Set<NextTickListEntry> pendingTickListEntriesHashSet = Sets.<NextTickListEntry>newHashSet();
-    private final TreeSet<NextTickListEntry> pendingTickListEntriesTreeSet = new TreeSet();
+    private final PendingTickList pendingTickList = new PendingTickList();
     private final Map<UUID, Entity> entitiesByUuid = Maps.<UUID, Entity>newHashMap();
     public ChunkProviderServer theChunkProviderServer;
 
@@ -97,6 +94,9 @@ public class WorldServer extends World implements IThreadListener
     protected final VillageSiege villageSiege = new VillageSiege(this);
     private WorldServer.ServerBlockEventList[] blockEventQueue = new WorldServer.ServerBlockEventList[] {new WorldServer.ServerBlockEventList(), new WorldServer.ServerBlockEventList()};
     private int blockEventCacheIndex;
+
+    /** Holds back the TNT explosions of the entity tick to set them off together */
+    private final ExplosionBatcher explosionBatcher = new ExplosionBatcher(this);
     private static final List<WeightedRandomChestContent> bonusChestContent = Lists.newArrayList(new WeightedRandomChestContent[] {new WeightedRandomChestContent(Items.stick, 0, 1, 3, 10), new WeightedRandomChestContent(Item.getItemFromBlock(Blocks.planks), 0, 1, 3, 10), new WeightedRandomChestContent(Item.getItemFromBlock(Blocks.log), 0, 1, 3, 10), new WeightedRandomChestContent(Items.stone_axe, 0, 1, 1, 3), new WeightedRandomChestContent(Items.wooden_axe, 0, 1, 1, 5), new WeightedRandomChestContent(Items.stone_pickaxe, 0, 1, 1, 3), new WeightedRandomChestContent(Items.wooden_pickaxe, 0, 1, 1, 5), new WeightedRandomChestContent(Items.apple, 0, 2, 3, 5), new WeightedRandomChestContent(Items.bread, 0, 2, 3, 3), new WeightedRandomChestContent(Item.getItemFromBlock(Blocks.log2), 0, 1, 3, 10)});
     private List<NextTickListEntry> pendingTickListEntriesThisTick = Lists.<NextTickListEntry>newArrayList();
 
@@ -193,6 +193,7 @@ public class WorldServer extends World implements IThreadListener
         }
 
         this.theProfiler.endStartSection("chunkSource");
+        this.theChunkProviderServer.processChunkLoads();
         this.chunkProvider.unloadQueuedChunks();
         int j = this.calculateSkylightSubtracted(1.0F);
 
@@ -495,11 +496,7 @@ public class WorldServer extends World implements IThreadListener
                 nextticklistentry.setPriority(priority);
             }
 
-            if (!this.pendingTickListEntriesHashSet.contains(nextticklistentry))
-            {
-                this.pendingTickListEntriesHashSet.add(nextticklistentry);
-                this.pendingTickListEntriesTreeSet.add(nextticklistentry);
-            }
+            this.pendingTickList.add(nextticklistentry);
         }
     }
 
@@ -513,11 +510,7 @@ public class WorldServer extends World implements IThreadListener
             nextticklistentry.setScheduledTime((long)delay + this.worldInfo.getWorldTotalTime());
         }
 
-        if (!this.pendingTickListEntriesHashSet.contains(nextticklistentry))
-        {
-            this.pendingTickListEntriesHashSet.add(nextticklistentry);
-            this.pendingTickListEntriesTreeSet.add(nextticklistentry);
-        }
+        this.pendingTickList.add(nextticklistentry);
     }
 
     /**
@@ -537,7 +530,9 @@ public class WorldServer extends World implements IThreadListener
             this.resetUpdateEntityTick();
         }
 
+        this.explosionBatcher.begin();
         super.updateEntities();
+        this.explosionBatcher.flush();
     }
 
     /**
@@ -559,9 +554,9 @@ public class WorldServer extends World implements IThreadListener
         }
         else
         {
-            int i = this.pendingTickListEntriesTreeSet.size();
+            int i = this.pendingTickList.size();
 
-            if (i != this.pendingTickListEntriesHashSet.size())
+            if (!this.pendingTickList.isConsistent())
             {
                 throw new IllegalStateException("TickNextTick list out of synch");
             }
@@ -576,15 +571,14 @@ public class WorldServer extends World implements IThreadListener
 
                 for (int j = 0; j < i; ++j)
                 {
-                    NextTickListEntry nextticklistentry = (NextTickListEntry)this.pendingTickListEntriesTreeSet.first();
+                    NextTickListEntry nextticklistentry = this.pendingTickList.getFirst();
 
                     if (!p_72955_1_ && nextticklistentry.scheduledTime > this.worldInfo.getWorldTotalTime())
                     {
                         break;
                     }
 
-                    this.pendingTickListEntriesTreeSet.remove(nextticklistentry);
-                    this.pendingTickListEntriesHashSet.remove(nextticklistentry);
+                    this.pendingTickList.remove(nextticklistentry);
                     this.pendingTickListEntriesThisTick.add(nextticklistentry);
                 }
 
@@ -625,7 +619,7 @@ public class WorldServer extends World implements IThreadListener
 
                 this.theProfiler.endSection();
                 this.pendingTickListEntriesThisTick.clear();
-                return !this.pendingTickListEntriesTreeSet.isEmpty();
+                return this.pendingTickList.size() != 0;
             }
         }
     }
@@ -642,41 +636,27 @@ public class WorldServer extends World implements IThreadListener
 
     public List<NextTickListEntry> func_175712_a(StructureBoundingBox structureBB, boolean p_175712_2_)
     {
-        List<NextTickListEntry> list = null;
+        List<NextTickListEntry> list = this.pendingTickList.getEntriesInArea(structureBB.minX, structureBB.minZ, structureBB.maxX, structureBB.maxZ, p_175712_2_);
+        Iterator<NextTickListEntry> iterator = this.pendingTickListEntriesThisTick.iterator();
 
-        for (int i = 0; i < 2; ++i)
+        while (iterator.hasNext())
         {
-            Iterator<NextTickListEntry> iterator;
-
-            if (i == 0)
-            {
-                iterator = this.pendingTickListEntriesTreeSet.iterator();
-            }
-            else
-            {
-                iterator = this.pendingTickListEntriesThisTick.iterator();
-            }
+            NextTickListEntry nextticklistentry = (NextTickListEntry)iterator.next();
+            BlockPos blockpos = nextticklistentry.position;
 
-            while (iterator.hasNext())
+            if (blockpos.getX() >= structureBB.minX && blockpos.getX() < structureBB.maxX && blockpos.getZ() >= structureBB.minZ && blockpos.getZ() < structureBB.maxZ)
             {
-                NextTickListEntry nextticklistentry = (NextTickListEntry)iterator.next();
-                BlockPos blockpos = nextticklistentry.position;
-
-                if (blockpos.getX() >= structureBB.minX && blockpos.getX() < structureBB.maxX && blockpos.getZ() >= structureBB.minZ && blockpos.getZ() < structureBB.maxZ)
+                if (p_175712_2_)
                 {
-                    if (p_175712_2_)
-                    {
-                        this.pendingTickListEntriesHashSet.remove(nextticklistentry);
-                        iterator.remove();
-                    }
-
-                    if (list == null)
-                    {
-                        list = Lists.<NextTickListEntry>newArrayList();
-                    }
+                    iterator.remove();
+                }
 
-                    list.add(nextticklistentry);
+                if (list == null)
+                {
+                    list = Lists.<NextTickListEntry>newArrayList();
                 }
+
+                list.add(nextticklistentry);
             }
         }
 
@@ -999,10 +979,16 @@ public class WorldServer extends World implements IThreadListener
     }
 
     /**
-     * returns a new explosion. Does initiation (at time of writing Explosion is not finished)
+     * returns a new explosion. Does initiation (at time of writing Explosion is not finished). Primed TNT going off
+     * during the entity tick only explodes at the end of it, together with the TNT around it.
      */
     public Explosion newExplosion(Entity entityIn, double x, double y, double z, float strength, boolean isFlaming, boolean isSmoking)
     {
+        if (entityIn instanceof EntityTNTPrimed && this.explosionBatcher.isCollecting())
+        {
+            return this.explosionBatcher.queue(entityIn, x, y, z, strength, isFlaming, isSmoking);
+        }
+
         Explosion explosion = new Explosion(this, entityIn, x, y, z, strength, isFlaming, isSmoking);
         explosion.doExplosionA();
         explosion.doExplosionB(false);
@@ -457,10 +457,19 @@ public abstract class BiomeGenBase
      * If this.fillerBlock is red sand, we replace some of that with red sandstone.
      */
     public final void generateBiomeTerrain(World worldIn, Random rand, ChunkPrimer chunkPrimerIn, int x, int z, double noiseVal)
+    {
+        this.generateBiomeTerrain(worldIn, rand, chunkPrimerIn, x, z, noiseVal, this.topBlock, this.fillerBlock);
+    }
+
+    /**
+     * generateBiomeTerrain with the given top and filler blocks instead of this.topBlock and this.fillerBlock, for
+     * biomes that pick them per column. Leaves the biome untouched, so chunks may be generated on several threads.
+     */
+    protected final void generateBiomeTerrain(World worldIn, Random rand, ChunkPrimer chunkPrimerIn, int x, int z, double noiseVal, IBlockState top, IBlockState filler)
     {
         int i = worldIn.getSeaLevel();
-        IBlockState iblockstate = this.topBlock;
-        IBlockState iblockstate1 = this.fillerBlock;
+        IBlockState iblockstate = top;
+        IBlockState iblockstate1 = filler;
         int j = -1;
         int k = (int)(noiseVal / 3.0D + 3.0D + rand.nextDouble() * 0.25D);
         int l = x & 15;
@@ -492,8 +501,8 @@ public abstract class BiomeGenBase
                         }
                         else if (j1 >= i - 4 && j1 <= i + 1)
                         {
-                            iblockstate = this.topBlock;
-                            iblockstate1 = this.fillerBlock;
+                            iblockstate = top;
+                            iblockstate1 = filler;
                         }
 
                         if (j1 < i && (iblockstate == null || iblockstate.getBlock().getMaterial() == Material.air))
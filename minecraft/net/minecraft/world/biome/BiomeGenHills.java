@@ -2,6 +2,7 @@ package net.minecraft.world.biome;
 
 import java.util.Random;
 import net.minecraft.block.BlockSilverfish;
+import net.minecraft.block.state.IBlockState;
 import net.minecraft.init.Blocks;
 import net.minecraft.util.BlockPos;
 import net.minecraft.world.World;
@@ -66,21 +67,21 @@ public class BiomeGenHills extends BiomeGenBase
 
     public void genTerrainBlocks(World worldIn, Random rand, ChunkPrimer chunkPrimerIn, int x, int z, double noiseVal)
     {
-        this.topBlock = Blocks.grass.getDefaultState();
-        this.fillerBlock = Blocks.dirt.getDefaultState();
+        IBlockState iblockstate = Blocks.grass.getDefaultState();
+        IBlockState iblockstate1 = Blocks.dirt.getDefaultState();
 
         if ((noiseVal < -1.0D || noiseVal > 2.0D) && this.field_150638_aH == this.field_150637_aG)
         {
-            this.topBlock = Blocks.gravel.getDefaultState();
-            this.fillerBlock = Blocks.gravel.getDefaultState();
+            iblockstate = Blocks.gravel.getDefaultState();
+            iblockstate1 = Blocks.gravel.getDefaultState();
         }
         else if (noiseVal > 1.0D && this.field_150638_aH != this.field_150636_aF)
         {
-            this.topBlock = Blocks.stone.getDefaultState();
-            this.fillerBlock = Blocks.stone.getDefaultState();
+            iblockstate = Blocks.stone.getDefaultState();
+            iblockstate1 = Blocks.stone.getDefaultState();
         }
 
-        this.generateBiomeTerrain(worldIn, rand, chunkPrimerIn, x, z, noiseVal);
+        this.generateBiomeTerrain(worldIn, rand, chunkPrimerIn, x, z, noiseVal, iblockstate, iblockstate1);
     }
 
     /**
@@ -70,19 +70,23 @@ public class BiomeGenMesa extends BiomeGenBase
 
     public void genTerrainBlocks(World worldIn, Random rand, ChunkPrimer chunkPrimerIn, int x, int z, double noiseVal)
     {
-        if (this.field_150621_aC == null || this.field_150622_aD != worldIn.getSeed())
+        synchronized (this)
         {
-            this.func_150619_a(worldIn.getSeed());
-        }
+            if (this.field_150621_aC == null || this.field_150622_aD != worldIn.getSeed())
+            {
+                this.func_150619_a(worldIn.getSeed());
+            }
 
-        if (this.field_150623_aE == null || this.field_150624_aF == null || this.field_150622_aD != worldIn.getSeed())
-        {
-            Random random = new Random(this.field_150622_aD);
-            this.field_150623_aE = new NoiseGeneratorPerlin(random, 4);
-            this.field_150624_aF = new NoiseGeneratorPerlin(random, 1);
+            if (this.field_150623_aE == null || this.field_150624_aF == null || this.field_150622_aD != worldIn.getSeed())
+            {
+                Random random = new Random(this.field_150622_aD);
+                this.field_150623_aE = new NoiseGeneratorPerlin(random, 4);
+                this.field_150624_aF = new NoiseGeneratorPerlin(random, 1);
+            }
+
+            this.field_150622_aD = worldIn.getSeed();
         }
 
-        this.field_150622_aD = worldIn.getSeed();
         double d4 = 0.0D;
 
         if (this.field_150626_aH)
@@ -229,10 +233,10 @@ public class BiomeGenMesa extends BiomeGenBase
 
     private void func_150619_a(long p_150619_1_)
     {
-        this.field_150621_aC = new IBlockState[64];
-        Arrays.fill(this.field_150621_aC, Blocks.hardened_clay.getDefaultState());
+        IBlockState[] aiblockstate = new IBlockState[64];
+        Arrays.fill(aiblockstate, Blocks.hardened_clay.getDefaultState());
         Random random = new Random(p_150619_1_);
-        this.field_150625_aG = new NoiseGeneratorPerlin(random, 1);
+        NoiseGeneratorPerlin noisegeneratorperlin = new NoiseGeneratorPerlin(random, 1);
 
         for (int l1 = 0; l1 < 64; ++l1)
         {
@@ -240,7 +244,7 @@ public class BiomeGenMesa extends BiomeGenBase
 
             if (l1 < 64)
             {
-                this.field_150621_aC[l1] = Blocks.stained_hardened_clay.getDefaultState().withProperty(BlockColored.COLOR, EnumDyeColor.ORANGE);
+                aiblockstate[l1] = Blocks.stained_hardened_clay.getDefaultState().withProperty(BlockColored.COLOR, EnumDyeColor.ORANGE);
             }
         }
 
@@ -253,7 +257,7 @@ public class BiomeGenMesa extends BiomeGenBase
 
             for (int l = 0; k + l < 64 && l < j; ++l)
             {
-                this.field_150621_aC[k + l] = Blocks.stained_hardened_clay.getDefaultState().withProperty(BlockColored.COLOR, EnumDyeColor.YELLOW);
+                aiblockstate[k + l] = Blocks.stained_hardened_clay.getDefaultState().withProperty(BlockColored.COLOR, EnumDyeColor.YELLOW);
             }
         }
 
@@ -266,7 +270,7 @@ public class BiomeGenMesa extends BiomeGenBase
 
             for (int i1 = 0; l3 + i1 < 64 && i1 < i3; ++i1)
             {
-                this.field_150621_aC[l3 + i1] = Blocks.stained_hardened_clay.getDefaultState().withProperty(BlockColored.COLOR, EnumDyeColor.BROWN);
+                aiblockstate[l3 + i1] = Blocks.stained_hardened_clay.getDefaultState().withProperty(BlockColored.COLOR, EnumDyeColor.BROWN);
             }
         }
 
@@ -279,7 +283,7 @@ public class BiomeGenMesa extends BiomeGenBase
 
             for (int j1 = 0; k4 + j1 < 64 && j1 < i4; ++j1)
             {
-                this.field_150621_aC[k4 + j1] = Blocks.stained_hardened_clay.getDefaultState().withProperty(BlockColored.COLOR, EnumDyeColor.RED);
+                aiblockstate[k4 + j1] = Blocks.stained_hardened_clay.getDefaultState().withProperty(BlockColored.COLOR, EnumDyeColor.RED);
             }
         }
 
@@ -293,19 +297,22 @@ public class BiomeGenMesa extends BiomeGenBase
 
             for (int k1 = 0; j4 + k1 < 64 && k1 < i5; ++k1)
             {
-                this.field_150621_aC[j4 + k1] = Blocks.stained_hardened_clay.getDefaultState().withProperty(BlockColored.COLOR, EnumDyeColor.WHITE);
+                aiblockstate[j4 + k1] = Blocks.stained_hardened_clay.getDefaultState().withProperty(BlockColored.COLOR, EnumDyeColor.WHITE);
 
                 if (j4 + k1 > 1 && random.nextBoolean())
                 {
-                    this.field_150621_aC[j4 + k1 - 1] = Blocks.stained_hardened_clay.getDefaultState().withProperty(BlockColored.COLOR, EnumDyeColor.SILVER);
+                    aiblockstate[j4 + k1 - 1] = Blocks.stained_hardened_clay.getDefaultState().withProperty(BlockColored.COLOR, EnumDyeColor.SILVER);
                 }
 
                 if (j4 + k1 < 63 && random.nextBoolean())
                 {
-                    this.field_150621_aC[j4 + k1 + 1] = Blocks.stained_hardened_clay.getDefaultState().withProperty(BlockColored.COLOR, EnumDyeColor.SILVER);
+                    aiblockstate[j4 + k1 + 1] = Blocks.stained_hardened_clay.getDefaultState().withProperty(BlockColored.COLOR, EnumDyeColor.SILVER);
                 }
             }
         }
+
+        this.field_150621_aC = aiblockstate;
+        this.field_150625_aG = noisegeneratorperlin;
     }
 
     private IBlockState func_180629_a(int p_180629_1_, int p_180629_2_, int p_180629_3_)
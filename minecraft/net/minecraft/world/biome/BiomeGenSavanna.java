@@ -3,6 +3,7 @@ package net.minecraft.world.biome;
 import java.util.Random;
 import net.minecraft.block.BlockDirt;
 import net.minecraft.block.BlockDoublePlant;
+import net.minecraft.block.state.IBlockState;
 import net.minecraft.entity.passive.EntityHorse;
 import net.minecraft.init.Blocks;
 import net.minecraft.util.BlockPos;
@@ -65,20 +66,20 @@ public class BiomeGenSavanna extends BiomeGenBase
 
         public void genTerrainBlocks(World worldIn, Random rand, ChunkPrimer chunkPrimerIn, int x, int z, double noiseVal)
         {
-            this.topBlock = Blocks.grass.getDefaultState();
-            this.fillerBlock = Blocks.dirt.getDefaultState();
+            IBlockState iblockstate = Blocks.grass.getDefaultState();
+            IBlockState iblockstate1 = Blocks.dirt.getDefaultState();
 
             if (noiseVal > 1.75D)
             {
-                this.topBlock = Blocks.stone.getDefaultState();
-                this.fillerBlock = Blocks.stone.getDefaultState();
+                iblockstate = Blocks.stone.getDefaultState();
+                iblockstate1 = Blocks.stone.getDefaultState();
             }
             else if (noiseVal > -0.5D)
             {
-                this.topBlock = Blocks.dirt.getDefaultState().withProperty(BlockDirt.VARIANT, BlockDirt.DirtType.COARSE_DIRT);
+                iblockstate = Blocks.dirt.getDefaultState().withProperty(BlockDirt.VARIANT, BlockDirt.DirtType.COARSE_DIRT);
             }
 
-            this.generateBiomeTerrain(worldIn, rand, chunkPrimerIn, x, z, noiseVal);
+            this.generateBiomeTerrain(worldIn, rand, chunkPrimerIn, x, z, noiseVal, iblockstate, iblockstate1);
         }
 
         public void decorate(World worldIn, Random rand, BlockPos pos)
@@ -4,6 +4,7 @@ import java.util.Random;
 import net.minecraft.block.BlockDirt;
 import net.minecraft.block.BlockDoublePlant;
 import net.minecraft.block.BlockTallGrass;
+import net.minecraft.block.state.IBlockState;
 import net.minecraft.entity.passive.EntityWolf;
 import net.minecraft.init.Blocks;
 import net.minecraft.util.BlockPos;
@@ -89,22 +90,25 @@ public class BiomeGenTaiga extends BiomeGenBase
 
     public void genTerrainBlocks(World worldIn, Random rand, ChunkPrimer chunkPrimerIn, int x, int z, double noiseVal)
     {
+        IBlockState iblockstate = this.topBlock;
+        IBlockState iblockstate1 = this.fillerBlock;
+
         if (this.field_150644_aH == 1 || this.field_150644_aH == 2)
         {
-            this.topBlock = Blocks.grass.getDefaultState();
-            this.fillerBlock = Blocks.dirt.getDefaultState();
+            iblockstate = Blocks.grass.getDefaultState();
+            iblockstate1 = Blocks.dirt.getDefaultState();
 
             if (noiseVal > 1.75D)
             {
-                this.topBlock = Blocks.dirt.getDefaultState().withProperty(BlockDirt.VARIANT, BlockDirt.DirtType.COARSE_DIRT);
+                iblockstate = Blocks.dirt.getDefaultState().withProperty(BlockDirt.VARIANT, BlockDirt.DirtType.COARSE_DIRT);
             }
             else if (noiseVal > -0.95D)
             {
-                this.topBlock = Blocks.dirt.getDefaultState().withProperty(BlockDirt.VARIANT, BlockDirt.DirtType.PODZOL);
+                iblockstate = Blocks.dirt.getDefaultState().withProperty(BlockDirt.VARIANT, BlockDirt.DirtType.PODZOL);
             }
         }
 
-        this.generateBiomeTerrain(worldIn, rand, chunkPrimerIn, x, z, noiseVal);
+        this.generateBiomeTerrain(worldIn, rand, chunkPrimerIn, x, z, noiseVal, iblockstate, iblockstate1);
     }
 
     protected BiomeGenBase createMutatedBiome(int p_180277_1_)
@@ -770,6 +770,7 @@ public class Chunk {
 		   achar[k] = (char) ((p_177439_1_[i + 1] & 255) << 8 | p_177439_1_[i] & 255);
 		   i += 2;
 		}
+		this.storageArrays[j].markModified();
 	 }
 	 else if (p_177439_3_ && this.storageArrays[j] != null) this.storageArrays[j] = null;
 	  for (int l = 0; l < this.storageArrays.length; ++l) if ((p_177439_2_ & 1 << l) != 0 && this.storageArrays[l] != null) {
@@ -1,22 +1,32 @@
 package net.minecraft.world.chunk.storage;
 
+import com.google.common.collect.Lists;
+import com.google.common.io.ByteStreams;
+import java.io.ByteArrayOutputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import net.minecraft.block.Block;
+import net.minecraft.crash.CrashReport;
+import net.minecraft.crash.CrashReportCategory;
 import net.minecraft.entity.Entity;
 import net.minecraft.entity.EntityList;
 import net.minecraft.nbt.CompressedStreamTools;
+import net.minecraft.nbt.NBTSizeTracker;
+import net.minecraft.nbt.NBTStreamReader;
+import net.minecraft.nbt.NBTStreamWriter;
 import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.nbt.NBTTagList;
 import net.minecraft.tileentity.TileEntity;
 import net.minecraft.util.BlockPos;
+import net.minecraft.util.ReportedException;
 import net.minecraft.util.ResourceLocation;
 import net.minecraft.world.ChunkCoordIntPair;
 import net.minecraft.world.MinecraftException;
@@ -24,20 +34,31 @@ import net.minecraft.world.NextTickListEntry;
 import net.minecraft.world.World;
 import net.minecraft.world.chunk.Chunk;
 import net.minecraft.world.chunk.NibbleArray;
-import net.minecraft.world.storage.IThreadedFileIO;
 import net.minecraft.world.storage.ThreadedFileIOBase;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-public class AnvilChunkLoader implements IChunkLoader, IThreadedFileIO
+public class AnvilChunkLoader implements IChunkLoader
 {
     private static final Logger logger = LogManager.getLogger();
-    private Map<ChunkCoordIntPair, NBTTagCompound> chunksToRemove = new ConcurrentHashMap();
+
+    /** Chunks above this serialized size do not keep their scratch buffer around for the next save */
+    private static final int MAX_RETAINED_BUFFER = 1048576;
+    private static final byte[] EMPTY_LIGHT = new byte[2048];
+    private static final ThreadLocal<AnvilChunkLoader.ChunkBuffers> chunkBuffers = new ThreadLocal<AnvilChunkLoader.ChunkBuffers>()
+    {
+        protected AnvilChunkLoader.ChunkBuffers initialValue()
+        {
+            return new AnvilChunkLoader.ChunkBuffers();
+        }
+    };
+
+    /** Uncompressed NBT of chunks waiting to be written by the file IO threads */
+    private Map<ChunkCoordIntPair, byte[]> chunksToRemove = new ConcurrentHashMap();
     private Set<ChunkCoordIntPair> pendingAnvilChunksCoordinates = Collections.<ChunkCoordIntPair>newSetFromMap(new ConcurrentHashMap());
 
     /** Save directory for chunks using the Anvil format */
     private final File chunkSaveLocation;
-    private boolean field_183014_e = false;
 
     public AnvilChunkLoader(File chunkSaveLocationIn)
     {
@@ -49,10 +70,35 @@ public class AnvilChunkLoader implements IChunkLoader, IThreadedFileIO
      */
     public Chunk loadChunk(World worldIn, int x, int z) throws IOException
     {
-        ChunkCoordIntPair chunkcoordintpair = new ChunkCoordIntPair(x, z);
-        NBTTagCompound nbttagcompound = (NBTTagCompound)this.chunksToRemove.get(chunkcoordintpair);
+        NBTTagCompound nbttagcompound = this.readChunkData(x, z);
 
         if (nbttagcompound == null)
+        {
+            return null;
+        }
+        else
+        {
+            Chunk chunk = this.checkedReadChunkFromNBT(worldIn, x, z, nbttagcompound);
+
+            if (chunk != null)
+            {
+                this.loadEntities(worldIn, nbttagcompound.getCompoundTag("Level"), chunk);
+            }
+
+            return chunk;
+        }
+    }
+
+    /**
+     * Reads the raw NBT of a chunk, preferring data still waiting to be written. Returns null if the chunk was never
+     * saved. Does not touch the world, so it can run off the server thread. The Level tag and its lists are read
+     * lazily so the block sections can be streamed by readChunkFromNBT without ever building their tags.
+     */
+    public NBTTagCompound readChunkData(int x, int z) throws IOException
+    {
+        byte[] abyte = (byte[])this.chunksToRemove.get(new ChunkCoordIntPair(x, z));
+
+        if (abyte == null)
         {
             DataInputStream datainputstream = RegionFileCache.getChunkInputStream(this.chunkSaveLocation, x, z);
 
@@ -61,16 +107,25 @@ public class AnvilChunkLoader implements IChunkLoader, IThreadedFileIO
                 return null;
             }
 
-            nbttagcompound = CompressedStreamTools.read(datainputstream);
+            try
+            {
+                abyte = ByteStreams.toByteArray(datainputstream);
+            }
+            finally
+            {
+                datainputstream.close();
+            }
         }
 
-        return this.checkedReadChunkFromNBT(worldIn, x, z, nbttagcompound);
+        return CompressedStreamTools.readLazy(abyte, NBTSizeTracker.INFINITE, 2);
     }
 
     /**
-     * Wraps readChunkFromNBT. Checks the coordinates and several NBT tags.
+     * Wraps readChunkFromNBT. Checks the coordinates and several NBT tags. The returned chunk only holds block data,
+     * entities are added by loadEntities. The lists loadEntities needs are decoded here already, keeping that work off
+     * the server thread when the chunk is loaded asynchronously.
      */
-    protected Chunk checkedReadChunkFromNBT(World worldIn, int x, int z, NBTTagCompound p_75822_4_)
+    public Chunk checkedReadChunkFromNBT(World worldIn, int x, int z, NBTTagCompound p_75822_4_)
     {
         if (!p_75822_4_.hasKey("Level", 10))
         {
@@ -98,6 +153,9 @@ public class AnvilChunkLoader implements IChunkLoader, IThreadedFileIO
                     chunk = this.readChunkFromNBT(worldIn, nbttagcompound);
                 }
 
+                nbttagcompound.getTagList("Entities", 10);
+                nbttagcompound.getTagList("TileEntities", 10);
+                nbttagcompound.getTagList("TileTicks", 10);
                 return chunk;
             }
         }
@@ -109,11 +167,7 @@ public class AnvilChunkLoader implements IChunkLoader, IThreadedFileIO
 
         try
         {
-            NBTTagCompound nbttagcompound = new NBTTagCompound();
-            NBTTagCompound nbttagcompound1 = new NBTTagCompound();
-            nbttagcompound.setTag("Level", nbttagcompound1);
-            this.writeChunkToNBT(chunkIn, worldIn, nbttagcompound1);
-            this.addChunkToPending(chunkIn.getChunkCoordIntPair(), nbttagcompound);
+            this.addChunkToPending(chunkIn.getChunkCoordIntPair(), this.writeChunkData(chunkIn, worldIn));
         }
         catch (Exception exception)
         {
@@ -121,67 +175,52 @@ public class AnvilChunkLoader implements IChunkLoader, IThreadedFileIO
         }
     }
 
-    protected void addChunkToPending(ChunkCoordIntPair p_75824_1_, NBTTagCompound p_75824_2_)
+    /**
+     * Queues the uncompressed NBT of a chunk for writing, replacing any older data still waiting for the same chunk.
+     */
+    protected void addChunkToPending(ChunkCoordIntPair p_75824_1_, byte[] p_75824_2_)
     {
-        if (!this.pendingAnvilChunksCoordinates.contains(p_75824_1_))
+        this.chunksToRemove.put(p_75824_1_, p_75824_2_);
+
+        if (this.pendingAnvilChunksCoordinates.add(p_75824_1_))
         {
-            this.chunksToRemove.put(p_75824_1_, p_75824_2_);
+            int i = this.chunkSaveLocation.hashCode() * 31 + ((p_75824_1_.chunkXPos >> 5) * 31 + (p_75824_1_.chunkZPos >> 5));
+            ThreadedFileIOBase.getThreadedIOInstance().queueIO(() ->
+            {
+                this.writeChunkIO(p_75824_1_);
+                return false;
+            }, i);
         }
-
-        ThreadedFileIOBase.getThreadedIOInstance().queueIO(this);
     }
 
     /**
-     * Returns a boolean stating if the write was unsuccessful.
+     * Writes the latest queued data of a chunk. Queued on the IO worker owning the chunk's region so writes to one
+     * region never overtake each other; the data stays visible to loadChunk until it is on disk.
      */
-    public boolean writeNextIO()
+    private void writeChunkIO(ChunkCoordIntPair p_183013_1_)
     {
-        if (this.chunksToRemove.isEmpty())
-        {
-            if (this.field_183014_e)
-            {
-                logger.info("ThreadedAnvilChunkStorage ({}): All chunks are saved", new Object[] {this.chunkSaveLocation.getName()});
-            }
+        this.pendingAnvilChunksCoordinates.remove(p_183013_1_);
+        byte[] abyte = (byte[])this.chunksToRemove.get(p_183013_1_);
 
-            return false;
-        }
-        else
+        if (abyte != null)
         {
-            ChunkCoordIntPair chunkcoordintpair = (ChunkCoordIntPair)this.chunksToRemove.keySet().iterator().next();
-            boolean lvt_3_1_;
-
             try
             {
-                this.pendingAnvilChunksCoordinates.add(chunkcoordintpair);
-                NBTTagCompound nbttagcompound = (NBTTagCompound)this.chunksToRemove.remove(chunkcoordintpair);
-
-                if (nbttagcompound != null)
-                {
-                    try
-                    {
-                        this.func_183013_b(chunkcoordintpair, nbttagcompound);
-                    }
-                    catch (Exception exception)
-                    {
-                        logger.error((String)"Failed to save chunk", (Throwable)exception);
-                    }
-                }
-
-                lvt_3_1_ = true;
+                this.func_183013_b(p_183013_1_, abyte);
             }
-            finally
+            catch (Exception exception)
             {
-                this.pendingAnvilChunksCoordinates.remove(chunkcoordintpair);
+                logger.error((String)"Failed to save chunk", (Throwable)exception);
             }
 
-            return lvt_3_1_;
+            this.chunksToRemove.remove(p_183013_1_, abyte);
         }
     }
 
-    private void func_183013_b(ChunkCoordIntPair p_183013_1_, NBTTagCompound p_183013_2_) throws IOException
+    private void func_183013_b(ChunkCoordIntPair p_183013_1_, byte[] p_183013_2_) throws IOException
     {
         DataOutputStream dataoutputstream = RegionFileCache.getChunkOutputStream(this.chunkSaveLocation, p_183013_1_.chunkXPos, p_183013_1_.chunkZPos);
-        CompressedStreamTools.write(p_183013_2_, dataoutputstream);
+        dataoutputstream.write(p_183013_2_);
         dataoutputstream.close();
     }
 
@@ -208,145 +247,167 @@ public class AnvilChunkLoader implements IChunkLoader, IThreadedFileIO
     {
         try
         {
-            this.field_183014_e = true;
-
-            while (true)
-            {
-                if (this.writeNextIO())
-                {
-                    continue;
-                }
-            }
+            ThreadedFileIOBase.getThreadedIOInstance().waitForFinish();
+            logger.info("ThreadedAnvilChunkStorage ({}): All chunks are saved", new Object[] {this.chunkSaveLocation.getName()});
         }
-        finally
+        catch (InterruptedException interruptedexception)
+        {
+            interruptedexception.printStackTrace();
+        }
+    }
+
+    /**
+     * Serializes the chunk into the uncompressed Anvil NBT layout. Sections are converted through the calling thread's
+     * scratch buffers and written straight to the stream, so the only allocation that outlives the call is the
+     * returned array.
+     */
+    private byte[] writeChunkData(Chunk chunkIn, World worldIn) throws IOException
+    {
+        AnvilChunkLoader.ChunkBuffers anvilchunkloader$chunkbuffers = (AnvilChunkLoader.ChunkBuffers)chunkBuffers.get();
+        anvilchunkloader$chunkbuffers.output.reset();
+        NBTStreamWriter nbtstreamwriter = new NBTStreamWriter(anvilchunkloader$chunkbuffers.dataOutput);
+        nbtstreamwriter.beginRoot();
+        nbtstreamwriter.beginCompound("Level");
+        this.writeChunkToStream(chunkIn, worldIn, nbtstreamwriter, anvilchunkloader$chunkbuffers);
+        nbtstreamwriter.endCompound();
+        nbtstreamwriter.endCompound();
+        byte[] abyte = anvilchunkloader$chunkbuffers.output.toByteArray();
+
+        if (abyte.length > MAX_RETAINED_BUFFER)
         {
-            this.field_183014_e = false;
+            chunkBuffers.remove();
         }
+
+        return abyte;
     }
 
     /**
-     * Writes the Chunk passed as an argument to the NBTTagCompound also passed, using the World argument to retrieve
-     * the Chunk's last update time.
+     * Writes the contents of the chunk's Level tag, using the World argument to retrieve the Chunk's last update time.
      */
-    private void writeChunkToNBT(Chunk chunkIn, World worldIn, NBTTagCompound p_75820_3_)
+    private void writeChunkToStream(Chunk chunkIn, World worldIn, NBTStreamWriter writer, AnvilChunkLoader.ChunkBuffers buffers) throws IOException
     {
-        p_75820_3_.setByte("V", (byte)1);
-        p_75820_3_.setInteger("xPos", chunkIn.xPosition);
-        p_75820_3_.setInteger("zPos", chunkIn.zPosition);
-        p_75820_3_.setLong("LastUpdate", worldIn.getTotalWorldTime());
-        p_75820_3_.setIntArray("HeightMap", chunkIn.getHeightMap());
-        p_75820_3_.setBoolean("TerrainPopulated", chunkIn.isTerrainPopulated());
-        p_75820_3_.setBoolean("LightPopulated", chunkIn.isLightPopulated());
-        p_75820_3_.setLong("InhabitedTime", chunkIn.getInhabitedTime());
+        writer.writeByte("V", (byte)1);
+        writer.writeInt("xPos", chunkIn.xPosition);
+        writer.writeInt("zPos", chunkIn.zPosition);
+        writer.writeLong("LastUpdate", worldIn.getTotalWorldTime());
+        writer.writeIntArray("HeightMap", chunkIn.getHeightMap());
+        writer.writeBoolean("TerrainPopulated", chunkIn.isTerrainPopulated());
+        writer.writeBoolean("LightPopulated", chunkIn.isLightPopulated());
+        writer.writeLong("InhabitedTime", chunkIn.getInhabitedTime());
         ExtendedBlockStorage[] aextendedblockstorage = chunkIn.getBlockStorageArray();
-        NBTTagList nbttaglist = new NBTTagList();
         boolean flag = !worldIn.provider.getHasNoSky();
+        int i = 0;
 
         for (ExtendedBlockStorage extendedblockstorage : aextendedblockstorage)
         {
             if (extendedblockstorage != null)
             {
-                NBTTagCompound nbttagcompound = new NBTTagCompound();
-                nbttagcompound.setByte("Y", (byte)(extendedblockstorage.getYLocation() >> 4 & 255));
-                byte[] abyte = new byte[extendedblockstorage.getData().length];
-                NibbleArray nibblearray = new NibbleArray();
-                NibbleArray nibblearray1 = null;
+                ++i;
+            }
+        }
 
-                for (int i = 0; i < extendedblockstorage.getData().length; ++i)
-                {
-                    char c0 = extendedblockstorage.getData()[i];
-                    int j = i & 15;
-                    int k = i >> 8 & 15;
-                    int l = i >> 4 & 15;
+        writer.beginList("Sections", 10, i);
+        byte[] abyte = buffers.blocks;
+        byte[] abyte1 = buffers.data;
+        byte[] abyte2 = buffers.add;
 
-                    if (c0 >> 12 != 0)
-                    {
-                        if (nibblearray1 == null)
-                        {
-                            nibblearray1 = new NibbleArray();
-                        }
-
-                        nibblearray1.set(j, k, l, c0 >> 12);
-                    }
+        for (ExtendedBlockStorage extendedblockstorage1 : aextendedblockstorage)
+        {
+            if (extendedblockstorage1 != null)
+            {
+                writer.writeByte("Y", (byte)(extendedblockstorage1.getYLocation() >> 4 & 255));
+                char[] achar = extendedblockstorage1.getData();
+                int j = 0;
 
-                    abyte[i] = (byte)(c0 >> 4 & 255);
-                    nibblearray.set(j, k, l, c0 & 15);
+                for (int k = 0; k < achar.length; k += 2)
+                {
+                    char c0 = achar[k];
+                    char c1 = achar[k + 1];
+                    abyte[k] = (byte)(c0 >> 4 & 255);
+                    abyte[k + 1] = (byte)(c1 >> 4 & 255);
+                    abyte1[k >> 1] = (byte)(c0 & 15 | (c1 & 15) << 4);
+                    int l = c0 >> 12 | (c1 >> 12) << 4;
+                    abyte2[k >> 1] = (byte)l;
+                    j |= l;
                 }
 
-                nbttagcompound.setByteArray("Blocks", abyte);
-                nbttagcompound.setByteArray("Data", nibblearray.getData());
+                writer.writeByteArray("Blocks", abyte, achar.length);
+                writer.writeByteArray("Data", abyte1, achar.length >> 1);
 
-                if (nibblearray1 != null)
+                if (j != 0)
                 {
-                    nbttagcompound.setByteArray("Add", nibblearray1.getData());
+                    writer.writeByteArray("Add", abyte2, achar.length >> 1);
                 }
 
-                nbttagcompound.setByteArray("BlockLight", extendedblockstorage.getBlocklightArray().getData());
+                byte[] abyte3 = extendedblockstorage1.getBlocklightArray().getData();
+                writer.writeByteArray("BlockLight", abyte3);
 
                 if (flag)
                 {
-                    nbttagcompound.setByteArray("SkyLight", extendedblockstorage.getSkylightArray().getData());
+                    writer.writeByteArray("SkyLight", extendedblockstorage1.getSkylightArray().getData());
                 }
                 else
                 {
-                    nbttagcompound.setByteArray("SkyLight", new byte[extendedblockstorage.getBlocklightArray().getData().length]);
+                    writer.writeByteArray("SkyLight", EMPTY_LIGHT, abyte3.length);
                 }
 
-                nbttaglist.appendTag(nbttagcompound);
+                writer.endCompound();
             }
         }
 
-        p_75820_3_.setTag("Sections", nbttaglist);
-        p_75820_3_.setByteArray("Biomes", chunkIn.getBiomeArray());
+        writer.writeByteArray("Biomes", chunkIn.getBiomeArray());
         chunkIn.setHasEntities(false);
-        NBTTagList nbttaglist1 = new NBTTagList();
+        List<NBTTagCompound> list = Lists.<NBTTagCompound>newArrayList();
 
         for (int i1 = 0; i1 < chunkIn.getEntityLists().length; ++i1)
         {
             for (Entity entity : chunkIn.getEntityLists()[i1])
             {
-                NBTTagCompound nbttagcompound1 = new NBTTagCompound();
+                NBTTagCompound nbttagcompound = new NBTTagCompound();
 
-                if (entity.writeToNBTOptional(nbttagcompound1))
+                if (entity.writeToNBTOptional(nbttagcompound))
                 {
                     chunkIn.setHasEntities(true);
-                    nbttaglist1.appendTag(nbttagcompound1);
+                    list.add(nbttagcompound);
                 }
             }
         }
 
-        p_75820_3_.setTag("Entities", nbttaglist1);
-        NBTTagList nbttaglist2 = new NBTTagList();
+        writer.beginList("Entities", 10, list.size());
 
-        for (TileEntity tileentity : chunkIn.getTileEntityMap().values())
+        for (NBTTagCompound nbttagcompound1 : list)
+        {
+            writer.writeListElement(nbttagcompound1);
+        }
+
+        Collection<TileEntity> collection = chunkIn.getTileEntityMap().values();
+        writer.beginList("TileEntities", 10, collection.size());
+
+        for (TileEntity tileentity : collection)
         {
             NBTTagCompound nbttagcompound2 = new NBTTagCompound();
             tileentity.writeToNBT(nbttagcompound2);
-            nbttaglist2.appendTag(nbttagcompound2);
+            writer.writeListElement(nbttagcompound2);
         }
 
-        p_75820_3_.setTag("TileEntities", nbttaglist2);
-        List<NextTickListEntry> list = worldIn.getPendingBlockUpdates(chunkIn, false);
+        List<NextTickListEntry> list1 = worldIn.getPendingBlockUpdates(chunkIn, false);
 
-        if (list != null)
+        if (list1 != null)
         {
             long j1 = worldIn.getTotalWorldTime();
-            NBTTagList nbttaglist3 = new NBTTagList();
+            writer.beginList("TileTicks", 10, list1.size());
 
-            for (NextTickListEntry nextticklistentry : list)
+            for (NextTickListEntry nextticklistentry : list1)
             {
-                NBTTagCompound nbttagcompound3 = new NBTTagCompound();
                 ResourceLocation resourcelocation = (ResourceLocation)Block.blockRegistry.getNameForObject(nextticklistentry.getBlock());
-                nbttagcompound3.setString("i", resourcelocation == null ? "" : resourcelocation.toString());
-                nbttagcompound3.setInteger("x", nextticklistentry.position.getX());
-                nbttagcompound3.setInteger("y", nextticklistentry.position.getY());
-                nbttagcompound3.setInteger("z", nextticklistentry.position.getZ());
-                nbttagcompound3.setInteger("t", (int)(nextticklistentry.scheduledTime - j1));
-                nbttagcompound3.setInteger("p", nextticklistentry.priority);
-                nbttaglist3.appendTag(nbttagcompound3);
+                writer.writeString("i", resourcelocation == null ? "" : resourcelocation.toString());
+                writer.writeInt("x", nextticklistentry.position.getX());
+                writer.writeInt("y", nextticklistentry.position.getY());
+                writer.writeInt("z", nextticklistentry.position.getZ());
+                writer.writeInt("t", (int)(nextticklistentry.scheduledTime - j1));
+                writer.writeInt("p", nextticklistentry.priority);
+                writer.endCompound();
             }
-
-            p_75820_3_.setTag("TileTicks", nbttaglist3);
         }
     }
 
@@ -363,40 +424,59 @@ public class AnvilChunkLoader implements IChunkLoader, IThreadedFileIO
         chunk.setTerrainPopulated(p_75823_2_.getBoolean("TerrainPopulated"));
         chunk.setLightPopulated(p_75823_2_.getBoolean("LightPopulated"));
         chunk.setInhabitedTime(p_75823_2_.getLong("InhabitedTime"));
-        NBTTagList nbttaglist = p_75823_2_.getTagList("Sections", 10);
         int k = 16;
         ExtendedBlockStorage[] aextendedblockstorage = new ExtendedBlockStorage[k];
         boolean flag = !worldIn.provider.getHasNoSky();
+        NBTStreamReader nbtstreamreader = p_75823_2_.getTagReader("Sections");
 
-        for (int l = 0; l < nbttaglist.tagCount(); ++l)
+        if (nbtstreamreader != null)
         {
-            NBTTagCompound nbttagcompound = nbttaglist.getCompoundTagAt(l);
-            int i1 = nbttagcompound.getByte("Y");
-            ExtendedBlockStorage extendedblockstorage = new ExtendedBlockStorage(i1 << 4, flag);
-            byte[] abyte = nbttagcompound.getByteArray("Blocks");
-            NibbleArray nibblearray = new NibbleArray(nbttagcompound.getByteArray("Data"));
-            NibbleArray nibblearray1 = nbttagcompound.hasKey("Add", 7) ? new NibbleArray(nbttagcompound.getByteArray("Add")) : null;
-            char[] achar = new char[abyte.length];
-
-            for (int j1 = 0; j1 < achar.length; ++j1)
+            try
             {
-                int k1 = j1 & 15;
-                int l1 = j1 >> 8 & 15;
-                int i2 = j1 >> 4 & 15;
-                int j2 = nibblearray1 != null ? nibblearray1.get(k1, l1, i2) : 0;
-                achar[j1] = (char)(j2 << 12 | (abyte[j1] & 255) << 4 | nibblearray.get(k1, l1, i2));
+                this.readSections(nbtstreamreader, aextendedblockstorage, flag);
             }
-
-            extendedblockstorage.setData(achar);
-            extendedblockstorage.setBlocklightArray(new NibbleArray(nbttagcompound.getByteArray("BlockLight")));
-
-            if (flag)
+            catch (IOException ioexception)
             {
-                extendedblockstorage.setSkylightArray(new NibbleArray(nbttagcompound.getByteArray("SkyLight")));
+                CrashReport crashreport = CrashReport.makeCrashReport(ioexception, "Loading chunk sections");
+                CrashReportCategory crashreportcategory = crashreport.makeCategory("Chunk being loaded");
+                crashreportcategory.addCrashSection("Position", i + ", " + j);
+                throw new ReportedException(crashreport);
             }
+        }
+        else
+        {
+            NBTTagList nbttaglist = p_75823_2_.getTagList("Sections", 10);
 
-            extendedblockstorage.removeInvalidBlocks();
-            aextendedblockstorage[i1] = extendedblockstorage;
+            for (int l = 0; l < nbttaglist.tagCount(); ++l)
+            {
+                NBTTagCompound nbttagcompound = nbttaglist.getCompoundTagAt(l);
+                int i1 = nbttagcompound.getByte("Y");
+                ExtendedBlockStorage extendedblockstorage = new ExtendedBlockStorage(i1 << 4, flag);
+                byte[] abyte = nbttagcompound.getByteArray("Blocks");
+                NibbleArray nibblearray = new NibbleArray(nbttagcompound.getByteArray("Data"));
+                NibbleArray nibblearray1 = nbttagcompound.hasKey("Add", 7) ? new NibbleArray(nbttagcompound.getByteArray("Add")) : null;
+                char[] achar = new char[abyte.length];
+
+                for (int j1 = 0; j1 < achar.length; ++j1)
+                {
+                    int k1 = j1 & 15;
+                    int l1 = j1 >> 8 & 15;
+                    int i2 = j1 >> 4 & 15;
+                    int j2 = nibblearray1 != null ? nibblearray1.get(k1, l1, i2) : 0;
+                    achar[j1] = (char)(j2 << 12 | (abyte[j1] & 255) << 4 | nibblearray.get(k1, l1, i2));
+                }
+
+                extendedblockstorage.setData(achar);
+                extendedblockstorage.setBlocklightArray(new NibbleArray(nbttagcompound.getByteArray("BlockLight")));
+
+                if (flag)
+                {
+                    extendedblockstorage.setSkylightArray(new NibbleArray(nbttagcompound.getByteArray("SkyLight")));
+                }
+
+                extendedblockstorage.removeInvalidBlocks();
+                aextendedblockstorage[i1] = extendedblockstorage;
+            }
         }
 
         chunk.setStorageArrays(aextendedblockstorage);
@@ -406,6 +486,108 @@ public class AnvilChunkLoader implements IChunkLoader, IThreadedFileIO
             chunk.setBiomeArray(p_75823_2_.getByteArray("Biomes"));
         }
 
+        return chunk;
+    }
+
+    /**
+     * Decodes a Sections list straight from the chunk data into block storage. Blocks, Data and Add go through the
+     * calling thread's scratch buffers, only the light arrays that end up in the chunk are allocated.
+     */
+    private void readSections(NBTStreamReader reader, ExtendedBlockStorage[] storageArrays, boolean hasSky) throws IOException
+    {
+        AnvilChunkLoader.ChunkBuffers anvilchunkloader$chunkbuffers = (AnvilChunkLoader.ChunkBuffers)chunkBuffers.get();
+        byte[] abyte = anvilchunkloader$chunkbuffers.blocks;
+        byte[] abyte1 = anvilchunkloader$chunkbuffers.data;
+        byte[] abyte2 = anvilchunkloader$chunkbuffers.add;
+        int i = reader.enterList();
+
+        if (reader.getListType() != 10)
+        {
+            return;
+        }
+
+        for (int j = 0; j < i; ++j)
+        {
+            reader.enterCompound();
+            int k = 0;
+            int l = 0;
+            int i1 = 0;
+            int j1 = -1;
+            byte[] abyte3 = null;
+            byte[] abyte4 = null;
+            byte b0;
+
+            while ((b0 = reader.nextTag()) != 0)
+            {
+                String s = reader.getName();
+
+                if (b0 == 1 && s.equals("Y"))
+                {
+                    k = reader.readByte();
+                }
+                else if (b0 == 7 && s.equals("Blocks"))
+                {
+                    l = reader.readByteArray(abyte);
+                }
+                else if (b0 == 7 && s.equals("Data"))
+                {
+                    i1 = reader.readByteArray(abyte1);
+                }
+                else if (b0 == 7 && s.equals("Add"))
+                {
+                    j1 = reader.readByteArray(abyte2);
+                }
+                else if (b0 == 7 && s.equals("BlockLight"))
+                {
+                    abyte3 = reader.readByteArray();
+                }
+                else if (b0 == 7 && s.equals("SkyLight"))
+                {
+                    abyte4 = reader.readByteArray();
+                }
+                else
+                {
+                    reader.skipTag(b0);
+                }
+            }
+
+            if (l != abyte.length || i1 != abyte1.length || j1 != -1 && j1 != abyte2.length)
+            {
+                throw new IOException("Section " + k + " has invalid block data");
+            }
+
+            char[] achar = new char[l];
+
+            for (int k1 = 0; k1 < l; k1 += 2)
+            {
+                int l1 = abyte1[k1 >> 1];
+                int i2 = j1 != -1 ? abyte2[k1 >> 1] : 0;
+                achar[k1] = (char)((i2 & 15) << 12 | (abyte[k1] & 255) << 4 | l1 & 15);
+                achar[k1 + 1] = (char)((i2 >> 4 & 15) << 12 | (abyte[k1 + 1] & 255) << 4 | l1 >> 4 & 15);
+            }
+
+            ExtendedBlockStorage extendedblockstorage = new ExtendedBlockStorage(k << 4, hasSky);
+            extendedblockstorage.setData(achar);
+            extendedblockstorage.setBlocklightArray(new NibbleArray(abyte3 == null ? new byte[0] : abyte3));
+
+            if (hasSky)
+            {
+                extendedblockstorage.setSkylightArray(new NibbleArray(abyte4 == null ? new byte[0] : abyte4));
+            }
+
+            extendedblockstorage.removeInvalidBlocks();
+            storageArrays[k] = extendedblockstorage;
+        }
+
+        reader.exitList();
+    }
+
+    /**
+     * Adds the entities, tile entities and scheduled ticks stored in the chunk's Level tag. Must run on the server
+     * thread since it schedules block updates in the world.
+     */
+    public void loadEntities(World worldIn, NBTTagCompound p_75823_2_, Chunk chunk)
+    {
         NBTTagList nbttaglist1 = p_75823_2_.getTagList("Entities", 10);
 
         if (nbttaglist1 != null)
@@ -477,7 +659,17 @@ public class AnvilChunkLoader implements IChunkLoader, IThreadedFileIO
                 }
             }
         }
+    }
 
-        return chunk;
+    /**
+     * Per thread scratch space reused across chunk saves and loads.
+     */
+    static class ChunkBuffers
+    {
+        private final ByteArrayOutputStream output = new ByteArrayOutputStream(65536);
+        private final DataOutputStream dataOutput = new DataOutputStream(this.output);
+        private final byte[] blocks = new byte[4096];
+        private final byte[] data = new byte[2048];
+        private final byte[] add = new byte[2048];
     }
 }
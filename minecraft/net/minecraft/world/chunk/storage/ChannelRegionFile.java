@@ -0,0 +1,327 @@
+package net.minecraft.world.chunk.storage;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+import net.minecraft.server.MinecraftServer;
+
+/**
+ * Region file backend using positional FileChannel reads and writes instead of a single seek-and-read
+ * RandomAccessFile. Chunks are guarded by striped read/write locks so different chunks of the same region can be read
+ * and written in parallel; only sector allocation takes a region-wide lock.
+ */
+public class ChannelRegionFile extends RegionFile
+{
+    private static final int SECTOR_SIZE = 4096;
+    private static final int LOCK_STRIPES = 32;
+    private final FileChannel dataChannel;
+    private final AtomicIntegerArray offsets = new AtomicIntegerArray(1024);
+    private final AtomicIntegerArray chunkTimestamps = new AtomicIntegerArray(1024);
+    private final ReadWriteLock[] chunkLocks = new ReadWriteLock[LOCK_STRIPES];
+
+    /** Sectors in use, guarded by sectorLock */
+    private final BitSet sectorsUsed = new BitSet();
+    private final Object sectorLock = new Object();
+    private volatile int sectorCount;
+
+    public ChannelRegionFile(File fileNameIn) throws IOException
+    {
+        super(fileNameIn, false);
+
+        for (int i = 0; i < LOCK_STRIPES; ++i)
+        {
+            this.chunkLocks[i] = new ReentrantReadWriteLock();
+        }
+
+        this.dataChannel = FileChannel.open(fileNameIn.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        try
+        {
+            long i = this.dataChannel.size();
+
+            if (i < (long)(SECTOR_SIZE * 2))
+            {
+                this.writeFully(ByteBuffer.allocate(SECTOR_SIZE * 2 - (int)i), i);
+                i = (long)(SECTOR_SIZE * 2);
+            }
+
+            if ((i & 4095L) != 0L)
+            {
+                int j = SECTOR_SIZE - (int)(i & 4095L);
+                this.writeFully(ByteBuffer.allocate(j), i);
+                i += (long)j;
+            }
+
+            this.sectorCount = (int)(i / (long)SECTOR_SIZE);
+            this.sectorsUsed.set(0, 2);
+            ByteBuffer bytebuffer = ByteBuffer.allocate(SECTOR_SIZE * 2);
+            this.readFully(bytebuffer, 0L);
+            bytebuffer.flip();
+
+            for (int k = 0; k < 1024; ++k)
+            {
+                int l = bytebuffer.getInt();
+                this.offsets.set(k, l);
+
+                if (l != 0 && (l >> 8) + (l & 255) <= this.sectorCount)
+                {
+                    this.sectorsUsed.set(l >> 8, (l >> 8) + (l & 255));
+                }
+            }
+
+            for (int i1 = 0; i1 < 1024; ++i1)
+            {
+                this.chunkTimestamps.set(i1, bytebuffer.getInt());
+            }
+        }
+        catch (IOException ioexception)
+        {
+            this.dataChannel.close();
+            throw ioexception;
+        }
+    }
+
+    /**
+     * Returns an uncompressed chunk stream from the region file.
+     */
+    public DataInputStream getChunkDataInputStream(int x, int z)
+    {
+        if (this.outOfBounds(x, z))
+        {
+            return null;
+        }
+
+        int i = x + z * 32;
+        Lock lock = this.getChunkLock(i).readLock();
+        lock.lock();
+
+        try
+        {
+            int j = this.offsets.get(i);
+
+            if (j == 0)
+            {
+                return null;
+            }
+
+            int k = j >> 8;
+            int l = j & 255;
+
+            if (k + l > this.sectorCount)
+            {
+                return null;
+            }
+
+            long i1 = (long)k * (long)SECTOR_SIZE;
+            ByteBuffer bytebuffer = ByteBuffer.allocate(5);
+            this.readFully(bytebuffer, i1);
+            bytebuffer.flip();
+            int j1 = bytebuffer.getInt();
+            byte b0 = bytebuffer.get();
+
+            if (j1 > SECTOR_SIZE * l || j1 <= 0)
+            {
+                return null;
+            }
+
+            if (b0 != 1 && b0 != 2)
+            {
+                return null;
+            }
+
+            byte[] abyte = new byte[j1 - 1];
+            this.readFully(ByteBuffer.wrap(abyte), i1 + 5L);
+
+            if (b0 == 1)
+            {
+                return new DataInputStream(new BufferedInputStream(new GZIPInputStream(new ByteArrayInputStream(abyte))));
+            }
+            else
+            {
+                return new DataInputStream(new BufferedInputStream(new InflaterInputStream(new ByteArrayInputStream(abyte))));
+            }
+        }
+        catch (IOException var14)
+        {
+            return null;
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * args: x, z, data, length - write chunk data at (x, z) to disk
+     */
+    protected void write(int x, int z, byte[] data, int length)
+    {
+        int i = x + z * 32;
+        int j = (length + 5) / SECTOR_SIZE + 1;
+
+        if (j >= 256)
+        {
+            return;
+        }
+
+        Lock lock = this.getChunkLock(i).writeLock();
+        lock.lock();
+
+        try
+        {
+            int k = this.offsets.get(i);
+            int l = k >> 8;
+            int i1 = k & 255;
+
+            if (l != 0 && i1 == j)
+            {
+                this.writeSectors(l, data, length);
+            }
+            else
+            {
+                int j1;
+
+                synchronized (this.sectorLock)
+                {
+                    if (l != 0)
+                    {
+                        this.sectorsUsed.clear(l, l + i1);
+                    }
+
+                    j1 = this.allocateSectors(j);
+                }
+
+                this.writeSectors(j1, data, length);
+                this.setOffset(i, j1 << 8 | j);
+            }
+
+            this.setChunkTimestamp(i, (int)(MinecraftServer.getCurrentTimeMillis() / 1000L));
+        }
+        catch (IOException ioexception)
+        {
+            ioexception.printStackTrace();
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Finds a run of free sectors, growing the file when there is none. Must be called with sectorLock held.
+     */
+    private int allocateSectors(int count) throws IOException
+    {
+        int i = this.sectorsUsed.nextClearBit(2);
+
+        while (i + count <= this.sectorCount)
+        {
+            int j = this.sectorsUsed.nextSetBit(i);
+
+            if (j == -1 || j >= this.sectorCount || j - i >= count)
+            {
+                this.sectorsUsed.set(i, i + count);
+                return i;
+            }
+
+            i = this.sectorsUsed.nextClearBit(j);
+        }
+
+        int k = this.sectorCount;
+        this.writeFully(ByteBuffer.allocate(1), (long)(k + count) * (long)SECTOR_SIZE - 1L);
+        this.sectorsUsed.set(k, k + count);
+        this.sectorCount = k + count;
+        return k;
+    }
+
+    /**
+     * args: sectorNumber, data, length - write the chunk data to this RegionFile
+     */
+    private void writeSectors(int sectorNumber, byte[] data, int length) throws IOException
+    {
+        ByteBuffer bytebuffer = ByteBuffer.allocate(5);
+        bytebuffer.putInt(length + 1);
+        bytebuffer.put((byte)2);
+        bytebuffer.flip();
+        long i = (long)sectorNumber * (long)SECTOR_SIZE;
+        this.writeFully(bytebuffer, i);
+        this.writeFully(ByteBuffer.wrap(data, 0, length), i + 5L);
+    }
+
+    private void setOffset(int index, int offset) throws IOException
+    {
+        this.offsets.set(index, offset);
+        this.writeInt(offset, (long)(index * 4));
+    }
+
+    private void setChunkTimestamp(int index, int timestamp) throws IOException
+    {
+        this.chunkTimestamps.set(index, timestamp);
+        this.writeInt(timestamp, (long)(SECTOR_SIZE + index * 4));
+    }
+
+    private void writeInt(int value, long position) throws IOException
+    {
+        ByteBuffer bytebuffer = ByteBuffer.allocate(4);
+        bytebuffer.putInt(value);
+        bytebuffer.flip();
+        this.writeFully(bytebuffer, position);
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException
+    {
+        while (buffer.hasRemaining())
+        {
+            int i = this.dataChannel.read(buffer, position);
+
+            if (i < 0)
+            {
+                throw new EOFException();
+            }
+
+            position += (long)i;
+        }
+    }
+
+    private void writeFully(ByteBuffer buffer, long position) throws IOException
+    {
+        while (buffer.hasRemaining())
+        {
+            position += (long)this.dataChannel.write(buffer, position);
+        }
+    }
+
+    private ReadWriteLock getChunkLock(int index)
+    {
+        return this.chunkLocks[index & LOCK_STRIPES - 1];
+    }
+
+    /**
+     * args: x, z, - true if chunk has been saved / converted
+     */
+    public boolean isChunkSaved(int x, int z)
+    {
+        return !this.outOfBounds(x, z) && this.offsets.get(x + z * 32) != 0;
+    }
+
+    /**
+     * close this RegionFile and prevent further writes
+     */
+    public void close() throws IOException
+    {
+        this.dataChannel.close();
+    }
+}
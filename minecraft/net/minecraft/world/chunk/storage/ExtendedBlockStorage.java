@@ -1,5 +1,6 @@
 package net.minecraft.world.chunk.storage;
 
+import java.util.concurrent.atomic.AtomicInteger;
 import net.minecraft.block.Block;
 import net.minecraft.block.state.IBlockState;
 import net.minecraft.init.Blocks;
@@ -8,6 +9,8 @@ import net.optifine.reflect.Reflector;
 
 public class ExtendedBlockStorage
 {
+    private static final AtomicInteger nextStorageId = new AtomicInteger();
+
     /**
      * Contains the bottom-most Y block represented by this ExtendedBlockStorage. Typically a multiple of 16.
      */
@@ -25,6 +28,12 @@ public class ExtendedBlockStorage
     private int tickRefCount;
     private char[] data;
 
+    /** Unique to this storage, the upper half of getModificationStamp */
+    private final long stampBase = (long)nextStorageId.incrementAndGet() << 32;
+
+    /** Counts the changes to the block data, the lower half of getModificationStamp */
+    private int modificationCount;
+
     /** The NibbleArray containing a block of Block-light data. */
     private NibbleArray blocklightArray;
 
@@ -81,6 +90,24 @@ public class ExtendedBlockStorage
         }
 
         this.data[y << 8 | z << 4 | x] = (char)Block.BLOCK_STATE_IDS.get(state);
+        ++this.modificationCount;
+    }
+
+    /**
+     * A value that changes whenever a block of this storage does and is never shared with another storage, so
+     * anything derived from the blocks may be kept as long as the stamp stays the same. Never 0.
+     */
+    public long getModificationStamp()
+    {
+        return this.stampBase | (long)this.modificationCount & 4294967295L;
+    }
+
+    /**
+     * Changes the modification stamp after the block data was written through getData.
+     */
+    public void markModified()
+    {
+        ++this.modificationCount;
     }
 
     /**
@@ -197,6 +224,7 @@ public class ExtendedBlockStorage
     public void setData(char[] dataArray)
     {
         this.data = dataArray;
+        ++this.modificationCount;
     }
 
     /**
@@ -29,10 +29,24 @@ public class RegionFile
     private long lastModified;
 
     public RegionFile(File fileNameIn)
+    {
+        this(fileNameIn, true);
+    }
+
+    /**
+     * args: fileName, openDataFile - subclasses that manage their own file handle pass false and skip the
+     * RandomAccessFile setup
+     */
+    protected RegionFile(File fileNameIn, boolean openDataFile)
     {
         this.fileName = fileNameIn;
         this.sizeDelta = 0;
 
+        if (!openDataFile)
+        {
+            return;
+        }
+
         try
         {
             if (fileNameIn.exists())
@@ -293,7 +307,7 @@ public class RegionFile
     /**
      * args: x, z - check region bounds
      */
-    private boolean outOfBounds(int x, int z)
+    protected boolean outOfBounds(int x, int z)
     {
         return x < 0 || x >= 32 || z < 0 || z >= 32;
     }
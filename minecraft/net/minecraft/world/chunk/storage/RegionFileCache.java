@@ -4,54 +4,141 @@ import com.google.common.collect.Maps;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.File;
+import java.io.FilterOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import pisi.unitedmeows.minecraft.Settings;
 
 public class RegionFileCache
 {
-    private static final Map<File, RegionFile> regionsByFilename = Maps.<File, RegionFile>newHashMap();
+    /** Soft limit of open region files, least recently used regions are closed one at a time past this */
+    private static final int MAX_OPEN_REGIONS = 256;
+    private static final Map<File, RegionFileCache.Entry> regionsByFilename = Maps.<File, RegionFileCache.Entry>newConcurrentMap();
 
-    public static synchronized RegionFile createOrLoadRegionFile(File worldDir, int chunkX, int chunkZ)
+    /** The same entries as regionsByFilename, looked up by their region when it is released */
+    private static final Map<RegionFile, RegionFileCache.Entry> entriesByRegion = Maps.<RegionFile, RegionFileCache.Entry>newConcurrentMap();
+    private static final AtomicLong accessCounter = new AtomicLong();
+    private static final AtomicLong cacheHits = new AtomicLong();
+    private static final AtomicLong cacheMisses = new AtomicLong();
+    private static final AtomicLong cacheEvictions = new AtomicLong();
+
+    /**
+     * Returns the region holding the chunk, marked in use so it is not closed until handed back through
+     * releaseRegionFile.
+     */
+    public static RegionFile createOrLoadRegionFile(File worldDir, int chunkX, int chunkZ)
+    {
+        return acquireEntry(worldDir, chunkX, chunkZ).regionFile;
+    }
+
+    /**
+     * Hands back a region returned by createOrLoadRegionFile.
+     */
+    public static void releaseRegionFile(RegionFile regionFile)
+    {
+        RegionFileCache.Entry regionfilecache$entry = (RegionFileCache.Entry)entriesByRegion.get(regionFile);
+
+        if (regionfilecache$entry != null)
+        {
+            regionfilecache$entry.release();
+        }
+    }
+
+    private static RegionFileCache.Entry getEntry(File worldDir, int chunkX, int chunkZ)
     {
         File file1 = new File(worldDir, "region");
         File file2 = new File(file1, "r." + (chunkX >> 5) + "." + (chunkZ >> 5) + ".mca");
-        RegionFile regionfile = (RegionFile)regionsByFilename.get(file2);
+        RegionFileCache.Entry regionfilecache$entry = (RegionFileCache.Entry)regionsByFilename.get(file2);
+
+        if (regionfilecache$entry != null)
+        {
+            cacheHits.incrementAndGet();
+            regionfilecache$entry.lastAccess = accessCounter.incrementAndGet();
+            return regionfilecache$entry;
+        }
+        else
+        {
+            return loadRegionFile(file1, file2);
+        }
+    }
 
-        if (regionfile != null)
+    /**
+     * Slow path of createOrLoadRegionFile, only taken when the region is not open yet so lookups of already open
+     * regions never contend on the cache lock.
+     */
+    private static synchronized RegionFileCache.Entry loadRegionFile(File file1, File file2)
+    {
+        RegionFileCache.Entry regionfilecache$entry = (RegionFileCache.Entry)regionsByFilename.get(file2);
+
+        if (regionfilecache$entry != null)
         {
-            return regionfile;
+            cacheHits.incrementAndGet();
+            regionfilecache$entry.lastAccess = accessCounter.incrementAndGet();
+            return regionfilecache$entry;
         }
         else
         {
+            cacheMisses.incrementAndGet();
+
             if (!file1.exists())
             {
                 file1.mkdirs();
             }
 
-            if (regionsByFilename.size() >= 256)
+            while (regionsByFilename.size() >= MAX_OPEN_REGIONS && evictLeastRecentlyUsed())
             {
-                clearRegionFileReferences();
+                ;
             }
 
-            RegionFile regionfile1 = new RegionFile(file2);
-            regionsByFilename.put(file2, regionfile1);
-            return regionfile1;
+            RegionFileCache.Entry regionfilecache$entry1 = new RegionFileCache.Entry(file2, openRegionFile(file2));
+            regionfilecache$entry1.lastAccess = accessCounter.incrementAndGet();
+            entriesByRegion.put(regionfilecache$entry1.regionFile, regionfilecache$entry1);
+            regionsByFilename.put(file2, regionfilecache$entry1);
+            return regionfilecache$entry1;
         }
     }
 
     /**
-     * clears region file references
+     * Closes the least recently used region that is not currently being read or written. Returns false when every
+     * open region is in use, in which case the cache is allowed to grow past its limit until one is released.
      */
-    public static synchronized void clearRegionFileReferences()
+    private static boolean evictLeastRecentlyUsed()
     {
-        for (RegionFile regionfile : regionsByFilename.values())
+        RegionFileCache.Entry regionfilecache$entry = null;
+
+        for (RegionFileCache.Entry regionfilecache$entry1 : regionsByFilename.values())
+        {
+            if (regionfilecache$entry1.references.get() == 0 && (regionfilecache$entry == null || regionfilecache$entry1.lastAccess < regionfilecache$entry.lastAccess))
+            {
+                regionfilecache$entry = regionfilecache$entry1;
+            }
+        }
+
+        if (regionfilecache$entry == null)
+        {
+            return false;
+        }
+        else
+        {
+            if (regionfilecache$entry.tryClose())
+            {
+                cacheEvictions.incrementAndGet();
+            }
+
+            return true;
+        }
+    }
+
+    private static RegionFile openRegionFile(File file)
+    {
+        if (Settings.CONCURRENT_REGION_FILES)
         {
             try
             {
-                if (regionfile != null)
-                {
-                    regionfile.close();
-                }
+                return new ChannelRegionFile(file);
             }
             catch (IOException ioexception)
             {
@@ -59,7 +146,50 @@ public class RegionFileCache
             }
         }
 
-        regionsByFilename.clear();
+        return new RegionFile(file);
+    }
+
+    private static void closeRegionFile(RegionFile regionFile)
+    {
+        try
+        {
+            if (regionFile != null)
+            {
+                regionFile.close();
+            }
+        }
+        catch (IOException ioexception)
+        {
+            ioexception.printStackTrace();
+        }
+    }
+
+    /**
+     * clears region file references. Regions still in use stay open and cached, so nothing opens a second handle on
+     * the same file, until their last reference is released.
+     */
+    public static synchronized void clearRegionFileReferences()
+    {
+        for (RegionFileCache.Entry regionfilecache$entry : regionsByFilename.values())
+        {
+            regionfilecache$entry.closeWhenReleased();
+        }
+    }
+
+    /**
+     * Looks up the region for the given chunk and marks it in use so it cannot be evicted until released.
+     */
+    private static RegionFileCache.Entry acquireEntry(File worldDir, int chunkX, int chunkZ)
+    {
+        while (true)
+        {
+            RegionFileCache.Entry regionfilecache$entry = getEntry(worldDir, chunkX, chunkZ);
+
+            if (regionfilecache$entry.acquire())
+            {
+                return regionfilecache$entry;
+            }
+        }
     }
 
     /**
@@ -68,7 +198,15 @@ public class RegionFileCache
     public static DataInputStream getChunkInputStream(File worldDir, int chunkX, int chunkZ)
     {
         RegionFile regionfile = createOrLoadRegionFile(worldDir, chunkX, chunkZ);
-        return regionfile.getChunkDataInputStream(chunkX & 31, chunkZ & 31);
+
+        try
+        {
+            return regionfile.getChunkDataInputStream(chunkX & 31, chunkZ & 31);
+        }
+        finally
+        {
+            releaseRegionFile(regionfile);
+        }
     }
 
     /**
@@ -77,6 +215,126 @@ public class RegionFileCache
     public static DataOutputStream getChunkOutputStream(File worldDir, int chunkX, int chunkZ)
     {
         RegionFile regionfile = createOrLoadRegionFile(worldDir, chunkX, chunkZ);
-        return regionfile.getChunkDataOutputStream(chunkX & 31, chunkZ & 31);
+        DataOutputStream dataoutputstream = regionfile.getChunkDataOutputStream(chunkX & 31, chunkZ & 31);
+
+        if (dataoutputstream == null)
+        {
+            releaseRegionFile(regionfile);
+            return null;
+        }
+        else
+        {
+            return new DataOutputStream(new RegionFileCache.ReleasingOutputStream(dataoutputstream, regionfile));
+        }
+    }
+
+    public static String getDebugInfo()
+    {
+        return "Regions: " + regionsByFilename.size() + "/" + MAX_OPEN_REGIONS + ", H: " + cacheHits.get() + " M: " + cacheMisses.get() + " E: " + cacheEvictions.get();
+    }
+
+    static class Entry
+    {
+        private final File file;
+        private final RegionFile regionFile;
+
+        /** Number of streams using the region, -1 once it has been closed */
+        private final AtomicInteger references = new AtomicInteger();
+        private volatile long lastAccess;
+
+        /** Set once the cache was cleared while the region was in use, so the last release closes it */
+        private volatile boolean closePending;
+
+        public Entry(File fileIn, RegionFile regionFileIn)
+        {
+            this.file = fileIn;
+            this.regionFile = regionFileIn;
+        }
+
+        private boolean acquire()
+        {
+            while (true)
+            {
+                int i = this.references.get();
+
+                if (i < 0)
+                {
+                    return false;
+                }
+
+                if (this.references.compareAndSet(i, i + 1))
+                {
+                    return true;
+                }
+            }
+        }
+
+        private void release()
+        {
+            if (this.references.decrementAndGet() == 0 && this.closePending)
+            {
+                this.tryClose();
+            }
+        }
+
+        /**
+         * Closes the region and drops it from the cache if nothing uses it, returns false if something does.
+         */
+        private boolean tryClose()
+        {
+            if (this.references.compareAndSet(0, -1))
+            {
+                RegionFileCache.closeRegionFile(this.regionFile);
+                RegionFileCache.regionsByFilename.remove(this.file, this);
+                RegionFileCache.entriesByRegion.remove(this.regionFile);
+                return true;
+            }
+            else
+            {
+                return false;
+            }
+        }
+
+        private void closeWhenReleased()
+        {
+            this.closePending = true;
+            this.tryClose();
+        }
+    }
+
+    /**
+     * Keeps the region referenced until the chunk data has been written out by close().
+     */
+    static class ReleasingOutputStream extends FilterOutputStream
+    {
+        private final RegionFile regionFile;
+        private boolean released;
+
+        public ReleasingOutputStream(OutputStream out, RegionFile regionFileIn)
+        {
+            super(out);
+            this.regionFile = regionFileIn;
+        }
+
+        public void write(byte[] b, int off, int len) throws IOException
+        {
+            this.out.write(b, off, len);
+        }
+
+        public void close() throws IOException
+        {
+            try
+            {
+                super.close();
+            }
+            finally
+            {
+                if (!this.released)
+                {
+                    this.released = true;
+                    RegionFileCache.releaseRegionFile(this.regionFile);
+                }
+            }
+        }
     }
 }
@@ -288,10 +288,10 @@ public class ChunkProviderEnd implements IChunkProvider
      */
     public void populate(IChunkProvider chunkProvider, int x, int z)
     {
-        BlockFalling.fallInstantly = true;
+        BlockFalling.fallInstantly.set(Boolean.TRUE);
         BlockPos blockpos = new BlockPos(x * 16, 0, z * 16);
         this.endWorld.getBiomeGenForCoords(blockpos.add(16, 0, 16)).decorate(this.endWorld, this.endWorld.rand, blockpos);
-        BlockFalling.fallInstantly = false;
+        BlockFalling.fallInstantly.set(Boolean.FALSE);
     }
 
     public boolean populateChunk(IChunkProvider chunkProvider, Chunk chunkIn, int x, int z)
@@ -1,7 +1,12 @@
 package net.minecraft.world.gen;
 
+import com.google.common.collect.Lists;
+import com.google.common.collect.Queues;
 import java.util.List;
+import java.util.Queue;
 import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import net.minecraft.block.Block;
 import net.minecraft.block.BlockFalling;
 import net.minecraft.entity.EnumCreatureType;
@@ -75,8 +80,22 @@ public class ChunkProviderGenerate implements IChunkProvider
     double[] upperLimitNoiseArray;
     double[] depthNoiseArray;
 
+    /** Shared pool for the terrain stage of generateChunks */
+    private static final ForkJoinPool terrainPool = new ForkJoinPool(Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+
+    /**
+     * Copies of this generator, each with its own noise generators, RNG and carvers, that are not running a terrain
+     * stage of generateChunks right now. Only this generator holds them, so they go away with its world instead of
+     * staying reachable from the pool threads.
+     */
+    private final Queue<ChunkProviderGenerate> idleTerrainGenerators = Queues.<ChunkProviderGenerate>newConcurrentLinkedQueue();
+    private final long seed;
+    private final String structuresJson;
+
     public ChunkProviderGenerate(World worldIn, long seed, boolean generateStructures, String structuresJson)
     {
+        this.seed = seed;
+        this.structuresJson = structuresJson;
         this.worldObj = worldIn;
         this.mapFeaturesEnabled = generateStructures;
         this.field_177475_o = worldIn.getWorldInfo().getTerrainType();
@@ -114,6 +133,14 @@ public class ChunkProviderGenerate implements IChunkProvider
     public void setBlocksInChunk(int x, int z, ChunkPrimer primer)
     {
         this.biomesForGeneration = this.worldObj.getWorldChunkManager().getBiomesForGeneration(this.biomesForGeneration, x * 4 - 2, z * 4 - 2, 10, 10);
+        this.fillTerrain(x, z, primer);
+    }
+
+    /**
+     * setBlocksInChunk using the 10x10 noise biomes already in biomesForGeneration
+     */
+    private void fillTerrain(int x, int z, ChunkPrimer primer)
+    {
         this.func_147423_a(x * 4, 0, z * 4);
 
         for (int i = 0; i < 4; ++i)
@@ -204,23 +231,99 @@ public class ChunkProviderGenerate implements IChunkProvider
      * specified chunk from the map seed and chunk seed
      */
     public Chunk provideChunk(int x, int z)
+    {
+        BiomeGenBase[] abiomegenbase = this.worldObj.getWorldChunkManager().getBiomesForGeneration((BiomeGenBase[])null, x * 4 - 2, z * 4 - 2, 10, 10);
+        BiomeGenBase[] abiomegenbase1 = this.worldObj.getWorldChunkManager().loadBlockGeneratorData((BiomeGenBase[])null, x * 16, z * 16, 16, 16);
+        return this.finishChunk(x, z, this.generateTerrain(x, z, abiomegenbase, abiomegenbase1), abiomegenbase1);
+    }
+
+    /**
+     * Generates several chunks at once. Biomes, structure starts and the final Chunk objects are made on the calling
+     * thread in order, the noise, surface and carver stage of each chunk runs in parallel on a fork-join pool. The
+     * result is identical to calling provideChunk for each position.
+     */
+    public List<Chunk> generateChunks(List<ChunkCoordIntPair> coords)
+    {
+        List<ForkJoinTask<ChunkPrimer>> list = Lists.<ForkJoinTask<ChunkPrimer>>newArrayListWithCapacity(coords.size());
+        List<BiomeGenBase[]> list1 = Lists.<BiomeGenBase[]>newArrayListWithCapacity(coords.size());
+
+        for (ChunkCoordIntPair chunkcoordintpair : coords)
+        {
+            int i = chunkcoordintpair.chunkXPos;
+            int j = chunkcoordintpair.chunkZPos;
+            BiomeGenBase[] abiomegenbase = this.worldObj.getWorldChunkManager().getBiomesForGeneration((BiomeGenBase[])null, i * 4 - 2, j * 4 - 2, 10, 10);
+            BiomeGenBase[] abiomegenbase1 = this.worldObj.getWorldChunkManager().loadBlockGeneratorData((BiomeGenBase[])null, i * 16, j * 16, 16, 16);
+            list1.add(abiomegenbase1);
+            list.add(terrainPool.submit(() -> this.generateTerrainOnCopy(i, j, abiomegenbase, abiomegenbase1)));
+        }
+
+        List<Chunk> list2 = Lists.<Chunk>newArrayListWithCapacity(coords.size());
+
+        for (int k = 0; k < coords.size(); ++k)
+        {
+            ChunkCoordIntPair chunkcoordintpair1 = (ChunkCoordIntPair)coords.get(k);
+            list2.add(this.finishChunk(chunkcoordintpair1.chunkXPos, chunkcoordintpair1.chunkZPos, (ChunkPrimer)((ForkJoinTask)list.get(k)).join(), (BiomeGenBase[])list1.get(k)));
+        }
+
+        return list2;
+    }
+
+    /**
+     * Runs the terrain stage on an idle copy of this generator, making a new one if all are busy.
+     */
+    private ChunkPrimer generateTerrainOnCopy(int x, int z, BiomeGenBase[] noiseBiomes, BiomeGenBase[] chunkBiomes)
+    {
+        ChunkProviderGenerate chunkprovidergenerate = (ChunkProviderGenerate)this.idleTerrainGenerators.poll();
+
+        if (chunkprovidergenerate == null)
+        {
+            chunkprovidergenerate = new ChunkProviderGenerate(this.worldObj, this.seed, this.mapFeaturesEnabled, this.structuresJson);
+        }
+
+        try
+        {
+            return chunkprovidergenerate.generateTerrain(x, z, noiseBiomes, chunkBiomes);
+        }
+        finally
+        {
+            this.idleTerrainGenerators.add(chunkprovidergenerate);
+        }
+    }
+
+    /**
+     * Terrain stage of provideChunk: noise, biome surface blocks, caves and ravines. Only touches this generator's own
+     * state and the passed biomes, never the world.
+     */
+    private ChunkPrimer generateTerrain(int x, int z, BiomeGenBase[] noiseBiomes, BiomeGenBase[] chunkBiomes)
     {
         this.rand.setSeed((long)x * 341873128712L + (long)z * 132897987541L);
         ChunkPrimer chunkprimer = new ChunkPrimer();
-        this.setBlocksInChunk(x, z, chunkprimer);
-        this.biomesForGeneration = this.worldObj.getWorldChunkManager().loadBlockGeneratorData(this.biomesForGeneration, x * 16, z * 16, 16, 16);
-        this.replaceBlocksForBiome(x, z, chunkprimer, this.biomesForGeneration);
+        this.biomesForGeneration = noiseBiomes;
+        this.fillTerrain(x, z, chunkprimer);
+        this.replaceBlocksForBiome(x, z, chunkprimer, chunkBiomes);
 
         if (this.settings.useCaves)
         {
+            this.caveGenerator.setChunkBiomes(chunkBiomes);
             this.caveGenerator.generate(this, this.worldObj, x, z, chunkprimer);
+            this.caveGenerator.setChunkBiomes((BiomeGenBase[])null);
         }
 
         if (this.settings.useRavines)
         {
+            this.ravineGenerator.setChunkBiomes(chunkBiomes);
             this.ravineGenerator.generate(this, this.worldObj, x, z, chunkprimer);
+            this.ravineGenerator.setChunkBiomes((BiomeGenBase[])null);
         }
 
+        return chunkprimer;
+    }
+
+    /**
+     * Structure starts and chunk creation, must run on the thread owning this generator
+     */
+    private Chunk finishChunk(int x, int z, ChunkPrimer chunkprimer, BiomeGenBase[] chunkBiomes)
+    {
         if (this.settings.useMineShafts && this.mapFeaturesEnabled)
         {
             this.mineshaftGenerator.generate(this, this.worldObj, x, z, chunkprimer);
@@ -251,7 +354,7 @@ public class ChunkProviderGenerate implements IChunkProvider
 
         for (int i = 0; i < abyte.length; ++i)
         {
-            abyte[i] = (byte)this.biomesForGeneration[i].biomeID;
+            abyte[i] = (byte)chunkBiomes[i].biomeID;
         }
 
         chunk.generateSkylightMap();
@@ -390,7 +493,7 @@ public class ChunkProviderGenerate implements IChunkProvider
      */
     public void populate(IChunkProvider chunkProvider, int x, int z)
     {
-        BlockFalling.fallInstantly = true;
+        BlockFalling.fallInstantly.set(Boolean.TRUE);
         int i = x * 16;
         int j = z * 16;
         BlockPos blockpos = new BlockPos(i, 0, j);
@@ -481,7 +584,7 @@ public class ChunkProviderGenerate implements IChunkProvider
             }
         }
 
-        BlockFalling.fallInstantly = false;
+        BlockFalling.fallInstantly.set(Boolean.FALSE);
     }
 
     public boolean populateChunk(IChunkProvider chunkProvider, Chunk chunkIn, int x, int z)
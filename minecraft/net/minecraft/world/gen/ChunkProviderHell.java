@@ -386,7 +386,7 @@ public class ChunkProviderHell implements IChunkProvider
      */
     public void populate(IChunkProvider chunkProvider, int x, int z)
     {
-        BlockFalling.fallInstantly = true;
+        BlockFalling.fallInstantly.set(Boolean.TRUE);
         BlockPos blockpos = new BlockPos(x * 16, 0, z * 16);
         ChunkCoordIntPair chunkcoordintpair = new ChunkCoordIntPair(x, z);
         this.genNetherBridge.generateStructure(this.worldObj, this.hellRNG, chunkcoordintpair);
@@ -431,7 +431,7 @@ public class ChunkProviderHell implements IChunkProvider
             this.field_177473_x.generate(this.worldObj, this.hellRNG, blockpos.add(this.hellRNG.nextInt(16), this.hellRNG.nextInt(108) + 10, this.hellRNG.nextInt(16)));
         }
 
-        BlockFalling.fallInstantly = false;
+        BlockFalling.fallInstantly.set(Boolean.FALSE);
     }
 
     public boolean populateChunk(IChunkProvider chunkProvider, Chunk chunkIn, int x, int z)
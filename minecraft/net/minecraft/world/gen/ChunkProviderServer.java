@@ -1,14 +1,21 @@
 package net.minecraft.world.gen;
 
 import com.google.common.collect.Lists;
+import com.google.common.collect.Queues;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.io.IOException;
 import java.util.Collections;
 import java.util.List;
+import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import net.minecraft.crash.CrashReport;
 import net.minecraft.crash.CrashReportCategory;
 import net.minecraft.entity.EnumCreatureType;
+import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.util.BlockPos;
 import net.minecraft.util.IProgressUpdate;
 import net.minecraft.util.LongHashMap;
@@ -21,13 +28,16 @@ import net.minecraft.world.biome.BiomeGenBase;
 import net.minecraft.world.chunk.Chunk;
 import net.minecraft.world.chunk.EmptyChunk;
 import net.minecraft.world.chunk.IChunkProvider;
+import net.minecraft.world.chunk.storage.AnvilChunkLoader;
 import net.minecraft.world.chunk.storage.IChunkLoader;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import pisi.unitedmeows.minecraft.Settings;
 
 public class ChunkProviderServer implements IChunkProvider
 {
     private static final Logger logger = LogManager.getLogger();
+    private static final ExecutorService chunkLoadExecutor = Executors.newFixedThreadPool(Math.max(1, Settings.CHUNK_LOAD_THREADS), (new ThreadFactoryBuilder()).setNameFormat("Chunk I/O Executor #%d").setDaemon(true).build());
     private Set<Long> droppedChunksSet = Collections.<Long>newSetFromMap(new ConcurrentHashMap());
 
     /** a dummy chunk, returned in place of an actual chunk. */
@@ -48,6 +58,10 @@ public class ChunkProviderServer implements IChunkProvider
     private List<Chunk> loadedChunks = Lists.<Chunk>newArrayList();
     private WorldServer worldObj;
 
+    /** Chunks currently being read by the chunk I/O executor, only touched on the server thread */
+    private LongHashMap<ChunkProviderServer.AsyncChunkLoad> pendingChunkLoads = new LongHashMap();
+    private Queue<ChunkProviderServer.AsyncChunkLoad> completedChunkLoads = Queues.<ChunkProviderServer.AsyncChunkLoad>newConcurrentLinkedQueue();
+
     public ChunkProviderServer(WorldServer p_i1520_1_, IChunkLoader p_i1520_2_, IChunkProvider p_i1520_3_)
     {
         this.dummyChunk = new EmptyChunk(p_i1520_1_, 0, 0);
@@ -109,41 +123,192 @@ public class ChunkProviderServer implements IChunkProvider
 
         if (chunk == null)
         {
+            ChunkProviderServer.AsyncChunkLoad chunkproviderserver$asyncchunkload = (ChunkProviderServer.AsyncChunkLoad)this.pendingChunkLoads.getValueByKey(i);
+
+            if (chunkproviderserver$asyncchunkload != null)
+            {
+                chunkproviderserver$asyncchunkload.waitForRead();
+                return this.finishChunkLoad(chunkproviderserver$asyncchunkload);
+            }
+
             chunk = this.loadChunkFromFile(chunkX, chunkZ);
 
             if (chunk == null)
             {
-                if (this.serverChunkGenerator == null)
+                chunk = this.generateChunk(chunkX, chunkZ);
+            }
+
+            this.addLoadedChunk(chunk, chunkX, chunkZ);
+        }
+
+        return chunk;
+    }
+
+    /**
+     * Loads the chunk like loadChunk, but reads and decodes it on the chunk I/O executor. The callback runs on the
+     * server thread once the chunk is in the world, right away if it is already loaded. Chunks that are not on disk
+     * are generated on the server thread when the read completes.
+     */
+    public void loadChunk(int chunkX, int chunkZ, Runnable callback)
+    {
+        long i = ChunkCoordIntPair.chunkXZ2Int(chunkX, chunkZ);
+
+        if (this.id2ChunkMap.containsItem(i))
+        {
+            this.droppedChunksSet.remove(Long.valueOf(i));
+            callback.run();
+        }
+        else if (Settings.ASYNC_CHUNK_LOADING && this.chunkLoader instanceof AnvilChunkLoader)
+        {
+            this.droppedChunksSet.remove(Long.valueOf(i));
+            ChunkProviderServer.AsyncChunkLoad chunkproviderserver$asyncchunkload = (ChunkProviderServer.AsyncChunkLoad)this.pendingChunkLoads.getValueByKey(i);
+
+            if (chunkproviderserver$asyncchunkload == null)
+            {
+                chunkproviderserver$asyncchunkload = new ChunkProviderServer.AsyncChunkLoad(chunkX, chunkZ);
+                this.pendingChunkLoads.add(i, chunkproviderserver$asyncchunkload);
+                chunkproviderserver$asyncchunkload.readFuture = chunkLoadExecutor.submit(chunkproviderserver$asyncchunkload);
+            }
+
+            chunkproviderserver$asyncchunkload.callbacks.add(callback);
+        }
+        else
+        {
+            this.loadChunk(chunkX, chunkZ);
+            callback.run();
+        }
+    }
+
+    /**
+     * Adds chunks read by the chunk I/O executor to the world and runs their callbacks. Called every tick.
+     */
+    public void processChunkLoads()
+    {
+        List<ChunkProviderServer.AsyncChunkLoad> list = Lists.<ChunkProviderServer.AsyncChunkLoad>newArrayList();
+        ChunkProviderServer.AsyncChunkLoad chunkproviderserver$asyncchunkload;
+
+        while ((chunkproviderserver$asyncchunkload = (ChunkProviderServer.AsyncChunkLoad)this.completedChunkLoads.poll()) != null)
+        {
+            list.add(chunkproviderserver$asyncchunkload);
+        }
+
+        this.generateChunks(list);
+
+        for (ChunkProviderServer.AsyncChunkLoad chunkproviderserver$asyncchunkload1 : list)
+        {
+            if (!chunkproviderserver$asyncchunkload1.finished)
+            {
+                this.finishChunkLoad(chunkproviderserver$asyncchunkload1);
+            }
+        }
+    }
+
+    /**
+     * Generates the chunks of completed loads that were not on disk in one batch, so the generator can run their
+     * terrain stage in parallel. Population still happens one chunk at a time in finishChunkLoad.
+     */
+    private void generateChunks(List<ChunkProviderServer.AsyncChunkLoad> loads)
+    {
+        if (Settings.PARALLEL_CHUNK_GENERATION && this.serverChunkGenerator instanceof ChunkProviderGenerate)
+        {
+            List<ChunkProviderServer.AsyncChunkLoad> list = Lists.<ChunkProviderServer.AsyncChunkLoad>newArrayList();
+            List<ChunkCoordIntPair> list1 = Lists.<ChunkCoordIntPair>newArrayList();
+
+            for (ChunkProviderServer.AsyncChunkLoad chunkproviderserver$asyncchunkload : loads)
+            {
+                if (!chunkproviderserver$asyncchunkload.finished && chunkproviderserver$asyncchunkload.chunk == null)
                 {
-                    chunk = this.dummyChunk;
+                    list.add(chunkproviderserver$asyncchunkload);
+                    list1.add(new ChunkCoordIntPair(chunkproviderserver$asyncchunkload.chunkX, chunkproviderserver$asyncchunkload.chunkZ));
                 }
-                else
+            }
+
+            if (list.size() > 1)
+            {
+                try
                 {
-                    try
-                    {
-                        chunk = this.serverChunkGenerator.provideChunk(chunkX, chunkZ);
-                    }
-                    catch (Throwable throwable)
+                    List<Chunk> list2 = ((ChunkProviderGenerate)this.serverChunkGenerator).generateChunks(list1);
+
+                    for (int i = 0; i < list.size(); ++i)
                     {
-                        CrashReport crashreport = CrashReport.makeCrashReport(throwable, "Exception generating new chunk");
-                        CrashReportCategory crashreportcategory = crashreport.makeCategory("Chunk to be generated");
-                        crashreportcategory.addCrashSection("Location", String.format("%d,%d", new Object[] {Integer.valueOf(chunkX), Integer.valueOf(chunkZ)}));
-                        crashreportcategory.addCrashSection("Position hash", Long.valueOf(i));
-                        crashreportcategory.addCrashSection("Generator", this.serverChunkGenerator.makeString());
-                        throw new ReportedException(crashreport);
+                        ((ChunkProviderServer.AsyncChunkLoad)list.get(i)).generatedChunk = (Chunk)list2.get(i);
                     }
                 }
+                catch (Throwable throwable)
+                {
+                    logger.warn((String)"Couldn\'t generate chunks in parallel, generating them one by one", throwable);
+                }
             }
+        }
+    }
 
-            this.id2ChunkMap.add(i, chunk);
-            this.loadedChunks.add(chunk);
-            chunk.onChunkLoad();
-            chunk.populateChunk(this, this, chunkX, chunkZ);
+    private Chunk finishChunkLoad(ChunkProviderServer.AsyncChunkLoad asyncLoad)
+    {
+        asyncLoad.finished = true;
+        this.pendingChunkLoads.remove(ChunkCoordIntPair.chunkXZ2Int(asyncLoad.chunkX, asyncLoad.chunkZ));
+        Chunk chunk = asyncLoad.chunk;
+
+        if (chunk != null)
+        {
+            ((AnvilChunkLoader)this.chunkLoader).loadEntities(this.worldObj, asyncLoad.levelData, chunk);
+            chunk.setLastSaveTime(this.worldObj.getTotalWorldTime());
+
+            if (this.serverChunkGenerator != null)
+            {
+                this.serverChunkGenerator.recreateStructures(chunk, asyncLoad.chunkX, asyncLoad.chunkZ);
+            }
+        }
+        else if (asyncLoad.generatedChunk != null)
+        {
+            chunk = asyncLoad.generatedChunk;
+        }
+        else
+        {
+            chunk = this.generateChunk(asyncLoad.chunkX, asyncLoad.chunkZ);
+        }
+
+        this.addLoadedChunk(chunk, asyncLoad.chunkX, asyncLoad.chunkZ);
+
+        for (Runnable runnable : asyncLoad.callbacks)
+        {
+            runnable.run();
         }
 
         return chunk;
     }
 
+    private Chunk generateChunk(int chunkX, int chunkZ)
+    {
+        if (this.serverChunkGenerator == null)
+        {
+            return this.dummyChunk;
+        }
+        else
+        {
+            try
+            {
+                return this.serverChunkGenerator.provideChunk(chunkX, chunkZ);
+            }
+            catch (Throwable throwable)
+            {
+                CrashReport crashreport = CrashReport.makeCrashReport(throwable, "Exception generating new chunk");
+                CrashReportCategory crashreportcategory = crashreport.makeCategory("Chunk to be generated");
+                crashreportcategory.addCrashSection("Location", String.format("%d,%d", new Object[] {Integer.valueOf(chunkX), Integer.valueOf(chunkZ)}));
+                crashreportcategory.addCrashSection("Position hash", Long.valueOf(ChunkCoordIntPair.chunkXZ2Int(chunkX, chunkZ)));
+                crashreportcategory.addCrashSection("Generator", this.serverChunkGenerator.makeString());
+                throw new ReportedException(crashreport);
+            }
+        }
+    }
+
+    private void addLoadedChunk(Chunk chunk, int chunkX, int chunkZ)
+    {
+        this.id2ChunkMap.add(ChunkCoordIntPair.chunkXZ2Int(chunkX, chunkZ), chunk);
+        this.loadedChunks.add(chunk);
+        chunk.onChunkLoad();
+        chunk.populateChunk(this, this, chunkX, chunkZ);
+    }
+
     /**
      * Will return back a chunk, if it doesn't exist and its not a MP client it will generates all the blocks for the
      * specified chunk from the map seed and chunk seed
@@ -375,4 +540,61 @@ public class ChunkProviderServer implements IChunkProvider
     {
         return this.provideChunk(blockPosIn.getX() >> 4, blockPosIn.getZ() >> 4);
     }
+
+    class AsyncChunkLoad implements Runnable
+    {
+        private final int chunkX;
+        private final int chunkZ;
+        private final List<Runnable> callbacks = Lists.<Runnable>newArrayList();
+        private Future<?> readFuture;
+        private volatile Chunk chunk;
+        private volatile NBTTagCompound levelData;
+        private Chunk generatedChunk;
+        private boolean finished;
+
+        public AsyncChunkLoad(int x, int z)
+        {
+            this.chunkX = x;
+            this.chunkZ = z;
+        }
+
+        public void run()
+        {
+            AnvilChunkLoader anvilchunkloader = (AnvilChunkLoader)ChunkProviderServer.this.chunkLoader;
+
+            try
+            {
+                NBTTagCompound nbttagcompound = anvilchunkloader.readChunkData(this.chunkX, this.chunkZ);
+
+                if (nbttagcompound != null)
+                {
+                    this.levelData = nbttagcompound.getCompoundTag("Level");
+                    this.chunk = anvilchunkloader.checkedReadChunkFromNBT(ChunkProviderServer.this.worldObj, this.chunkX, this.chunkZ, nbttagcompound);
+                }
+            }
+            catch (Exception exception)
+            {
+                ChunkProviderServer.logger.error((String)"Couldn\'t load chunk", (Throwable)exception);
+            }
+            finally
+            {
+                ChunkProviderServer.this.completedChunkLoads.add(this);
+            }
+        }
+
+        /**
+         * Blocks the server thread until the read finished, used when a chunk is needed right away
+         */
+        private void waitForRead()
+        {
+            try
+            {
+                this.readFuture.get();
+            }
+            catch (Exception exception)
+            {
+                ChunkProviderServer.logger.error((String)"Couldn\'t load chunk", (Throwable)exception);
+            }
+        }
+    }
 }
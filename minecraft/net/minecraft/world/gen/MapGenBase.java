@@ -1,7 +1,9 @@
 package net.minecraft.world.gen;
 
 import java.util.Random;
+import net.minecraft.util.BlockPos;
 import net.minecraft.world.World;
+import net.minecraft.world.biome.BiomeGenBase;
 import net.minecraft.world.chunk.ChunkPrimer;
 import net.minecraft.world.chunk.IChunkProvider;
 
@@ -16,6 +18,9 @@ public class MapGenBase
     /** This world object. */
     protected World worldObj;
 
+    /** Biomes of the chunk being generated, looked up instead of the world when set */
+    protected BiomeGenBase[] chunkBiomes;
+
     public void generate(IChunkProvider chunkProviderIn, World worldIn, int x, int z, ChunkPrimer chunkPrimerIn)
     {
         int i = this.range;
@@ -36,6 +41,23 @@ public class MapGenBase
         }
     }
 
+    /**
+     * Sets the 16x16 biomes of the chunk passed to the next generate() call, so carvers do not have to query the
+     * world's biome cache while running off the server thread.
+     */
+    public void setChunkBiomes(BiomeGenBase[] biomes)
+    {
+        this.chunkBiomes = biomes;
+    }
+
+    /**
+     * Returns the biome at a position inside the chunk being generated
+     */
+    protected BiomeGenBase getBiomeGenForCoords(BlockPos pos)
+    {
+        return this.chunkBiomes != null ? this.chunkBiomes[(pos.getX() & 15) + (pos.getZ() & 15) * 16] : this.worldObj.getBiomeGenForCoords(pos);
+    }
+
     /**
      * Recursively called by generate()
      */
@@ -1,23 +1,26 @@
 package net.minecraft.world.pathfinder;
 
 import net.minecraft.entity.Entity;
-import net.minecraft.pathfinding.PathPoint;
-import net.minecraft.util.IntHashMap;
+import net.minecraft.pathfinding.PathNodePool;
+import net.minecraft.util.BlockPos;
 import net.minecraft.util.MathHelper;
 import net.minecraft.world.IBlockAccess;
 
 public abstract class NodeProcessor
 {
     protected IBlockAccess blockaccess;
-    protected IntHashMap<PathPoint> pointMap = new IntHashMap();
+    protected PathNodePool nodes;
     protected int entitySizeX;
     protected int entitySizeY;
     protected int entitySizeZ;
 
+    /**
+     * Takes what the search needs to know about the entity. The search itself does not look at the entity again, so
+     * it may run on another thread if the block access is not the live world.
+     */
     public void initProcessor(IBlockAccess iblockaccessIn, Entity entityIn)
     {
         this.blockaccess = iblockaccessIn;
-        this.pointMap.clearMap();
         this.entitySizeX = MathHelper.floor_float(entityIn.width + 1.0F);
         this.entitySizeY = MathHelper.floor_float(entityIn.height + 1.0F);
         this.entitySizeZ = MathHelper.floor_float(entityIn.width + 1.0F);
@@ -30,34 +33,37 @@ public abstract class NodeProcessor
      */
     public void postProcess()
     {
+        this.nodes = null;
     }
 
     /**
-     * Returns a mapped point or creates and adds one
+     * Hands over the nodes of the search about to run
      */
-    protected PathPoint openPoint(int x, int y, int z)
+    public void setNodes(PathNodePool nodesIn)
     {
-        int i = PathPoint.makeHash(x, y, z);
-        PathPoint pathpoint = (PathPoint)this.pointMap.lookup(i);
-
-        if (pathpoint == null)
-        {
-            pathpoint = new PathPoint(x, y, z);
-            this.pointMap.addKey(i, pathpoint);
-        }
+        this.nodes = nodesIn;
+    }
 
-        return pathpoint;
+    /**
+     * Returns the node at the given position, adding it if the search has not seen it yet
+     */
+    protected int openPoint(int x, int y, int z)
+    {
+        return this.nodes.openNode(x, y, z);
     }
 
     /**
-     * Returns given entity's position as PathPoint
+     * Returns the position of the node the entity starts from
      */
-    public abstract PathPoint getPathPointTo(Entity entityIn);
+    public abstract BlockPos getPathPointTo(Entity entityIn);
 
     /**
-     * Returns PathPoint for given coordinates
+     * Returns the position of the node for given coordinates
      */
-    public abstract PathPoint getPathPointToCoords(Entity entityIn, double x, double y, double target);
+    public abstract BlockPos getPathPointToCoords(Entity entityIn, double x, double y, double target);
 
-    public abstract int findPathOptions(PathPoint[] pathOptions, Entity entityIn, PathPoint currentPoint, PathPoint targetPoint, float maxDistance);
+    /**
+     * Puts the nodes reachable from currentPoint into pathOptions and returns how many there are
+     */
+    public abstract int findPathOptions(int[] pathOptions, Entity entityIn, int currentPoint, int targetPoint, float maxDistance);
 }
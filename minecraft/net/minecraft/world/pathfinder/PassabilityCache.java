@@ -0,0 +1,263 @@
+package net.minecraft.world.pathfinder;
+
+import java.util.Arrays;
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockDoor;
+import net.minecraft.block.BlockFence;
+import net.minecraft.block.BlockFenceGate;
+import net.minecraft.block.BlockRailBase;
+import net.minecraft.block.BlockWall;
+import net.minecraft.block.material.Material;
+import net.minecraft.init.Blocks;
+import net.minecraft.util.BlockPos;
+import net.minecraft.world.ChunkCache;
+import net.minecraft.world.ChunkCacheSnapshot;
+import net.minecraft.world.IBlockAccess;
+import net.minecraft.world.chunk.storage.ExtendedBlockStorage;
+
+/**
+ * How blocks look to WalkNodeProcessor, one kind per position, shared by every walking mob whose path is searched on
+ * the same thread. A kind only holds what depends on the block itself; the door, water and lava rules that depend on
+ * the mob are applied on top of it by each search. Each kind is kept with the modification stamp of the section it
+ * was read from and read again once that stamp changed, so a block change only costs the kinds of its own section.
+ * Stamps are never shared between sections, not even of different worlds, so one cache serves all of them.
+ */
+class PassabilityCache
+{
+    static final byte AIR = 1;
+    static final byte PASSABLE = 2;
+    static final byte WATER = 3;
+    static final byte OPEN_TRAPDOOR = 4;
+    static final byte CLOSED_TRAPDOOR = 5;
+    static final byte OPEN_WOODEN_DOOR = 6;
+    static final byte CLOSED_WOODEN_DOOR = 7;
+    static final byte RAIL = 8;
+    static final byte FENCE = 9;
+    static final byte LAVA = 10;
+    static final byte SOLID = 11;
+    static final byte OPEN_IRON_DOOR = 12;
+    static final byte CLOSED_IRON_DOOR = 13;
+
+    /** The table is emptied instead of grown past this many positions */
+    private static final int MAX_SIZE = 262144;
+    private static final ThreadLocal<PassabilityCache> CACHES = ThreadLocal.<PassabilityCache>withInitial(PassabilityCache::new);
+    private final BlockPos.MutableBlockPos mutablePos = new BlockPos.MutableBlockPos();
+    private long[] keys;
+
+    /** Modification stamp of the section each kind was read from */
+    private long[] stamps;
+    private byte[] kinds;
+
+    /** Slots only hold a kind while their generation is the current one, so emptying the table writes nothing */
+    private int[] generations;
+    private int generation = 1;
+    private int size;
+
+    private PassabilityCache()
+    {
+        this.allocate(4096);
+    }
+
+    /**
+     * Returns the cache of the calling thread.
+     */
+    static PassabilityCache get()
+    {
+        return (PassabilityCache)CACHES.get();
+    }
+
+    private void allocate(int capacity)
+    {
+        this.keys = new long[capacity];
+        this.stamps = new long[capacity];
+        this.kinds = new byte[capacity];
+        this.generations = new int[capacity];
+        this.size = 0;
+    }
+
+    private void clear()
+    {
+        if (++this.generation == 0)
+        {
+            Arrays.fill(this.generations, 0);
+            this.generation = 1;
+        }
+
+        this.size = 0;
+    }
+
+    /**
+     * Returns the kind of the block at the given position as read through the chunk cache of a search. Positions
+     * outside the chunks of that cache or in sections without blocks read as air there and are not stored.
+     */
+    byte getKind(ChunkCache chunkCache, int x, int y, int z)
+    {
+        ExtendedBlockStorage extendedblockstorage = chunkCache.getBlockStorage(x, y, z);
+        return extendedblockstorage == null ? AIR : this.getKind(chunkCache, x, y, z, extendedblockstorage.getModificationStamp());
+    }
+
+    /**
+     * Returns the kind of the block at the given position as read through the snapshot of an off-thread search. The
+     * snapshot hands out the stamps its sections had when they were copied, so its kinds are shared with searches
+     * through chunk caches on the same thread and through other snapshots.
+     */
+    byte getKind(ChunkCacheSnapshot snapshot, int x, int y, int z)
+    {
+        long i = snapshot.getSectionStamp(x, y, z);
+        return i == 0L ? AIR : this.getKind(snapshot, x, y, z, i);
+    }
+
+    private byte getKind(IBlockAccess blockAccess, int x, int y, int z, long stamp)
+    {
+        long i = BlockPos.toLong(x, y, z);
+        int j = this.keys.length - 1;
+        int k = hash(i) & j;
+
+        while (this.generations[k] == this.generation)
+        {
+            if (this.keys[k] == i)
+            {
+                if (this.stamps[k] != stamp)
+                {
+                    byte b1 = classify(blockAccess, this.mutablePos.set(x, y, z));
+                    this.stamps[k] = isDoor(b1) ? 0L : stamp;
+                    this.kinds[k] = b1;
+                }
+
+                return this.kinds[k];
+            }
+
+            k = k + 1 & j;
+        }
+
+        byte b0 = classify(blockAccess, this.mutablePos.set(x, y, z));
+
+        if (isDoor(b0))
+        {
+            return b0;
+        }
+        else
+        {
+            if ((this.size + 1) * 2 > this.keys.length)
+            {
+                if (this.keys.length >= MAX_SIZE)
+                {
+                    this.clear();
+                }
+                else
+                {
+                    this.grow();
+                }
+
+                j = this.keys.length - 1;
+                k = hash(i) & j;
+
+                while (this.generations[k] == this.generation)
+                {
+                    k = k + 1 & j;
+                }
+            }
+
+            this.keys[k] = i;
+            this.stamps[k] = stamp;
+            this.kinds[k] = b0;
+            this.generations[k] = this.generation;
+            ++this.size;
+            return b0;
+        }
+    }
+
+    private static int hash(long key)
+    {
+        return (int)(key * -7046029254386353131L >>> 32);
+    }
+
+    private void grow()
+    {
+        long[] along = this.keys;
+        long[] along1 = this.stamps;
+        byte[] abyte = this.kinds;
+        int[] aint = this.generations;
+        int i = this.generation;
+        this.allocate(along.length * 2);
+        this.generation = 1;
+        int j = this.keys.length - 1;
+
+        for (int k = 0; k < along.length; ++k)
+        {
+            if (aint[k] == i)
+            {
+                int l = hash(along[k]) & j;
+
+                while (this.generations[l] == this.generation)
+                {
+                    l = l + 1 & j;
+                }
+
+                this.keys[l] = along[k];
+                this.stamps[l] = along1[k];
+                this.kinds[l] = abyte[k];
+                this.generations[l] = this.generation;
+                ++this.size;
+            }
+        }
+    }
+
+    /**
+     * Doors are never stored, since the upper half reads the lower one, which may lie in the section below.
+     */
+    private static boolean isDoor(byte kind)
+    {
+        return kind == OPEN_WOODEN_DOOR || kind == CLOSED_WOODEN_DOOR || kind == OPEN_IRON_DOOR || kind == CLOSED_IRON_DOOR;
+    }
+
+    /**
+     * Sorts the block into the cases WalkNodeProcessor.func_176170_a tells apart, in the order it tests them. Iron
+     * doors get kinds of their own only so that they are not stored, they are walked through like any passable or
+     * solid block.
+     */
+    static byte classify(IBlockAccess blockAccess, BlockPos pos)
+    {
+        Block block = blockAccess.getBlockState(pos).getBlock();
+        Material material = block.getMaterial();
+
+        if (material == Material.air)
+        {
+            return AIR;
+        }
+        else if (block != Blocks.trapdoor && block != Blocks.iron_trapdoor)
+        {
+            if (block != Blocks.flowing_water && block != Blocks.water)
+            {
+                if (block instanceof BlockDoor)
+                {
+                    return material == Material.wood ? (block.isPassable(blockAccess, pos) ? OPEN_WOODEN_DOOR : CLOSED_WOODEN_DOOR) : (block.isPassable(blockAccess, pos) ? OPEN_IRON_DOOR : CLOSED_IRON_DOOR);
+                }
+                else if (block instanceof BlockRailBase)
+                {
+                    return RAIL;
+                }
+                else if (block.isPassable(blockAccess, pos))
+                {
+                    return PASSABLE;
+                }
+                else if (!(block instanceof BlockFence) && !(block instanceof BlockFenceGate) && !(block instanceof BlockWall))
+                {
+                    return material == Material.lava ? LAVA : SOLID;
+                }
+                else
+                {
+                    return FENCE;
+                }
+            }
+            else
+            {
+                return WATER;
+            }
+        }
+        else
+        {
+            return block.isPassable(blockAccess, pos) ? OPEN_TRAPDOOR : CLOSED_TRAPDOOR;
+        }
+    }
+}
@@ -3,7 +3,6 @@ package net.minecraft.world.pathfinder;
 import net.minecraft.block.Block;
 import net.minecraft.block.material.Material;
 import net.minecraft.entity.Entity;
-import net.minecraft.pathfinding.PathPoint;
 import net.minecraft.util.BlockPos;
 import net.minecraft.util.EnumFacing;
 import net.minecraft.util.MathHelper;
@@ -27,32 +26,32 @@ public class SwimNodeProcessor extends NodeProcessor
     }
 
     /**
-     * Returns given entity's position as PathPoint
+     * Returns the position of the node the entity starts from
      */
-    public PathPoint getPathPointTo(Entity entityIn)
+    public BlockPos getPathPointTo(Entity entityIn)
     {
-        return this.openPoint(MathHelper.floor_double(entityIn.getEntityBoundingBox().minX), MathHelper.floor_double(entityIn.getEntityBoundingBox().minY + 0.5D), MathHelper.floor_double(entityIn.getEntityBoundingBox().minZ));
+        return new BlockPos(MathHelper.floor_double(entityIn.getEntityBoundingBox().minX), MathHelper.floor_double(entityIn.getEntityBoundingBox().minY + 0.5D), MathHelper.floor_double(entityIn.getEntityBoundingBox().minZ));
     }
 
     /**
-     * Returns PathPoint for given coordinates
+     * Returns the position of the node for given coordinates
      */
-    public PathPoint getPathPointToCoords(Entity entityIn, double x, double y, double target)
+    public BlockPos getPathPointToCoords(Entity entityIn, double x, double y, double target)
     {
-        return this.openPoint(MathHelper.floor_double(x - (double)(entityIn.width / 2.0F)), MathHelper.floor_double(y + 0.5D), MathHelper.floor_double(target - (double)(entityIn.width / 2.0F)));
+        return new BlockPos(MathHelper.floor_double(x - (double)(entityIn.width / 2.0F)), MathHelper.floor_double(y + 0.5D), MathHelper.floor_double(target - (double)(entityIn.width / 2.0F)));
     }
 
-    public int findPathOptions(PathPoint[] pathOptions, Entity entityIn, PathPoint currentPoint, PathPoint targetPoint, float maxDistance)
+    public int findPathOptions(int[] pathOptions, Entity entityIn, int currentPoint, int targetPoint, float maxDistance)
     {
         int i = 0;
 
         for (EnumFacing enumfacing : EnumFacing.values())
         {
-            PathPoint pathpoint = this.getSafePoint(entityIn, currentPoint.xCoord + enumfacing.getFrontOffsetX(), currentPoint.yCoord + enumfacing.getFrontOffsetY(), currentPoint.zCoord + enumfacing.getFrontOffsetZ());
+            int j = this.getSafePoint(entityIn, this.nodes.getX(currentPoint) + enumfacing.getFrontOffsetX(), this.nodes.getY(currentPoint) + enumfacing.getFrontOffsetY(), this.nodes.getZ(currentPoint) + enumfacing.getFrontOffsetZ());
 
-            if (pathpoint != null && !pathpoint.visited && pathpoint.distanceTo(targetPoint) < maxDistance)
+            if (j >= 0 && !this.nodes.isVisited(j) && this.nodes.distanceTo(j, targetPoint) < maxDistance)
             {
-                pathOptions[i++] = pathpoint;
+                pathOptions[i++] = j;
             }
         }
 
@@ -60,12 +59,12 @@ public class SwimNodeProcessor extends NodeProcessor
     }
 
     /**
-     * Returns a point that the entity can safely move to
+     * Returns a node that the entity can safely move to, or -1
      */
-    private PathPoint getSafePoint(Entity entityIn, int x, int y, int z)
+    private int getSafePoint(Entity entityIn, int x, int y, int z)
     {
         int i = this.func_176186_b(entityIn, x, y, z);
-        return i == -1 ? this.openPoint(x, y, z) : null;
+        return i == -1 ? this.openPoint(x, y, z) : -1;
     }
 
     private int func_176186_b(Entity entityIn, int x, int y, int z)
@@ -9,10 +9,12 @@ import net.minecraft.block.BlockWall;
 import net.minecraft.block.material.Material;
 import net.minecraft.entity.Entity;
 import net.minecraft.init.Blocks;
-import net.minecraft.pathfinding.PathPoint;
 import net.minecraft.util.BlockPos;
 import net.minecraft.util.MathHelper;
+import net.minecraft.world.ChunkCache;
+import net.minecraft.world.ChunkCacheSnapshot;
 import net.minecraft.world.IBlockAccess;
+import pisi.unitedmeows.minecraft.Settings;
 
 public class WalkNodeProcessor extends NodeProcessor
 {
@@ -22,10 +24,36 @@ public class WalkNodeProcessor extends NodeProcessor
     private boolean canSwim;
     private boolean shouldAvoidWater;
 
+    /** Kinds of the blocks of the world, if the search reads a chunk cache or snapshot of it */
+    private PassabilityCache passabilityCache;
+    private final BlockPos.MutableBlockPos mutablePos = new BlockPos.MutableBlockPos();
+
+    /** The block the entity stands in, for the rail test */
+    private BlockPos entityPos;
+    private boolean entityInLava;
+    private int maxFallHeight;
+
     public void initProcessor(IBlockAccess iblockaccessIn, Entity entityIn)
     {
         super.initProcessor(iblockaccessIn, entityIn);
         this.shouldAvoidWater = this.avoidsWater;
+        this.passabilityCache = Settings.SHARED_PATH_PASSABILITY && (iblockaccessIn instanceof ChunkCache || iblockaccessIn instanceof ChunkCacheSnapshot) ? PassabilityCache.get() : null;
+        this.entityPos = new BlockPos(entityIn);
+        this.entityInLava = entityIn.isInLava();
+        this.maxFallHeight = entityIn.getMaxFallHeight();
+    }
+
+    /**
+     * Returns a processor with the same door and water settings, for a search running next to this one.
+     */
+    public WalkNodeProcessor copy()
+    {
+        WalkNodeProcessor walknodeprocessor = new WalkNodeProcessor();
+        walknodeprocessor.canEnterDoors = this.canEnterDoors;
+        walknodeprocessor.canBreakDoors = this.canBreakDoors;
+        walknodeprocessor.avoidsWater = this.avoidsWater;
+        walknodeprocessor.canSwim = this.canSwim;
+        return walknodeprocessor;
     }
 
     /**
@@ -37,12 +65,13 @@ public class WalkNodeProcessor extends NodeProcessor
     {
         super.postProcess();
         this.avoidsWater = this.shouldAvoidWater;
+        this.passabilityCache = null;
     }
 
     /**
-     * Returns given entity's position as PathPoint
+     * Returns the position of the node the entity starts from
      */
-    public PathPoint getPathPointTo(Entity entityIn)
+    public BlockPos getPathPointTo(Entity entityIn)
     {
         int i;
 
@@ -64,61 +93,63 @@ public class WalkNodeProcessor extends NodeProcessor
             i = MathHelper.floor_double(entityIn.getEntityBoundingBox().minY + 0.5D);
         }
 
-        return this.openPoint(MathHelper.floor_double(entityIn.getEntityBoundingBox().minX), i, MathHelper.floor_double(entityIn.getEntityBoundingBox().minZ));
+        return new BlockPos(MathHelper.floor_double(entityIn.getEntityBoundingBox().minX), i, MathHelper.floor_double(entityIn.getEntityBoundingBox().minZ));
     }
 
     /**
-     * Returns PathPoint for given coordinates
+     * Returns the position of the node for given coordinates
      */
-    public PathPoint getPathPointToCoords(Entity entityIn, double x, double y, double target)
+    public BlockPos getPathPointToCoords(Entity entityIn, double x, double y, double target)
     {
-        return this.openPoint(MathHelper.floor_double(x - (double)(entityIn.width / 2.0F)), MathHelper.floor_double(y), MathHelper.floor_double(target - (double)(entityIn.width / 2.0F)));
+        return new BlockPos(MathHelper.floor_double(x - (double)(entityIn.width / 2.0F)), MathHelper.floor_double(y), MathHelper.floor_double(target - (double)(entityIn.width / 2.0F)));
     }
 
-    public int findPathOptions(PathPoint[] pathOptions, Entity entityIn, PathPoint currentPoint, PathPoint targetPoint, float maxDistance)
+    public int findPathOptions(int[] pathOptions, Entity entityIn, int currentPoint, int targetPoint, float maxDistance)
     {
         int i = 0;
         int j = 0;
+        int k = this.nodes.getX(currentPoint);
+        int l = this.nodes.getY(currentPoint);
+        int i1 = this.nodes.getZ(currentPoint);
 
-        if (this.getVerticalOffset(entityIn, currentPoint.xCoord, currentPoint.yCoord + 1, currentPoint.zCoord) == 1)
+        if (this.getVerticalOffset(entityIn, k, l + 1, i1) == 1)
         {
             j = 1;
         }
 
-        PathPoint pathpoint = this.getSafePoint(entityIn, currentPoint.xCoord, currentPoint.yCoord, currentPoint.zCoord + 1, j);
-        PathPoint pathpoint1 = this.getSafePoint(entityIn, currentPoint.xCoord - 1, currentPoint.yCoord, currentPoint.zCoord, j);
-        PathPoint pathpoint2 = this.getSafePoint(entityIn, currentPoint.xCoord + 1, currentPoint.yCoord, currentPoint.zCoord, j);
-        PathPoint pathpoint3 = this.getSafePoint(entityIn, currentPoint.xCoord, currentPoint.yCoord, currentPoint.zCoord - 1, j);
+        int j1 = this.getSafePoint(entityIn, k, l, i1 + 1, j);
+        int k1 = this.getSafePoint(entityIn, k - 1, l, i1, j);
+        int l1 = this.getSafePoint(entityIn, k + 1, l, i1, j);
+        int i2 = this.getSafePoint(entityIn, k, l, i1 - 1, j);
 
-        if (pathpoint != null && !pathpoint.visited && pathpoint.distanceTo(targetPoint) < maxDistance)
+        if (j1 >= 0 && !this.nodes.isVisited(j1) && this.nodes.distanceTo(j1, targetPoint) < maxDistance)
         {
-            pathOptions[i++] = pathpoint;
+            pathOptions[i++] = j1;
         }
 
-        if (pathpoint1 != null && !pathpoint1.visited && pathpoint1.distanceTo(targetPoint) < maxDistance)
+        if (k1 >= 0 && !this.nodes.isVisited(k1) && this.nodes.distanceTo(k1, targetPoint) < maxDistance)
         {
-            pathOptions[i++] = pathpoint1;
+            pathOptions[i++] = k1;
         }
 
-        if (pathpoint2 != null && !pathpoint2.visited && pathpoint2.distanceTo(targetPoint) < maxDistance)
+        if (l1 >= 0 && !this.nodes.isVisited(l1) && this.nodes.distanceTo(l1, targetPoint) < maxDistance)
         {
-            pathOptions[i++] = pathpoint2;
+            pathOptions[i++] = l1;
         }
 
-        if (pathpoint3 != null && !pathpoint3.visited && pathpoint3.distanceTo(targetPoint) < maxDistance)
+        if (i2 >= 0 && !this.nodes.isVisited(i2) && this.nodes.distanceTo(i2, targetPoint) < maxDistance)
         {
-            pathOptions[i++] = pathpoint3;
+            pathOptions[i++] = i2;
         }
 
         return i;
     }
 
     /**
-     * Returns a point that the entity can safely move to
+     * Returns a node that the entity can safely move to, or -1
      */
-    private PathPoint getSafePoint(Entity entityIn, int x, int y, int z, int p_176171_5_)
+    private int getSafePoint(Entity entityIn, int x, int y, int z, int p_176171_5_)
     {
-        PathPoint pathpoint = null;
         int i = this.getVerticalOffset(entityIn, x, y, z);
 
         if (i == 2)
@@ -127,56 +158,45 @@ public class WalkNodeProcessor extends NodeProcessor
         }
         else
         {
-            if (i == 1)
+            if (i != 1)
             {
-                pathpoint = this.openPoint(x, y, z);
-            }
+                if (p_176171_5_ <= 0 || i == -3 || i == -4 || this.getVerticalOffset(entityIn, x, y + p_176171_5_, z) != 1)
+                {
+                    return -1;
+                }
 
-            if (pathpoint == null && p_176171_5_ > 0 && i != -3 && i != -4 && this.getVerticalOffset(entityIn, x, y + p_176171_5_, z) == 1)
-            {
-                pathpoint = this.openPoint(x, y + p_176171_5_, z);
                 y += p_176171_5_;
             }
 
-            if (pathpoint != null)
+            int j = 0;
+            int k;
+
+            for (k = 0; y > 0; --y)
             {
-                int j = 0;
-                int k;
+                k = this.getVerticalOffset(entityIn, x, y - 1, z);
 
-                for (k = 0; y > 0; pathpoint = this.openPoint(x, y, z))
+                if (this.avoidsWater && k == -1)
                 {
-                    k = this.getVerticalOffset(entityIn, x, y - 1, z);
-
-                    if (this.avoidsWater && k == -1)
-                    {
-                        return null;
-                    }
-
-                    if (k != 1)
-                    {
-                        break;
-                    }
-
-                    if (j++ >= entityIn.getMaxFallHeight())
-                    {
-                        return null;
-                    }
+                    return -1;
+                }
 
-                    --y;
+                if (k != 1)
+                {
+                    break;
+                }
 
-                    if (y <= 0)
-                    {
-                        return null;
-                    }
+                if (j++ >= this.maxFallHeight)
+                {
+                    return -1;
                 }
 
-                if (k == -2)
+                if (y - 1 <= 0)
                 {
-                    return null;
+                    return -1;
                 }
             }
 
-            return pathpoint;
+            return k == -2 ? -1 : this.openPoint(x, y, z);
         }
     }
 
@@ -188,7 +208,91 @@ public class WalkNodeProcessor extends NodeProcessor
      */
     private int getVerticalOffset(Entity entityIn, int x, int y, int z)
     {
-        return func_176170_a(this.blockaccess, entityIn, x, y, z, this.entitySizeX, this.entitySizeY, this.entitySizeZ, this.avoidsWater, this.canBreakDoors, this.canEnterDoors);
+        boolean flag = false;
+
+        for (int i = x; i < x + this.entitySizeX; ++i)
+        {
+            for (int j = y; j < y + this.entitySizeY; ++j)
+            {
+                for (int k = z; k < z + this.entitySizeZ; ++k)
+                {
+                    byte b0;
+
+                    if (this.passabilityCache == null)
+                    {
+                        b0 = PassabilityCache.classify(this.blockaccess, this.mutablePos.set(i, j, k));
+                    }
+                    else if (this.blockaccess instanceof ChunkCache)
+                    {
+                        b0 = this.passabilityCache.getKind((ChunkCache)this.blockaccess, i, j, k);
+                    }
+                    else
+                    {
+                        b0 = this.passabilityCache.getKind((ChunkCacheSnapshot)this.blockaccess, i, j, k);
+                    }
+
+                    switch (b0)
+                    {
+                        case PassabilityCache.WATER:
+                            if (this.avoidsWater)
+                            {
+                                return -1;
+                            }
+
+                            flag = true;
+                            break;
+
+                        case PassabilityCache.OPEN_TRAPDOOR:
+                            flag = true;
+                            break;
+
+                        case PassabilityCache.CLOSED_TRAPDOOR:
+                            return -4;
+
+                        case PassabilityCache.OPEN_WOODEN_DOOR:
+                            if (!this.canEnterDoors)
+                            {
+                                return 0;
+                            }
+
+                            break;
+
+                        case PassabilityCache.CLOSED_WOODEN_DOOR:
+                            if (!this.canEnterDoors || !this.canBreakDoors)
+                            {
+                                return 0;
+                            }
+
+                            break;
+
+                        case PassabilityCache.RAIL:
+                            if (!(this.blockaccess.getBlockState(this.entityPos).getBlock() instanceof BlockRailBase) && !(this.blockaccess.getBlockState(this.entityPos.down()).getBlock() instanceof BlockRailBase))
+                            {
+                                return -3;
+                            }
+
+                            break;
+
+                        case PassabilityCache.FENCE:
+                            return -3;
+
+                        case PassabilityCache.LAVA:
+                            if (!this.entityInLava)
+                            {
+                                return -2;
+                            }
+
+                            break;
+
+                        case PassabilityCache.SOLID:
+                        case PassabilityCache.CLOSED_IRON_DOOR:
+                            return 0;
+                    }
+                }
+            }
+        }
+
+        return flag ? 2 : 1;
     }
 
     public static int func_176170_a(IBlockAccess blockaccessIn, Entity entityIn, int x, int y, int z, int sizeX, int sizeY, int sizeZ, boolean avoidWater, boolean breakDoors, boolean enterDoors)
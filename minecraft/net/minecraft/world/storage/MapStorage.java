@@ -32,7 +32,7 @@ public class MapStorage
      * Loads an existing MapDataBase corresponding to the given String id from disk, instantiating the given Class, or
      * returns null if none such file exists. args: Class to instantiate, String dataid
      */
-    public WorldSavedData loadData(Class <? extends WorldSavedData > clazz, String dataIdentifier)
+    public synchronized WorldSavedData loadData(Class <? extends WorldSavedData > clazz, String dataIdentifier)
     {
         WorldSavedData worldsaveddata = (WorldSavedData)this.loadedDataMap.get(dataIdentifier);
 
@@ -84,7 +84,7 @@ public class MapStorage
     /**
      * Assigns the given String id to the given MapDataBase, removing any existing ones of the same id.
      */
-    public void setData(String dataIdentifier, WorldSavedData data)
+    public synchronized void setData(String dataIdentifier, WorldSavedData data)
     {
         if (this.loadedDataMap.containsKey(dataIdentifier))
         {
@@ -98,7 +98,7 @@ public class MapStorage
     /**
      * Saves all dirty loaded MapDataBases to disk.
      */
-    public void saveAllData()
+    public synchronized void saveAllData()
     {
         for (int i = 0; i < this.loadedDataList.size(); ++i)
         {
@@ -185,7 +185,7 @@ public class MapStorage
     /**
      * Returns an unique new data id for the given prefix and saves the idCounts map to the 'idcounts' file.
      */
-    public int getUniqueDataId(String key)
+    public synchronized int getUniqueDataId(String key)
     {
         Short oshort = (Short)this.idCounts.get(key);
 
@@ -80,7 +80,7 @@ public class SaveFormatOld implements ISaveFormat
             {
                 try
                 {
-                    NBTTagCompound nbttagcompound2 = CompressedStreamTools.readCompressed(new FileInputStream(file2));
+                    NBTTagCompound nbttagcompound2 = CompressedStreamTools.readCompressedLazy(new FileInputStream(file2));
                     NBTTagCompound nbttagcompound3 = nbttagcompound2.getCompoundTag("Data");
                     return new WorldInfo(nbttagcompound3);
                 }
@@ -96,7 +96,7 @@ public class SaveFormatOld implements ISaveFormat
             {
                 try
                 {
-                    NBTTagCompound nbttagcompound = CompressedStreamTools.readCompressed(new FileInputStream(file2));
+                    NBTTagCompound nbttagcompound = CompressedStreamTools.readCompressedLazy(new FileInputStream(file2));
                     NBTTagCompound nbttagcompound1 = nbttagcompound.getCompoundTag("Data");
                     return new WorldInfo(nbttagcompound1);
                 }
@@ -126,7 +126,7 @@ public class SaveFormatOld implements ISaveFormat
             {
                 try
                 {
-                    NBTTagCompound nbttagcompound = CompressedStreamTools.readCompressed(new FileInputStream(file2));
+                    NBTTagCompound nbttagcompound = CompressedStreamTools.readCompressedLazy(new FileInputStream(file2));
                     NBTTagCompound nbttagcompound1 = nbttagcompound.getCompoundTag("Data");
                     nbttagcompound1.setString("LevelName", newName);
                     CompressedStreamTools.writeCompressed(nbttagcompound, new FileOutputStream(file2));
@@ -133,7 +133,7 @@ public class SaveHandler implements ISaveHandler, IPlayerFileData
         {
             try
             {
-                NBTTagCompound nbttagcompound2 = CompressedStreamTools.readCompressed(new FileInputStream(file1));
+                NBTTagCompound nbttagcompound2 = CompressedStreamTools.readCompressedLazy(new FileInputStream(file1));
                 NBTTagCompound nbttagcompound3 = nbttagcompound2.getCompoundTag("Data");
                 return new WorldInfo(nbttagcompound3);
             }
@@ -149,7 +149,7 @@ public class SaveHandler implements ISaveHandler, IPlayerFileData
         {
             try
             {
-                NBTTagCompound nbttagcompound = CompressedStreamTools.readCompressed(new FileInputStream(file1));
+                NBTTagCompound nbttagcompound = CompressedStreamTools.readCompressedLazy(new FileInputStream(file1));
                 NBTTagCompound nbttagcompound1 = nbttagcompound.getCompoundTag("Data");
                 return new WorldInfo(nbttagcompound1);
             }
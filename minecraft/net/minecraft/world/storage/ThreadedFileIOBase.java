@@ -1,23 +1,39 @@
 package net.minecraft.world.storage;
 
-import com.google.common.collect.Lists;
-import java.util.Collections;
-import java.util.List;
+import com.google.common.collect.Sets;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pisi.unitedmeows.minecraft.Settings;
 
-public class ThreadedFileIOBase implements Runnable
+public class ThreadedFileIOBase
 {
+    private static final Logger logger = LogManager.getLogger();
+
     /** Instance of ThreadedFileIOBase */
     private static final ThreadedFileIOBase threadedIOInstance = new ThreadedFileIOBase();
-    private List<IThreadedFileIO> threadedIOQueue = Collections.<IThreadedFileIO>synchronizedList(Lists.<IThreadedFileIO>newArrayList());
-    private volatile long writeQueuedCounter;
-    private volatile long savedIOCounter;
-    private volatile boolean isThreadWaiting;
+
+    /** One queue per worker, tasks with the same affinity always land on the same worker and run in order */
+    private final ThreadedFileIOBase.Worker[] workers;
+    private final Set<IThreadedFileIO> queuedIO = Sets.<IThreadedFileIO>newConcurrentHashSet();
+    private final AtomicInteger pendingIOCounter = new AtomicInteger();
+    private final Object finishLock = new Object();
 
     private ThreadedFileIOBase()
     {
-        Thread thread = new Thread(this, "File IO Thread");
-        thread.setPriority(1);
-        thread.start();
+        int i = Math.max(1, Settings.FILE_IO_THREADS);
+        this.workers = new ThreadedFileIOBase.Worker[i];
+
+        for (int j = 0; j < i; ++j)
+        {
+            this.workers[j] = new ThreadedFileIOBase.Worker();
+            Thread thread = new Thread(this.workers[j], i == 1 ? "File IO Thread" : "File IO Thread #" + (j + 1));
+            thread.setPriority(1);
+            thread.start();
+        }
     }
 
     /**
@@ -28,74 +44,91 @@ public class ThreadedFileIOBase implements Runnable
         return threadedIOInstance;
     }
 
-    public void run()
+    /**
+     * threaded io
+     */
+    public void queueIO(IThreadedFileIO p_75735_1_)
     {
-        while (true)
+        if (this.queuedIO.add(p_75735_1_))
         {
-            this.processQueue();
+            this.submit(p_75735_1_, p_75735_1_.hashCode());
         }
     }
 
     /**
-     * Process the items that are in the queue
+     * Queues a task on the worker owning the given affinity key. Tasks sharing a key (e.g. writes to one region file)
+     * are executed one after another in submission order.
      */
-    private void processQueue()
+    public void queueIO(IThreadedFileIO p_75735_1_, int affinity)
     {
-        for (int i = 0; i < this.threadedIOQueue.size(); ++i)
-        {
-            IThreadedFileIO ithreadedfileio = (IThreadedFileIO)this.threadedIOQueue.get(i);
-            boolean flag = ithreadedfileio.writeNextIO();
+        this.submit(p_75735_1_, affinity);
+    }
 
-            if (!flag)
-            {
-                this.threadedIOQueue.remove(i--);
-                ++this.savedIOCounter;
-            }
+    private void submit(IThreadedFileIO fileIO, int affinity)
+    {
+        this.pendingIOCounter.incrementAndGet();
+        int i = affinity * -1640531527;
+        this.workers[((i >>> 16 ^ i) & Integer.MAX_VALUE) % this.workers.length].queue.add(fileIO);
+    }
 
-            try
-            {
-                Thread.sleep(this.isThreadWaiting ? 0L : 10L);
-            }
-            catch (InterruptedException interruptedexception1)
+    /**
+     * Process a single queued task until it reports it has nothing left to write
+     */
+    private void processIO(IThreadedFileIO fileIO)
+    {
+        try
+        {
+            while (fileIO.writeNextIO())
             {
-                interruptedexception1.printStackTrace();
+                ;
             }
         }
-
-        if (this.threadedIOQueue.isEmpty())
+        catch (Throwable throwable)
         {
-            try
-            {
-                Thread.sleep(25L);
-            }
-            catch (InterruptedException interruptedexception)
+            logger.error((String)"Failed to process queued file IO", throwable);
+        }
+        finally
+        {
+            this.queuedIO.remove(fileIO);
+
+            if (this.pendingIOCounter.decrementAndGet() == 0)
             {
-                interruptedexception.printStackTrace();
+                synchronized (this.finishLock)
+                {
+                    this.finishLock.notifyAll();
+                }
             }
         }
     }
 
-    /**
-     * threaded io
-     */
-    public void queueIO(IThreadedFileIO p_75735_1_)
+    public void waitForFinish() throws InterruptedException
     {
-        if (!this.threadedIOQueue.contains(p_75735_1_))
+        synchronized (this.finishLock)
         {
-            ++this.writeQueuedCounter;
-            this.threadedIOQueue.add(p_75735_1_);
+            while (this.pendingIOCounter.get() != 0)
+            {
+                this.finishLock.wait();
+            }
         }
     }
 
-    public void waitForFinish() throws InterruptedException
+    class Worker implements Runnable
     {
-        this.isThreadWaiting = true;
+        private final BlockingQueue<IThreadedFileIO> queue = new LinkedBlockingQueue();
 
-        while (this.writeQueuedCounter != this.savedIOCounter)
+        public void run()
         {
-            Thread.sleep(10L);
+            while (true)
+            {
+                try
+                {
+                    ThreadedFileIOBase.this.processIO(this.queue.take());
+                }
+                catch (InterruptedException interruptedexception)
+                {
+                    interruptedexception.printStackTrace();
+                }
+            }
         }
-
-        this.isThreadWaiting = false;
     }
 }
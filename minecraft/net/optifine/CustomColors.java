@@ -748,19 +748,26 @@ public class CustomColors {
 
 	public static void updateReddustFX(final EntityFX fx, final IBlockAccess blockAccess, final double x, final double y, final double z) {
 		if (redstoneColors != null) {
-			final IBlockState iblockstate = blockAccess.getBlockState(new BlockPos(x, y, z));
-			final int i = getRedstoneLevel(iblockstate, 15);
-			final int j = redstoneColors.getColor(i);
-			final int k = j >> 16 & 255;
-			final int l = j >> 8 & 255;
-			final int i1 = j & 255;
-			final float f = k / 255.0F;
-			final float f1 = l / 255.0F;
-			final float f2 = i1 / 255.0F;
-			fx.setRBGColorF(f, f1, f2);
+			final float[] afloat = getReddustColor(blockAccess, x, y, z);
+			fx.setRBGColorF(afloat[0], afloat[1], afloat[2]);
 		}
 	}
 
+	/**
+	 * Custom colour of a redstone particle at the given position as RGB floats, null if redstone colours are not
+	 * customized.
+	 */
+	public static float[] getReddustColor(final IBlockAccess blockAccess, final double x, final double y, final double z) {
+		if (redstoneColors == null) return null;
+		final IBlockState iblockstate = blockAccess.getBlockState(new BlockPos(x, y, z));
+		final int i = getRedstoneLevel(iblockstate, 15);
+		final int j = redstoneColors.getColor(i);
+		final int k = j >> 16 & 255;
+		final int l = j >> 8 & 255;
+		final int i1 = j & 255;
+		return new float[] { k / 255.0F, l / 255.0F, i1 / 255.0F };
+	}
+
 	private static int getRedstoneLevel(final IBlockState state, final int def) {
 		final Block block = state.getBlock();
 		if (!(block instanceof BlockRedstoneWire)) {
@@ -807,27 +814,36 @@ public class CustomColors {
 
 	public static void updateWaterFX(final EntityFX fx, final IBlockAccess blockAccess, final double x, final double y, final double z, final RenderEnv renderEnv) {
 		if (waterColors != null || blockColormaps != null || particleWaterColor >= 0) {
-			final BlockPos blockpos = new BlockPos(x, y, z);
-			renderEnv.reset(BLOCK_STATE_WATER, blockpos);
-			final int i = getFluidColor(blockAccess, BLOCK_STATE_WATER, blockpos, renderEnv);
-			final int j = i >> 16 & 255;
-			final int k = i >> 8 & 255;
-			final int l = i & 255;
-			float f = j / 255.0F;
-			float f1 = k / 255.0F;
-			float f2 = l / 255.0F;
-			if (particleWaterColor >= 0) {
-				final int i1 = particleWaterColor >> 16 & 255;
-				final int j1 = particleWaterColor >> 8 & 255;
-				final int k1 = particleWaterColor & 255;
-				f *= i1 / 255.0F;
-				f1 *= j1 / 255.0F;
-				f2 *= k1 / 255.0F;
-			}
-			fx.setRBGColorF(f, f1, f2);
+			final float[] afloat = getWaterFXColor(blockAccess, x, y, z, renderEnv);
+			fx.setRBGColorF(afloat[0], afloat[1], afloat[2]);
 		}
 	}
 
+	/**
+	 * Custom colour of a water particle at the given position as RGB floats, null if water colours are not customized.
+	 */
+	public static float[] getWaterFXColor(final IBlockAccess blockAccess, final double x, final double y, final double z, final RenderEnv renderEnv) {
+		if (waterColors == null && blockColormaps == null && particleWaterColor < 0) return null;
+		final BlockPos blockpos = new BlockPos(x, y, z);
+		renderEnv.reset(BLOCK_STATE_WATER, blockpos);
+		final int i = getFluidColor(blockAccess, BLOCK_STATE_WATER, blockpos, renderEnv);
+		final int j = i >> 16 & 255;
+		final int k = i >> 8 & 255;
+		final int l = i & 255;
+		float f = j / 255.0F;
+		float f1 = k / 255.0F;
+		float f2 = l / 255.0F;
+		if (particleWaterColor >= 0) {
+			final int i1 = particleWaterColor >> 16 & 255;
+			final int j1 = particleWaterColor >> 8 & 255;
+			final int k1 = particleWaterColor & 255;
+			f *= i1 / 255.0F;
+			f1 *= j1 / 255.0F;
+			f2 *= k1 / 255.0F;
+		}
+		return new float[] { f, f1, f2 };
+	}
+
 	private static int getLilypadColorMultiplier(final IBlockAccess blockAccess, final BlockPos blockPos) { return lilyPadColor < 0 ? Blocks.waterlily.colorMultiplier(blockAccess, blockPos) : lilyPadColor; }
 
 	private static Vec3 getFogColorNether(final Vec3 col) { return fogColorNether == null ? col : fogColorNether; }
@@ -1,12 +1,12 @@
 package net.optifine.render;
 
-import net.optifine.util.LinkedList;
-
 public class VboRange
 {
     private int position = -1;
     private int size = 0;
-    private LinkedList.Node<VboRange> node = new LinkedList.Node(this);
+
+    /** Vertices reserved for the range in its region, at least size */
+    private int capacity = 0;
 
     public int getPosition()
     {
@@ -18,36 +18,29 @@ public class VboRange
         return this.size;
     }
 
-    public int getPositionNext()
+    public int getCapacity()
     {
-        return this.position + this.size;
+        return this.capacity;
     }
 
-    public void setPosition(int position)
+    public void setCapacity(int capacity)
     {
-        this.position = position;
+        this.capacity = capacity;
     }
 
-    public void setSize(int size)
-    {
-        this.size = size;
-    }
-
-    public LinkedList.Node<VboRange> getNode()
+    public int getPositionNext()
     {
-        return this.node;
+        return this.position + this.size;
     }
 
-    public VboRange getPrev()
+    public void setPosition(int position)
     {
-        LinkedList.Node<VboRange> node = this.node.getPrev();
-        return node == null ? null : (VboRange)node.getItem();
+        this.position = position;
     }
 
-    public VboRange getNext()
+    public void setSize(int size)
     {
-        LinkedList.Node<VboRange> node = this.node.getNext();
-        return node == null ? null : (VboRange)node.getItem();
+        this.size = size;
     }
 
     public String toString()
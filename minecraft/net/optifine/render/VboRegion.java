@@ -2,23 +2,45 @@ package net.optifine.render;
 
 import java.nio.ByteBuffer;
 import java.nio.IntBuffer;
+import java.util.Map;
+import com.google.common.collect.Maps;
 import net.minecraft.client.renderer.GlStateManager;
 import net.minecraft.client.renderer.OpenGlHelper;
 import net.minecraft.client.renderer.VboRenderList;
 import net.minecraft.client.renderer.vertex.DefaultVertexFormats;
+import net.minecraft.client.renderer.vertex.VertexStagingRing;
 import net.minecraft.src.Config;
 import net.minecraft.util.EnumWorldBlockLayer;
-import net.optifine.util.LinkedList;
 
 public class VboRegion
 {
+    /** Allocations are rounded up to this many vertices so small size changes of a rebuilt chunk stay in place */
+    private static final int GRANULE = 32;
+    private static final int SIZE_CLASSES = 32;
+
+    /** A fraction of the used space above which holes are moved out of, one range per draw */
+    private static final int COMPACT_HOLE_PERCENT = 25;
+    private static int regionCount;
+    private static long capacityTotal;
+    private static long usedTotal;
+    private static long holeSizeTotal;
+    private static int holeCountTotal;
+    private static long compactionMoves;
     private EnumWorldBlockLayer layer = null;
     private int glBufferId = OpenGlHelper.glGenBuffers();
     private int capacity = 4096;
     private int positionTop = 0;
     private int sizeUsed;
-    private LinkedList<VboRange> rangeList = new LinkedList();
-    private VboRange compactRangeLast = null;
+
+    /** Free holes below positionTop, bucketed by floor(log2(size)), with a bit per non empty bucket */
+    private final VboRegion.Hole[] holesBySize = new VboRegion.Hole[SIZE_CLASSES];
+    private int holeSizeMask;
+    private final Map<Integer, VboRegion.Hole> holesByStart = Maps.<Integer, VboRegion.Hole>newHashMap();
+    private final Map<Integer, VboRegion.Hole> holesByEnd = Maps.<Integer, VboRegion.Hole>newHashMap();
+    private int holeSize;
+
+    /** Allocated ranges by the end of their capacity, to find the range at positionTop when compacting */
+    private final Map<Integer, VboRange> rangesByEnd = Maps.<Integer, VboRange>newHashMap();
     private IntBuffer bufferIndexVertex;
     private IntBuffer bufferCountVertex;
     private int drawMode;
@@ -35,6 +57,8 @@ public class VboRegion
         long i = this.toBytes(this.capacity);
         OpenGlHelper.glBufferData(OpenGlHelper.GL_ARRAY_BUFFER, i, OpenGlHelper.GL_STATIC_DRAW);
         this.unbindBuffer();
+        ++regionCount;
+        capacityTotal += i;
     }
 
     public void bufferData(ByteBuffer data, VboRange range)
@@ -47,151 +71,286 @@ public class VboRegion
         {
             if (i >= 0)
             {
+                this.release(range);
                 range.setPosition(-1);
                 range.setSize(0);
-                this.rangeList.remove(range.getNode());
-                this.sizeUsed -= j;
+                range.setCapacity(0);
+                this.setSizeUsed(this.sizeUsed - j);
             }
         }
         else
         {
-            if (k > j)
-            {
-                range.setPosition(this.positionTop);
-                range.setSize(k);
-                this.positionTop += k;
+            int l = (k + GRANULE - 1) / GRANULE * GRANULE;
 
-                if (i >= 0)
+            if (i < 0)
+            {
+                this.place(range, l);
+            }
+            else if (l > range.getCapacity())
+            {
+                if (!this.growInPlace(range, l))
                 {
-                    this.rangeList.remove(range.getNode());
+                    this.release(range);
+                    this.place(range, l);
                 }
-
-                this.rangeList.addLast(range.getNode());
+            }
+            else if (l < range.getCapacity())
+            {
+                this.rangesByEnd.remove(Integer.valueOf(i + range.getCapacity()));
+                this.free(i + l, range.getCapacity() - l);
+                range.setCapacity(l);
+                this.rangesByEnd.put(Integer.valueOf(i + l), range);
             }
 
             range.setSize(k);
-            this.sizeUsed += k - j;
-            this.checkVboSize(range.getPositionNext());
-            long l = this.toBytes(range.getPosition());
-            this.bindBuffer();
-            OpenGlHelper.glBufferSubData(OpenGlHelper.GL_ARRAY_BUFFER, l, data);
-            this.unbindBuffer();
-
-            if (this.positionTop > this.sizeUsed * 11 / 10)
+            this.setSizeUsed(this.sizeUsed + k - (i < 0 ? 0 : j));
+            long i1 = this.toBytes(range.getPosition());
+            VertexStagingRing vertexstagingring = VertexStagingRing.getInstance();
+
+            if (vertexstagingring == null || !vertexstagingring.upload(data, this.glBufferId, i1))
             {
-                this.compactRanges(1);
+                this.bindBuffer();
+                OpenGlHelper.glBufferSubData(OpenGlHelper.GL_ARRAY_BUFFER, i1, data);
+                this.unbindBuffer();
             }
         }
     }
 
-    private void compactRanges(int countMax)
+    /**
+     * Reserves size vertices for a range that has no space yet, from a hole if one fits, else at the top.
+     */
+    private void place(VboRange range, int size)
     {
-        if (!this.rangeList.isEmpty())
+        int i = this.takeHole(size);
+
+        if (i < 0)
         {
-            VboRange vborange = this.compactRangeLast;
+            i = this.positionTop;
+            this.checkVboSize(i + size);
+            this.positionTop += size;
+        }
 
-            if (vborange == null || !this.rangeList.contains(vborange.getNode()))
-            {
-                vborange = (VboRange)this.rangeList.getFirst().getItem();
-            }
+        range.setPosition(i);
+        range.setCapacity(size);
+        this.rangesByEnd.put(Integer.valueOf(i + size), range);
+    }
+
+    /**
+     * Extends a range into the hole or top space right after it. Returns false if there is not enough of either.
+     */
+    private boolean growInPlace(VboRange range, int size)
+    {
+        int i = range.getPosition() + range.getCapacity();
+        int j = size - range.getCapacity();
 
-            int i = vborange.getPosition();
-            VboRange vborange1 = vborange.getPrev();
+        if (i == this.positionTop)
+        {
+            this.checkVboSize(this.positionTop + j);
+            this.positionTop += j;
+        }
+        else
+        {
+            VboRegion.Hole vboregion$hole = (VboRegion.Hole)this.holesByStart.get(Integer.valueOf(i));
 
-            if (vborange1 == null)
+            if (vboregion$hole == null || vboregion$hole.size < j)
             {
-                i = 0;
+                return false;
             }
-            else
+
+            this.removeHole(vboregion$hole);
+
+            if (vboregion$hole.size > j)
             {
-                i = vborange1.getPositionNext();
+                this.addHole(i + j, vboregion$hole.size - j);
             }
+        }
 
-            int j = 0;
+        this.rangesByEnd.remove(Integer.valueOf(i));
+        range.setCapacity(size);
+        this.rangesByEnd.put(Integer.valueOf(range.getPosition() + size), range);
+        return true;
+    }
 
-            while (vborange != null && j < countMax)
-            {
-                ++j;
+    private void release(VboRange range)
+    {
+        this.rangesByEnd.remove(Integer.valueOf(range.getPosition() + range.getCapacity()));
+        this.free(range.getPosition(), range.getCapacity());
+    }
 
-                if (vborange.getPosition() == i)
-                {
-                    i += vborange.getSize();
-                    vborange = vborange.getNext();
-                }
-                else
+    /**
+     * Takes size vertices out of a hole and returns their position, or -1 if no hole is large enough. Any hole of a
+     * larger size class fits; the size class of size itself is only searched for a few entries.
+     */
+    private int takeHole(int size)
+    {
+        int i = 32 - Integer.numberOfLeadingZeros(size - 1);
+        int j = i < SIZE_CLASSES ? this.holeSizeMask & -1 << i : 0;
+        VboRegion.Hole vboregion$hole = null;
+
+        if (j != 0)
+        {
+            vboregion$hole = this.holesBySize[Integer.numberOfTrailingZeros(j)];
+        }
+        else if (i > 0)
+        {
+            int k = 0;
+
+            for (VboRegion.Hole vboregion$hole1 = this.holesBySize[i - 1]; vboregion$hole1 != null && k < 8; ++k)
+            {
+                if (vboregion$hole1.size >= size)
                 {
-                    int k = vborange.getPosition() - i;
-
-                    if (vborange.getSize() <= k)
-                    {
-                        this.copyVboData(vborange.getPosition(), i, vborange.getSize());
-                        vborange.setPosition(i);
-                        i += vborange.getSize();
-                        vborange = vborange.getNext();
-                    }
-                    else
-                    {
-                        this.checkVboSize(this.positionTop + vborange.getSize());
-                        this.copyVboData(vborange.getPosition(), this.positionTop, vborange.getSize());
-                        vborange.setPosition(this.positionTop);
-                        this.positionTop += vborange.getSize();
-                        VboRange vborange2 = vborange.getNext();
-                        this.rangeList.remove(vborange.getNode());
-                        this.rangeList.addLast(vborange.getNode());
-                        vborange = vborange2;
-                    }
+                    vboregion$hole = vboregion$hole1;
+                    break;
                 }
+
+                vboregion$hole1 = vboregion$hole1.next;
             }
+        }
 
-            if (vborange == null)
+        if (vboregion$hole == null)
+        {
+            return -1;
+        }
+        else
+        {
+            this.removeHole(vboregion$hole);
+
+            if (vboregion$hole.size > size)
             {
-                this.positionTop = ((VboRange)this.rangeList.getLast().getItem()).getPositionNext();
+                this.addHole(vboregion$hole.position + size, vboregion$hole.size - size);
             }
 
-            this.compactRangeLast = vborange;
+            return vboregion$hole.position;
         }
     }
 
-    private void checkRanges()
+    /**
+     * Returns space to the region, merging it with neighbouring holes, or with the top space if it ends there.
+     */
+    private void free(int position, int size)
     {
-        int i = 0;
-        int j = 0;
-
-        for (VboRange vborange = (VboRange)this.rangeList.getFirst().getItem(); vborange != null; vborange = vborange.getNext())
+        if (size > 0)
         {
-            ++i;
-            j += vborange.getSize();
+            VboRegion.Hole vboregion$hole = (VboRegion.Hole)this.holesByEnd.get(Integer.valueOf(position));
 
-            if (vborange.getPosition() < 0 || vborange.getSize() <= 0 || vborange.getPositionNext() > this.positionTop)
+            if (vboregion$hole != null)
             {
-                throw new RuntimeException("Invalid range: " + vborange);
+                this.removeHole(vboregion$hole);
+                position = vboregion$hole.position;
+                size += vboregion$hole.size;
             }
 
-            VboRange vborange1 = vborange.getPrev();
+            VboRegion.Hole vboregion$hole1 = (VboRegion.Hole)this.holesByStart.get(Integer.valueOf(position + size));
 
-            if (vborange1 != null && vborange.getPosition() < vborange1.getPositionNext())
+            if (vboregion$hole1 != null)
             {
-                throw new RuntimeException("Invalid range: " + vborange);
+                this.removeHole(vboregion$hole1);
+                size += vboregion$hole1.size;
             }
 
-            VboRange vborange2 = vborange.getNext();
+            if (position + size == this.positionTop)
+            {
+                this.positionTop = position;
+            }
+            else
+            {
+                this.addHole(position, size);
+            }
+        }
+    }
+
+    private void addHole(int position, int size)
+    {
+        VboRegion.Hole vboregion$hole = new VboRegion.Hole(position, size);
+        int i = 31 - Integer.numberOfLeadingZeros(size);
+        vboregion$hole.next = this.holesBySize[i];
+
+        if (vboregion$hole.next != null)
+        {
+            vboregion$hole.next.prev = vboregion$hole;
+        }
 
-            if (vborange2 != null && vborange.getPositionNext() > vborange2.getPosition())
+        this.holesBySize[i] = vboregion$hole;
+        this.holeSizeMask |= 1 << i;
+        this.holesByStart.put(Integer.valueOf(position), vboregion$hole);
+        this.holesByEnd.put(Integer.valueOf(position + size), vboregion$hole);
+        this.holeSize += size;
+        holeSizeTotal += this.toBytes(size);
+        ++holeCountTotal;
+    }
+
+    private void removeHole(VboRegion.Hole hole)
+    {
+        int i = 31 - Integer.numberOfLeadingZeros(hole.size);
+
+        if (hole.prev != null)
+        {
+            hole.prev.next = hole.next;
+        }
+        else
+        {
+            this.holesBySize[i] = hole.next;
+
+            if (hole.next == null)
             {
-                throw new RuntimeException("Invalid range: " + vborange);
+                this.holeSizeMask &= ~(1 << i);
             }
         }
 
-        if (i != this.rangeList.getSize())
+        if (hole.next != null)
         {
-            throw new RuntimeException("Invalid count: " + i + " <> " + this.rangeList.getSize());
+            hole.next.prev = hole.prev;
         }
-        else if (j != this.sizeUsed)
+
+        hole.prev = hole.next = null;
+        this.holesByStart.remove(Integer.valueOf(hole.position));
+        this.holesByEnd.remove(Integer.valueOf(hole.position + hole.size));
+        this.holeSize -= hole.size;
+        holeSizeTotal -= this.toBytes(hole.size);
+        --holeCountTotal;
+    }
+
+    /**
+     * Moves the range at the top of the region down into a hole, if holes make up a large part of the region. Called
+     * once per draw, so compaction costs at most one buffer copy per region and frame.
+     */
+    private void compactStep()
+    {
+        if (this.holeSize * 100 > this.positionTop * COMPACT_HOLE_PERCENT)
         {
-            throw new RuntimeException("Invalid size: " + j + " <> " + this.sizeUsed);
+            VboRange vborange = (VboRange)this.rangesByEnd.get(Integer.valueOf(this.positionTop));
+
+            if (vborange != null)
+            {
+                int i = this.takeHole(vborange.getCapacity());
+
+                if (i >= 0)
+                {
+                    this.copyVboData(vborange.getPosition(), i, vborange.getSize());
+                    this.release(vborange);
+                    vborange.setPosition(i);
+                    this.rangesByEnd.put(Integer.valueOf(i + vborange.getCapacity()), vborange);
+                    ++compactionMoves;
+                }
+            }
         }
     }
 
+    private void setSizeUsed(int sizeUsedIn)
+    {
+        usedTotal += this.toBytes(sizeUsedIn - this.sizeUsed);
+        this.sizeUsed = sizeUsedIn;
+    }
+
+    /**
+     * Allocation statistics of all regions for the debug overlay.
+     */
+    public static String getDebugInfo()
+    {
+        long i = usedTotal + holeSizeTotal;
+        return String.format("VboRegions: %d, %d/%d MB, Holes: %d (%d%%), Moves: %d", new Object[] {Integer.valueOf(regionCount), Long.valueOf(usedTotal >> 20), Long.valueOf(capacityTotal >> 20), Integer.valueOf(holeCountTotal), Long.valueOf(i > 0L ? holeSizeTotal * 100L / i : 0L), Long.valueOf(compactionMoves)});
+    }
+
     private void checkVboSize(int sizeMin)
     {
         if (this.capacity < sizeMin)
@@ -236,6 +395,7 @@ public class VboRegion
         OpenGlHelper.glBindBuffer(OpenGlHelper.GL_COPY_READ_BUFFER, 0);
         OpenGlHelper.glBindBuffer(OpenGlHelper.GL_COPY_WRITE_BUFFER, 0);
         OpenGlHelper.glDeleteBuffers(this.glBufferId);
+        capacityTotal += k - j;
         this.bufferIndexVertex = Config.createDirectIntBuffer(i);
         this.bufferCountVertex = Config.createDirectIntBuffer(i);
         this.glBufferId = l;
@@ -272,11 +432,7 @@ public class VboRegion
         GlStateManager.glMultiDrawArrays(this.drawMode, this.bufferIndexVertex, this.bufferCountVertex);
         this.bufferIndexVertex.limit(this.bufferIndexVertex.capacity());
         this.bufferCountVertex.limit(this.bufferCountVertex.capacity());
-
-        if (this.positionTop > this.sizeUsed * 11 / 10)
-        {
-            this.compactRanges(1);
-        }
+        this.compactStep();
     }
 
     public void unbindBuffer()
@@ -290,6 +446,11 @@ public class VboRegion
         {
             OpenGlHelper.glDeleteBuffers(this.glBufferId);
             this.glBufferId = -1;
+            --regionCount;
+            capacityTotal -= this.toBytes(this.capacity);
+            usedTotal -= this.toBytes(this.sizeUsed);
+            holeSizeTotal -= this.toBytes(this.holeSize);
+            holeCountTotal -= this.holesByStart.size();
         }
     }
 
@@ -307,4 +468,18 @@ public class VboRegion
     {
         return this.positionTop;
     }
+
+    static class Hole
+    {
+        final int position;
+        final int size;
+        VboRegion.Hole prev;
+        VboRegion.Hole next;
+
+        Hole(int positionIn, int sizeIn)
+        {
+            this.position = positionIn;
+            this.size = sizeIn;
+        }
+    }
 }
@@ -1,7 +1,9 @@
 package net.optifine.util;
 
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
 import net.optifine.render.VboRange;
 
@@ -10,9 +12,10 @@ public class LinkedListTest {
 	  LinkedList<VboRange> linkedlist = new LinkedList();
 	  List<VboRange> list = new ArrayList();
 	  List<VboRange> list1 = new ArrayList();
+	  Map<VboRange, LinkedList.Node<VboRange>> map = new IdentityHashMap();
 	  Random random = new Random();
 	  int i = 100;
-	  for (int j = 0; j < i; ++j) { VboRange vborange = new VboRange(); vborange.setPosition(j); list.add(vborange); }
+	  for (int j = 0; j < i; ++j) { VboRange vborange = new VboRange(); vborange.setPosition(j); list.add(vborange); map.put(vborange, new LinkedList.Node(vborange)); }
 	  for (int k = 0; k < 100000; ++k) {
 		 checkLists(list, list1, i);
 		 checkLinkedList(linkedlist, list1.size());
@@ -22,7 +25,7 @@ public class LinkedListTest {
 		 if (random.nextBoolean()) {
 			if (!list.isEmpty()) {
 			   VboRange vborange3 = (VboRange) list.get(random.nextInt(list.size()));
-			   LinkedList.Node<VboRange> node2 = vborange3.getNode();
+			   LinkedList.Node<VboRange> node2 = map.get(vborange3);
 			   if (random.nextBoolean()) {
 				  linkedlist.addFirst(node2);
 				  dbg("Add first: " + vborange3.getPosition());
@@ -36,7 +39,7 @@ public class LinkedListTest {
 					 continue;
 				  }
 				  VboRange vborange1 = (VboRange) list1.get(random.nextInt(list1.size()));
-				  LinkedList.Node<VboRange> node1 = vborange1.getNode();
+				  LinkedList.Node<VboRange> node1 = map.get(vborange1);
 				  linkedlist.addAfter(node1, node2);
 				  dbg("Add after: " + vborange1.getPosition() + ", " + vborange3.getPosition());
 			   }
@@ -46,7 +49,7 @@ public class LinkedListTest {
 		 }
 		 else if (!list1.isEmpty()) {
 			VboRange vborange2 = (VboRange) list1.get(random.nextInt(list1.size()));
-			LinkedList.Node<VboRange> node = vborange2.getNode();
+			LinkedList.Node<VboRange> node = map.get(vborange2);
 			linkedlist.remove(node);
 			dbg("Remove: " + vborange2.getPosition());
 			list1.remove(vborange2);
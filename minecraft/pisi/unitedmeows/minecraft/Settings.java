@@ -11,4 +11,23 @@ public class Settings {
 	public static boolean ENUM_FACING_FIX = true; /* could be buggy */
 	public static boolean FASTER_BLOCKPOS = true;
 	public static boolean OLD_ANIMATIONS = true; /* its basically a shit swing animation + old blockhit swing */
+	public static boolean CONCURRENT_REGION_FILES = false; /* FileChannel region files, chunks of one region can load in parallel */
+	public static int FILE_IO_THREADS = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2)); /* chunk save workers, writes to one region stay on one worker */
+	public static boolean ASYNC_CHUNK_LOADING = true; /* chunks players walk into are read and decoded off the server thread */
+	public static int CHUNK_LOAD_THREADS = 2;
+	public static boolean PARALLEL_CHUNK_GENERATION = true; /* terrain + caves of new chunks loaded in the same tick are generated on all cores */
+	public static boolean BATCHED_PACKET_WRITES = true; /* server packets of a tick are written together and flushed once instead of one syscall each */
+	public static boolean PRIORITIZED_CHUNK_UPDATES = true; /* dirty render chunks are rebuilt closest + on screen first instead of in the order they got dirty */
+	public static boolean WORK_STEALING_CHUNK_BATCHER = true; /* chunk batcher threads keep their own task deque + builders, steal when idle and scale with the backlog */
+	public static boolean PARALLEL_TEXTURE_LOADING = true; /* sprite pngs of an atlas are decoded + mipmapped on all cores on resource reload */
+	public static boolean PARALLEL_MODEL_BAKING = true; /* block + item models are baked on all cores on resource reload */
+	public static boolean PBO_ANIMATION_UPLOADS = true; /* animated sprite frames of a tick are staged in one pixel buffer and uploaded from it */
+	public static boolean POOLED_PARTICLES = true; /* explosion, redstone + water drop particles live in pooled arrays instead of one EntityFX each */
+	public static boolean RING_BUFFERED_CHUNK_UPLOADS = true; /* chunk geometry goes through a persistently mapped staging ring + GPU side copies when GL 4.4 buffer storage is there */
+	public static boolean SOFTWARE_OCCLUSION_CULLING = true; /* chunks hidden behind solid walls of nearby chunks are skipped, tested against a small depth buffer drawn on the cpu */
+	public static boolean PARALLEL_WORLD_TICKING = false; /* nether + end tick on their own threads next to the overworld, portal travel waits until all are done. opt-in, scoreboard + command blocks are still shared */
+	public static boolean BATCHED_TNT_EXPLOSIONS = false; /* tnt going off in the same tick explodes at the end of the entity tick, overlapping blasts share rays, drops + one packet per player. opt-in, later tnt no longer sees the holes of earlier tnt of the same tick */
+	public static boolean SHARED_PATH_PASSABILITY = true; /* walking mobs share how blocks look to the pathfinder, each section read again once one of its blocks changed */
+	public static boolean ASYNC_PATHFINDING = false; /* walking mobs search paths on pathfinder threads through a copy of the blocks around them, following the old path until the new one is there. opt-in, paths lag the world by a few ticks */
+	public static int PATHFINDING_THREADS = 2; /* threads searching paths when ASYNC_PATHFINDING is on */
 }